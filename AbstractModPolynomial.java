@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * AbstractModPolynomial is the super class of both ModDensePolynomial and
+ * ModSparsePolynomial.  It holds the modulus and implements equality and printing in
+ * terms of the sparse representation.
+ * @author yuhu
+ *
+ */
+public abstract class AbstractModPolynomial implements ModPolynomial {
+
+	// The modulus of every coefficient
+	final Modulus modulus;
+
+	/**
+	 * @param modulus the modulus of the coefficients
+	 * @exception NullPointerException is thrown if modulus is null
+	 */
+	AbstractModPolynomial(Modulus modulus) {
+		if (modulus == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		this.modulus = modulus;
+	}
+
+	@Override
+	/**
+	 * return the modulus of the coefficients
+	 * @return the modulus
+	 */
+	public Modulus getModulus() {
+		return modulus;
+	}
+
+	@Override
+	/**
+	 * return a polynomial that is the negative of the current polynomial
+	 * this polynomial is not changed
+	 * @return -this
+	 */
+	public ModPolynomial minus() {
+		return multiply(-1);
+	}
+
+	/**
+	 * check that q can be combined with this polynomial
+	 * @param q polynomial
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception IllegalArgumentException is thrown if q has a different modulus
+	 */
+	void checkModulus(ModPolynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (!modulus.equals(q.getModulus())) {
+			throw new IllegalArgumentException("Cannot combine polynomials " + modulus + " and " + q.getModulus());
+		}
+	}
+
+	@Override
+	/**
+	 * Returns true if o is a polynomial with the same modulus and the same coefficients
+	 * for the same exponents, whatever its representation.
+	 */
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof ModPolynomial)) {
+			return false;
+		}
+		ModPolynomial q = (ModPolynomial) o;
+		if (!modulus.equals(q.getModulus())) {
+			return false;
+		}
+		ModSparsePolynomial sp = ModSparsePolynomial.valueOf(this);
+		ModSparsePolynomial sq = ModSparsePolynomial.valueOf(q);
+		return Arrays.equals(sp.exponents(), sq.exponents()) && Arrays.equals(sp.coefficients(), sq.coefficients());
+	}
+
+	@Override
+	/**
+	 * Returns a hash code computed from the modulus and the terms, the same for both
+	 * representations.
+	 */
+	public int hashCode() {
+		ModSparsePolynomial sp = ModSparsePolynomial.valueOf(this);
+		int[] exps = sp.exponents();
+		int[] coeffs = sp.coefficients();
+		int h = modulus.hashCode();
+		for (int i = 0; i < exps.length; i++) {
+			h = 31 * (31 * h + exps[i]) + coeffs[i];
+		}
+		return h;
+	}
+
+	@Override
+	/**
+	 * Generates the polynomial in canonical form, in the format of SparsePolynomial.
+	 * Terms are sorted by exponent from high to low and coefficients are printed as
+	 * residues in [0, m).
+	 */
+	public String toString() {
+		ModSparsePolynomial sp = ModSparsePolynomial.valueOf(this);
+		int[] exps = sp.exponents();
+		int[] coeffs = sp.coefficients();
+		if (exps.length == 0) {
+			return "0";
+		}
+		StringBuilder builder = new StringBuilder();
+		for (int i = exps.length - 1; i >= 0; i--) {
+			builder.append(new Term(coeffs[i], exps[i]));
+			if (i > 0) {
+				builder.append(" + ");
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -1,3 +1,8 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Spliterator;
 
 /**
  * AbstractPolynomial is the super class of both DensePolynomial and SparsePolynomial
@@ -6,6 +11,12 @@
  */
  public abstract class AbstractPolynomial implements Polynomial {
 
+	// writeTo hands the text over whenever this many characters have been formatted
+	static final int WRITE_CHUNK = 8192;
+
+	// The hash code, computed on first use; 0 until then
+	private int hash;
+
 	@Override
 	/**
 	 * return the minimum exponent of the polynomial
@@ -38,6 +49,74 @@
 	 */
 	public abstract boolean isZero();
 
+	@Override
+	/**
+	 * return an iterator over the non-zero terms from the lowest exponent to the highest
+	 * @return a TermIterator over the terms
+	 */
+	public TermIterator terms() {
+		return cursor();
+	}
+
+	@Override
+	/**
+	 * pass the coefficient and exponent of each non-zero term to action, from the lowest
+	 * exponent to the highest
+	 * @param action receives each term
+	 * @exception NullPointerException is thrown if action is null
+	 */
+	public void forEachTerm(IntBinaryConsumer action) {
+		if (action == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		cursor().forEachRemaining(action);
+	}
+
+	@Override
+	/**
+	 * return an iterator over the non-zero terms from the lowest exponent to the highest
+	 * the iterator does not support remove
+	 * @return an iterator over the terms
+	 */
+	public Iterator<Term> iterator() {
+		final TermCursor cursor = cursor();
+		return new Iterator<Term>() {
+			@Override
+			public boolean hasNext() {
+				return cursor.hasNext();
+			}
+
+			@Override
+			public Term next() {
+				cursor.advance();
+				return new Term(cursor.coefficient(), cursor.exponent());
+			}
+		};
+	}
+
+	@Override
+	/**
+	 * return a Spliterator over the non-zero terms that splits the storage in halves
+	 * @return a Spliterator over the terms
+	 */
+	public Spliterator<Term> spliterator() {
+		return cursor();
+	}
+
+	/**
+	 * return a cursor over the non-zero terms
+	 * subclasses should override this with a cursor over their own storage; this one
+	 * probes every exponent between the smallest and the largest
+	 * @return a new TermCursor
+	 */
+	TermCursor cursor() {
+		if (isZero()) {
+			return new TermCursor.Sparse(new int[0], new int[0], 0, 0);
+		}
+		int min = getMinExponent();
+		return new TermCursor.Probing(this, min, 0, (long) getMaxExponent() - min + 1);
+	}
+
 	@Override
 	/**
 	 * return a polynomial that add q to this
@@ -54,6 +133,19 @@
 	 */
 	public abstract Polynomial multiply(int factor) ;
 
+	@Override
+	/**
+	 * return a polynomial that is the product of this and q. This and q are not changed.
+	 * The work is delegated to PolynomialMultiplier, which picks an algorithm based on
+	 * the representations and sizes of the operands.
+	 * @param q polynomial
+	 * @return this * q
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	public Polynomial multiply(Polynomial q) {
+		return PolynomialMultiplier.multiply(this, q);
+	}
+
 	@Override
 	/**
 	 * return a polynomial that subtract q. This and q is not changed
@@ -75,6 +167,363 @@
 		return multiply(-1);
 	}
 
+	@Override
+	/**
+	 * return the quotient and remainder of this divided by q. This and q are not changed.
+	 * The work is delegated to PolynomialDivider
+	 * @param q polynomial
+	 * @return {this / q, this % q}
+	 * @exception ArithmeticException is thrown if q is zero
+	 */
+	public Polynomial[] divideAndRemainder(Polynomial q) {
+		return PolynomialDivider.divideAndRemainder(this, q);
+	}
+
+	@Override
+	/**
+	 * return this / q when q divides this exactly. This and q are not changed
+	 * @param q polynomial
+	 * @return this / q
+	 * @exception ArithmeticException is thrown if q is zero or does not divide this
+	 */
+	public Polynomial divide(Polynomial q) {
+		return PolynomialDivider.divide(this, q);
+	}
+
+	@Override
+	/**
+	 * return the greatest common divisor of this and q. This and q are not changed
+	 * @param q polynomial
+	 * @return gcd(this, q)
+	 */
+	public Polynomial gcd(Polynomial q) {
+		return PolynomialDivider.gcd(this, q);
+	}
+
+	@Override
+	/**
+	 * return this raised to the power n. This is not changed.
+	 * The work is delegated to PolynomialComposer
+	 * @param n the power
+	 * @return this^n
+	 */
+	public Polynomial pow(int n) {
+		return PolynomialComposer.pow(this, n);
+	}
+
+	@Override
+	/**
+	 * return this with q substituted for x. This and q are not changed.
+	 * The work is delegated to PolynomialComposer
+	 * @param q polynomial
+	 * @return this(q)
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	public Polynomial compose(Polynomial q) {
+		return PolynomialComposer.compose(this, q);
+	}
+
+	@Override
+	/**
+	 * return the value of the polynomial at x, wrapping around on overflow
+	 * the terms are evaluated through a sparse copy of the polynomial; subclasses should
+	 * override this with a direct implementation
+	 * @param x the point
+	 * @return this(x)
+	 */
+	public long evaluate(long x) {
+		return SparsePolynomial.valueOf(this).evaluate(x);
+	}
+
+	@Override
+	/**
+	 * return the value of the polynomial at x
+	 * @param x the point
+	 * @return this(x)
+	 */
+	public double evaluate(double x) {
+		return SparsePolynomial.valueOf(this).evaluate(x);
+	}
+
+	@Override
+	/**
+	 * return the value of the polynomial at x modulo modulus
+	 * @param x the point
+	 * @param modulus a positive modulus
+	 * @return this(x) mod modulus
+	 */
+	public long evaluateMod(long x, long modulus) {
+		return SparsePolynomial.valueOf(this).evaluateMod(x, modulus);
+	}
+
+	@Override
+	/**
+	 * evaluate the polynomial at every point of xs, storing the values in out
+	 * the points are split into blocks that are evaluated in parallel for large batches
+	 * @param xs the points
+	 * @param out receives the values
+	 */
+	public void evaluate(double[] xs, double[] out) {
+		PolynomialEvaluator.evaluateBatch(xs, out, this::evaluateBlock);
+	}
+
+	/**
+	 * evaluate the polynomial at xs[from] .. xs[to - 1], storing the values in out
+	 * subclasses can override this with a loop over the points that the JIT can vectorize
+	 * @param xs the points
+	 * @param out receives the values
+	 * @param from the first point
+	 * @param to one past the last point
+	 */
+	void evaluateBlock(double[] xs, double[] out, int from, int to) {
+		for (int i = from; i < to; i++) {
+			out[i] = evaluate(xs[i]);
+		}
+	}
+
+	@Override
+	/**
+	 * return the coefficient of an exponent as a BigInteger
+	 * @param exp the exponent
+	 * @return the coefficient at the exponent
+	 */
+	public BigInteger getBigCoeff(int exp) {
+		return BigInteger.valueOf(getCoeff(exp));
+	}
+
+	@Override
+	/**
+	 * return this + q without overflow. This and q are not changed
+	 * the result is an int polynomial when every coefficient fits in an int, and is
+	 * promoted to a long or BigInteger polynomial otherwise
+	 * @param q polynomial
+	 * @return this + q
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	public ExactPolynomial addExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, 1);
+	}
+
+	@Override
+	/**
+	 * return this - q without overflow. This and q are not changed
+	 * @param q polynomial
+	 * @return this - q
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	public ExactPolynomial subtractExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, -1);
+	}
+
+	@Override
+	/**
+	 * return this * factor without overflow. This is not changed
+	 * @param factor multiplication factor
+	 * @return this * factor
+	 */
+	public ExactPolynomial multiplyExact(long factor) {
+		return ExactArithmetic.scale(this, factor);
+	}
+
+	@Override
+	/**
+	 * return this * q without overflow. This and q are not changed
+	 * the fast multiplication of multiply(Polynomial) is used when the coefficients are
+	 * small enough that no coefficient of the product can overflow
+	 * @param q polynomial
+	 * @return this * q
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	public ExactPolynomial multiplyExact(ExactPolynomial q) {
+		return ExactArithmetic.multiply(this, q);
+	}
+
+	@Override
+	/**
+	 * return -this without overflow. This is not changed
+	 * @return -this
+	 */
+	public ExactPolynomial negateExact() {
+		return ExactArithmetic.scale(this, -1);
+	}
+
+	/**
+	 * return the number of terms with a non-zero coefficient
+	 * subclasses that know their terms should override this to avoid probing every exponent
+	 * @return the number of non-zero terms
+	 */
+	int termCount() {
+		if (isZero()) {
+			return 0;
+		}
+		int count = 0;
+		for (long exp = getMinExponent(); exp <= getMaxExponent(); exp++) {
+			if (getCoeff((int) exp) != 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	/**
+	 * return a hash code computed from the non-zero terms, so that equal dense and sparse
+	 * polynomials have the same hash code.  polynomials are immutable, so it is computed
+	 * once and cached
+	 * @return the hash code
+	 */
+	public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			h = computeHash();
+			hash = h;
+		}
+		return h;
+	}
+
+	/**
+	 * compute the hash code by folding hashTerm over the non-zero terms in ascending order
+	 * of exponent, starting from 1
+	 * subclasses should override this with a loop over their own terms
+	 * @return the hash code
+	 */
+	int computeHash() {
+		int h = 1;
+		if (!isZero()) {
+			for (long exp = getMinExponent(); exp <= getMaxExponent(); exp++) {
+				int coeff = getCoeff((int) exp);
+				if (coeff != 0) {
+					h = hashTerm(h, coeff, (int) exp);
+				}
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * @return the hash code h extended with the term coeff * x^exp
+	 */
+	static int hashTerm(int h, int coeff, int exp) {
+		return 31 * (31 * h + exp) + coeff;
+	}
+
+	/**
+	 * return true if the hash codes of this and q have both been computed and differ,
+	 * which proves that the polynomials are not equal
+	 * @param q polynomial
+	 */
+	boolean hashesDiffer(AbstractPolynomial q) {
+		return hash != 0 && q.hash != 0 && hash != q.hash;
+	}
+
+	/**
+	 * return true if p and q have the same coefficient for every exponent, by probing
+	 * every exponent between their smallest and largest.  used for polynomials whose
+	 * representation is not known
+	 * @param p polynomial
+	 * @param q polynomial
+	 * @return true if p equals q term by term
+	 */
+	static boolean sameCoefficients(Polynomial p, Polynomial q) {
+		if (p.isZero() || q.isZero()) {
+			return p.isZero() && q.isZero();
+		}
+		if (p.getMinExponent() != q.getMinExponent() || p.getMaxExponent() != q.getMaxExponent()) {
+			return false;
+		}
+		for (long exp = p.getMinExponent(); exp <= p.getMaxExponent(); exp++) {
+			if (p.getCoeff((int) exp) != q.getCoeff((int) exp)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	/**
+	 * Generates the polynomial in canonical form.  Terms are sorted by exponent from high
+	 * to low and formatted like Term.toString.  Terms with a 0 coefficient are not
+	 * displayed, except in the case that the polynomial is the constant 0.
+	 * the text is built in one pass, so this is linear in its length
+	 * @return the string representation of the polynomial
+	 */
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		try {
+			writeTerms(builder, null);
+		} catch (IOException e) {
+			// Only out can throw, and there is none
+			throw new AssertionError(e);
+		}
+		return builder.toString();
+	}
+
+	@Override
+	/**
+	 * write the polynomial in the format of toString to out, in blocks of WRITE_CHUNK characters
+	 * @param out where the text is appended
+	 * @exception IOException is thrown if out throws it
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		if (out == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		StringBuilder buffer = new StringBuilder(WRITE_CHUNK + 32);
+		writeTerms(buffer, out);
+		out.append(buffer);
+	}
+
+	@Override
+	/**
+	 * write the polynomial in the format of toString to out, in blocks of WRITE_CHUNK characters
+	 * @param out where the text is written
+	 * @exception IOException is thrown if out throws it
+	 */
+	public void writeTo(Writer out) throws IOException {
+		writeTo((Appendable) out);
+	}
+
+	/**
+	 * format the terms from high to low exponent into buffer.  if out is not null, the
+	 * buffer is appended to out and emptied whenever it holds WRITE_CHUNK characters;
+	 * the caller appends what is left at the end
+	 * subclasses should override this with a loop over their own terms
+	 * @param buffer receives the text
+	 * @param out where full buffers go, or null to keep all of the text in buffer
+	 * @exception IOException is thrown if out throws it
+	 */
+	void writeTerms(StringBuilder buffer, Appendable out) throws IOException {
+		if (isZero()) {
+			buffer.append('0');
+			return;
+		}
+		boolean first = true;
+		for (long exp = getMaxExponent(); exp >= getMinExponent(); exp--) {
+			int coeff = getCoeff((int) exp);
+			if (coeff != 0) {
+				first = appendTerm(buffer, out, coeff, (int) exp, first);
+			}
+		}
+	}
+
+	/**
+	 * append one term, preceded by " + " unless it is the first, and hand the buffer to
+	 * out if it is full
+	 * @return false, the value of first for the next term
+	 */
+	static boolean appendTerm(StringBuilder buffer, Appendable out, int coeff, int exp, boolean first)
+			throws IOException {
+		if (!first) {
+			buffer.append(" + ");
+		}
+		Term.append(buffer, coeff, exp);
+		if (out != null && buffer.length() >= WRITE_CHUNK) {
+			out.append(buffer);
+			buffer.setLength(0);
+		}
+		return false;
+	}
+
 	@Override
 	/**
 	 * Check if the polynomial is well-formed. 
@@ -0,0 +1,304 @@
+import java.io.IOException;
+
+/**
+ * An adaptive polynomial holds either a DensePolynomial or a SparsePolynomial and
+ * switches to the cheaper of the two after every operation that can change how many
+ * of its terms are non-zero.  Adaptive polynomials are created by a PolynomialFactory,
+ * whose thresholds decide which representation is cheaper, and results inherit the
+ * factory of this.
+ *
+ * @author yuhu
+ *
+ */
+final public class AdaptivePolynomial extends AbstractPolynomial implements Polynomial {
+
+	// The polynomial this one is equal to
+	// Class invariants:
+	//	  delegate is a DensePolynomial or a SparsePolynomial, never an AdaptivePolynomial
+	//	  delegate is in the representation factory chose for it
+	final private Polynomial delegate;
+
+	// Decides the representation of this and of every result computed from it
+	final private PolynomialFactory factory;
+
+	/**
+	 * Creates an adaptive polynomial.  Called by PolynomialFactory, which has already
+	 * chosen the representation of delegate.
+	 * @param delegate the polynomial to hold
+	 * @param factory the factory that chose the representation
+	 */
+	AdaptivePolynomial(Polynomial delegate, PolynomialFactory factory) {
+		this.delegate = delegate;
+		this.factory = factory;
+		assert wellFormed();
+	}
+
+	/**
+	 * @return the DensePolynomial or SparsePolynomial this polynomial currently uses
+	 */
+	public Polynomial getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @return true if this polynomial is currently stored densely
+	 */
+	public boolean isDense() {
+		return delegate instanceof DensePolynomial;
+	}
+
+	/**
+	 * @return the factory whose thresholds decide the representation of this polynomial
+	 */
+	public PolynomialFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Return the smallest exponent of the polynomial.
+	 */
+	@Override
+	public int getMinExponent() {
+		return delegate.getMinExponent();
+	}
+
+	/**
+	 * Return the largest exponent of the polynomial.
+	 */
+	@Override
+	public int getMaxExponent() {
+		return delegate.getMaxExponent();
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent.  Return 0 if there
+	 * is no term for the exponent.
+	 */
+	@Override
+	public int getCoeff(int exp) {
+		return delegate.getCoeff(exp);
+	}
+
+	/**
+	 * Return true if this polynomial is the constant 0.
+	 */
+	@Override
+	public boolean isZero() {
+		return delegate.isZero();
+	}
+
+	/**
+	 * Return the number of terms of this polynomial.
+	 */
+	@Override
+	int termCount() {
+		return ((AbstractPolynomial) delegate).termCount();
+	}
+
+	/**
+	 * Return the sum of this polynomial and q in the cheaper representation.  Neither
+	 * this nor q are changed.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial add(Polynomial q) {
+		return adapt(delegate.add(unwrap(q)));
+	}
+
+	/**
+	 * Return the difference of this polynomial and q in the cheaper representation.
+	 * Neither this nor q are changed.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial subtract(Polynomial q) {
+		return adapt(delegate.subtract(unwrap(q)));
+	}
+
+	/**
+	 * Return a polynomial that is the product of this and factor.  Does not modify this.
+	 */
+	@Override
+	public Polynomial multiply(int factor) {
+		return adapt(delegate.multiply(factor));
+	}
+
+	/**
+	 * Return the product of this polynomial and q in the cheaper representation.  Neither
+	 * this nor q are changed.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial multiply(Polynomial q) {
+		return adapt(delegate.multiply(unwrap(q)));
+	}
+
+	/**
+	 * Return a polynomial that is the negative of this.  Does not modify this.
+	 */
+	@Override
+	public Polynomial minus() {
+		return new AdaptivePolynomial(delegate.minus(), factory);
+	}
+
+	/**
+	 * Return the quotient and remainder of this polynomial divided by q, each in the
+	 * cheaper representation.  Neither this nor q are changed.
+	 * @exception ArithmeticException is thrown if q is zero
+	 */
+	@Override
+	public Polynomial[] divideAndRemainder(Polynomial q) {
+		Polynomial[] result = delegate.divideAndRemainder(unwrap(q));
+		return new Polynomial[] {adapt(result[0]), adapt(result[1])};
+	}
+
+	/**
+	 * Return this polynomial divided by q in the cheaper representation.
+	 * @exception ArithmeticException is thrown if q is zero or does not divide this
+	 */
+	@Override
+	public Polynomial divide(Polynomial q) {
+		return adapt(delegate.divide(unwrap(q)));
+	}
+
+	/**
+	 * Return the greatest common divisor of this polynomial and q in the cheaper representation.
+	 */
+	@Override
+	public Polynomial gcd(Polynomial q) {
+		return adapt(delegate.gcd(unwrap(q)));
+	}
+
+	/**
+	 * Return this polynomial raised to the power n in the cheaper representation.
+	 */
+	@Override
+	public Polynomial pow(int n) {
+		return adapt(delegate.pow(n));
+	}
+
+	/**
+	 * Return this polynomial with q substituted for x, in the cheaper representation.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial compose(Polynomial q) {
+		return adapt(delegate.compose(unwrap(q)));
+	}
+
+	/**
+	 * Return the value of this polynomial at x.
+	 */
+	@Override
+	public long evaluate(long x) {
+		return delegate.evaluate(x);
+	}
+
+	/**
+	 * Return the value of this polynomial at x.
+	 */
+	@Override
+	public double evaluate(double x) {
+		return delegate.evaluate(x);
+	}
+
+	/**
+	 * Return the value of this polynomial at x modulo modulus.
+	 */
+	@Override
+	public long evaluateMod(long x, long modulus) {
+		return delegate.evaluateMod(x, modulus);
+	}
+
+	/**
+	 * Evaluate this polynomial at every point of xs, storing the values in out.
+	 */
+	@Override
+	public void evaluate(double[] xs, double[] out) {
+		delegate.evaluate(xs, out);
+	}
+
+	/**
+	 * @return result wrapped in the representation the factory of this chooses
+	 */
+	private AdaptivePolynomial adapt(Polynomial result) {
+		return new AdaptivePolynomial(factory.choose(result), factory);
+	}
+
+	/**
+	 * @return the polynomial an adaptive q holds, or q itself
+	 */
+	private static Polynomial unwrap(Polynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (q instanceof AdaptivePolynomial) {
+			return ((AdaptivePolynomial) q).delegate;
+		}
+		return q;
+	}
+
+	/**
+	 * Returns true if o is an equivalent polynomial.  That is it contains the same coefficients
+	 * for the same exponents, whatever its representation.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == null) {
+			return false;
+		}
+		if (o == this) {
+			return true;
+		}
+		if (o instanceof AdaptivePolynomial) {
+			o = ((AdaptivePolynomial) o).delegate;
+		}
+		return delegate.equals(o);
+	}
+
+	/**
+	 * Returns the hash code of the delegate, which is the same for both representations.
+	 */
+	@Override
+	public int hashCode() {
+		return delegate.hashCode();
+	}
+
+	/**
+	 * Generates the polynomial in canonical form, the same as its delegate does.
+	 */
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	/**
+	 * Walks the terms of the delegate.
+	 */
+	@Override
+	TermCursor cursor() {
+		return ((AbstractPolynomial) delegate).cursor();
+	}
+
+	/**
+	 * Formats the terms of the delegate.
+	 */
+	@Override
+	void writeTerms(StringBuilder buffer, Appendable out) throws IOException {
+		((AbstractPolynomial) delegate).writeTerms(buffer, out);
+	}
+
+	/**
+	 * Return true if the polynomial satisfies the class invariants
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (delegate == null || factory == null) {
+			return false;
+		}
+		if (!(delegate instanceof DensePolynomial) && !(delegate instanceof SparsePolynomial)) {
+			return false;
+		}
+		return delegate.wellFormed();
+	}
+}
@@ -0,0 +1,107 @@
+import java.util.stream.IntStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the AdaptivePolynomial and PolynomialFactory classes.
+ */
+public class AdaptivePolynomialTest extends TestCase {
+	private PolynomialFactory factory = PolynomialFactory.DEFAULT;
+	private AdaptivePolynomial zero = factory.zero();
+	private AdaptivePolynomial one = factory.monomial(1, 0);
+	private AdaptivePolynomial twoX = factory.monomial(2, 1);
+	private AdaptivePolynomial xTo100000 = factory.monomial(1, 100000);
+	private AdaptivePolynomial xToNegative100 = factory.monomial(1, -100);
+
+	/**
+	 * Test that results switch to the cheaper representation.
+	 */
+	public void testRepresentation() {
+		assertFalse (xTo100000.isDense());
+		assertTrue (((AdaptivePolynomial) one.add(twoX)).isDense());
+		
+		// x^100000 + 1 is almost all holes, so it stays sparse
+		AdaptivePolynomial sum = (AdaptivePolynomial) xTo100000.add(one);
+		assertFalse (sum.isDense());
+		assertEquals (1, sum.getCoeff(100000));
+		assertEquals (1, sum.getCoeff(0));
+		
+		// A dense result whose degree grows far beyond its number of terms becomes sparse again
+		AdaptivePolynomial dense = (AdaptivePolynomial) one.add(twoX).add(factory.monomial(3, 2));
+		assertTrue (dense.isDense());
+		AdaptivePolynomial thinned = (AdaptivePolynomial) dense.add(new DensePolynomial(1, 100));
+		assertFalse (thinned.isDense());
+		assertEquals (3, thinned.getCoeff(2));
+		
+		// Negative exponents follow the fill ratio like any others
+		assertFalse (((AdaptivePolynomial) xToNegative100.add(one)).isDense());
+		assertTrue (((AdaptivePolynomial) xToNegative100.add(factory.monomial(2, -99))).isDense());
+	}
+
+	/**
+	 * Test that the thresholds of the factory are used and inherited by results.
+	 */
+	public void testThresholds() {
+		PolynomialFactory alwaysDense = new PolynomialFactory(0, 0);
+		AdaptivePolynomial p = alwaysDense.valueOf(new SparsePolynomial(1, 1000));
+		assertTrue (p.isDense());
+		AdaptivePolynomial q = (AdaptivePolynomial) p.multiply(factory.monomial(2, 3));
+		assertTrue (q.isDense());
+		assertSame (alwaysDense, q.getFactory());
+		assertEquals (2, q.getCoeff(1003));
+		
+		boolean thrown = false;
+		try {
+			new PolynomialFactory(0.1, 0.2);
+		} catch (IllegalArgumentException e) {
+			thrown = true;
+		}
+		assertTrue (thrown);
+	}
+
+	/**
+	 * Test the arithmetic operations against the plain representations.
+	 */
+	public void testArithmetic() {
+		Polynomial twoXPlusOne = twoX.add(one);
+		assertEquals (new SparsePolynomial(2, 1).add(new SparsePolynomial(1, 0)), twoXPlusOne);
+		assertEquals (twoX, twoXPlusOne.subtract(one));
+		assertEquals (factory.monomial(-2, 1), twoX.minus());
+		assertEquals (factory.monomial(6, 1), twoX.multiply(3));
+		assertTrue (twoX.multiply(0).isZero());
+		assertEquals (factory.monomial(4, 2), twoX.multiply(twoX));
+		assertTrue (twoXPlusOne.subtract(twoXPlusOne).isZero());
+		assertEquals (zero, one.subtract(one));
+		assertTrue (twoXPlusOne.wellFormed());
+		
+		boolean thrown = false;
+		try {
+			one.add(null);
+		} catch (NullPointerException e) {
+			thrown = true;
+		}
+		assertTrue (thrown);
+	}
+
+	/**
+	 * Test building polynomials from arrays and from streams of terms.
+	 */
+	public void testBulkConstruction() {
+		AdaptivePolynomial dense = factory.fromCoefficients(new int[] {1, 0, 3, 4});
+		assertTrue (dense.getDelegate() instanceof DensePolynomial);
+		assertEquals (new SparsePolynomial(4, 3).add(new SparsePolynomial(3, 2)).add(one), dense);
+		AdaptivePolynomial sparse = factory.fromTerms(new int[] {100000, 0, 100000}, new int[] {1, 1, 1});
+		assertTrue (sparse.getDelegate() instanceof SparsePolynomial);
+		assertEquals (xTo100000.multiply(2).add(one), sparse);
+
+		// Every term of x^i for i < 1000 twice, then x^500 taken away once, in parallel
+		AdaptivePolynomial collected = IntStream.range(0, 2001).parallel()
+				.mapToObj(i -> i == 2000 ? new Term(-1, 500) : new Term(1, i % 1000))
+				.collect(factory.toPolynomial());
+		assertTrue (collected.getDelegate() instanceof DensePolynomial);
+		assertEquals (1000, collected.termCount());
+		assertEquals (2, collected.getCoeff(999));
+		assertEquals (1, collected.getCoeff(500));
+		assertTrue (IntStream.range(0, 3).mapToObj(i -> new Term(0, i)).collect(factory.toPolynomial()).isZero());
+	}
+}
@@ -0,0 +1,198 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A BigPolynomial is a sparse polynomial whose coefficients are BigIntegers, so its
+ * arithmetic never overflows.  It is what the int and long polynomials promote to when
+ * a result no longer fits in a long.
+ *
+ * @author yuhu
+ *
+ */
+final public class BigPolynomial implements ExactPolynomial {
+
+	// Parallel arrays that hold the terms.  exps[i] is the exponent of the term whose
+	// coefficient is coeffs[i].
+	// Class invariants:
+	//	  exps and coeffs have the same length
+	//	  exponents are in ascending numerical order with no duplicates
+	//	  all terms have non-zero, non-null coefficients
+	final private int[] exps;
+	final private BigInteger[] coeffs;
+
+	/**
+	 * Creates the zero polynomial
+	 */
+	public BigPolynomial() {
+		exps = new int[0];
+		coeffs = new BigInteger[0];
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial with a single term
+	 * @param coeff the coefficient of the term
+	 * @param exponent the exponent of the term
+	 * @exception NullPointerException is thrown if coeff is null
+	 */
+	public BigPolynomial(BigInteger coeff, int exponent) {
+		if (coeff.signum() == 0) {
+			exps = new int[0];
+			coeffs = new BigInteger[0];
+		} else {
+			exps = new int[] {exponent};
+			coeffs = new BigInteger[] {coeff};
+		}
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial that takes ownership of the given arrays.  The caller
+	 * must not modify them afterwards.
+	 * @param exps the exponents, in ascending order
+	 * @param coeffs the non-zero coefficients matching exps
+	 */
+	BigPolynomial(int[] exps, BigInteger[] coeffs) {
+		this.exps = exps;
+		this.coeffs = coeffs;
+		assert wellFormed();
+	}
+
+	/**
+	 * Return the internal exponent array, in ascending order.  The array must not be modified.
+	 * @return the exponents of the terms of this polynomial
+	 */
+	int[] exponents() {
+		return exps;
+	}
+
+	/**
+	 * Return the internal coefficient array, matching exponents().  The array must not be
+	 * modified.
+	 * @return the coefficients of the terms of this polynomial
+	 */
+	BigInteger[] coefficients() {
+		return coeffs;
+	}
+
+	/**
+	 * Return the smallest exponent of the polynomial.
+	 */
+	@Override
+	public int getMinExponent() {
+		return exps.length == 0 ? 0 : exps[0];
+	}
+
+	/**
+	 * Return the largest exponent of the polynomial.
+	 */
+	@Override
+	public int getMaxExponent() {
+		return exps.length == 0 ? 0 : exps[exps.length - 1];
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent.  Return 0 if there
+	 * is no term for the exponent.
+	 */
+	@Override
+	public BigInteger getBigCoeff(int exp) {
+		int i = Arrays.binarySearch(exps, exp);
+		return i < 0 ? BigInteger.ZERO : coeffs[i];
+	}
+
+	/**
+	 * Return true if this polynomial is the constant 0.
+	 */
+	@Override
+	public boolean isZero() {
+		return exps.length == 0;
+	}
+
+	/**
+	 * Return this + q.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial addExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, 1);
+	}
+
+	/**
+	 * Return this - q.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial subtractExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, -1);
+	}
+
+	/**
+	 * Return this * factor.
+	 */
+	@Override
+	public ExactPolynomial multiplyExact(long factor) {
+		return ExactArithmetic.scale(this, factor);
+	}
+
+	/**
+	 * Return this * q.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial multiplyExact(ExactPolynomial q) {
+		return ExactArithmetic.multiply(this, q);
+	}
+
+	/**
+	 * Return -this.
+	 */
+	@Override
+	public ExactPolynomial negateExact() {
+		return ExactArithmetic.scale(this, -1);
+	}
+
+	/**
+	 * Returns true if o is a long or BigInteger polynomial with the same coefficients
+	 * for the same exponents.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		return ExactArithmetic.equal(this, o);
+	}
+
+	/**
+	 * Returns a hash code that agrees with the long polynomials.
+	 */
+	@Override
+	public int hashCode() {
+		return ExactArithmetic.hash(this);
+	}
+
+	/**
+	 * Generates the polynomial in canonical form, in the format of SparsePolynomial.
+	 */
+	@Override
+	public String toString() {
+		return ExactArithmetic.format(this);
+	}
+
+	/**
+	 * Return true if the polynomial satisfies the class invariants
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (exps == null || coeffs == null || exps.length != coeffs.length) {
+			return false;
+		}
+		for (int i = 0; i < exps.length; i++) {
+			if (coeffs[i] == null || coeffs[i].signum() == 0) {
+				return false;
+			}
+			if (i > 0 && exps[i - 1] >= exps[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
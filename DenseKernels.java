@@ -0,0 +1,68 @@
+/**
+ * DenseKernels holds the loops over coefficient arrays shared by the dense arithmetic:
+ * sums, differences, multiples, the fused dst + c * src of products and linear
+ * combinations, and counting the non-zero coefficients.
+ *
+ * Each loop is a plain counted loop over arrays with no branches and no calls, which is
+ * the shape the JIT compiles to SIMD instructions.  In particular the terms are counted
+ * in a separate pass rather than while the coefficients are written, because a test of
+ * each coefficient in the same loop keeps it scalar and mispredicts on mixed zero and
+ * non-zero coefficients.
+ *
+ * @author yuhu
+ *
+ */
+final class DenseKernels {
+
+	private DenseKernels() {
+	}
+
+	/**
+	 * Set dst[d + k] = a[ai + k] + b[bi + k] for k from 0 to n - 1.
+	 */
+	static void add(int[] dst, int d, int[] a, int ai, int[] b, int bi, int n) {
+		for (int k = 0; k < n; k++) {
+			dst[d + k] = a[ai + k] + b[bi + k];
+		}
+	}
+
+	/**
+	 * Set dst[d + k] = a[ai + k] - b[bi + k] for k from 0 to n - 1.
+	 */
+	static void subtract(int[] dst, int d, int[] a, int ai, int[] b, int bi, int n) {
+		for (int k = 0; k < n; k++) {
+			dst[d + k] = a[ai + k] - b[bi + k];
+		}
+	}
+
+	/**
+	 * Set dst[d + k] = factor * a[ai + k] for k from 0 to n - 1.
+	 */
+	static void scale(int[] dst, int d, int[] a, int ai, int factor, int n) {
+		for (int k = 0; k < n; k++) {
+			dst[d + k] = factor * a[ai + k];
+		}
+	}
+
+	/**
+	 * Add c * src[si + k] to dst[d + k] for k from 0 to n - 1.  This is the inner loop of
+	 * the schoolbook product, one row at a time, and of linear combinations.
+	 */
+	static void addScaled(int[] dst, int d, int c, int[] src, int si, int n) {
+		for (int k = 0; k < n; k++) {
+			dst[d + k] += c * src[si + k];
+		}
+	}
+
+	/**
+	 * @return the number of non-zero entries of arr[from .. to - 1]
+	 */
+	static int countNonZero(int[] arr, int from, int to) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			// The sign bit of x | -x is set exactly when x is not 0
+			count += (arr[i] | -arr[i]) >>> 31;
+		}
+		return count;
+	}
+}
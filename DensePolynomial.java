@@ -1,7 +1,13 @@
+import java.io.IOException;
+import java.util.Arrays;
 
 
 /**
  *  A dense polynomial class represents a polynomial with an array of coefficients.  
+ * The array holds the coefficients of every exponent from the smallest to the largest,
+ * so its first and last entries are non-zero, and the smallest exponent is kept as an
+ * offset.  A polynomial like x^100000 + x^100001 takes two entries, and exponents can be
+ * negative.
  * @author yuhu
  *
  */
@@ -10,50 +16,229 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 	//variables
 	final private int[] polyArr;
 
+	// The exponent of polyArr[0], which is the smallest exponent, or 0 for the zero polynomial
+	final private int offset;
+
+	// The number of non-zero coefficients
+	final private int termCount;
+
+	// The zero polynomial returned by operations whose result is 0
+	static final DensePolynomial ZERO = new DensePolynomial();
+	
 	/**
 	 * Creates the zero polynomial 
 	 */
 	public DensePolynomial(){
 		polyArr = new int[0];
+		offset = 0;
+		termCount = 0;
 	
 		assert wellFormed();
 	}
 	/**
 	 * Creates a polynomial array with a single coefficient
 	 * @param coeff coefficient 
-	 * @param exponent x^exponent
+	 * @param exponent x^exponent, which may be negative
 	 */
 	
 	public DensePolynomial(int coeff, int exponent){
 		if(coeff == 0){
 			polyArr = new int[0];
-	
+			offset = 0;
+			termCount = 0;
 		}
 		else
 		{
-			polyArr = new int[exponent+1];
-			polyArr[exponent]=coeff;
+			polyArr = new int[] {coeff};
+			offset = exponent;
+			termCount = 1;
 		}
 		assert wellFormed();
 	}
 	
 	/**
-	 * Return the smallest exponent of the polynomial.
-	 * @return return the smallest exponent
+	 * Creates a polynomial from an array indexed by exponent.  The terms are counted and
+	 * the first non-zero entry is found, and the array is used directly unless
+	 * it starts with zeros, so the caller must not modify it afterwards.
+	 * @param arr the coefficients indexed by exponent, with no trailing zeros
 	 */
-	@Override
-	public int getMinExponent() {
-		if(isZero()){
-			return 0;
+	DensePolynomial(int[] arr){
+		int count = DenseKernels.countNonZero(arr, 0, arr.length);
+		int first = 0;
+		while(count > 0 && arr[first] == 0){
+			first++;
+		}
+		polyArr = first > 0 ? Arrays.copyOfRange(arr, first, arr.length) : arr;
+		offset = first;
+		termCount = count;
+		assert wellFormed();
+	}
+	
+	/**
+	 * Creates a polynomial that takes ownership of a trimmed coefficient array, for
+	 * callers that counted its terms while filling it.  The caller must not modify it
+	 * afterwards.
+	 * @param offset the exponent of window[0], or 0 if window is empty
+	 * @param window the coefficients of offset, offset + 1, ..., with no zeros at either end
+	 * @param termCount the number of non-zero coefficients
+	 */
+	DensePolynomial(int offset, int[] window, int termCount){
+		this.polyArr = window;
+		this.offset = offset;
+		this.termCount = termCount;
+		assert wellFormed();
+	}
+	
+	/**
+	 * Creates the polynomial coeffs[0] + coeffs[1] x + ... + coeffs[n - 1] x^(n - 1).
+	 * Zeros at either end are allowed and dropped.  coeffs is copied, not changed.
+	 * @param coeffs the coefficients indexed by exponent
+	 * @return the polynomial with those coefficients
+	 * @exception NullPointerException is thrown if coeffs is null
+	 */
+	public static DensePolynomial fromCoefficients(int[] coeffs){
+		return fromCoefficients(0, coeffs);
+	}
+	
+	/**
+	 * Creates the polynomial coeffs[0] x^minExponent + ... + coeffs[n - 1] x^(minExponent + n - 1).
+	 * Zeros at either end are allowed and dropped.  coeffs is copied, not changed.
+	 * @param minExponent the exponent of coeffs[0], which may be negative
+	 * @param coeffs the coefficients
+	 * @return the polynomial with those coefficients
+	 * @exception NullPointerException is thrown if coeffs is null
+	 * @exception ArithmeticException is thrown if the largest exponent does not fit in an int
+	 */
+	public static DensePolynomial fromCoefficients(int minExponent, int[] coeffs){
+		if(coeffs == null){
+			throw new NullPointerException("NullPointerException");
 		}
-		int min = 0;
-		for(int i = 0; i < polyArr.length; i++){
-			if(polyArr[i]!=0){
-				min = i;
-				break;
+		int count = DenseKernels.countNonZero(coeffs, 0, coeffs.length);
+		if(count == 0){
+			return ZERO;
+		}
+		int first = 0;
+		while(coeffs[first] == 0){
+			first++;
+		}
+		int last = coeffs.length - 1;
+		while(coeffs[last] == 0){
+			last--;
+		}
+		if((long) minExponent + last > Integer.MAX_VALUE){
+			throw new ArithmeticException("Exponent out of range: " + ((long) minExponent + last));
+		}
+		return new DensePolynomial(minExponent + first, Arrays.copyOfRange(coeffs, first, last+1), count);
+	}
+	
+	/**
+	 * Creates a polynomial from the first length entries of arr, indexed by exponent.
+	 * @see #trimmed(int, int[], int)
+	 */
+	static DensePolynomial trimmed(int[] arr, int length){
+		return trimmed(0, arr, length);
+	}
+	
+	/**
+	 * Creates the polynomial arr[0] x^offset + ... + arr[length - 1] x^(offset + length - 1),
+	 * dropping the zeros at both ends.  The terms are counted by DenseKernels, and only the
+	 * zeros at the ends are scanned.  arr is used directly when it is already trimmed,
+	 * so the caller must not modify it afterwards.
+	 * @param offset the exponent of arr[0]
+	 * @param arr the coefficients
+	 * @param length the number of entries of arr to use
+	 * @return the polynomial with those coefficients
+	 */
+	static DensePolynomial trimmed(int offset, int[] arr, int length){
+		int count = DenseKernels.countNonZero(arr, 0, length);
+		if(count == 0){
+			return ZERO;
+		}
+		int first = 0;
+		while(arr[first] == 0){
+			first++;
+		}
+		int last = length - 1;
+		while(arr[last] == 0){
+			last--;
+		}
+		if(first == 0 && last+1 == arr.length){
+			return new DensePolynomial(offset, arr, count);
+		}
+		return new DensePolynomial(offset + first, Arrays.copyOfRange(arr, first, last+1), count);
+	}
+	
+	/**
+	 * Return a dense polynomial equal to q.  q itself is returned if it is already dense.
+	 * @param q the polynomial to convert
+	 * @return a DensePolynomial equal to q
+	 * @exception ArithmeticException is thrown if q spans more exponents than an array can hold
+	 */
+	static DensePolynomial valueOf(Polynomial q){
+		if(q instanceof LazyPolynomial){
+			q = ((LazyPolynomial) q).force();
+		}
+		if(q instanceof AdaptivePolynomial){
+			q = ((AdaptivePolynomial) q).getDelegate();
+		}
+		if(q instanceof DensePolynomial){
+			return (DensePolynomial) q;
+		}
+		if(q.isZero()){
+			return ZERO;
+		}
+		int min = q.getMinExponent();
+		int[] arr = new int[width(min, q.getMaxExponent())];
+		int count = 0;
+		if(q instanceof SparsePolynomial){
+			SparsePolynomial sp = (SparsePolynomial) q;
+			int[] exps = sp.exponents();
+			int[] coeffs = sp.coefficients();
+			for(int i = 0; i < exps.length; i++){
+				arr[exps[i] - min] = coeffs[i];
+			}
+			count = exps.length;
+		}else{
+			for(int i = 0; i < arr.length; i++){
+				arr[i] = q.getCoeff(min + i);
+				if(arr[i] != 0){
+					count++;
+				}
 			}
 		}
-		return min;
+		return new DensePolynomial(min, arr, count);
+	}
+	
+	/**
+	 * @return the length of an array holding the exponents from min to max
+	 * @exception ArithmeticException is thrown if there are more exponents than an array can hold
+	 */
+	static int width(long min, long max){
+		long width = max - min + 1;
+		if(width > Integer.MAX_VALUE - 8){
+			throw new ArithmeticException("Too many exponents for a DensePolynomial: " + min + " to " + max);
+		}
+		return (int) width;
+	}
+	
+	/**
+	 * Return the internal coefficient array.  Entry i is the coefficient of
+	 * getMinExponent() + i, and the first and last entries are not 0.  The array must
+	 * not be modified.
+	 * @return the coefficients of this polynomial
+	 */
+	int[] coefficients(){
+		return polyArr;
+	}
+	
+	/**
+	 * Return the smallest exponent of the polynomial, which is the exponent of the
+	 * first entry of the array.
+	 * @return return the smallest exponent
+	 */
+	@Override
+	public int getMinExponent() {
+		return offset;
 	}
 
 	/**
@@ -65,7 +250,7 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 		if(isZero()){
 			return 0;
 		}
-		return polyArr.length -1;
+		return offset + polyArr.length -1;
 	}
 
 	/**
@@ -76,35 +261,49 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 	 */
 	@Override
 	public int getCoeff(int exp) {
-		if(exp<polyArr.length && exp >=0){
-		return polyArr[exp];
+		long i = (long) exp - offset;
+		if(i >= 0 && i < polyArr.length){
+		return polyArr[(int) i];
 		}else{
 			return 0;
 		}
 	}
 	
 	/**
-	 * Check if the polynomial is 0
+	 * Return true if the exponents are not negative and the array from exponent 0 to the
+	 * largest would still be at least DEFAULT_SPARSE_THRESHOLD full, so that a copy
+	 * indexed from 0, as the long and modular dense polynomials are, stays dense.
+	 * @return true if a copy indexed from exponent 0 is worth storing densely
+	 */
+	boolean fillsFromZero(){
+		long width = (long) offset + polyArr.length;
+		return offset >= 0 && termCount() >= PolynomialFactory.DEFAULT_SPARSE_THRESHOLD * width;
+	}
+
+	/**
+	 * Return the number of non-zero coefficients, which is counted when the
+	 * polynomial is created
+	 * @return the number of terms of the polynomial
+	 */
+	@Override
+	int termCount(){
+		return termCount;
+	}
+	
+	/**
+	 * Check if the polynomial is 0.  The array has no zeros at its ends, so only the
+	 * zero polynomial has an empty array.
 	 * @return Return true if this polynomial is the constant 0.
 	 */
 	@Override
 	public boolean isZero() {
-		if(polyArr.length == 0){
-			return true;
-		}else{
-			for(int i = 0; i < polyArr.length; i++){
-				if(polyArr[i]!=0){
-					return false;
-				}
-			}
-			
-			return true;
-		}
+		return polyArr.length == 0;
 	}
 
 	/**
 	 * Return the sum of this polynomial and q.  Neither this nor q are changed.
-	 * if a sparsePolynomial is passed in, return a sparsePolynomial
+	 * if a sparsePolynomial is passed in, the two are merged in a single pass and 
+	 * a sparsePolynomial is returned
 	 * @param q a polynomial
 	 * @return this + q
 	 * @exception nullPointerException is thrown if q is null
@@ -117,22 +316,39 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 		if (q instanceof DensePolynomial) {
 			return addDense((DensePolynomial) q);
 		}else{
-			SparsePolynomial newPoly = (SparsePolynomial) q;
-			for(int i  = 0; i < polyArr.length; i++){
-				SparsePolynomial t = new SparsePolynomial(polyArr[i], i);
-				newPoly = (SparsePolynomial) newPoly.add(t);
-			}
+			SparsePolynomial newPoly = SparsePolynomial.combine(this, 1, SparsePolynomial.valueOf(q), 1);
 			assert newPoly.wellFormed();
 			return newPoly;
 		}
-		
-	
+	}
+
+	/**
+	 * Return the difference of this polynomial and q.  Neither this nor q are changed.
+	 * The difference is computed in a single pass without negating q first.
+	 * if a sparsePolynomial is passed in, it is subtracted in a single merge and a 
+	 * sparsePolynomial is returned
+	 * @param q a polynomial
+	 * @return this - q
+	 * @exception nullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial subtract(Polynomial q) {
+		if(q == null){
+			throw new NullPointerException("NullPointerException");
+		}
+		if (q instanceof DensePolynomial) {
+			return subtractDense((DensePolynomial) q);
+		}
+		SparsePolynomial newPoly = SparsePolynomial.combine(this, 1, SparsePolynomial.valueOf(q), -1);
+		assert newPoly.wellFormed();
+		return newPoly;
 	}
 
 	/**
 	 * Return the sum of this polynomial and q.  Neither this nor q are changed.
 	 * @param q the polynomial
 	 * @return return the sum of this polynomial and q
+	 * @exception ArithmeticException is thrown if the sum spans more exponents than an array can hold
 	 */
 	public DensePolynomial addDense(DensePolynomial q){
 		
@@ -144,52 +360,102 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 			return q;
 		}
 		
-		int a = polyArr.length;
-		int b = q.polyArr.length;
-		int max = Math.max(a, b);
-		DensePolynomial dp = new DensePolynomial(1, max-1);
-
-		int counter = 0;
-		
-		while(counter < max){
-			
-			dp.polyArr[counter]= getCoeff(counter)+q.getCoeff(counter);
-			counter ++;
-		}
-		if(dp.isZero()){
-			dp = new DensePolynomial();
-			return dp;
-		}
-		dp = dp.truncate();
+		DensePolynomial dp = combineDense(q, 1);
 		assert dp.wellFormed();
 		return dp;
 		
 	}
 	
 	/**
-	 * truncate the DensePolynomial Array
-	 * @return the truncated array
+	 * Return the difference of this polynomial and q.  Neither this nor q are changed.
+	 * @param q the polynomial
+	 * @return return the difference of this polynomial and q
+	 * @exception ArithmeticException is thrown if the difference spans more exponents than an array can hold
 	 */
-	private DensePolynomial truncate(){
-		
-		int i = polyArr.length -1;
-		while(i>=0){
-			if(polyArr[i]!=0){
-				break;
-			}
-			i--;
+	public DensePolynomial subtractDense(DensePolynomial q){
+		if(q.isZero()){
+			return this;
 		}
-		DensePolynomial dp = new DensePolynomial(polyArr[i], i);
-		for(int j = 0; j <= i; j++){
-			dp.polyArr[j] = polyArr[j];
+		if(isZero()){
+			return (DensePolynomial) q.minus();
 		}
 		
+		DensePolynomial dp = combineDense(q, -1);
 		assert dp.wellFormed();
 		return dp;
 	}
 	
 	/**
-	 * Return a polynomial that is the product of this and factor. 
+	 * Return this + sign * q.  The exponents of the result are found first by skipping
+	 * the highest and lowest exponents whose coefficients cancel, so the result array is
+	 * allocated once at its final size.  It is then filled piece by piece by the
+	 * DenseKernels loops: where only one of the arrays has coefficients they are copied,
+	 * and only the overlap of the two arrays is added.  A last pass counts the terms.
+	 * @param q the polynomial
+	 * @param sign 1 to add q, -1 to subtract it
+	 * @return this + sign * q
+	 */
+	private DensePolynomial combineDense(DensePolynomial q, int sign){
+		int[] a = polyArr;
+		int[] b = q.polyArr;
+		int lo = Math.min(offset, q.offset);
+		int hi = Math.max(getMaxExponent(), q.getMaxExponent());
+		width(lo, hi);
+		while(hi >= lo && getCoeff(hi) + sign*q.getCoeff(hi) == 0){
+			hi--;
+		}
+		if(hi < lo){
+			return ZERO;
+		}
+		while(getCoeff(lo) + sign*q.getCoeff(lo) == 0){
+			lo++;
+		}
+		
+		int length = hi - lo + 1;
+		int[] result = new int[length];
+		
+		// The entries of result that each array covers, which may reach past either end
+		int aFrom = offset - lo;
+		int aTo = aFrom + a.length;
+		int bFrom = q.offset - lo;
+		int bTo = bFrom + b.length;
+		int from = 0;
+		while(from < length){
+			// The next bound of either array past from ends this stretch
+			int to = length;
+			if(aFrom > from && aFrom < to){
+				to = aFrom;
+			}
+			if(aTo > from && aTo < to){
+				to = aTo;
+			}
+			if(bFrom > from && bFrom < to){
+				to = bFrom;
+			}
+			if(bTo > from && bTo < to){
+				to = bTo;
+			}
+			boolean inA = from >= aFrom && from < aTo;
+			boolean inB = from >= bFrom && from < bTo;
+			if(inA && inB){
+				if(sign > 0){
+					DenseKernels.add(result, from, a, from-aFrom, b, from-bFrom, to-from);
+				}else{
+					DenseKernels.subtract(result, from, a, from-aFrom, b, from-bFrom, to-from);
+				}
+			}else if(inA){
+				System.arraycopy(a, from-aFrom, result, from, to-from);
+			}else if(inB){
+				DenseKernels.scale(result, from, b, from-bFrom, sign, to-from);
+			}
+			from = to;
+		}
+		return new DensePolynomial(lo, result, DenseKernels.countNonZero(result, 0, length));
+	}
+	
+	/**
+	 * Return a polynomial that is the product of this and factor.  A product can wrap
+	 * around to 0, so the terms are counted again rather than copied from this.
 	 * @param multiplication factor
 	 * @return polynomial * factor
 	 */
@@ -199,23 +465,116 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 			return this;
 		}
 		if(factor == 0){
-			return new DensePolynomial();
-		}
-		DensePolynomial dp = new DensePolynomial(polyArr[polyArr.length-1]*factor, polyArr.length-1);
-		
-		for(int i = 0; i < polyArr.length; i++){
-			dp.polyArr[i]=polyArr[i]*factor;
+			return ZERO;
 		}
+		int[] result = new int[polyArr.length];
+		DenseKernels.scale(result, 0, polyArr, 0, factor, polyArr.length);
+		return trimmed(offset, result, result.length);
+	}
 
-		
+
+	/**
+	 * Return a polynomial that is the negative of this polynomial, computed in a single
+	 * pass over the coefficients.
+	 * @return -this
+	 */
+	@Override
+	public Polynomial minus() {
+		if(isZero()){
+			return this;
+		}
+		int[] result = new int[polyArr.length];
+		DenseKernels.scale(result, 0, polyArr, 0, -1, polyArr.length);
+		DensePolynomial dp = new DensePolynomial(offset, result, termCount);
 		assert dp.wellFormed();
 		return dp;
 	}
 
+	/**
+	 * Return the value of the polynomial at x using Horner's rule, times x to the
+	 * smallest exponent.  The result wraps around on overflow.
+	 * @param x the point
+	 * @return this(x)
+	 * @exception ArithmeticException is thrown if there is a negative exponent and x is not 1 or -1
+	 */
+	@Override
+	public long evaluate(long x) {
+		if(isZero()){
+			return 0;
+		}
+		long result = 0;
+		for(int i = polyArr.length-1; i >= 0; i--){
+			result = result*x + polyArr[i];
+		}
+		return result * PolynomialEvaluator.shift(x, offset);
+	}
+
+	/**
+	 * Return the value of the polynomial at x using Horner's rule.
+	 * @param x the point
+	 * @return this(x)
+	 */
+	@Override
+	public double evaluate(double x) {
+		double result = 0;
+		for(int i = polyArr.length-1; i >= 0; i--){
+			result = result*x + polyArr[i];
+		}
+		return offset == 0 ? result : result * PolynomialEvaluator.power(x, offset);
+	}
+
+	/**
+	 * Return the value of the polynomial at x modulo modulus using Horner's rule.
+	 * Negative exponents use the inverse of x.
+	 * @param x the point
+	 * @param modulus a positive modulus
+	 * @return this(x) mod modulus
+	 * @exception IllegalArgumentException is thrown if modulus is not positive
+	 * @exception ArithmeticException is thrown if there is a negative exponent and x has 
+	 *    no inverse modulo modulus
+	 */
+	@Override
+	public long evaluateMod(long x, long modulus) {
+		PolynomialEvaluator.checkModulus(modulus);
+		if(isZero()){
+			return 0;
+		}
+		x = PolynomialEvaluator.reduce(x, modulus);
+		long result = 0;
+		for(int i = polyArr.length-1; i >= 0; i--){
+			long coeff = PolynomialEvaluator.reduce(polyArr[i], modulus);
+			result = PolynomialEvaluator.addMod(PolynomialEvaluator.multiplyMod(result, x, modulus), coeff, modulus);
+		}
+		return PolynomialEvaluator.multiplyMod(result, PolynomialEvaluator.shiftMod(x, offset, modulus), modulus);
+	}
+
+	/**
+	 * Evaluate a block of points with Horner's rule, one coefficient at a time across
+	 * all the points so that the inner loop can be vectorized.
+	 */
+	@Override
+	void evaluateBlock(double[] xs, double[] out, int from, int to) {
+		for(int i = from; i < to; i++){
+			out[i] = 0;
+		}
+		for(int k = polyArr.length-1; k >= 0; k--){
+			double coeff = polyArr[k];
+			for(int i = from; i < to; i++){
+				out[i] = out[i]*xs[i] + coeff;
+			}
+		}
+		if(offset != 0){
+			for(int i = from; i < to; i++){
+				out[i] *= PolynomialEvaluator.power(xs[i], offset);
+			}
+		}
+	}
 
 	/**
 	 * Return true if the polynomial satisfies the class invariants
-	 * @return return false is the array is null. return false if the array has 0 in the end. Return true if the last element in the array is non-zero. Return true if the array size is 0.
+	 * @return return false is the array is null. return false if the array has 0 at either end. return false if
+	 * the largest exponent does not fit in an int, or if the cached number of terms does not match the array.
+	 * Return true if the array size is 0.
 	 * 
 	 */
 	@Override
@@ -224,22 +583,24 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 			return false;
 		}
 		if(polyArr.length==0){
-			return true;
+			return offset == 0 && termCount == 0;
 		}
 		
-			if(polyArr[polyArr.length-1]==0){
+			if(polyArr[0]==0 || polyArr[polyArr.length-1]==0){
 				return false;
 			}
-			else{
-				return true;
+			if((long) offset + polyArr.length - 1 > Integer.MAX_VALUE){
+				return false;
 			}
+			return DenseKernels.countNonZero(polyArr, 0, polyArr.length) == termCount;
 		}
 		
 	
 	
 	/**
 	 *  Returns true if o is an equivalent polynomial.  That is it contains the same coefficients
-	 * for the same exponents.
+	 * for the same exponents, whatever its representation.  The terms are compared directly,
+	 * after a check of the cached hash codes.
 	 * @param object
 	 * @return return true if the two polynomial are the same. return false if the object is not a polynomial. 
 	 * @exception nullPointerException is thrown if the object is null.
@@ -252,64 +613,61 @@ final public class DensePolynomial extends AbstractPolynomial implements Polynom
 			return true;
 		}
 		
-		if(!(o instanceof Polynomial)){
-			return false;
+		if(o instanceof AdaptivePolynomial){
+			o = ((AdaptivePolynomial) o).getDelegate();
+		}
+		if(o instanceof SparsePolynomial){
+			return !hashesDiffer((SparsePolynomial) o) && SparsePolynomial.sameTerms(this, (SparsePolynomial) o);
 		}
-		
-		// If o is a Polynomial but not a DensePolynomial, we rely on the string representations
-		// being the same
 		if(!(o instanceof DensePolynomial)){
-			String oString = o.toString();
-			if(oString.equals(this.toString())){
-				return true;
-			}else{
-				return false;
-			}
+			return o instanceof Polynomial && sameCoefficients(this, (Polynomial) o);
 		}
 		DensePolynomial obj = (DensePolynomial) o;
-		if(obj.polyArr.length != polyArr.length){
+		if(obj.offset != offset || obj.polyArr.length != polyArr.length || hashesDiffer(obj)){
 			return false;
 		}
 		
 		// All the easy tests passed.  Compare each index of the array.
+		return Arrays.equals(polyArr, obj.polyArr);
+	}
+
+	/**
+	 * walk the array, skipping the zero coefficients
+	 */
+	@Override
+	TermCursor cursor(){
+		return new TermCursor.Dense(polyArr, offset, 0, polyArr.length);
+	}
+
+	/**
+	 * hash the non-zero coefficients in ascending order of exponent
+	 */
+	@Override
+	int computeHash(){
+		int h = 1;
 		for(int i = 0; i < polyArr.length; i++){
-			if(obj.polyArr[i]!= polyArr[i]){
-				return false;
+			if(polyArr[i] != 0){
+				h = hashTerm(h, polyArr[i], offset + i);
 			}
 		}
-		return true;
+		return h;
 	}
 
 	/**
-	 * return the string representation of a dense polynomial
-	 * @return return the string representation of the polynomial. start from exponent is 0. when the coefficient is 0, the term is not presented. 
+	 * format the terms from high to low exponent, as AbstractPolynomial.toString describes
 	 */
-	public String toString(){
-		StringBuilder builder = new StringBuilder();
+	@Override
+	void writeTerms(StringBuilder buffer, Appendable out) throws IOException{
 		if(isZero()){
-			return "0";
+			buffer.append('0');
+			return;
 		}
-		int i = 0; 
-		while(i < polyArr.length){
+		boolean first = true;
+		for(int i = polyArr.length-1; i >= 0; i--){
 			if(polyArr[i]!=0){
-				if(i == 0){
-					builder.insert(0, polyArr[i]);
-				}
-				if(i == 1){
-					if(polyArr[i-1]==0){
-						builder.insert(0, polyArr[i]+"x");
-					}else{
-						builder.insert(0, polyArr[i]+"x"+" + ");
-					}
-				}
-				if(i > 1){
-					builder.insert(0, polyArr[i]+"x^"+i + " + ");
-				}
+				first = appendTerm(buffer, out, polyArr[i], offset + i, first);
 			}
-			i++;
 		}
-		return builder.toString();
-
 	}
 	
 	public static void main(String[]args){
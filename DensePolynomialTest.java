@@ -1,3 +1,9 @@
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 /**
@@ -18,6 +24,10 @@ public class DensePolynomialTest extends TestCase {
 	private Polynomial xTo100 = new DensePolynomial(1, 100);
 	private Polynomial xToNegative100 = new SparsePolynomial(1, -100);
 	
+	// Counts the bytes each thread allocates
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
 	/**
 	 * Test method for {@link DensePolynomial#getCoeff(int)}.
 	 */
@@ -53,6 +63,44 @@ public class DensePolynomialTest extends TestCase {
 		assertEquals(0, one.add(xTo100).getMinExponent());
 	}
 	
+	/**
+	 * Test that the array only covers the exponents from the smallest to the largest, so
+	 * exponents can be negative and far from 0.
+	 */
+	public void testWindow() {
+		DensePolynomial narrow = (DensePolynomial) xTo100.add(new DensePolynomial(3, 101));
+		assertEquals (2, narrow.coefficients().length);
+		assertEquals (100, narrow.getMinExponent());
+		assertEquals (101, narrow.getMaxExponent());
+		assertEquals (0, narrow.getCoeff(0));
+		
+		DensePolynomial laurent = (DensePolynomial) new DensePolynomial(1, -100).add(new DensePolynomial(-2, -99));
+		assertEquals (2, laurent.coefficients().length);
+		assertEquals (-100, laurent.getMinExponent());
+		assertEquals (-2, laurent.getCoeff(-99));
+		assertEquals (new SparsePolynomial(1, -100).add(new SparsePolynomial(-2, -99)), laurent);
+		assertEquals (laurent.hashCode(), SparsePolynomial.valueOf(laurent).hashCode());
+		
+		// The product of the arrays starts at the sum of the smallest exponents
+		Polynomial product = laurent.multiply(narrow);
+		assertTrue (product instanceof DensePolynomial);
+		assertEquals (3, ((DensePolynomial) product).coefficients().length);
+		assertEquals (SparsePolynomial.valueOf(laurent).multiply(narrow), product);
+		
+		// Cancelling the lowest terms moves the window
+		Polynomial high = narrow.subtract(xTo100);
+		assertEquals (101, high.getMinExponent());
+		assertEquals (1, ((DensePolynomial) high).coefficients().length);
+		assertEquals (1, laurent.add(narrow).evaluate(-1L));
+		assertEquals (0.25 - 2 * 0.5, new DensePolynomial(1, -2).add(new DensePolynomial(-2, -1)).evaluate(2.0));
+		try {
+			laurent.evaluate(2L);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
 	/**
 	 * Test method for {@link DensePolynomial#add(Polynomial)}.
 	 */
@@ -73,6 +121,27 @@ public class DensePolynomialTest extends TestCase {
 		assertTrue(thrown);
 	}
 	
+	/**
+	 * Test method for {@link DensePolynomial#add(Polynomial)} and 
+	 * {@link DensePolynomial#subtract(Polynomial)} with sparse operands.
+	 */
+	public void testAddSubtractSparse() {
+		Polynomial sparseFourXSquared = new SparsePolynomial(4, 2);
+		Polynomial difference = fourXSquaredPlusFourXPlusOne.subtract(sparseFourXSquared);
+		assertTrue (difference instanceof SparsePolynomial);
+		assertEquals (new DensePolynomial(4, 1).add(one), difference);
+		assertEquals (fourXSquaredPlusFourXPlusOne, difference.add(new DensePolynomial(4, 2)));
+		assertEquals (fourXSquaredPlusFourXPlusOne, new DensePolynomial(4, 1).add(one).add(sparseFourXSquared));
+		assertTrue (one.subtract(new SparsePolynomial(1, 0)).isZero());
+		
+		Polynomial laurent = twoXplusOne.subtract(xToNegative100);
+		assertEquals (-1, laurent.getCoeff(-100));
+		assertEquals (1, laurent.getCoeff(0));
+		assertEquals (2, laurent.getCoeff(1));
+		assertEquals (-100, laurent.getMinExponent());
+		assertEquals (1, laurent.getMaxExponent());
+	}
+	
 	/**
 	 * test final class DensePolynomial is immutable
 	 */
@@ -108,6 +177,52 @@ public class DensePolynomialTest extends TestCase {
 		assertTrue (twoX.add(minusTwoX).isZero());
 	}
 
+	/**
+	 * Test that the smallest exponent and the number of terms, which are found while the
+	 * result is computed, match the coefficients.
+	 */
+	public void testCachedTerms() {
+		DensePolynomial p = (DensePolynomial) xTo100.add(twoX).add(new DensePolynomial(5, 50));
+		assertEquals (3, p.termCount());
+		assertEquals (1, p.getMinExponent());
+		DensePolynomial q = (DensePolynomial) p.subtract(twoX);
+		assertEquals (2, q.termCount());
+		assertEquals (50, q.getMinExponent());
+		assertEquals (50, ((DensePolynomial) q.minus()).getMinExponent());
+		assertEquals (0, ((DensePolynomial) q.subtract(xTo100).subtract(new DensePolynomial(5, 50))).termCount());
+
+		// Coefficients that wrap around to 0 drop out of the product
+		DensePolynomial r = (DensePolynomial) new DensePolynomial(2, 3).add(new DensePolynomial(1 << 30, 7)).add(one).multiply(4);
+		assertEquals (2, r.termCount());
+		assertEquals (3, r.getMaxExponent());
+		assertTrue (r.wellFormed());
+		assertTrue (new DensePolynomial(1 << 31, 4).multiply(2).isZero());
+		assertEquals (3, DensePolynomial.trimmed(new int[] {0, 0, 7, 0, 1, 2, 0, 0}, 7).termCount());
+		assertEquals (2, DensePolynomial.trimmed(new int[] {0, 0, 7, 0, 1, 2, 0, 0}, 7).getMinExponent());
+	}
+
+	/**
+	 * Test method for {@link DensePolynomial#fromCoefficients(int, int[])}.
+	 */
+	public void testFromCoefficients() {
+		int[] coeffs = {0, 1, 0, 2, 0};
+		DensePolynomial p = DensePolynomial.fromCoefficients(coeffs);
+		assertEquals (xTo100.getClass(), p.getClass());
+		assertEquals (new DensePolynomial(2, 3).add(new DensePolynomial(1, 1)), p);
+		assertEquals (2, p.termCount());
+		coeffs[1] = 5;
+		assertEquals (1, p.getCoeff(1));
+		assertEquals (new DensePolynomial(2, -2).add(new DensePolynomial(1, -4)), DensePolynomial.fromCoefficients(-5, coeffs).subtract(new DensePolynomial(4, -4)));
+		assertTrue (DensePolynomial.fromCoefficients(new int[3]).isZero());
+		assertTrue (DensePolynomial.fromCoefficients(new int[0]).wellFormed());
+		try {
+			DensePolynomial.fromCoefficients(Integer.MAX_VALUE, new int[] {1, 1});
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
 	/**
 	 * Test method for {@link DensePolynomial#multiply(Polynomial)}.
 	 */
@@ -118,6 +233,38 @@ public class DensePolynomialTest extends TestCase {
 		assertEquals (twoXplusOne.multiply(2), fourXplusTwo);
 	}
 
+	/**
+	 * Test method for {@link AbstractPolynomial#multiply(Polynomial)}.
+	 */
+	public void testMultiplyPolynomial() {
+		assertEquals (zero, twoXplusOne.multiply(zero));
+		assertEquals (twoXplusOne, twoXplusOne.multiply(one));
+		assertEquals (fourXSquaredPlusFourXPlusOne, twoXplusOne.multiply(twoXplusOne));
+		assertTrue (twoXplusOne.multiply(twoXplusOne) instanceof DensePolynomial);
+		
+		// Large enough for the Karatsuba and NTT paths: (1 + x + ... + x^n-1)(1 - x) = 1 - x^n
+		for (int n : new int[] {100, 1000}) {
+			Polynomial sum = new DensePolynomial();
+			for (int exp = 0; exp < n; exp++) {
+				sum = sum.add(new DensePolynomial(1, exp));
+			}
+			Polynomial product = sum.multiply(one.subtract(new DensePolynomial(1, 1)));
+			assertTrue (product.wellFormed());
+			assertEquals (one.subtract(new DensePolynomial(1, n)), product);
+		}
+		
+		Polynomial mixed = one.multiply(xToNegative100);
+		assertEquals (1, mixed.getCoeff(-100));
+		
+		boolean thrown = false;
+		try {
+			one.multiply(null);
+		} catch (NullPointerException e) {
+			thrown = true;
+		}
+		assertTrue(thrown);
+	}
+
 	/**
 	 * Test method for {@link DensePolynomial#subtract(Polynomial)}.
 	 */
@@ -133,6 +280,78 @@ public class DensePolynomialTest extends TestCase {
 	}
 
 	
+	/**
+	 * Test that subtract and minus produce their result with a single allocation.
+	 */
+	public void testSubtractAllocation() {
+		if (!THREADS.isThreadAllocatedMemorySupported()) {
+			return;
+		}
+		int[] a = new int[100000];
+		int[] b = new int[100000];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = i + 1;
+			b[i] = 2 * i + 1;
+		}
+		final Polynomial p = new DensePolynomial(a);
+		final Polynomial q = new DensePolynomial(b);
+		long arrayBytes = 4L * a.length;
+		
+		// One result array, and no negated copy of q
+		assertTrue (allocatedBytes(() -> p.subtract(q)) < 1.25 * arrayBytes);
+		assertTrue (allocatedBytes(() -> p.minus()) < 1.25 * arrayBytes);
+		assertTrue (allocatedBytes(() -> p.add(q)) < 1.25 * arrayBytes);
+		assertEquals (-50000, p.subtract(q).getCoeff(50000));
+	}
+
+	/**
+	 * Return the number of bytes the current thread allocates while running op.  op is
+	 * run once beforehand so that class loading is not counted.
+	 */
+	private static long allocatedBytes(Runnable op) {
+		op.run();
+		long threadId = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(threadId);
+		op.run();
+		return THREADS.getThreadAllocatedBytes(threadId) - before;
+	}
+
+	/**
+	 * Test method for {@link DensePolynomial#evaluate(long)} and the other evaluate methods.
+	 */
+	public void testEvaluate() {
+		assertEquals (0, zero.evaluate(7L));
+		assertEquals (1, one.evaluate(7L));
+		assertEquals (15, twoXplusOne.evaluate(7L));
+		assertEquals (-13, minusTwoXMinusOne.evaluate(6L));
+		assertEquals (225, fourXSquaredPlusFourXPlusOne.evaluate(7L));
+		assertEquals (1L << 50, new DensePolynomial(1, 50).evaluate(2L));
+		assertEquals (4.0, twoXplusOne.evaluate(1.5), 0);
+		assertEquals (0.0, fourXSquaredPlusFourXPlusOne.evaluate(-0.5), 0);
+		
+		// 2^100 mod 1000000007
+		assertEquals (976371285L, xTo100.evaluateMod(2, 1000000007L));
+		assertEquals (2, twoXplusOne.evaluateMod(-1, 3));
+		
+		double[] xs = new double[1000];
+		double[] out = new double[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = i / 10.0;
+		}
+		fourXSquaredPlusFourXPlusOne.evaluate(xs, out);
+		for (int i = 0; i < xs.length; i++) {
+			assertEquals ((2 * xs[i] + 1) * (2 * xs[i] + 1), out[i], 1e-9 * out[i]);
+		}
+		
+		boolean thrown = false;
+		try {
+			one.evaluateMod(1, 0);
+		} catch (IllegalArgumentException e) {
+			thrown = true;
+		}
+		assertTrue(thrown);
+	}
+
 	/**
 	 * Test method for {@link DensePolynomial#toString()}.
 	 */
@@ -143,6 +362,31 @@ public class DensePolynomialTest extends TestCase {
 		assertEquals (twoXplusOne.toString(), "2x + 1");
 		assertEquals (minusTwoXMinusOne.toString(), "-2x + -1");
 		assertEquals (fourXSquaredPlusFourXPlusOne.toString(), "4x^2 + 4x + 1");
+		// Formatted like Term, with no separator left over when the constant term is 0
+		assertEquals ("x^100", xTo100.toString());
+		assertEquals ("x^100 + 2x", xTo100.add(twoX).toString());
+	}
+
+	/**
+	 * Test method for {@link DensePolynomial#writeTo(java.io.Writer)}.
+	 */
+	public void testWriteTo() throws IOException {
+		// Long enough to be written in several blocks
+		int[] arr = new int[100000];
+		for (int i = 0; i < arr.length; i++) {
+			arr[i] = i - 50000;
+		}
+		Polynomial big = new DensePolynomial(arr);
+		StringWriter writer = new StringWriter();
+		big.writeTo(writer);
+		String text = big.toString();
+		assertEquals (text, writer.toString());
+		assertTrue (text.startsWith("49999x^99999 + 49998x^99998 + "));
+		assertTrue (text.endsWith(" + -49999x + -50000"));
+
+		StringBuilder builder = new StringBuilder("p = ");
+		twoXplusOne.writeTo(builder);
+		assertEquals ("p = 2x + 1", builder.toString());
 	}
 
 
@@ -163,5 +407,25 @@ public class DensePolynomialTest extends TestCase {
 		assertFalse (zero.equals(twoXplusOne));
 		assertFalse (zero.equals(one));
 		assertEquals (fourXSquaredPlusFourXPlusOne, new SparsePolynomial(4,2).add(new SparsePolynomial(4,1).add(one)));
+		assertFalse (fourXSquaredPlusFourXPlusOne.equals(new SparsePolynomial(4,2).add(new SparsePolynomial(4,1))));
+		assertFalse (xTo100.equals(xToNegative100));
+	}
+
+	/**
+	 * Test method for {@link DensePolynomial#hashCode()}.
+	 */
+	public void testHashCode() {
+		Polynomial sparse = new SparsePolynomial(4,2).add(new SparsePolynomial(4,1).add(one));
+		assertEquals (sparse.hashCode(), fourXSquaredPlusFourXPlusOne.hashCode());
+		assertEquals (new SparsePolynomial().hashCode(), zero.hashCode());
+		assertFalse (twoX.hashCode() == minusTwoX.hashCode());
+
+		// Equal polynomials are the same key whatever their representation
+		Map<Polynomial, String> names = new HashMap<Polynomial, String>();
+		names.put(fourXSquaredPlusFourXPlusOne, "square");
+		names.put(xTo100, "power");
+		assertEquals ("square", names.get(sparse));
+		assertEquals ("power", names.get(new SparsePolynomial(1, 100)));
+		assertNull (names.get(twoX));
 	}
 }
@@ -0,0 +1,669 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * ExactArithmetic implements the operations of ExactPolynomial for every coefficient
+ * width.  An operation is first tried at the width of its widest operand using
+ * Math.addExact and Math.multiplyExact, which throw on overflow; when one does, the
+ * operation is redone one width up.  Int polynomials go through long arithmetic, whose
+ * result is narrowed back to an int polynomial when every coefficient fits.
+ *
+ * @author yuhu
+ *
+ */
+final class ExactArithmetic {
+
+	// Coefficient widths, from narrowest to widest
+	private static final int INT = 0;
+	private static final int LONG = 1;
+	private static final int BIG = 2;
+
+	private ExactArithmetic() {
+	}
+
+	/**
+	 * Return p + sign * q in the narrowest width that holds it, but no narrower than
+	 * either operand.
+	 * @param sign 1 to add, -1 to subtract
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	static ExactPolynomial combine(ExactPolynomial p, ExactPolynomial q, int sign) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		int width = Math.max(width(p), width(q));
+		if (width == INT) {
+			Polynomial dense = combineDenseInt(unwrap(p), unwrap(q), sign);
+			if (dense != null) {
+				return dense;
+			}
+		}
+		if (width != BIG) {
+			try {
+				return narrow(combineLong(toLong(p), toLong(q), sign), width);
+			} catch (ArithmeticException e) {
+				// A coefficient overflowed a long
+			}
+		}
+		return combineBig(toBig(p), toBig(q), sign);
+	}
+
+	/**
+	 * Return p * factor in the narrowest width that holds it, but no narrower than p.
+	 */
+	static ExactPolynomial scale(ExactPolynomial p, long factor) {
+		int width = width(p);
+		if (width == INT && factor == (int) factor) {
+			Polynomial result = scaleInt(unwrap(p), (int) factor);
+			if (result != null) {
+				return result;
+			}
+		}
+		if (width != BIG) {
+			try {
+				return narrow(scaleLong(toLong(p), factor), width);
+			} catch (ArithmeticException e) {
+				// A coefficient overflowed a long
+			}
+		}
+		BigPolynomial big = toBig(p);
+		if (factor == 0) {
+			return new BigPolynomial();
+		}
+		BigInteger bigFactor = BigInteger.valueOf(factor);
+		BigInteger[] coeffs = big.coefficients();
+		BigInteger[] newCoeffs = new BigInteger[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			newCoeffs[i] = coeffs[i].multiply(bigFactor);
+		}
+		return new BigPolynomial(big.exponents(), newCoeffs);
+	}
+
+	/**
+	 * Return p * q in the narrowest width that holds it, but no narrower than either
+	 * operand.
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 */
+	static ExactPolynomial multiply(ExactPolynomial p, ExactPolynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		int width = Math.max(width(p), width(q));
+		if (width == INT) {
+			Polynomial ip = unwrap(p);
+			Polynomial iq = unwrap(q);
+			if (productFitsInt(ip, iq)) {
+				// Every coefficient of the product fits, so the wrapping product is exact
+				return PolynomialMultiplier.multiply(ip, iq);
+			}
+		}
+		if (width != BIG) {
+			try {
+				return narrow(multiplyLong(toLong(p), toLong(q)), width);
+			} catch (ArithmeticException e) {
+				// A coefficient overflowed a long
+			}
+		}
+		return multiplyBig(toBig(p), toBig(q));
+	}
+
+	/**
+	 * @return the coefficient width of p
+	 */
+	private static int width(ExactPolynomial p) {
+		if (p instanceof LongDensePolynomial || p instanceof LongSparsePolynomial) {
+			return LONG;
+		}
+		if (p instanceof Polynomial) {
+			return INT;
+		}
+		return BIG;
+	}
+
+	/**
+	 * @return the int polynomial p, without a lazy or adaptive wrapper
+	 */
+	private static Polynomial unwrap(ExactPolynomial p) {
+		if (p instanceof LazyPolynomial) {
+			p = ((LazyPolynomial) p).force();
+		}
+		if (p instanceof AdaptivePolynomial) {
+			return ((AdaptivePolynomial) p).getDelegate();
+		}
+		return (Polynomial) p;
+	}
+
+	/**
+	 * Add or subtract two dense int polynomials directly.
+	 * @return the result, or null if an operand is not dense or a coefficient overflows
+	 */
+	private static Polynomial combineDenseInt(Polynomial p, Polynomial q, int sign) {
+		if (!(p instanceof DensePolynomial) || !(q instanceof DensePolynomial)) {
+			return null;
+		}
+		if (q.isZero()) {
+			return p;
+		}
+		if (p.isZero()) {
+			// The zero polynomial's smallest exponent of 0 must not widen the result
+			return sign > 0 ? q : scaleInt(q, -1);
+		}
+		int[] a = ((DensePolynomial) p).coefficients();
+		int[] b = ((DensePolynomial) q).coefficients();
+		int lo = Math.min(p.getMinExponent(), q.getMinExponent());
+		int[] result = new int[DensePolynomial.width(lo, Math.max(p.getMaxExponent(), q.getMaxExponent()))];
+		System.arraycopy(a, 0, result, p.getMinExponent() - lo, a.length);
+		int shift = q.getMinExponent() - lo;
+		try {
+			if (sign > 0) {
+				for (int i = 0; i < b.length; i++) {
+					result[shift + i] = Math.addExact(result[shift + i], b[i]);
+				}
+			} else {
+				for (int i = 0; i < b.length; i++) {
+					result[shift + i] = Math.subtractExact(result[shift + i], b[i]);
+				}
+			}
+		} catch (ArithmeticException e) {
+			return null;
+		}
+		return DensePolynomial.trimmed(lo, result, result.length);
+	}
+
+	/**
+	 * Multiply an int polynomial by an int factor directly.
+	 * @return the result, or null if p is not dense or sparse or a coefficient overflows
+	 */
+	private static Polynomial scaleInt(Polynomial p, int factor) {
+		if (factor == 0) {
+			return p.multiply(0);
+		}
+		try {
+			if (p instanceof DensePolynomial) {
+				int[] arr = ((DensePolynomial) p).coefficients();
+				int[] result = new int[arr.length];
+				for (int i = 0; i < arr.length; i++) {
+					result[i] = Math.multiplyExact(arr[i], factor);
+				}
+				return new DensePolynomial(p.getMinExponent(), result, ((DensePolynomial) p).termCount());
+			}
+			if (p instanceof SparsePolynomial) {
+				SparsePolynomial sp = (SparsePolynomial) p;
+				int[] coeffs = sp.coefficients();
+				int[] result = new int[coeffs.length];
+				for (int i = 0; i < coeffs.length; i++) {
+					result[i] = Math.multiplyExact(coeffs[i], factor);
+				}
+				return new SparsePolynomial(sp.exponents(), result);
+			}
+		} catch (ArithmeticException e) {
+			// Fall back to long arithmetic
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if no coefficient of p * q can overflow an int.  The bound used is the
+	 *    number of terms of the shorter operand times the largest coefficient of each.
+	 */
+	private static boolean productFitsInt(Polynomial p, Polynomial q) {
+		if (p.isZero() || q.isZero()) {
+			return true;
+		}
+		int terms = Math.min(((AbstractPolynomial) p).termCount(), ((AbstractPolynomial) q).termCount());
+		// Each maximum is at most 2^31, so their product cannot overflow a long
+		return maxAbs(p) * maxAbs(q) <= Integer.MAX_VALUE / terms;
+	}
+
+	/**
+	 * @return the largest absolute value of a coefficient of p
+	 */
+	private static long maxAbs(Polynomial p) {
+		int[] coeffs = p instanceof DensePolynomial ? ((DensePolynomial) p).coefficients()
+				: SparsePolynomial.valueOf(p).coefficients();
+		long max = 0;
+		for (int i = 0; i < coeffs.length; i++) {
+			max = Math.max(max, Math.abs((long) coeffs[i]));
+		}
+		return max;
+	}
+
+	/**
+	 * Convert p to a long polynomial, keeping it dense or sparse.
+	 * @param p an int or long polynomial
+	 */
+	private static ExactPolynomial toLong(ExactPolynomial p) {
+		if (p instanceof LongDensePolynomial || p instanceof LongSparsePolynomial) {
+			return p;
+		}
+		Polynomial ip = unwrap(p);
+		if (ip instanceof DensePolynomial && ((DensePolynomial) ip).fillsFromZero()) {
+			// A LongDensePolynomial is indexed from exponent 0, so a large smallest
+			// exponent goes through the sparse form instead of padding
+			int[] arr = ((DensePolynomial) ip).coefficients();
+			int offset = ip.getMinExponent();
+			long[] coeffs = new long[offset + arr.length];
+			for (int i = 0; i < arr.length; i++) {
+				coeffs[offset + i] = arr[i];
+			}
+			return new LongDensePolynomial(coeffs);
+		}
+		SparsePolynomial sp = SparsePolynomial.valueOf(ip);
+		int[] arr = sp.coefficients();
+		long[] coeffs = new long[arr.length];
+		for (int i = 0; i < arr.length; i++) {
+			coeffs[i] = arr[i];
+		}
+		return new LongSparsePolynomial(sp.exponents(), coeffs);
+	}
+
+	/**
+	 * @return the long polynomial p as a LongSparsePolynomial
+	 */
+	private static LongSparsePolynomial toLongSparse(ExactPolynomial p) {
+		if (p instanceof LongSparsePolynomial) {
+			return (LongSparsePolynomial) p;
+		}
+		long[] arr = ((LongDensePolynomial) p).coefficients();
+		int size = 0;
+		for (int i = 0; i < arr.length; i++) {
+			if (arr[i] != 0) {
+				size++;
+			}
+		}
+		int[] exps = new int[size];
+		long[] coeffs = new long[size];
+		int k = 0;
+		for (int i = 0; i < arr.length; i++) {
+			if (arr[i] != 0) {
+				exps[k] = i;
+				coeffs[k] = arr[i];
+				k++;
+			}
+		}
+		return new LongSparsePolynomial(exps, coeffs);
+	}
+
+	/**
+	 * Convert p to a BigPolynomial.
+	 */
+	private static BigPolynomial toBig(ExactPolynomial p) {
+		if (p instanceof BigPolynomial) {
+			return (BigPolynomial) p;
+		}
+		if (width(p) == BIG) {
+			// Another implementation of ExactPolynomial: probe every exponent
+			int size = 0;
+			for (long exp = p.getMinExponent(); !p.isZero() && exp <= p.getMaxExponent(); exp++) {
+				if (p.getBigCoeff((int) exp).signum() != 0) {
+					size++;
+				}
+			}
+			int[] exps = new int[size];
+			BigInteger[] coeffs = new BigInteger[size];
+			int k = 0;
+			for (int exp = p.getMinExponent(); k < size; exp++) {
+				BigInteger coeff = p.getBigCoeff(exp);
+				if (coeff.signum() != 0) {
+					exps[k] = exp;
+					coeffs[k] = coeff;
+					k++;
+				}
+			}
+			return new BigPolynomial(exps, coeffs);
+		}
+		LongSparsePolynomial sp = toLongSparse(toLong(p));
+		long[] arr = sp.coefficients();
+		BigInteger[] coeffs = new BigInteger[arr.length];
+		for (int i = 0; i < arr.length; i++) {
+			coeffs[i] = BigInteger.valueOf(arr[i]);
+		}
+		return new BigPolynomial(sp.exponents(), coeffs);
+	}
+
+	/**
+	 * Convert a long result back to an int polynomial if width is INT and every
+	 * coefficient fits in an int.
+	 */
+	private static ExactPolynomial narrow(ExactPolynomial result, int width) {
+		if (width != INT) {
+			return result;
+		}
+		if (result instanceof LongDensePolynomial) {
+			long[] coeffs = ((LongDensePolynomial) result).coefficients();
+			int[] arr = new int[coeffs.length];
+			for (int i = 0; i < coeffs.length; i++) {
+				arr[i] = (int) coeffs[i];
+				if (arr[i] != coeffs[i]) {
+					return result;
+				}
+			}
+			return new DensePolynomial(arr);
+		}
+		LongSparsePolynomial sp = (LongSparsePolynomial) result;
+		long[] coeffs = sp.coefficients();
+		int[] arr = new int[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			arr[i] = (int) coeffs[i];
+			if (arr[i] != coeffs[i]) {
+				return result;
+			}
+		}
+		return new SparsePolynomial(sp.exponents(), arr);
+	}
+
+	/**
+	 * @return p + sign * q for long polynomials, dense if both are dense
+	 * @exception ArithmeticException is thrown if a coefficient overflows a long
+	 */
+	private static ExactPolynomial combineLong(ExactPolynomial p, ExactPolynomial q, int sign) {
+		if (p instanceof LongDensePolynomial && q instanceof LongDensePolynomial) {
+			long[] a = ((LongDensePolynomial) p).coefficients();
+			long[] b = ((LongDensePolynomial) q).coefficients();
+			long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+			if (sign > 0) {
+				for (int i = 0; i < b.length; i++) {
+					result[i] = Math.addExact(result[i], b[i]);
+				}
+			} else {
+				for (int i = 0; i < b.length; i++) {
+					result[i] = Math.subtractExact(result[i], b[i]);
+				}
+			}
+			return LongDensePolynomial.trimmed(result, result.length);
+		}
+
+		LongSparsePolynomial sp = toLongSparse(p);
+		LongSparsePolynomial sq = toLongSparse(q);
+		int[] pExps = sp.exponents();
+		long[] pCoeffs = sp.coefficients();
+		int[] qExps = sq.exponents();
+		long[] qCoeffs = sq.coefficients();
+		int[] exps = new int[pExps.length + qExps.length];
+		long[] coeffs = new long[exps.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < pExps.length || j < qExps.length) {
+			long coeff;
+			int exp;
+			if (j == qExps.length || i < pExps.length && pExps[i] < qExps[j]) {
+				exp = pExps[i];
+				coeff = pCoeffs[i++];
+			} else if (i == pExps.length || qExps[j] < pExps[i]) {
+				exp = qExps[j];
+				coeff = sign > 0 ? qCoeffs[j++] : Math.negateExact(qCoeffs[j++]);
+			} else {
+				exp = pExps[i];
+				coeff = sign > 0 ? Math.addExact(pCoeffs[i++], qCoeffs[j++])
+						: Math.subtractExact(pCoeffs[i++], qCoeffs[j++]);
+			}
+			if (coeff != 0) {
+				exps[k] = exp;
+				coeffs[k] = coeff;
+				k++;
+			}
+		}
+		return new LongSparsePolynomial(Arrays.copyOf(exps, k), Arrays.copyOf(coeffs, k));
+	}
+
+	/**
+	 * @return p * factor for a long polynomial
+	 * @exception ArithmeticException is thrown if a coefficient overflows a long
+	 */
+	private static ExactPolynomial scaleLong(ExactPolynomial p, long factor) {
+		if (p instanceof LongDensePolynomial) {
+			if (factor == 0) {
+				return new LongDensePolynomial();
+			}
+			long[] arr = ((LongDensePolynomial) p).coefficients();
+			long[] result = new long[arr.length];
+			for (int i = 0; i < arr.length; i++) {
+				result[i] = Math.multiplyExact(arr[i], factor);
+			}
+			return new LongDensePolynomial(result);
+		}
+		if (factor == 0) {
+			return new LongSparsePolynomial();
+		}
+		LongSparsePolynomial sp = (LongSparsePolynomial) p;
+		long[] coeffs = sp.coefficients();
+		long[] result = new long[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			result[i] = Math.multiplyExact(coeffs[i], factor);
+		}
+		return new LongSparsePolynomial(sp.exponents(), result);
+	}
+
+	/**
+	 * @return p * q for long polynomials, dense if both are dense
+	 * @exception ArithmeticException is thrown if a coefficient overflows a long, or if an
+	 *    exponent of the product does not fit in an int
+	 */
+	private static ExactPolynomial multiplyLong(ExactPolynomial p, ExactPolynomial q) {
+		if (p.isZero() || q.isZero()) {
+			return p instanceof LongDensePolynomial && q instanceof LongDensePolynomial
+					? new LongDensePolynomial() : new LongSparsePolynomial();
+		}
+		if (p instanceof LongDensePolynomial && q instanceof LongDensePolynomial) {
+			long[] a = ((LongDensePolynomial) p).coefficients();
+			long[] b = ((LongDensePolynomial) q).coefficients();
+			long[] result = new long[a.length + b.length - 1];
+			for (int i = 0; i < a.length; i++) {
+				if (a[i] == 0) {
+					continue;
+				}
+				for (int j = 0; j < b.length; j++) {
+					result[i + j] = Math.addExact(result[i + j], Math.multiplyExact(a[i], b[j]));
+				}
+			}
+			return LongDensePolynomial.trimmed(result, result.length);
+		}
+
+		LongSparsePolynomial sp = toLongSparse(p);
+		LongSparsePolynomial sq = toLongSparse(q);
+		int[] pExps = sp.exponents();
+		long[] pCoeffs = sp.coefficients();
+		int[] qExps = sq.exponents();
+		long[] qCoeffs = sq.coefficients();
+		ProductMerge merge = ProductMerge.of(pExps, qExps);
+		int[] exps = new int[productCapacity(pExps, qExps)];
+		long[] coeffs = new long[exps.length];
+		int k = 0;
+		while (merge.hasNext()) {
+			int exp = merge.nextExponent();
+			long coeff = 0;
+			while (merge.hasNext() && merge.nextExponent() == exp) {
+				merge.advance();
+				coeff = Math.addExact(coeff, Math.multiplyExact(pCoeffs[merge.p()], qCoeffs[merge.q()]));
+			}
+			if (coeff != 0) {
+				if (k == exps.length) {
+					exps = Arrays.copyOf(exps, 2 * k);
+					coeffs = Arrays.copyOf(coeffs, 2 * k);
+				}
+				exps[k] = exp;
+				coeffs[k] = coeff;
+				k++;
+			}
+		}
+		return new LongSparsePolynomial(Arrays.copyOf(exps, k), Arrays.copyOf(coeffs, k));
+	}
+
+	/**
+	 * @return the initial length of the arrays for the terms of a product of sparse
+	 *    polynomials with exponents pExps and qExps, which grow if there are more terms
+	 */
+	static int productCapacity(int[] pExps, int[] qExps) {
+		return (int) Math.min((long) pExps.length * qExps.length, Math.max(16, pExps.length + qExps.length));
+	}
+
+	/**
+	 * @return p + sign * q for BigPolynomials
+	 */
+	private static BigPolynomial combineBig(BigPolynomial p, BigPolynomial q, int sign) {
+		int[] pExps = p.exponents();
+		BigInteger[] pCoeffs = p.coefficients();
+		int[] qExps = q.exponents();
+		BigInteger[] qCoeffs = q.coefficients();
+		int[] exps = new int[pExps.length + qExps.length];
+		BigInteger[] coeffs = new BigInteger[exps.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < pExps.length || j < qExps.length) {
+			BigInteger coeff;
+			int exp;
+			if (j == qExps.length || i < pExps.length && pExps[i] < qExps[j]) {
+				exp = pExps[i];
+				coeff = pCoeffs[i++];
+			} else if (i == pExps.length || qExps[j] < pExps[i]) {
+				exp = qExps[j];
+				coeff = sign > 0 ? qCoeffs[j++] : qCoeffs[j++].negate();
+			} else {
+				exp = pExps[i];
+				coeff = sign > 0 ? pCoeffs[i++].add(qCoeffs[j++]) : pCoeffs[i++].subtract(qCoeffs[j++]);
+			}
+			if (coeff.signum() != 0) {
+				exps[k] = exp;
+				coeffs[k] = coeff;
+				k++;
+			}
+		}
+		return new BigPolynomial(Arrays.copyOf(exps, k), Arrays.copyOf(coeffs, k));
+	}
+
+	/**
+	 * @return p * q for BigPolynomials
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 */
+	private static BigPolynomial multiplyBig(BigPolynomial p, BigPolynomial q) {
+		if (p.isZero() || q.isZero()) {
+			return new BigPolynomial();
+		}
+		int[] pExps = p.exponents();
+		BigInteger[] pCoeffs = p.coefficients();
+		int[] qExps = q.exponents();
+		BigInteger[] qCoeffs = q.coefficients();
+		ProductMerge merge = ProductMerge.of(pExps, qExps);
+		int[] exps = new int[productCapacity(pExps, qExps)];
+		BigInteger[] coeffs = new BigInteger[exps.length];
+		int k = 0;
+		while (merge.hasNext()) {
+			int exp = merge.nextExponent();
+			BigInteger coeff = BigInteger.ZERO;
+			while (merge.hasNext() && merge.nextExponent() == exp) {
+				merge.advance();
+				coeff = coeff.add(pCoeffs[merge.p()].multiply(qCoeffs[merge.q()]));
+			}
+			if (coeff.signum() != 0) {
+				if (k == exps.length) {
+					exps = Arrays.copyOf(exps, 2 * k);
+					coeffs = Arrays.copyOf(coeffs, 2 * k);
+				}
+				exps[k] = exp;
+				coeffs[k] = coeff;
+				k++;
+			}
+		}
+		return new BigPolynomial(Arrays.copyOf(exps, k), Arrays.copyOf(coeffs, k));
+	}
+
+	/**
+	 * @return true if o is a long or BigInteger polynomial with the same terms as p
+	 */
+	static boolean equal(ExactPolynomial p, Object o) {
+		if (o == p) {
+			return true;
+		}
+		if (!(o instanceof LongDensePolynomial) && !(o instanceof LongSparsePolynomial)
+				&& !(o instanceof BigPolynomial)) {
+			return false;
+		}
+		ExactPolynomial q = (ExactPolynomial) o;
+		if (width(p) == LONG && width(q) == LONG) {
+			LongSparsePolynomial sp = toLongSparse(p);
+			LongSparsePolynomial sq = toLongSparse(q);
+			return Arrays.equals(sp.exponents(), sq.exponents())
+					&& Arrays.equals(sp.coefficients(), sq.coefficients());
+		}
+		BigPolynomial bp = toBig(p);
+		BigPolynomial bq = toBig(q);
+		return Arrays.equals(bp.exponents(), bq.exponents())
+				&& Arrays.equals(bp.coefficients(), bq.coefficients());
+	}
+
+	/**
+	 * @return a hash code of the terms of p that is the same for every width
+	 */
+	static int hash(ExactPolynomial p) {
+		int h = 1;
+		if (p instanceof LongDensePolynomial) {
+			long[] arr = ((LongDensePolynomial) p).coefficients();
+			for (int i = 0; i < arr.length; i++) {
+				if (arr[i] != 0) {
+					h = 31 * (31 * h + i) + Long.hashCode(arr[i]);
+				}
+			}
+			return h;
+		}
+		if (p instanceof LongSparsePolynomial) {
+			LongSparsePolynomial sp = (LongSparsePolynomial) p;
+			for (int i = 0; i < sp.exponents().length; i++) {
+				h = 31 * (31 * h + sp.exponents()[i]) + Long.hashCode(sp.coefficients()[i]);
+			}
+			return h;
+		}
+		BigPolynomial bp = toBig(p);
+		for (int i = 0; i < bp.exponents().length; i++) {
+			BigInteger coeff = bp.coefficients()[i];
+			int coeffHash = coeff.bitLength() < 64 ? Long.hashCode(coeff.longValue()) : coeff.hashCode();
+			h = 31 * (31 * h + bp.exponents()[i]) + coeffHash;
+		}
+		return h;
+	}
+
+	/**
+	 * Generates p in canonical form, with the terms from high to low exponent formatted
+	 * like Term.toString.
+	 */
+	static String format(ExactPolynomial p) {
+		if (p.isZero()) {
+			return "0";
+		}
+		StringBuilder builder = new StringBuilder();
+		if (width(p) == LONG) {
+			LongSparsePolynomial sp = toLongSparse(p);
+			for (int i = sp.exponents().length - 1; i >= 0; i--) {
+				long coeff = sp.coefficients()[i];
+				appendTerm(builder, Long.toString(coeff), coeff == 1, sp.exponents()[i]);
+			}
+		} else {
+			BigPolynomial bp = toBig(p);
+			for (int i = bp.exponents().length - 1; i >= 0; i--) {
+				BigInteger coeff = bp.coefficients()[i];
+				appendTerm(builder, coeff.toString(), coeff.equals(BigInteger.ONE), bp.exponents()[i]);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Append one term, preceded by " + " unless it is the first.
+	 */
+	private static void appendTerm(StringBuilder builder, String coeff, boolean one, int exp) {
+		if (builder.length() > 0) {
+			builder.append(" + ");
+		}
+		if (exp == 0) {
+			builder.append(coeff);
+		} else if (exp == 1) {
+			builder.append(coeff).append('x');
+		} else if (one) {
+			builder.append("x^").append(exp);
+		} else {
+			builder.append(coeff).append("x^").append(exp);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+import java.math.BigInteger;
+
+/**
+ * This interface generalizes Polynomial to polynomials whose arithmetic never
+ * overflows.  It is implemented by the int polynomials (DensePolynomial and
+ * SparsePolynomial), the long polynomials (LongDensePolynomial and LongSparsePolynomial)
+ * and BigPolynomial, whose coefficients are BigIntegers.
+ *
+ * Each operation returns its result in the narrowest of those families that holds it
+ * exactly, but never narrower than its widest operand: two int polynomials whose sum
+ * overflows an int produce a long polynomial, and a long product that overflows a long
+ * produces a BigPolynomial.
+ *
+ * @author yuhu
+ *
+ */
+public interface ExactPolynomial {
+
+	/**
+	 * Returns the smallest exponent with a non-zero coefficient
+	 *
+	 * @return the smallest exponent with a non-zero coefficient, or 0 for the zero polynomial
+	 */
+	public int getMinExponent();
+
+	/**
+	 * Returns the largest exponent with a non-zero coefficient
+	 *
+	 * @return the largest exponent with a non-zero coefficient, or 0 for the zero polynomial
+	 */
+	public int getMaxExponent();
+
+	/**
+	 * Returns the coefficient corresponding to the given exponent, whatever the width of
+	 * the coefficients.
+	 *
+	 * @param exp the exponent whose coefficent is returned.
+	 * @return the coefficient of the term with exponent exp, or 0 if there is none
+	 */
+	public BigInteger getBigCoeff(int exp);
+
+	/**
+	 * @return true if the polynomial represents the zero constant
+	 */
+	public boolean isZero();
+
+	/**
+	 * Returns this + q without overflow.  Neither this nor q are modified.
+	 *
+	 * @param q the polynomial to add to this. q should not be null.
+	 * @return this + q
+	 */
+	public ExactPolynomial addExact(ExactPolynomial q);
+
+	/**
+	 * Returns this - q without overflow.  Neither this nor q are modified.
+	 *
+	 * @param q the polynomial to subtract from this. q should not be null.
+	 * @return this - q
+	 */
+	public ExactPolynomial subtractExact(ExactPolynomial q);
+
+	/**
+	 * Returns this * factor without overflow.  this is not modified.
+	 *
+	 * @param factor the constant to multiply this by
+	 * @return this * factor
+	 */
+	public ExactPolynomial multiplyExact(long factor);
+
+	/**
+	 * Returns this * q without overflow.  Neither this nor q are modified.
+	 *
+	 * @param q the polynomial to multiply this by. q should not be null.
+	 * @return this * q
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 */
+	public ExactPolynomial multiplyExact(ExactPolynomial q);
+
+	/**
+	 * Returns -this without overflow.  this is not modified.
+	 *
+	 * @return -this
+	 */
+	public ExactPolynomial negateExact();
+
+	/**
+	 * Returns true if the object's class invariant holds
+	 *
+	 * @return true iff the class invariant holds
+	 */
+	public boolean wellFormed();
+}
@@ -0,0 +1,212 @@
+import java.math.BigInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the exact arithmetic of the int, long and BigInteger polynomials.
+ */
+public class ExactPolynomialTest extends TestCase {
+	private static final int MAX = Integer.MAX_VALUE;
+	private static final long LONG_MAX = Long.MAX_VALUE;
+
+	private DensePolynomial maxDense = new DensePolynomial(MAX, 2);
+	private SparsePolynomial maxSparse = new SparsePolynomial(MAX, 100);
+	private LongDensePolynomial longMax = new LongDensePolynomial(LONG_MAX, 1);
+	private LongSparsePolynomial longMaxSparse = new LongSparsePolynomial(LONG_MAX, -5);
+
+	/**
+	 * Test that int results stay int polynomials when nothing overflows.
+	 */
+	public void testIntStaysInt() {
+		DensePolynomial p = new DensePolynomial(3, 2);
+		ExactPolynomial sum = p.addExact(new DensePolynomial(4, 1));
+		assertTrue (sum instanceof DensePolynomial);
+		assertEquals ("3x^2 + 4x", sum.toString());
+
+		ExactPolynomial sparseSum = maxSparse.addExact(new SparsePolynomial(-1, 100));
+		assertTrue (sparseSum instanceof SparsePolynomial);
+		assertEquals (MAX - 1, ((Polynomial) sparseSum).getCoeff(100));
+
+		assertTrue (p.multiplyExact(5) instanceof DensePolynomial);
+		assertTrue (p.multiplyExact(p) instanceof DensePolynomial);
+		assertEquals (9, ((Polynomial) p.multiplyExact(p)).getCoeff(4));
+		assertTrue (p.subtractExact(p).isZero());
+	}
+
+	/**
+	 * Test that int overflow promotes to long polynomials.
+	 */
+	public void testIntPromotesToLong() {
+		ExactPolynomial sum = maxDense.addExact(maxDense);
+		assertTrue (sum instanceof LongDensePolynomial);
+		assertEquals (2L * MAX, ((LongDensePolynomial) sum).getCoeff(2));
+
+		ExactPolynomial difference = new DensePolynomial(Integer.MIN_VALUE, 0).subtractExact(new DensePolynomial(1, 0));
+		assertEquals (BigInteger.valueOf(Integer.MIN_VALUE - 1L), difference.getBigCoeff(0));
+
+		ExactPolynomial mixed = maxSparse.addExact(maxDense.addExact(new DensePolynomial(0, 0)));
+		assertTrue (mixed instanceof SparsePolynomial);
+		assertTrue (maxSparse.addExact(maxSparse) instanceof LongSparsePolynomial);
+
+		assertEquals (BigInteger.valueOf(3L * MAX), maxSparse.multiplyExact(3).getBigCoeff(100));
+		assertEquals (BigInteger.valueOf(-(long) Integer.MIN_VALUE),
+				new SparsePolynomial(Integer.MIN_VALUE, 1).negateExact().getBigCoeff(1));
+
+		// (MAX x + MAX)^2 has the coefficient 2 MAX^2 for x
+		ExactPolynomial p = new DensePolynomial(MAX, 1).add(new DensePolynomial(MAX, 0));
+		ExactPolynomial square = p.multiplyExact(p);
+		assertTrue (square instanceof LongDensePolynomial);
+		assertEquals (2L * MAX * MAX, ((LongDensePolynomial) square).getCoeff(1));
+		assertEquals ((long) MAX * MAX, ((LongDensePolynomial) square).getCoeff(2));
+	}
+
+	/**
+	 * Test that long overflow promotes to BigPolynomial.
+	 */
+	public void testLongPromotesToBig() {
+		BigInteger bigMax = BigInteger.valueOf(LONG_MAX);
+
+		ExactPolynomial sum = longMax.addExact(longMax);
+		assertTrue (sum instanceof BigPolynomial);
+		assertEquals (bigMax.shiftLeft(1), sum.getBigCoeff(1));
+
+		ExactPolynomial product = longMax.multiplyExact(longMaxSparse);
+		assertTrue (product instanceof BigPolynomial);
+		assertEquals (bigMax.multiply(bigMax), product.getBigCoeff(-4));
+
+		assertEquals (bigMax.negate().shiftLeft(2), longMaxSparse.multiplyExact(-4).getBigCoeff(-5));
+		assertEquals (BigInteger.valueOf(Long.MIN_VALUE).negate(),
+				new LongDensePolynomial(Long.MIN_VALUE, 3).negateExact().getBigCoeff(3));
+
+		// Coming back into range keeps the wide representation but the exact value
+		ExactPolynomial back = sum.subtractExact(longMax);
+		assertEquals (longMax, back);
+		assertEquals (longMax.hashCode(), back.hashCode());
+	}
+
+	/**
+	 * Test arithmetic that stays within long polynomials.
+	 */
+	public void testLongArithmetic() {
+		LongDensePolynomial p = new LongDensePolynomial(1L << 31, 1);
+		ExactPolynomial sum = p.addExact(new DensePolynomial(1, 0));
+		assertTrue (sum instanceof LongDensePolynomial);
+		assertEquals ("2147483648x + 1", sum.toString());
+
+		ExactPolynomial mixed = sum.addExact(longMaxSparse);
+		assertTrue (mixed instanceof LongSparsePolynomial);
+		assertEquals (-5, mixed.getMinExponent());
+		assertEquals (1, mixed.getMaxExponent());
+
+		ExactPolynomial square = sum.multiplyExact(sum);
+		assertEquals (1L << 32, ((LongDensePolynomial) square).getCoeff(1));
+		assertEquals (1L << 62, ((LongDensePolynomial) square).getCoeff(2));
+		assertEquals (1L, ((LongDensePolynomial) square).getCoeff(0));
+
+		ExactPolynomial sparseSquare = mixed.subtractExact(longMaxSparse).multiplyExact(mixed.subtractExact(longMaxSparse));
+		assertTrue (sparseSquare instanceof LongSparsePolynomial);
+		assertEquals (square, sparseSquare);
+		assertEquals (square.hashCode(), sparseSquare.hashCode());
+		assertTrue (sum.subtractExact(sum).isZero());
+		assertTrue (sum.wellFormed());
+		assertTrue (mixed.wellFormed());
+	}
+
+	/**
+	 * Test BigPolynomial arithmetic and printing.
+	 */
+	public void testBig() {
+		BigInteger huge = BigInteger.TEN.pow(30);
+		BigPolynomial p = new BigPolynomial(huge, 2);
+		ExactPolynomial sum = p.addExact(new DensePolynomial(1, 0));
+		assertEquals ("1000000000000000000000000000000x^2 + 1", sum.toString());
+
+		ExactPolynomial square = sum.multiplyExact(sum);
+		assertEquals (huge.multiply(huge), square.getBigCoeff(4));
+		assertEquals (huge.shiftLeft(1), square.getBigCoeff(2));
+		assertEquals (BigInteger.ONE, square.getBigCoeff(0));
+		assertEquals (BigInteger.ZERO, square.getBigCoeff(1));
+
+		assertTrue (sum.subtractExact(sum).isZero());
+		assertTrue (p.multiplyExact(0).isZero());
+		assertTrue (square.wellFormed());
+		assertEquals ("x^5", new BigPolynomial(BigInteger.ONE, 5).toString());
+	}
+
+	/**
+	 * Test that the long and BigInteger polynomials are not equal to the int ones, whose
+	 * equality is defined among themselves.
+	 */
+	public void testEquals() {
+		assertFalse (new LongDensePolynomial(1, 0).equals(new DensePolynomial(1, 0)));
+		assertFalse (new LongDensePolynomial(1, 0).equals(null));
+		assertEquals (new LongDensePolynomial(2, 3), new LongSparsePolynomial(2, 3));
+		assertEquals (new LongSparsePolynomial(2, 3), new BigPolynomial(BigInteger.valueOf(2), 3));
+		assertEquals (new BigPolynomial(BigInteger.valueOf(2), 3).hashCode(), new LongDensePolynomial(2, 3).hashCode());
+	}
+
+	/**
+	 * Test that products whose exponents do not fit in an int are rejected at every width.
+	 */
+	public void testExponentOverflow() {
+		ExactPolynomial[] operands = {
+				new LongSparsePolynomial(1L << 40, 1 << 30),
+				new BigPolynomial(BigInteger.ONE.shiftLeft(70), 1 << 30),
+				new SparsePolynomial(1 << 20, 1 << 30).add(new SparsePolynomial(1, 0)),
+		};
+		for (ExactPolynomial p : operands) {
+			try {
+				p.multiplyExact(p);
+				fail ("Expected ArithmeticException");
+			} catch (ArithmeticException e) {
+				// expected
+			}
+		}
+
+		// Exponents near the ends of the range are still exact
+		ExactPolynomial p = new LongSparsePolynomial(1L << 40, Integer.MAX_VALUE - 1)
+				.addExact(new LongSparsePolynomial(3, Integer.MIN_VALUE + 1));
+		ExactPolynomial q = new LongSparsePolynomial(1L << 40, 1).addExact(new LongSparsePolynomial(-1, -1));
+		ExactPolynomial product = p.multiplyExact(q);
+		assertEquals (BigInteger.ONE.shiftLeft(80), product.getBigCoeff(Integer.MAX_VALUE));
+		assertEquals (BigInteger.valueOf(-(1L << 40)), product.getBigCoeff(Integer.MAX_VALUE - 2));
+		assertEquals (BigInteger.valueOf(3L << 40), product.getBigCoeff(Integer.MIN_VALUE + 2));
+		assertEquals (BigInteger.valueOf(-3), product.getBigCoeff(Integer.MIN_VALUE));
+	}
+
+	/**
+	 * Test that dense operands with a large smallest exponent are not padded from 0.
+	 */
+	public void testHighOffset() {
+		DensePolynomial p = new DensePolynomial(Integer.MAX_VALUE, 1500000000);
+		ExactPolynomial sum = p.addExact(p);
+		assertEquals (BigInteger.valueOf(2L * Integer.MAX_VALUE), sum.getBigCoeff(1500000000));
+		assertEquals (1500000000, sum.getMinExponent());
+		assertEquals (BigInteger.valueOf(-3L * Integer.MAX_VALUE), p.multiplyExact(-3).getBigCoeff(1500000000));
+		assertTrue (sum.subtractExact(p).subtractExact(p).isZero());
+
+		// Subtracting from zero only negates the other operand
+		ExactPolynomial negated = new DensePolynomial().subtractExact(new DensePolynomial(1, 2000000000));
+		assertEquals (new DensePolynomial(-1, 2000000000), negated);
+		negated = new DensePolynomial().subtractExact(new DensePolynomial(Integer.MIN_VALUE, 2000000000));
+		assertEquals (BigInteger.valueOf(Integer.MIN_VALUE).negate(), negated.getBigCoeff(2000000000));
+	}
+
+	/**
+	 * Test that null operands are rejected.
+	 */
+	public void testNull() {
+		try {
+			maxDense.addExact(null);
+			fail ("Expected NullPointerException");
+		} catch (NullPointerException e) {
+			// expected
+		}
+		try {
+			longMax.multiplyExact(null);
+			fail ("Expected NullPointerException");
+		} catch (NullPointerException e) {
+			// expected
+		}
+	}
+}
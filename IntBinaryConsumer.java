@@ -0,0 +1,16 @@
+/**
+ * An operation on the coefficient and exponent of a term, used to walk the terms of a
+ * polynomial without creating a Term for each one.
+ *
+ * @author yuhu
+ *
+ */
+@FunctionalInterface
+public interface IntBinaryConsumer {
+
+	/**
+	 * @param coefficient the coefficient of the term
+	 * @param exponent the exponent of the term
+	 */
+	public void accept(int coefficient, int exponent);
+}
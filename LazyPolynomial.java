@@ -0,0 +1,516 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lazy polynomial records add, subtract, multiply and minus as an expression graph
+ * instead of computing them.  Shared subexpressions are shared nodes of the graph.
+ *
+ * getCoeff(exp) computes a single coefficient without computing the whole result: sums,
+ * differences and multiples collapse to a linear combination of their operands, and a
+ * coefficient of a product is one convolution sum over the terms of its operands.
+ * force(), toString and every other query compute the whole result once and keep it.
+ * When force() meets a linear combination of dense polynomials it computes it in a single
+ * pass over the coefficients, without the intermediate arrays that eager calls create.
+ *
+ * @author yuhu
+ *
+ */
+final public class LazyPolynomial extends AbstractPolynomial implements Polynomial {
+
+	// The kinds of node of the expression graph
+	private enum Op {
+		LEAF, ADD, SUBTRACT, SCALE, MULTIPLY
+	}
+
+	// Dense linear combinations are computed this many coefficients at a time, so that
+	// the block of the result stays in cache while each operand adds to it
+	static final int BLOCK = 2048;
+
+	// Class invariants:
+	//	  a LEAF has a leaf that is not lazy, and no operands
+	//	  an ADD, SUBTRACT or MULTIPLY has both operands and no leaf
+	//	  a SCALE has a left operand, no right operand and no leaf
+	final private Op op;
+	final private Polynomial leaf;
+	final private LazyPolynomial left;
+	final private LazyPolynomial right;
+	final private int factor;
+
+	// The result, once it has been forced.  A race can compute it twice, but never differently.
+	private volatile Polynomial value;
+
+	// The linear combination this node collapses to, once it has been needed
+	private volatile Combination combination;
+
+	/**
+	 * The weighted sum of the bases of a linear expression.  Bases are leaves, products
+	 * and nodes that have already been forced.
+	 */
+	private static final class Combination {
+		final LazyPolynomial[] bases;
+		final int[] weights;
+
+		Combination(LazyPolynomial[] bases, int[] weights) {
+			this.bases = bases;
+			this.weights = weights;
+		}
+	}
+
+	private LazyPolynomial(Op op, Polynomial leaf, LazyPolynomial left, LazyPolynomial right, int factor) {
+		this.op = op;
+		this.leaf = leaf;
+		this.left = left;
+		this.right = right;
+		this.factor = factor;
+		assert wellFormed();
+	}
+
+	/**
+	 * Return a lazy polynomial equal to p.  p itself is returned if it is already lazy.
+	 * @param p the polynomial to start an expression from
+	 * @return a LazyPolynomial equal to p
+	 * @exception NullPointerException is thrown if p is null
+	 */
+	public static LazyPolynomial valueOf(Polynomial p) {
+		if (p == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p instanceof LazyPolynomial) {
+			return (LazyPolynomial) p;
+		}
+		return new LazyPolynomial(Op.LEAF, p, null, null, 0);
+	}
+
+	/**
+	 * Return the value of the expression, computing it the first time.  Dense linear
+	 * combinations are computed in a single pass; everything else uses the operations
+	 * of the operands, so the result has the representation eager calls would give it.
+	 * @return a polynomial that is not lazy
+	 */
+	public Polynomial force() {
+		Polynomial result = value;
+		if (result == null) {
+			result = op == Op.LEAF ? leaf : compute();
+			value = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if the value of the expression has been computed
+	 */
+	public boolean isForced() {
+		return value != null;
+	}
+
+	/**
+	 * Compute the value of an operation node.
+	 */
+	private Polynomial compute() {
+		if (op == Op.MULTIPLY) {
+			return left.force().multiply(right.force());
+		}
+		Combination c = combination();
+		int[] weights = c.weights;
+		Polynomial[] operands = new Polynomial[c.bases.length];
+		boolean dense = true;
+		for (int i = 0; i < operands.length; i++) {
+			operands[i] = c.bases[i].force();
+			dense &= operands[i] instanceof DensePolynomial;
+		}
+		if (dense) {
+			return fuse(operands, weights);
+		}
+		Polynomial result = null;
+		for (int i = 0; i < operands.length; i++) {
+			Polynomial term = weights[i] == 1 ? operands[i] : operands[i].multiply(weights[i]);
+			result = result == null ? term : result.add(term);
+		}
+		return result == null ? DensePolynomial.ZERO : result;
+	}
+
+	/**
+	 * Return the sum of weights[i] * operands[i], all of which are dense, in one pass over
+	 * the coefficients of the result.  Each operand only touches the part of the result
+	 * its exponents cover.
+	 */
+	private static DensePolynomial fuse(Polynomial[] operands, int[] weights) {
+		int[][] arrays = new int[operands.length][];
+		int lo = Integer.MAX_VALUE;
+		int hi = Integer.MIN_VALUE;
+		for (int i = 0; i < operands.length; i++) {
+			arrays[i] = ((DensePolynomial) operands[i]).coefficients();
+			if (arrays[i].length > 0) {
+				lo = Math.min(lo, operands[i].getMinExponent());
+				hi = Math.max(hi, operands[i].getMaxExponent());
+			}
+		}
+		if (lo > hi) {
+			return DensePolynomial.ZERO;
+		}
+		int length = DensePolynomial.width(lo, hi);
+
+		// arrays[i][k] is the coefficient of x^(lo + shifts[i] + k)
+		int[] shifts = new int[operands.length];
+		for (int i = 0; i < operands.length; i++) {
+			shifts[i] = operands[i].getMinExponent() - lo;
+		}
+		int[] result = new int[length];
+		for (int from = 0; from < length; from += BLOCK) {
+			int to = Math.min(length, from + BLOCK);
+			for (int i = 0; i < arrays.length; i++) {
+				int[] arr = arrays[i];
+				int w = weights[i];
+				int shift = shifts[i];
+				int start = Math.max(from, shift);
+				int end = Math.min(to, shift + arr.length);
+				DenseKernels.addScaled(result, start, w, arr, start - shift, end - start);
+			}
+		}
+		return DensePolynomial.trimmed(lo, result, length);
+	}
+
+	/**
+	 * Return the linear combination this node collapses to.  The graph is walked without
+	 * recursion, so long chains of sums do not overflow the stack, and each shared node is
+	 * visited once.
+	 */
+	private Combination combination() {
+		Combination c = combination;
+		if (c != null) {
+			return c;
+		}
+
+		// Order the linear nodes so that every node comes before its operands
+		List<LazyPolynomial> order = new ArrayList<>();
+		Map<LazyPolynomial, Boolean> seen = new IdentityHashMap<>();
+		ArrayDeque<LazyPolynomial> stack = new ArrayDeque<>();
+		stack.push(this);
+		while (!stack.isEmpty()) {
+			LazyPolynomial node = stack.peek();
+			Boolean done = seen.get(node);
+			if (done == null) {
+				seen.put(node, Boolean.FALSE);
+				if (node.isLinear()) {
+					stack.push(node.left);
+					if (node.right != null) {
+						stack.push(node.right);
+					}
+				}
+			} else {
+				stack.pop();
+				if (!done) {
+					seen.put(node, Boolean.TRUE);
+					order.add(node);
+				}
+			}
+		}
+
+		// Push the weights from the root down to the bases
+		Map<LazyPolynomial, int[]> weights = new IdentityHashMap<>();
+		weights.put(this, new int[] {1});
+		List<LazyPolynomial> bases = new ArrayList<>();
+		for (int i = order.size() - 1; i >= 0; i--) {
+			LazyPolynomial node = order.get(i);
+			// A node forced by another thread during the walk leaves its operands unweighted
+			int[] sum = weights.get(node);
+			int w = sum == null ? 0 : sum[0];
+			if (!node.isLinear()) {
+				if (w != 0) {
+					bases.add(node);
+				}
+			} else if (node.op == Op.SCALE) {
+				addWeight(weights, node.left, w * node.factor);
+			} else {
+				addWeight(weights, node.left, w);
+				addWeight(weights, node.right, node.op == Op.ADD ? w : -w);
+			}
+		}
+		int[] baseWeights = new int[bases.size()];
+		for (int i = 0; i < baseWeights.length; i++) {
+			baseWeights[i] = weights.get(bases.get(i))[0];
+		}
+		c = new Combination(bases.toArray(new LazyPolynomial[0]), baseWeights);
+		combination = c;
+		return c;
+	}
+
+	private static void addWeight(Map<LazyPolynomial, int[]> weights, LazyPolynomial node, int w) {
+		int[] sum = weights.get(node);
+		if (sum == null) {
+			weights.put(node, new int[] {w});
+		} else {
+			sum[0] += w;
+		}
+	}
+
+	/**
+	 * @return true if this node is a sum, difference or multiple that has not been forced
+	 */
+	private boolean isLinear() {
+		return value == null && (op == Op.ADD || op == Op.SUBTRACT || op == Op.SCALE);
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent, computing only that
+	 * coefficient if the expression has not been forced.  The operands of products are
+	 * forced, but not the products themselves.
+	 */
+	@Override
+	public int getCoeff(int exp) {
+		Polynomial result = value;
+		if (result != null) {
+			return result.getCoeff(exp);
+		}
+		if (op == Op.LEAF) {
+			return leaf.getCoeff(exp);
+		}
+		if (op == Op.MULTIPLY) {
+			return productCoeff(left.force(), right.force(), exp);
+		}
+		Combination c = combination();
+		int coeff = 0;
+		for (int i = 0; i < c.bases.length; i++) {
+			coeff += c.weights[i] * c.bases[i].getCoeff(exp);
+		}
+		return coeff;
+	}
+
+	/**
+	 * Return the coefficient of x^exp in p * q, summing over the terms of the operand
+	 * with fewer terms.
+	 */
+	private static int productCoeff(Polynomial p, Polynomial q, int exp) {
+		if (p instanceof AdaptivePolynomial) {
+			p = ((AdaptivePolynomial) p).getDelegate();
+		}
+		if (q instanceof AdaptivePolynomial) {
+			q = ((AdaptivePolynomial) q).getDelegate();
+		}
+		if (p instanceof DensePolynomial && q instanceof DensePolynomial) {
+			int[] a = ((DensePolynomial) p).coefficients();
+			int[] b = ((DensePolynomial) q).coefficients();
+
+			// The product of the arrays holds the coefficients from the sum of the smallest exponents
+			long k = (long) exp - p.getMinExponent() - q.getMinExponent();
+			if (k < 0 || k >= (long) a.length + b.length) {
+				return 0;
+			}
+			int shifted = (int) k;
+			int coeff = 0;
+			for (int i = Math.max(0, shifted - b.length + 1); i < a.length && i <= shifted; i++) {
+				coeff += a[i] * b[shifted - i];
+			}
+			return coeff;
+		}
+		if (p instanceof DensePolynomial || !(q instanceof DensePolynomial)
+				&& ((AbstractPolynomial) q).termCount() < ((AbstractPolynomial) p).termCount()) {
+			Polynomial t = p;
+			p = q;
+			q = t;
+		}
+		SparsePolynomial sp = SparsePolynomial.valueOf(p);
+		int[] exps = sp.exponents();
+		int[] coeffs = sp.coefficients();
+		int coeff = 0;
+		for (int i = 0; i < exps.length; i++) {
+			long other = (long) exp - exps[i];
+			if (other >= Integer.MIN_VALUE && other <= Integer.MAX_VALUE) {
+				coeff += coeffs[i] * q.getCoeff((int) other);
+			}
+		}
+		return coeff;
+	}
+
+	/**
+	 * Return the smallest exponent of the polynomial, forcing it.
+	 */
+	@Override
+	public int getMinExponent() {
+		return force().getMinExponent();
+	}
+
+	/**
+	 * Return the largest exponent of the polynomial, forcing it.
+	 */
+	@Override
+	public int getMaxExponent() {
+		return force().getMaxExponent();
+	}
+
+	/**
+	 * Return true if this polynomial is the constant 0, forcing it.
+	 */
+	@Override
+	public boolean isZero() {
+		return force().isZero();
+	}
+
+	/**
+	 * Return the number of terms of this polynomial, forcing it.
+	 */
+	@Override
+	int termCount() {
+		Polynomial result = force();
+		if (result instanceof AbstractPolynomial) {
+			return ((AbstractPolynomial) result).termCount();
+		}
+		return super.termCount();
+	}
+
+	/**
+	 * Return the lazy sum of this polynomial and q.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial add(Polynomial q) {
+		return new LazyPolynomial(Op.ADD, null, this, valueOf(q), 0);
+	}
+
+	/**
+	 * Return the lazy difference of this polynomial and q.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial subtract(Polynomial q) {
+		return new LazyPolynomial(Op.SUBTRACT, null, this, valueOf(q), 0);
+	}
+
+	/**
+	 * Return the lazy product of this polynomial and factor.  A multiple of a multiple
+	 * becomes a single multiple.
+	 */
+	@Override
+	public Polynomial multiply(int factor) {
+		if (op == Op.SCALE && value == null) {
+			return new LazyPolynomial(Op.SCALE, null, left, null, this.factor * factor);
+		}
+		return new LazyPolynomial(Op.SCALE, null, this, null, factor);
+	}
+
+	/**
+	 * Return the lazy product of this polynomial and q.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public Polynomial multiply(Polynomial q) {
+		return new LazyPolynomial(Op.MULTIPLY, null, this, valueOf(q), 0);
+	}
+
+	/**
+	 * Return the lazy negative of this polynomial.
+	 */
+	@Override
+	public Polynomial minus() {
+		return multiply(-1);
+	}
+
+	/**
+	 * Return the value of this polynomial at x, forcing it.
+	 */
+	@Override
+	public long evaluate(long x) {
+		return force().evaluate(x);
+	}
+
+	/**
+	 * Return the value of this polynomial at x, forcing it.
+	 */
+	@Override
+	public double evaluate(double x) {
+		return force().evaluate(x);
+	}
+
+	/**
+	 * Return the value of this polynomial at x modulo modulus, forcing it.
+	 */
+	@Override
+	public long evaluateMod(long x, long modulus) {
+		return force().evaluateMod(x, modulus);
+	}
+
+	/**
+	 * Evaluate this polynomial at every point of xs, storing the values in out.
+	 */
+	@Override
+	public void evaluate(double[] xs, double[] out) {
+		force().evaluate(xs, out);
+	}
+
+	/**
+	 * Returns true if o is an equivalent polynomial, forcing both.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (o instanceof LazyPolynomial) {
+			o = ((LazyPolynomial) o).force();
+		}
+		return force().equals(o);
+	}
+
+	/**
+	 * Returns the hash code of the forced value, which is the same for every representation.
+	 */
+	@Override
+	public int hashCode() {
+		return force().hashCode();
+	}
+
+	/**
+	 * Generates the polynomial in canonical form, forcing it.
+	 */
+	@Override
+	public String toString() {
+		return force().toString();
+	}
+
+	/**
+	 * Walks the terms of the forced value.
+	 */
+	@Override
+	TermCursor cursor() {
+		Polynomial result = force();
+		if (result instanceof AbstractPolynomial) {
+			return ((AbstractPolynomial) result).cursor();
+		}
+		return super.cursor();
+	}
+
+	/**
+	 * Formats the terms of the forced value.
+	 */
+	@Override
+	void writeTerms(StringBuilder buffer, Appendable out) throws IOException {
+		Polynomial result = force();
+		if (result instanceof AbstractPolynomial) {
+			((AbstractPolynomial) result).writeTerms(buffer, out);
+		} else {
+			super.writeTerms(buffer, out);
+		}
+	}
+
+	/**
+	 * Return true if the node satisfies the class invariants
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (op == null) {
+			return false;
+		}
+		switch (op) {
+		case LEAF:
+			return leaf != null && !(leaf instanceof LazyPolynomial) && left == null && right == null;
+		case SCALE:
+			return leaf == null && left != null && right == null;
+		default:
+			return leaf == null && left != null && right != null;
+		}
+	}
+}
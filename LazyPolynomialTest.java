@@ -0,0 +1,105 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests for the LazyPolynomial class.
+ */
+public class LazyPolynomialTest extends TestCase {
+	private Polynomial one = new DensePolynomial(1, 0);
+	private Polynomial twoX = new DensePolynomial(2, 1);
+	private Polynomial xTo100 = new SparsePolynomial(1, 100);
+	private Polynomial xToNegative2 = new SparsePolynomial(1, -2);
+
+	/**
+	 * Test that operations are recorded and computed only when forced.
+	 */
+	public void testDeferred() {
+		LazyPolynomial p = LazyPolynomial.valueOf(one);
+		assertSame (p, LazyPolynomial.valueOf(p));
+		LazyPolynomial e = (LazyPolynomial) p.add(twoX).subtract(one).multiply(3);
+		assertFalse (e.isForced());
+		assertEquals (6, e.getCoeff(1));
+		assertEquals (0, e.getCoeff(0));
+		assertFalse (e.isForced());
+		assertEquals ("6x", e.toString());
+		assertTrue (e.isForced());
+		assertTrue (e.force() instanceof DensePolynomial);
+		assertEquals (twoX.multiply(3), e);
+		assertEquals (e, twoX.multiply(3));
+		assertEquals (twoX.multiply(3).hashCode(), e.hashCode());
+	}
+
+	/**
+	 * Test that the results match eager calls, for every representation.
+	 */
+	public void testMatchesEager() {
+		Polynomial eager = one.add(twoX).multiply(xTo100).subtract(xToNegative2).minus().multiply(5).add(twoX);
+		Polynomial lazy = LazyPolynomial.valueOf(one).add(twoX).multiply(xTo100).subtract(xToNegative2).minus()
+				.multiply(5).add(twoX);
+		for (int exp = -3; exp < 105; exp++) {
+			assertEquals (eager.getCoeff(exp), lazy.getCoeff(exp));
+		}
+		assertEquals (eager, lazy);
+		assertEquals (eager.toString(), lazy.toString());
+		assertEquals (eager.evaluate(-1L), lazy.evaluate(-1L));
+		assertEquals (eager.evaluate(0.5), lazy.evaluate(0.5), 1e-9);
+		assertEquals (eager.getMinExponent(), lazy.getMinExponent());
+		assertEquals (eager.getMaxExponent(), lazy.getMaxExponent());
+		assertEquals (eager, ((AbstractPolynomial) lazy).addExact(one).subtractExact(one));
+	}
+
+	/**
+	 * Test a coefficient of a large product without computing the product.
+	 */
+	public void testProductCoeff() {
+		int n = 100000;
+		int[] arr = new int[n];
+		java.util.Arrays.fill(arr, 1);
+		Polynomial ones = new DensePolynomial(arr);
+		LazyPolynomial square = (LazyPolynomial) LazyPolynomial.valueOf(ones).multiply(ones);
+		assertEquals (n, square.getCoeff(n - 1));
+		assertEquals (1, square.getCoeff(2 * n - 2));
+		assertEquals (0, square.getCoeff(2 * n - 1));
+		assertEquals (0, square.getCoeff(-1));
+		assertFalse (square.isForced());
+
+		LazyPolynomial sparseProduct = (LazyPolynomial) LazyPolynomial.valueOf(xTo100.add(one)).multiply(ones);
+		assertEquals (2, sparseProduct.getCoeff(100));
+		assertEquals (1, sparseProduct.getCoeff(n + 99));
+	}
+
+	/**
+	 * Test that shared subexpressions and long chains are handled without blowing up.
+	 */
+	public void testSharing() {
+		Polynomial p = LazyPolynomial.valueOf(one.add(twoX));
+		for (int i = 0; i < 40; i++) {
+			p = p.add(p);
+		}
+		// 2^40 wraps around to 0
+		assertEquals (0, p.getCoeff(0));
+		assertTrue (p.isZero());
+
+		Polynomial chain = LazyPolynomial.valueOf(new DensePolynomial());
+		for (int i = 0; i < 100000; i++) {
+			chain = chain.add(one).subtract(twoX);
+		}
+		assertEquals (100000, chain.getCoeff(0));
+		assertEquals (-200000, chain.getCoeff(1));
+		assertTrue (((LazyPolynomial) chain).force() instanceof DensePolynomial);
+
+		Polynomial cancel = LazyPolynomial.valueOf(xTo100).subtract(xTo100);
+		assertTrue (cancel.isZero());
+	}
+
+	/**
+	 * Test that null operands are rejected.
+	 */
+	public void testNull() {
+		try {
+			LazyPolynomial.valueOf(one).add(null);
+			fail ("Expected NullPointerException");
+		} catch (NullPointerException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,213 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A long dense polynomial is a dense polynomial whose coefficients are longs.  Its
+ * arithmetic is exact: a result whose coefficients do not fit in a long is returned as
+ * a BigPolynomial.
+ *
+ * @author yuhu
+ *
+ */
+final public class LongDensePolynomial implements ExactPolynomial {
+
+	// The coefficients indexed by exponent
+	// Class invariant: the last entry, if any, is non-zero
+	final private long[] coeffs;
+
+	/**
+	 * Creates the zero polynomial
+	 */
+	public LongDensePolynomial() {
+		coeffs = new long[0];
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial with a single term
+	 * @param coeff the coefficient of the term
+	 * @param exponent the exponent of the term
+	 * @exception IllegalArgumentException is thrown if exponent is negative
+	 */
+	public LongDensePolynomial(long coeff, int exponent) {
+		if (exponent < 0) {
+			throw new IllegalArgumentException("A LongDensePolynomial cannot have negative exponents");
+		}
+		if (coeff == 0) {
+			coeffs = new long[0];
+		} else {
+			coeffs = new long[exponent + 1];
+			coeffs[exponent] = coeff;
+		}
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial that takes ownership of the given coefficient array.
+	 * The caller must not modify it afterwards.
+	 * @param coeffs the coefficients indexed by exponent, with no trailing zeros
+	 */
+	LongDensePolynomial(long[] coeffs) {
+		this.coeffs = coeffs;
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial from the first length entries of arr, dropping any trailing
+	 * zeros.  arr is used directly when it is already trimmed, so the caller must not
+	 * modify it afterwards.
+	 * @param arr the coefficients indexed by exponent
+	 * @param length the number of entries of arr to use
+	 * @return the polynomial with those coefficients
+	 */
+	static LongDensePolynomial trimmed(long[] arr, int length) {
+		while (length > 0 && arr[length - 1] == 0) {
+			length--;
+		}
+		if (length == arr.length) {
+			return new LongDensePolynomial(arr);
+		}
+		return new LongDensePolynomial(Arrays.copyOf(arr, length));
+	}
+
+	/**
+	 * Return the internal coefficient array, indexed by exponent.  The array must not be
+	 * modified.
+	 * @return the coefficients of this polynomial
+	 */
+	long[] coefficients() {
+		return coeffs;
+	}
+
+	/**
+	 * Return the smallest exponent of the polynomial.
+	 */
+	@Override
+	public int getMinExponent() {
+		for (int i = 0; i < coeffs.length; i++) {
+			if (coeffs[i] != 0) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Return the largest exponent of the polynomial.
+	 */
+	@Override
+	public int getMaxExponent() {
+		return coeffs.length == 0 ? 0 : coeffs.length - 1;
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent.  Return 0 if there
+	 * is no term for the exponent.
+	 * @param exp the exponent whose coefficient is returned
+	 * @return the coefficient of x^exp
+	 */
+	public long getCoeff(int exp) {
+		if (exp < 0 || exp >= coeffs.length) {
+			return 0;
+		}
+		return coeffs[exp];
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent as a BigInteger.
+	 */
+	@Override
+	public BigInteger getBigCoeff(int exp) {
+		return BigInteger.valueOf(getCoeff(exp));
+	}
+
+	/**
+	 * Return true if this polynomial is the constant 0.
+	 */
+	@Override
+	public boolean isZero() {
+		return coeffs.length == 0;
+	}
+
+	/**
+	 * Return this + q, as a BigPolynomial if a coefficient overflows a long.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial addExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, 1);
+	}
+
+	/**
+	 * Return this - q, as a BigPolynomial if a coefficient overflows a long.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial subtractExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, -1);
+	}
+
+	/**
+	 * Return this * factor, as a BigPolynomial if a coefficient overflows a long.
+	 */
+	@Override
+	public ExactPolynomial multiplyExact(long factor) {
+		return ExactArithmetic.scale(this, factor);
+	}
+
+	/**
+	 * Return this * q, as a BigPolynomial if a coefficient overflows a long.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial multiplyExact(ExactPolynomial q) {
+		return ExactArithmetic.multiply(this, q);
+	}
+
+	/**
+	 * Return -this, as a BigPolynomial if a coefficient is Long.MIN_VALUE.
+	 */
+	@Override
+	public ExactPolynomial negateExact() {
+		return ExactArithmetic.scale(this, -1);
+	}
+
+	/**
+	 * Returns true if o is a long or BigInteger polynomial with the same coefficients
+	 * for the same exponents.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof LongDensePolynomial) {
+			return Arrays.equals(coeffs, ((LongDensePolynomial) o).coeffs);
+		}
+		return ExactArithmetic.equal(this, o);
+	}
+
+	/**
+	 * Returns a hash code that agrees with the other long and BigInteger polynomials.
+	 */
+	@Override
+	public int hashCode() {
+		return ExactArithmetic.hash(this);
+	}
+
+	/**
+	 * Generates the polynomial in canonical form, in the format of SparsePolynomial.
+	 */
+	@Override
+	public String toString() {
+		return ExactArithmetic.format(this);
+	}
+
+	/**
+	 * Return true if the polynomial satisfies the class invariants
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (coeffs == null) {
+			return false;
+		}
+		return coeffs.length == 0 || coeffs[coeffs.length - 1] != 0;
+	}
+}
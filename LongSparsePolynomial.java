@@ -0,0 +1,210 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A long sparse polynomial is a sparse polynomial whose coefficients are longs.  Its
+ * arithmetic is exact: a result whose coefficients do not fit in a long is returned as
+ * a BigPolynomial.
+ *
+ * @author yuhu
+ *
+ */
+final public class LongSparsePolynomial implements ExactPolynomial {
+
+	// Parallel arrays that hold the terms.  exps[i] is the exponent of the term whose
+	// coefficient is coeffs[i].
+	// Class invariants:
+	//	  exps and coeffs have the same length
+	//	  exponents are in ascending numerical order with no duplicates
+	//	  all terms have non-zero coefficients
+	final private int[] exps;
+	final private long[] coeffs;
+
+	/**
+	 * Creates the zero polynomial
+	 */
+	public LongSparsePolynomial() {
+		exps = new int[0];
+		coeffs = new long[0];
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial with a single term
+	 * @param coeff the coefficient of the term
+	 * @param exponent the exponent of the term
+	 */
+	public LongSparsePolynomial(long coeff, int exponent) {
+		if (coeff == 0) {
+			exps = new int[0];
+			coeffs = new long[0];
+		} else {
+			exps = new int[] {exponent};
+			coeffs = new long[] {coeff};
+		}
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial that takes ownership of the given arrays.  The caller
+	 * must not modify them afterwards.
+	 * @param exps the exponents, in ascending order
+	 * @param coeffs the non-zero coefficients matching exps
+	 */
+	LongSparsePolynomial(int[] exps, long[] coeffs) {
+		this.exps = exps;
+		this.coeffs = coeffs;
+		assert wellFormed();
+	}
+
+	/**
+	 * Return the internal exponent array, in ascending order.  The array must not be modified.
+	 * @return the exponents of the terms of this polynomial
+	 */
+	int[] exponents() {
+		return exps;
+	}
+
+	/**
+	 * Return the internal coefficient array, matching exponents().  The array must not be
+	 * modified.
+	 * @return the coefficients of the terms of this polynomial
+	 */
+	long[] coefficients() {
+		return coeffs;
+	}
+
+	/**
+	 * Return the smallest exponent of the polynomial.
+	 */
+	@Override
+	public int getMinExponent() {
+		return exps.length == 0 ? 0 : exps[0];
+	}
+
+	/**
+	 * Return the largest exponent of the polynomial.
+	 */
+	@Override
+	public int getMaxExponent() {
+		return exps.length == 0 ? 0 : exps[exps.length - 1];
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent.  Return 0 if there
+	 * is no term for the exponent.
+	 * @param exp the exponent whose coefficient is returned
+	 * @return the coefficient of x^exp
+	 */
+	public long getCoeff(int exp) {
+		int i = Arrays.binarySearch(exps, exp);
+		return i < 0 ? 0 : coeffs[i];
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent as a BigInteger.
+	 */
+	@Override
+	public BigInteger getBigCoeff(int exp) {
+		return BigInteger.valueOf(getCoeff(exp));
+	}
+
+	/**
+	 * Return true if this polynomial is the constant 0.
+	 */
+	@Override
+	public boolean isZero() {
+		return exps.length == 0;
+	}
+
+	/**
+	 * Return this + q, as a BigPolynomial if a coefficient overflows a long.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial addExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, 1);
+	}
+
+	/**
+	 * Return this - q, as a BigPolynomial if a coefficient overflows a long.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial subtractExact(ExactPolynomial q) {
+		return ExactArithmetic.combine(this, q, -1);
+	}
+
+	/**
+	 * Return this * factor, as a BigPolynomial if a coefficient overflows a long.
+	 */
+	@Override
+	public ExactPolynomial multiplyExact(long factor) {
+		return ExactArithmetic.scale(this, factor);
+	}
+
+	/**
+	 * Return this * q, as a BigPolynomial if a coefficient overflows a long.
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	@Override
+	public ExactPolynomial multiplyExact(ExactPolynomial q) {
+		return ExactArithmetic.multiply(this, q);
+	}
+
+	/**
+	 * Return -this, as a BigPolynomial if a coefficient is Long.MIN_VALUE.
+	 */
+	@Override
+	public ExactPolynomial negateExact() {
+		return ExactArithmetic.scale(this, -1);
+	}
+
+	/**
+	 * Returns true if o is a long or BigInteger polynomial with the same coefficients
+	 * for the same exponents.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof LongSparsePolynomial) {
+			LongSparsePolynomial obj = (LongSparsePolynomial) o;
+			return Arrays.equals(exps, obj.exps) && Arrays.equals(coeffs, obj.coeffs);
+		}
+		return ExactArithmetic.equal(this, o);
+	}
+
+	/**
+	 * Returns a hash code that agrees with the other long and BigInteger polynomials.
+	 */
+	@Override
+	public int hashCode() {
+		return ExactArithmetic.hash(this);
+	}
+
+	/**
+	 * Generates the polynomial in canonical form, in the format of SparsePolynomial.
+	 */
+	@Override
+	public String toString() {
+		return ExactArithmetic.format(this);
+	}
+
+	/**
+	 * Return true if the polynomial satisfies the class invariants
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (exps == null || coeffs == null || exps.length != coeffs.length) {
+			return false;
+		}
+		for (int i = 0; i < exps.length; i++) {
+			if (coeffs[i] == 0) {
+				return false;
+			}
+			if (i > 0 && exps[i - 1] >= exps[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
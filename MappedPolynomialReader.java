@@ -0,0 +1,162 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * MappedPolynomialReader reads the records of a PolynomialCodec file through
+ * FileChannel.map, so the bytes are decoded straight from the page cache instead of being
+ * copied to the heap first.  One mapping cannot exceed 2GB, so the file is mapped one
+ * window at a time and the next window is mapped when decoding runs off the end of the
+ * current one; records may span windows, and files may be far larger than the heap.
+ *
+ * next(TermVisitor) scans a record without building a polynomial, and skip() passes over
+ * a record without decoding its values, so a large file can be scanned in constant memory.
+ *
+ * @author yuhu
+ *
+ */
+final public class MappedPolynomialReader implements Closeable {
+
+	// The default number of bytes mapped at a time
+	static final long WINDOW_SIZE = 1L << 30;
+
+	private final FileChannel channel;
+	private final long size;
+	private final long windowSize;
+	private final PolynomialCodec.ByteSource source = this::nextByte;
+
+	// The mapped window and the file offset of its first byte
+	private MappedByteBuffer window;
+	private long windowStart;
+
+	/**
+	 * Opens the file at path for reading.
+	 * @param path a file of PolynomialCodec records
+	 * @exception IOException is thrown if the file cannot be opened or mapped
+	 */
+	public MappedPolynomialReader(Path path) throws IOException {
+		this(path, WINDOW_SIZE);
+	}
+
+	/**
+	 * Opens the file at path, mapping windowSize bytes at a time.
+	 */
+	MappedPolynomialReader(Path path, long windowSize) throws IOException {
+		if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid window size: " + windowSize);
+		}
+		this.windowSize = windowSize;
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			size = channel.size();
+			map(0);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Return the file offset of the next record.
+	 */
+	public long position() {
+		return windowStart + window.position();
+	}
+
+	/**
+	 * Return true if there is another record to read.
+	 */
+	public boolean hasNext() {
+		return position() < size;
+	}
+
+	/**
+	 * Decode the next record.
+	 * @return the polynomial
+	 * @exception NoSuchElementException is thrown if there are no more records
+	 * @exception IllegalArgumentException is thrown if the record is not well formed
+	 * @exception BufferUnderflowException is thrown if the file ends inside the record
+	 * @exception UncheckedIOException is thrown if the next window cannot be mapped
+	 */
+	public Polynomial next() {
+		checkNext();
+		return PolynomialCodec.read(source);
+	}
+
+	/**
+	 * Decode the next record, passing its terms to visitor instead of building a polynomial.
+	 * @param visitor receives the non-zero terms in ascending order of exponent
+	 * @return the number of terms passed to visitor
+	 * @exception NoSuchElementException is thrown if there are no more records
+	 * @exception IllegalArgumentException is thrown if the record is not well formed
+	 * @exception BufferUnderflowException is thrown if the file ends inside the record
+	 * @exception UncheckedIOException is thrown if the next window cannot be mapped
+	 */
+	public int next(PolynomialCodec.TermVisitor visitor) {
+		if (visitor == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		checkNext();
+		return PolynomialCodec.read(source, visitor);
+	}
+
+	/**
+	 * Pass over the next record without decoding its values.
+	 * @exception NoSuchElementException is thrown if there are no more records
+	 * @exception BufferUnderflowException is thrown if the file ends inside the record
+	 * @exception UncheckedIOException is thrown if the next window cannot be mapped
+	 */
+	public void skip() {
+		checkNext();
+		PolynomialCodec.skip(source);
+	}
+
+	/**
+	 * Closes the file.  The current window stays mapped until it is garbage collected.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * @exception NoSuchElementException is thrown if there are no more records
+	 */
+	private void checkNext() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more records");
+		}
+	}
+
+	/**
+	 * @return the next byte of the file, mapping the next window when the current one is used up
+	 */
+	private byte nextByte() {
+		if (!window.hasRemaining()) {
+			long next = windowStart + window.capacity();
+			if (next >= size) {
+				throw new BufferUnderflowException();
+			}
+			try {
+				map(next);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return window.get();
+	}
+
+	/**
+	 * Map the window starting at the file offset start.
+	 */
+	private void map(long start) throws IOException {
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+		windowStart = start;
+	}
+}
@@ -0,0 +1,265 @@
+import java.util.Arrays;
+
+/**
+ * A mod dense polynomial represents a polynomial modulo a Modulus with an array of
+ * residues indexed by exponent.
+ * @author yuhu
+ *
+ */
+final public class ModDensePolynomial extends AbstractModPolynomial {
+
+	// The coefficients indexed by exponent
+	// Class invariants:
+	//	  every entry is in [0, m)
+	//	  the last entry, if any, is non-zero
+	final private int[] coeffs;
+
+	/**
+	 * Creates the zero polynomial
+	 * @param modulus the modulus of the coefficients
+	 */
+	public ModDensePolynomial(Modulus modulus) {
+		super(modulus);
+		coeffs = new int[0];
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial with a single term
+	 * @param modulus the modulus of the coefficients
+	 * @param coeff the coefficient of the term, which need not be reduced
+	 * @param exponent the exponent of the term
+	 * @exception IllegalArgumentException is thrown if exponent is negative
+	 */
+	public ModDensePolynomial(Modulus modulus, long coeff, int exponent) {
+		super(modulus);
+		if (exponent < 0) {
+			throw new IllegalArgumentException("A ModDensePolynomial cannot have negative exponents");
+		}
+		int residue = modulus.reduce(coeff);
+		if (residue == 0) {
+			coeffs = new int[0];
+		} else {
+			coeffs = new int[exponent + 1];
+			coeffs[exponent] = residue;
+		}
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial that takes ownership of the given residue array.  The caller
+	 * must not modify it afterwards.
+	 * @param modulus the modulus of the coefficients
+	 * @param coeffs the residues indexed by exponent, with no trailing zeros
+	 */
+	ModDensePolynomial(Modulus modulus, int[] coeffs) {
+		super(modulus);
+		this.coeffs = coeffs;
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial from the first length residues of arr, dropping any trailing
+	 * zeros.  arr is used directly when it is already trimmed, so the caller must not
+	 * modify it afterwards.
+	 * @param modulus the modulus of the coefficients
+	 * @param arr the residues indexed by exponent
+	 * @param length the number of entries of arr to use
+	 * @return the polynomial with those coefficients
+	 */
+	static ModDensePolynomial trimmed(Modulus modulus, int[] arr, int length) {
+		while (length > 0 && arr[length - 1] == 0) {
+			length--;
+		}
+		if (length == arr.length) {
+			return new ModDensePolynomial(modulus, arr);
+		}
+		return new ModDensePolynomial(modulus, Arrays.copyOf(arr, length));
+	}
+
+	/**
+	 * Return the internal residue array, indexed by exponent.  The array must not be
+	 * modified.
+	 * @return the coefficients of this polynomial
+	 */
+	int[] coefficients() {
+		return coeffs;
+	}
+
+	/**
+	 * Return the smallest exponent of the polynomial.
+	 */
+	@Override
+	public int getMinExponent() {
+		for (int i = 0; i < coeffs.length; i++) {
+			if (coeffs[i] != 0) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Return the largest exponent of the polynomial.
+	 */
+	@Override
+	public int getMaxExponent() {
+		return coeffs.length == 0 ? 0 : coeffs.length - 1;
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent.  Return 0 if there
+	 * is no term for the exponent.
+	 */
+	@Override
+	public int getCoeff(int exp) {
+		if (exp < 0 || exp >= coeffs.length) {
+			return 0;
+		}
+		return coeffs[exp];
+	}
+
+	/**
+	 * Return true if this polynomial is the constant 0.
+	 */
+	@Override
+	public boolean isZero() {
+		return coeffs.length == 0;
+	}
+
+	/**
+	 * Return this + q modulo m.  The sum is dense if q is dense, and sparse otherwise.
+	 * @exception IllegalArgumentException is thrown if q has a different modulus
+	 */
+	@Override
+	public ModPolynomial add(ModPolynomial q) {
+		checkModulus(q);
+		if (q instanceof ModDensePolynomial) {
+			return combineDense((ModDensePolynomial) q, false);
+		}
+		return ModSparsePolynomial.valueOf(this).add(q);
+	}
+
+	/**
+	 * Return this - q modulo m.  The difference is dense if q is dense, and sparse otherwise.
+	 * @exception IllegalArgumentException is thrown if q has a different modulus
+	 */
+	@Override
+	public ModPolynomial subtract(ModPolynomial q) {
+		checkModulus(q);
+		if (q instanceof ModDensePolynomial) {
+			return combineDense((ModDensePolynomial) q, true);
+		}
+		return ModSparsePolynomial.valueOf(this).subtract(q);
+	}
+
+	/**
+	 * Return this + q or this - q in one pass, reducing as it goes.
+	 */
+	private ModDensePolynomial combineDense(ModDensePolynomial q, boolean subtract) {
+		int[] a = coeffs;
+		int[] b = q.coeffs;
+		int[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+		if (subtract) {
+			for (int i = 0; i < b.length; i++) {
+				result[i] = modulus.subtract(result[i], b[i]);
+			}
+		} else {
+			for (int i = 0; i < b.length; i++) {
+				result[i] = modulus.add(result[i], b[i]);
+			}
+		}
+		return trimmed(modulus, result, result.length);
+	}
+
+	/**
+	 * Return this * factor modulo m.  Does not modify this.
+	 */
+	@Override
+	public ModPolynomial multiply(long factor) {
+		int f = modulus.reduce(factor);
+		if (f == 0) {
+			return new ModDensePolynomial(modulus);
+		}
+		int[] result = new int[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			result[i] = modulus.multiply(coeffs[i], f);
+		}
+		// m may be composite, so a product can vanish
+		return trimmed(modulus, result, result.length);
+	}
+
+	/**
+	 * Return this * q modulo m.  The product is dense if q is dense, and sparse otherwise.
+	 * @exception IllegalArgumentException is thrown if q has a different modulus
+	 */
+	@Override
+	public ModPolynomial multiply(ModPolynomial q) {
+		checkModulus(q);
+		if (!(q instanceof ModDensePolynomial)) {
+			return ModMultiplier.multiplySparse(ModSparsePolynomial.valueOf(this), ModSparsePolynomial.valueOf(q));
+		}
+		int[] b = ((ModDensePolynomial) q).coeffs;
+		if (coeffs.length == 0 || b.length == 0) {
+			return new ModDensePolynomial(modulus);
+		}
+		int[] result = ModMultiplier.multiply(coeffs, b, modulus);
+		return trimmed(modulus, result, result.length);
+	}
+
+	/**
+	 * Return the value of this polynomial at x modulo m, by Horner's rule.
+	 */
+	@Override
+	public int evaluate(long x) {
+		int point = modulus.reduce(x);
+		int result = 0;
+		for (int i = coeffs.length - 1; i >= 0; i--) {
+			result = modulus.add(modulus.multiply(result, point), coeffs[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if o is a polynomial with the same modulus and the same coefficients
+	 * for the same exponents, whatever its representation.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof ModDensePolynomial) {
+			ModDensePolynomial obj = (ModDensePolynomial) o;
+			return modulus.equals(obj.modulus) && Arrays.equals(coeffs, obj.coeffs);
+		}
+		return super.equals(o);
+	}
+
+	/**
+	 * Returns the same hash code as a ModSparsePolynomial with the same terms.
+	 */
+	@Override
+	public int hashCode() {
+		int h = modulus.hashCode();
+		for (int i = 0; i < coeffs.length; i++) {
+			if (coeffs[i] != 0) {
+				h = 31 * (31 * h + i) + coeffs[i];
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Return true if the polynomial satisfies the class invariants
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (coeffs == null) {
+			return false;
+		}
+		for (int i = 0; i < coeffs.length; i++) {
+			if (coeffs[i] < 0 || coeffs[i] >= modulus.getValue()) {
+				return false;
+			}
+		}
+		return coeffs.length == 0 || coeffs[coeffs.length - 1] != 0;
+	}
+}
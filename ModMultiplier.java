@@ -0,0 +1,186 @@
+import java.util.Arrays;
+
+/**
+ * ModMultiplier multiplies polynomials modulo a Modulus.  Short dense operands use the
+ * schoolbook algorithm with Barrett reduction.  Long ones use a number-theoretic transform
+ * modulo the modulus itself when it is NTT-friendly, and the three-prime NTT of
+ * PolynomialMultiplier followed by a reduction otherwise.
+ *
+ * @author yuhu
+ *
+ */
+final class ModMultiplier {
+
+	// Below this many coefficients in the shorter operand the schoolbook algorithm is used
+	static final int NTT_THRESHOLD = 64;
+
+	private ModMultiplier() {
+	}
+
+	/**
+	 * Return the product of two dense polynomials of residues.
+	 * @param a residues indexed by exponent, not empty
+	 * @param b residues indexed by exponent, not empty
+	 * @param modulus the modulus of the residues
+	 * @return the residues of the product, which may have trailing zeros
+	 */
+	static int[] multiply(int[] a, int[] b, Modulus modulus) {
+		int shorter = Math.min(a.length, b.length);
+		int resultLength = a.length + b.length - 1;
+		if (shorter < NTT_THRESHOLD) {
+			return schoolbook(a, b, modulus);
+		}
+		if (transformLength(resultLength) <= modulus.getMaxTransformLength()) {
+			return ntt(a, b, modulus);
+		}
+		if (shorter <= PolynomialMultiplier.NTT_MAX_SHORTER && resultLength <= PolynomialMultiplier.NTT_MAX_LENGTH) {
+			return PolynomialMultiplier.ntt(a, b, modulus);
+		}
+		return schoolbook(a, b, modulus);
+	}
+
+	/**
+	 * Return the product of a and b with the quadratic schoolbook algorithm.
+	 */
+	static int[] schoolbook(int[] a, int[] b, Modulus modulus) {
+		int[] result = new int[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++) {
+			int ai = a[i];
+			if (ai == 0) {
+				continue;
+			}
+			for (int j = 0; j < b.length; j++) {
+				result[i + j] = modulus.reduceNonNegative(result[i + j] + (long) ai * b[j]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the product of a and b with one transform modulo the NTT-friendly modulus.
+	 */
+	static int[] ntt(int[] a, int[] b, Modulus modulus) {
+		int resultLength = a.length + b.length - 1;
+		int n = transformLength(resultLength);
+		int[] fa = Arrays.copyOf(a, n);
+		int[] fb = Arrays.copyOf(b, n);
+		transform(fa, modulus, false);
+		transform(fb, modulus, false);
+		for (int i = 0; i < n; i++) {
+			fa[i] = modulus.multiply(fa[i], fb[i]);
+		}
+		transform(fa, modulus, true);
+		return Arrays.copyOf(fa, resultLength);
+	}
+
+	/**
+	 * In-place iterative number-theoretic transform modulo an NTT-friendly prime.  The roots
+	 * of unity are kept in Montgomery form, so each butterfly multiplies with a Montgomery
+	 * reduction instead of a division.
+	 * @param values the residues to transform; the length must be a power of 2 no larger
+	 *    than modulus.getMaxTransformLength()
+	 * @param modulus the modulus
+	 * @param inverse true to compute the inverse transform, including the division by the length
+	 */
+	private static void transform(int[] values, Modulus modulus, boolean inverse) {
+		int n = values.length;
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				int t = values[i];
+				values[i] = values[j];
+				values[j] = t;
+			}
+		}
+
+		int p = modulus.getValue();
+		int[] roots = new int[Math.max(1, n >> 1)];
+		for (int len = 2; len <= n; len <<= 1) {
+			int w = modulus.power(modulus.getRoot(), (p - 1) / len);
+			if (inverse) {
+				w = modulus.inverse(w);
+			}
+			int half = len >> 1;
+			int wMontgomery = modulus.toMontgomery(w);
+			roots[0] = modulus.toMontgomery(1);
+			for (int k = 1; k < half; k++) {
+				roots[k] = modulus.montgomeryMultiply(roots[k - 1], wMontgomery);
+			}
+			for (int start = 0; start < n; start += len) {
+				for (int k = 0; k < half; k++) {
+					int u = values[start + k];
+					int v = modulus.montgomeryMultiply(values[start + k + half], roots[k]);
+					values[start + k] = modulus.add(u, v);
+					values[start + k + half] = modulus.subtract(u, v);
+				}
+			}
+		}
+
+		if (inverse) {
+			int nInv = modulus.toMontgomery(modulus.inverse(n % p));
+			for (int i = 0; i < n; i++) {
+				values[i] = modulus.montgomeryMultiply(values[i], nInv);
+			}
+		}
+	}
+
+	/**
+	 * @return the smallest power of 2 that is at least length
+	 */
+	private static int transformLength(int length) {
+		int n = 1;
+		while (n < length) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	/**
+	 * Return the product of two sparse polynomials.  A ProductMerge brings the pairwise
+	 * products of the terms out in ascending order of exponent and products with equal
+	 * exponents are summed.
+	 * @param p a sparse polynomial
+	 * @param q a sparse polynomial with the same modulus
+	 * @return p * q
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 */
+	static ModSparsePolynomial multiplySparse(ModSparsePolynomial p, ModSparsePolynomial q) {
+		Modulus modulus = p.getModulus();
+		int[] pExps = p.exponents();
+		int[] pCoeffs = p.coefficients();
+		int[] qExps = q.exponents();
+		int[] qCoeffs = q.coefficients();
+		if (pExps.length == 0 || qExps.length == 0) {
+			return new ModSparsePolynomial(modulus);
+		}
+
+		ProductMerge merge = ProductMerge.of(pExps, qExps);
+		int[] exps = new int[ExactArithmetic.productCapacity(pExps, qExps)];
+		int[] coeffs = new int[exps.length];
+		int size = 0;
+		while (merge.hasNext()) {
+			int exp = merge.nextExponent();
+			int coeff = 0;
+			while (merge.hasNext() && merge.nextExponent() == exp) {
+				merge.advance();
+				coeff = modulus.add(coeff, modulus.multiply(pCoeffs[merge.p()], qCoeffs[merge.q()]));
+			}
+
+			// Sums can cancel, and products of non-zero residues vanish when the modulus is composite
+			if (coeff != 0) {
+				if (size == exps.length) {
+					exps = Arrays.copyOf(exps, 2 * size);
+					coeffs = Arrays.copyOf(coeffs, 2 * size);
+				}
+				exps[size] = exp;
+				coeffs[size] = coeff;
+				size++;
+			}
+		}
+		return new ModSparsePolynomial(modulus, Arrays.copyOf(exps, size), Arrays.copyOf(coeffs, size));
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * This interface represents polynomials with a single variable whose coefficients are
+ * residues modulo a Modulus, such as
+ *   3x^2 + 6   (mod 7)
+ *
+ * Every coefficient is kept in [0, m), and every operation reduces its result as it
+ * computes it, so results never need a separate normalization pass.  Polynomials with
+ * different moduli cannot be combined.
+ *
+ * @author yuhu
+ *
+ */
+public interface ModPolynomial {
+
+	/**
+	 * @return the modulus of the coefficients
+	 */
+	public Modulus getModulus();
+
+	/**
+	 * Returns the smallest exponent with a non-zero coefficient
+	 *
+	 * @return the smallest exponent with a non-zero coefficient, or 0 for the zero polynomial
+	 */
+	public int getMinExponent();
+
+	/**
+	 * Returns the largest exponent with a non-zero coefficient
+	 *
+	 * @return the largest exponent with a non-zero coefficient, or 0 for the zero polynomial
+	 */
+	public int getMaxExponent();
+
+	/**
+	 * Returns the coefficient corresponding to the given exponent.
+	 *
+	 * @param exp the exponent whose coefficent is returned.
+	 * @return the coefficient of the term with exponent exp, in [0, m), or 0 if there is none
+	 */
+	public int getCoeff(int exp);
+
+	/**
+	 * @return true if the polynomial represents the zero constant
+	 */
+	public boolean isZero();
+
+	/**
+	 * Returns a polynomial by adding the parameter to the current instance modulo m.
+	 * Neither the current instance nor the parameter are modified.
+	 *
+	 * @param q the polynomial to add to this. q should not be null.
+	 * @return this + q
+	 * @throws IllegalArgumentException if q has a different modulus
+	 */
+	public ModPolynomial add(ModPolynomial q);
+
+	/**
+	 * Returns a polynomial by subtracting the parameter from the current instance modulo m.
+	 * Neither the current instance nor the parameter are modified.
+	 *
+	 * @param q the polynomial to subtract from this. q should not be null.
+	 * @return this - q
+	 * @throws IllegalArgumentException if q has a different modulus
+	 */
+	public ModPolynomial subtract(ModPolynomial q);
+
+	/**
+	 * Returns a polynomial by multiplying the current instance by a constant modulo m.
+	 * The current instance is not modified.
+	 *
+	 * @param factor the constant to multiply this by, which need not be reduced
+	 * @return this * factor
+	 */
+	public ModPolynomial multiply(long factor);
+
+	/**
+	 * Returns a polynomial by multiplying the current instance by the parameter modulo m.
+	 * Neither the current instance nor the parameter are modified.
+	 *
+	 * @param q the polynomial to multiply this by. q should not be null.
+	 * @return this * q
+	 * @throws IllegalArgumentException if q has a different modulus
+	 */
+	public ModPolynomial multiply(ModPolynomial q);
+
+	/**
+	 * Returns a polynomial that is the negation of the current instance modulo m.
+	 * The current instance is not modified.
+	 *
+	 * @return -this
+	 */
+	public ModPolynomial minus();
+
+	/**
+	 * Returns the value of the polynomial at x modulo m.
+	 *
+	 * @param x the point, which need not be reduced
+	 * @return this(x) mod m, in [0, m)
+	 * @throws ArithmeticException if the polynomial has a negative exponent and x has no
+	 *    inverse modulo m
+	 */
+	public int evaluate(long x);
+
+	/**
+	 * Returns true if the object's class invariant holds
+	 *
+	 * @return true iff the class invariant holds
+	 */
+	public boolean wellFormed();
+}
@@ -0,0 +1,163 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests for the Modulus, ModDensePolynomial and ModSparsePolynomial classes.
+ */
+public class ModPolynomialTest extends TestCase {
+	private Modulus seven = new Modulus(7);
+	private Modulus ntt = Modulus.NTT_998244353;
+	private ModPolynomial zero = new ModDensePolynomial(seven);
+	private ModPolynomial one = new ModDensePolynomial(seven, 1, 0);
+	private ModPolynomial threeX = new ModDensePolynomial(seven, 3, 1);
+	private ModPolynomial xTo100 = new ModSparsePolynomial(seven, 1, 100);
+	private ModPolynomial xToNegative2 = new ModSparsePolynomial(seven, 1, -2);
+
+	/**
+	 * Test the constants of a modulus.
+	 */
+	public void testModulus() {
+		assertEquals (998244353, ntt.getValue());
+		assertTrue (ntt.isPrime());
+		assertEquals (1 << 23, ntt.getMaxTransformLength());
+		assertFalse (new Modulus(10).isPrime());
+		assertEquals (1, new Modulus(10).getMaxTransformLength());
+		assertEquals (6, seven.reduce(-1));
+		assertEquals (0, seven.reduce(Long.MAX_VALUE));
+		assertEquals (1, seven.reduce(Long.MAX_VALUE - 6));
+		assertEquals (new Modulus(7), seven);
+		try {
+			new Modulus(1);
+			fail ("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			new Modulus(1L << 31);
+			fail ("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that coefficients are kept as residues.
+	 */
+	public void testReduction() {
+		assertTrue (new ModDensePolynomial(seven, 14, 3).isZero());
+		assertEquals (4, new ModSparsePolynomial(seven, -3, 5).getCoeff(5));
+		assertEquals ("3x + 1", one.add(threeX).toString());
+		assertEquals ("4x + 1", one.subtract(threeX).toString());
+		assertTrue (threeX.add(threeX).add(threeX.multiply(5)).isZero());
+		assertEquals ("6x", threeX.multiply(2).toString());
+		assertEquals ("4x", threeX.minus().toString());
+
+		ModPolynomial reduced = seven.valueOf(new DensePolynomial(-1, 2).add(new DensePolynomial(7, 0)));
+		assertTrue (reduced instanceof ModDensePolynomial);
+		assertEquals ("6x^2", reduced.toString());
+		assertTrue (seven.valueOf(new SparsePolynomial(8, -3)) instanceof ModSparsePolynomial);
+		assertEquals (1, seven.valueOf(new SparsePolynomial(8, -3)).getCoeff(-3));
+	}
+
+	/**
+	 * Test that a dense polynomial with a large smallest exponent is not padded from 0.
+	 */
+	public void testHighOffset() {
+		ModPolynomial p = seven.valueOf(new DensePolynomial(9, 2000000000));
+		assertEquals (2, p.getCoeff(2000000000));
+		assertEquals (2000000000, p.getMinExponent());
+		assertTrue (seven.valueOf(new DensePolynomial(7, 2000000000)).isZero());
+	}
+
+	/**
+	 * Test multiplication, including the transform for long NTT-friendly products.
+	 */
+	public void testMultiply() {
+		// (3x + 1)^2 = 9x^2 + 6x + 1 = 2x^2 + 6x + 1
+		ModPolynomial p = one.add(threeX);
+		assertEquals ("2x^2 + 6x + 1", p.multiply(p).toString());
+		assertEquals (p.multiply(p), ModSparsePolynomial.valueOf(p).multiply(p));
+		assertEquals ("3x^101 + x^100", p.multiply(xTo100).toString());
+		assertTrue (p.multiply(zero).isZero());
+
+		// (1 + x + ... + x^(n-1))^2 is long enough to use the transform; it has coefficient
+		// i + 1 for x^i while i < n
+		int n = 1000;
+		ModPolynomial sum = new ModDensePolynomial(ntt);
+		for (int i = 0; i < n; i++) {
+			sum = sum.add(new ModDensePolynomial(ntt, 1, i));
+		}
+		ModPolynomial square = sum.multiply(sum);
+		assertTrue (square instanceof ModDensePolynomial);
+		assertEquals (1, square.getCoeff(0));
+		assertEquals (n, square.getCoeff(n - 1));
+		assertEquals (1, square.getCoeff(2 * n - 2));
+
+		// The same product modulo a prime that is not NTT-friendly
+		Modulus large = new Modulus(1000000007);
+		ModPolynomial big = large.valueOf(new DensePolynomial(-1, n - 1));
+		for (int i = 0; i < n - 1; i++) {
+			big = big.add(new ModDensePolynomial(large, -1, i));
+		}
+		ModPolynomial bigSquare = big.multiply(big);
+		assertEquals (n, bigSquare.getCoeff(n - 1));
+
+		// Sparse products with exponents near the ends of the int range
+		ModPolynomial high = new ModSparsePolynomial(seven, 2, Integer.MAX_VALUE - 1)
+				.add(new ModSparsePolynomial(seven, 1, Integer.MIN_VALUE + 1));
+		ModPolynomial shift = new ModSparsePolynomial(seven, 3, 1).add(new ModSparsePolynomial(seven, 1, -1));
+		ModPolynomial product = high.multiply(shift);
+		assertEquals (6, product.getCoeff(Integer.MAX_VALUE));
+		assertEquals (2, product.getCoeff(Integer.MAX_VALUE - 2));
+		assertEquals (3, product.getCoeff(Integer.MIN_VALUE + 2));
+		assertEquals (1, product.getCoeff(Integer.MIN_VALUE));
+		try {
+			high.multiply(xTo100);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			high.multiply(xToNegative2);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test evaluation modulo m, with a negative exponent.
+	 */
+	public void testEvaluate() {
+		ModPolynomial p = one.add(threeX);
+		assertEquals (0, p.evaluate(2));
+		assertEquals (5, p.evaluate(-1));
+		// 3^-2 = 9^-1 = 2^-1 = 4 mod 7
+		assertEquals (4, xToNegative2.evaluate(3));
+		assertEquals (2, xTo100.evaluate(2));
+		try {
+			xToNegative2.evaluate(7);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test equality across representations and moduli.
+	 */
+	public void testEquals() {
+		ModPolynomial dense = one.add(threeX);
+		ModPolynomial sparse = new ModSparsePolynomial(seven, 3, 1).add(new ModSparsePolynomial(seven, 1, 0));
+		assertEquals (dense, sparse);
+		assertEquals (sparse, dense);
+		assertEquals (dense.hashCode(), sparse.hashCode());
+		assertFalse (dense.equals(new ModDensePolynomial(new Modulus(11), 1, 0).add(new ModDensePolynomial(new Modulus(11), 3, 1))));
+		assertFalse (dense.equals(null));
+		try {
+			one.add(new ModDensePolynomial(new Modulus(11), 1, 0));
+			fail ("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,315 @@
+import java.util.Arrays;
+
+/**
+ * A mod sparse polynomial represents a polynomial modulo a Modulus by its non-zero terms
+ * only, which suits polynomials with few terms relative to their degree.  Exponents may
+ * be negative.
+ * @author yuhu
+ *
+ */
+final public class ModSparsePolynomial extends AbstractModPolynomial {
+
+	// Parallel arrays that hold the terms.  exps[i] is the exponent of the term whose
+	// coefficient is coeffs[i].
+	// Class invariants:
+	//	  exps and coeffs have the same length
+	//	  exponents are in ascending numerical order with no duplicates
+	//	  every coefficient is in [1, m)
+	final private int[] exps;
+	final private int[] coeffs;
+
+	/**
+	 * Creates the zero polynomial
+	 * @param modulus the modulus of the coefficients
+	 */
+	public ModSparsePolynomial(Modulus modulus) {
+		super(modulus);
+		exps = new int[0];
+		coeffs = new int[0];
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial with a single term
+	 * @param modulus the modulus of the coefficients
+	 * @param coeff the coefficient of the term, which need not be reduced
+	 * @param exponent the exponent of the term
+	 */
+	public ModSparsePolynomial(Modulus modulus, long coeff, int exponent) {
+		super(modulus);
+		int residue = modulus.reduce(coeff);
+		if (residue == 0) {
+			exps = new int[0];
+			coeffs = new int[0];
+		} else {
+			exps = new int[] {exponent};
+			coeffs = new int[] {residue};
+		}
+		assert wellFormed();
+	}
+
+	/**
+	 * Creates a polynomial that takes ownership of the given arrays.  The caller must not
+	 * modify them afterwards.
+	 * @param modulus the modulus of the coefficients
+	 * @param exps the exponents, in ascending order
+	 * @param coeffs the non-zero residues matching exps
+	 */
+	ModSparsePolynomial(Modulus modulus, int[] exps, int[] coeffs) {
+		super(modulus);
+		this.exps = exps;
+		this.coeffs = coeffs;
+		assert wellFormed();
+	}
+
+	/**
+	 * Return the polynomial with the given terms reduced modulo m.  Terms that reduce to
+	 * 0 are dropped.  Neither array is modified.
+	 * @param modulus the modulus of the coefficients
+	 * @param exps the exponents, in ascending order
+	 * @param coeffs the coefficients matching exps, which need not be reduced
+	 * @return the reduced polynomial
+	 */
+	static ModSparsePolynomial reduced(Modulus modulus, int[] exps, int[] coeffs) {
+		int[] newExps = new int[exps.length];
+		int[] newCoeffs = new int[exps.length];
+		int k = 0;
+		for (int i = 0; i < exps.length; i++) {
+			int residue = modulus.reduce(coeffs[i]);
+			if (residue != 0) {
+				newExps[k] = exps[i];
+				newCoeffs[k] = residue;
+				k++;
+			}
+		}
+		if (k < exps.length) {
+			newExps = Arrays.copyOf(newExps, k);
+			newCoeffs = Arrays.copyOf(newCoeffs, k);
+		}
+		return new ModSparsePolynomial(modulus, newExps, newCoeffs);
+	}
+
+	/**
+	 * Return a sparse polynomial equal to q.  q itself is returned if it is already sparse.
+	 * @param q the polynomial to convert
+	 * @return a ModSparsePolynomial equal to q
+	 */
+	static ModSparsePolynomial valueOf(ModPolynomial q) {
+		if (q instanceof ModSparsePolynomial) {
+			return (ModSparsePolynomial) q;
+		}
+		int size = 0;
+		if (!q.isZero()) {
+			for (long exp = q.getMinExponent(); exp <= q.getMaxExponent(); exp++) {
+				if (q.getCoeff((int) exp) != 0) {
+					size++;
+				}
+			}
+		}
+		int[] newExps = new int[size];
+		int[] newCoeffs = new int[size];
+		int k = 0;
+		for (int exp = q.getMinExponent(); k < size; exp++) {
+			int coeff = q.getCoeff(exp);
+			if (coeff != 0) {
+				newExps[k] = exp;
+				newCoeffs[k] = coeff;
+				k++;
+			}
+		}
+		return new ModSparsePolynomial(q.getModulus(), newExps, newCoeffs);
+	}
+
+	/**
+	 * Return the internal exponent array, in ascending order.  The array must not be modified.
+	 * @return the exponents of the terms of this polynomial
+	 */
+	int[] exponents() {
+		return exps;
+	}
+
+	/**
+	 * Return the internal residue array, matching exponents().  The array must not be
+	 * modified.
+	 * @return the coefficients of the terms of this polynomial
+	 */
+	int[] coefficients() {
+		return coeffs;
+	}
+
+	/**
+	 * Return the smallest exponent of the polynomial.
+	 */
+	@Override
+	public int getMinExponent() {
+		return exps.length == 0 ? 0 : exps[0];
+	}
+
+	/**
+	 * Return the largest exponent of the polynomial.
+	 */
+	@Override
+	public int getMaxExponent() {
+		return exps.length == 0 ? 0 : exps[exps.length - 1];
+	}
+
+	/**
+	 * Return the coefficient for the term with the given exponent.  Return 0 if there
+	 * is no term for the exponent.
+	 */
+	@Override
+	public int getCoeff(int exp) {
+		int i = Arrays.binarySearch(exps, exp);
+		return i < 0 ? 0 : coeffs[i];
+	}
+
+	/**
+	 * Return true if this polynomial is the constant 0.
+	 */
+	@Override
+	public boolean isZero() {
+		return exps.length == 0;
+	}
+
+	/**
+	 * Return this + q modulo m as a sparse polynomial.
+	 * @exception IllegalArgumentException is thrown if q has a different modulus
+	 */
+	@Override
+	public ModPolynomial add(ModPolynomial q) {
+		checkModulus(q);
+		return combine(valueOf(q), false);
+	}
+
+	/**
+	 * Return this - q modulo m as a sparse polynomial.
+	 * @exception IllegalArgumentException is thrown if q has a different modulus
+	 */
+	@Override
+	public ModPolynomial subtract(ModPolynomial q) {
+		checkModulus(q);
+		return combine(valueOf(q), true);
+	}
+
+	/**
+	 * Merge the terms of this and q in one pass, reducing as it goes.
+	 */
+	private ModSparsePolynomial combine(ModSparsePolynomial q, boolean subtract) {
+		int[] newExps = new int[exps.length + q.exps.length];
+		int[] newCoeffs = new int[newExps.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < exps.length || j < q.exps.length) {
+			int exp;
+			int coeff;
+			if (j == q.exps.length || i < exps.length && exps[i] < q.exps[j]) {
+				exp = exps[i];
+				coeff = coeffs[i++];
+			} else if (i == exps.length || q.exps[j] < exps[i]) {
+				exp = q.exps[j];
+				coeff = subtract ? modulus.subtract(0, q.coeffs[j++]) : q.coeffs[j++];
+			} else {
+				exp = exps[i];
+				coeff = subtract ? modulus.subtract(coeffs[i++], q.coeffs[j++])
+						: modulus.add(coeffs[i++], q.coeffs[j++]);
+			}
+			if (coeff != 0) {
+				newExps[k] = exp;
+				newCoeffs[k] = coeff;
+				k++;
+			}
+		}
+		return new ModSparsePolynomial(modulus, Arrays.copyOf(newExps, k), Arrays.copyOf(newCoeffs, k));
+	}
+
+	/**
+	 * Return this * factor modulo m.  Does not modify this.
+	 */
+	@Override
+	public ModPolynomial multiply(long factor) {
+		int f = modulus.reduce(factor);
+		int[] newExps = new int[exps.length];
+		int[] newCoeffs = new int[exps.length];
+		int k = 0;
+		for (int i = 0; i < exps.length && f != 0; i++) {
+			// m may be composite, so a product can vanish
+			int coeff = modulus.multiply(coeffs[i], f);
+			if (coeff != 0) {
+				newExps[k] = exps[i];
+				newCoeffs[k] = coeff;
+				k++;
+			}
+		}
+		if (k == exps.length) {
+			return new ModSparsePolynomial(modulus, exps, newCoeffs);
+		}
+		return new ModSparsePolynomial(modulus, Arrays.copyOf(newExps, k), Arrays.copyOf(newCoeffs, k));
+	}
+
+	/**
+	 * Return this * q modulo m as a sparse polynomial.
+	 * @exception IllegalArgumentException is thrown if q has a different modulus
+	 */
+	@Override
+	public ModPolynomial multiply(ModPolynomial q) {
+		checkModulus(q);
+		return ModMultiplier.multiplySparse(this, valueOf(q));
+	}
+
+	/**
+	 * Return the value of this polynomial at x modulo m.  Horner's rule runs over the terms
+	 * from high to low exponent, multiplying by a power of x for each gap between them.
+	 * @exception ArithmeticException is thrown if an exponent is negative and x has no
+	 *    inverse modulo m
+	 */
+	@Override
+	public int evaluate(long x) {
+		if (exps.length == 0) {
+			return 0;
+		}
+		int point = modulus.reduce(x);
+		int result = coeffs[exps.length - 1];
+		for (int i = exps.length - 2; i >= 0; i--) {
+			long gap = (long) exps[i + 1] - exps[i];
+			result = modulus.add(modulus.multiply(result, modulus.power(point, gap)), coeffs[i]);
+		}
+		int low = exps[0];
+		if (low < 0) {
+			return modulus.multiply(result, modulus.power(modulus.inverse(point), -(long) low));
+		}
+		return modulus.multiply(result, modulus.power(point, low));
+	}
+
+	/**
+	 * Returns true if o is a polynomial with the same modulus and the same coefficients
+	 * for the same exponents, whatever its representation.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof ModSparsePolynomial) {
+			ModSparsePolynomial obj = (ModSparsePolynomial) o;
+			return modulus.equals(obj.modulus) && Arrays.equals(exps, obj.exps) && Arrays.equals(coeffs, obj.coeffs);
+		}
+		return super.equals(o);
+	}
+
+	/**
+	 * Return true if the polynomial satisfies the class invariants
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (exps == null || coeffs == null || exps.length != coeffs.length) {
+			return false;
+		}
+		for (int i = 0; i < exps.length; i++) {
+			if (coeffs[i] <= 0 || coeffs[i] >= modulus.getValue()) {
+				return false;
+			}
+			if (i > 0 && exps[i - 1] >= exps[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,292 @@
+/**
+ * A Modulus is the modulus m of a ModPolynomial, together with the constants that make
+ * arithmetic modulo m fast.  Residues are ints in [0, m), and m is at most
+ * Integer.MAX_VALUE.
+ *
+ * Products are reduced with Barrett reduction, which replaces the division by m with a
+ * multiplication by a precomputed reciprocal.  A prime m whose m - 1 is divisible by a
+ * large power of 2, such as 998244353 = 119 * 2^23 + 1, is NTT-friendly: polynomials
+ * modulo m are multiplied with a single number-theoretic transform modulo m itself,
+ * whose butterflies use Montgomery multiplication.
+ *
+ * @author yuhu
+ *
+ */
+final public class Modulus {
+
+	/** 998244353 = 119 * 2^23 + 1, NTT-friendly for products of up to 2^23 terms */
+	public static final Modulus NTT_998244353 = new Modulus(998244353);
+
+	/** 469762049 = 7 * 2^26 + 1, NTT-friendly for products of up to 2^26 terms */
+	public static final Modulus NTT_469762049 = new Modulus(469762049);
+
+	/** 167772161 = 5 * 2^25 + 1, NTT-friendly for products of up to 2^25 terms */
+	public static final Modulus NTT_167772161 = new Modulus(167772161);
+
+	/** 754974721 = 45 * 2^24 + 1, NTT-friendly for products of up to 2^24 terms */
+	public static final Modulus NTT_754974721 = new Modulus(754974721);
+
+	// The modulus
+	final private int value;
+
+	// floor((2^64 - 1) / value), the reciprocal used by Barrett reduction
+	final private long barrett;
+
+	// -value^-1 modulo 2^32, used by Montgomery reduction; 0 if value is even
+	final private int montgomery;
+
+	// R^2 modulo value with R = 2^32, which converts residues to Montgomery form
+	final private int montgomerySquare;
+
+	// A primitive root modulo value if value is prime, and 0 otherwise
+	final private int root;
+
+	// The largest power of 2 that divides value - 1 if value is an odd prime, and 1 otherwise
+	final private int maxTransformLength;
+
+	/**
+	 * Creates a modulus
+	 * @param value the modulus
+	 * @exception IllegalArgumentException is thrown unless 2 <= value <= Integer.MAX_VALUE
+	 */
+	public Modulus(long value) {
+		if (value < 2 || value > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The modulus must be in [2, " + Integer.MAX_VALUE + "]: " + value);
+		}
+		this.value = (int) value;
+		barrett = Long.divideUnsigned(-1L, value);
+
+		if ((value & 1) != 0) {
+			// Newton's iteration doubles the number of correct low bits of the inverse
+			int inverse = (int) value;
+			for (int i = 0; i < 4; i++) {
+				inverse *= 2 - (int) value * inverse;
+			}
+			montgomery = -inverse;
+			long r = (1L << 32) % value;
+			montgomerySquare = (int) (r * r % value);
+		} else {
+			montgomery = 0;
+			montgomerySquare = 0;
+		}
+
+		if (value > 2 && isPrime(this.value)) {
+			root = primitiveRoot();
+			maxTransformLength = (int) Long.lowestOneBit(value - 1);
+		} else {
+			root = 0;
+			maxTransformLength = 1;
+		}
+	}
+
+	/**
+	 * @return the modulus
+	 */
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * @return true if the modulus is prime, so that every non-zero residue has an inverse
+	 */
+	public boolean isPrime() {
+		return root != 0 || value == 2;
+	}
+
+	/**
+	 * @return the longest product, in terms, that is multiplied with a single transform
+	 *    modulo this modulus, or 1 if the modulus is not an odd prime
+	 */
+	public int getMaxTransformLength() {
+		return maxTransformLength;
+	}
+
+	/**
+	 * Return a polynomial modulo this modulus with the coefficients of p reduced.  A
+	 * DensePolynomial with no negative exponents, whose terms fill enough of the range
+	 * from exponent 0, becomes a ModDensePolynomial, anything else a ModSparsePolynomial.
+	 * @param p the polynomial to reduce. p should not be null.
+	 * @return p modulo this modulus
+	 */
+	public ModPolynomial valueOf(Polynomial p) {
+		if (p instanceof AdaptivePolynomial) {
+			p = ((AdaptivePolynomial) p).getDelegate();
+		}
+		if (p instanceof DensePolynomial && ((DensePolynomial) p).fillsFromZero()) {
+			// A ModDensePolynomial is indexed from exponent 0, so a large smallest
+			// exponent goes through the sparse form instead of padding
+			int[] arr = ((DensePolynomial) p).coefficients();
+			int offset = p.getMinExponent();
+			int[] residues = new int[offset + arr.length];
+			for (int i = 0; i < arr.length; i++) {
+				residues[offset + i] = reduce(arr[i]);
+			}
+			return ModDensePolynomial.trimmed(this, residues, residues.length);
+		}
+		SparsePolynomial sp = SparsePolynomial.valueOf(p);
+		return ModSparsePolynomial.reduced(this, sp.exponents(), sp.coefficients());
+	}
+
+	/**
+	 * @return the residue of x in [0, value)
+	 */
+	public int reduce(long x) {
+		if (x < 0) {
+			return (int) Math.floorMod(x, (long) value);
+		}
+		return reduceNonNegative(x);
+	}
+
+	/**
+	 * Barrett reduction.
+	 * @param x a non-negative value
+	 * @return x modulo value
+	 */
+	int reduceNonNegative(long x) {
+		long r = x - Math.multiplyHigh(x, barrett) * value;
+		// The estimate of the quotient is low by at most 2
+		while (r >= value) {
+			r -= value;
+		}
+		return (int) r;
+	}
+
+	/**
+	 * @return (a + b) modulo value, for residues a and b
+	 */
+	int add(int a, int b) {
+		int sum = a - value + b;
+		return sum < 0 ? sum + value : sum;
+	}
+
+	/**
+	 * @return (a - b) modulo value, for residues a and b
+	 */
+	int subtract(int a, int b) {
+		int diff = a - b;
+		return diff < 0 ? diff + value : diff;
+	}
+
+	/**
+	 * @return a * b modulo value, for residues a and b
+	 */
+	int multiply(int a, int b) {
+		return reduceNonNegative((long) a * b);
+	}
+
+	/**
+	 * @return base^exp modulo value, for a residue base and a non-negative exp
+	 */
+	int power(int base, long exp) {
+		int result = 1 % value;
+		while (exp > 0) {
+			if ((exp & 1) != 0) {
+				result = multiply(result, base);
+			}
+			base = multiply(base, base);
+			exp >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the inverse of the residue a
+	 * @exception ArithmeticException is thrown if a has no inverse modulo value
+	 */
+	int inverse(int a) {
+		return (int) PolynomialEvaluator.inverseMod(a, value);
+	}
+
+	/**
+	 * @return a * 2^32 modulo value, the Montgomery form of the residue a.  value must be odd.
+	 */
+	int toMontgomery(int a) {
+		return montgomeryMultiply(a, montgomerySquare);
+	}
+
+	/**
+	 * Montgomery multiplication.  value must be odd.
+	 * @param a a residue
+	 * @param b a residue
+	 * @return a * b * 2^-32 modulo value, so that a residue times the Montgomery form of
+	 *    another is their product
+	 */
+	int montgomeryMultiply(int a, int b) {
+		long t = (long) a * b;
+		long u = ((int) t * montgomery) & 0xFFFFFFFFL;
+		// t + u * value < 2^64, so the unsigned shift is exact
+		long r = (t + u * value) >>> 32;
+		return (int) (r >= value ? r - value : r);
+	}
+
+	/**
+	 * @return a primitive root modulo value, which must be an odd prime
+	 */
+	int getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the smallest primitive root modulo the prime value
+	 */
+	private int primitiveRoot() {
+		// Find the distinct prime factors of value - 1
+		int[] factors = new int[32];
+		int count = 0;
+		int rest = value - 1;
+		for (int f = 2; (long) f * f <= rest; f++) {
+			if (rest % f == 0) {
+				factors[count++] = f;
+				while (rest % f == 0) {
+					rest /= f;
+				}
+			}
+		}
+		if (rest > 1) {
+			factors[count++] = rest;
+		}
+
+		for (int g = 2; ; g++) {
+			boolean primitive = true;
+			for (int i = 0; i < count && primitive; i++) {
+				primitive = power(g, (value - 1) / factors[i]) != 1;
+			}
+			if (primitive) {
+				return g;
+			}
+		}
+	}
+
+	/**
+	 * @return true if n is prime, by trial division
+	 */
+	private static boolean isPrime(int n) {
+		if (n % 2 == 0) {
+			return n == 2;
+		}
+		for (int f = 3; (long) f * f <= n; f += 2) {
+			if (n % f == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if o is a modulus with the same value.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Modulus && ((Modulus) o).value == value;
+	}
+
+	@Override
+	public int hashCode() {
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return "mod " + value;
+	}
+}
@@ -0,0 +1,301 @@
+import java.io.Closeable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongToIntFunction;
+
+/**
+ * An OffHeapArena owns the memory of OffHeapPolynomials.  Their coefficients live in
+ * direct buffers outside the Java heap, so polynomials with hundreds of millions of
+ * terms do not burden the garbage collector, and close() releases the memory of every
+ * polynomial of the arena at once instead of waiting for the buffers to be collected.
+ *
+ * Coefficients are indexed by long, and an arena splits them into buffers of up to
+ * 2^CHUNK_SHIFT ints, so a polynomial can have more coefficients than an array can hold.
+ *
+ * Once the arena is closed its polynomials cannot be used: reading their coefficients
+ * throws IllegalStateException.  close() must not be called while other threads are
+ * still using polynomials of the arena.
+ *
+ * @author yuhu
+ *
+ */
+final public class OffHeapArena implements Closeable {
+
+	// Each buffer holds at most 2^CHUNK_SHIFT ints, 1 GiB
+	static final int CHUNK_SHIFT = 28;
+
+	// Frees a direct buffer right away, or null if the JDK does not allow it, in which
+	// case the memory is released when the buffers are collected
+	private static final MethodHandle FREE = findFree();
+
+	final private int chunkShift;
+
+	// Every buffer allocated, so close() can release them
+	final private List<ByteBuffer> buffers = new ArrayList<>();
+
+	private long allocatedBytes;
+
+	private volatile boolean closed;
+
+	final private OffHeapPolynomial zero;
+
+	/**
+	 * Creates an arena with buffers of 2^CHUNK_SHIFT ints.
+	 */
+	public OffHeapArena() {
+		this(CHUNK_SHIFT);
+	}
+
+	/**
+	 * Creates an arena with buffers of 2^chunkShift ints.  Small buffers let tests cross
+	 * buffer boundaries without huge polynomials.
+	 * @exception IllegalArgumentException is thrown if chunkShift is not in [1, CHUNK_SHIFT]
+	 */
+	OffHeapArena(int chunkShift) {
+		if (chunkShift < 1 || chunkShift > CHUNK_SHIFT) {
+			throw new IllegalArgumentException("Chunk shift out of range: " + chunkShift);
+		}
+		this.chunkShift = chunkShift;
+		zero = new OffHeapPolynomial(this, Segment.EMPTY, 0, 0, 0, 0);
+	}
+
+	/**
+	 * @return the zero polynomial of this arena
+	 */
+	public OffHeapPolynomial zero() {
+		return zero;
+	}
+
+	/**
+	 * Return the polynomial coeff * x^exponent, stored in this arena.
+	 * @param coeff the coefficient
+	 * @param exponent the exponent, which may be negative
+	 * @return coeff * x^exponent
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	public OffHeapPolynomial monomial(int coeff, int exponent) {
+		checkOpen();
+		if (coeff == 0) {
+			return zero;
+		}
+		Segment segment = allocate(1);
+		segment.put(0, coeff);
+		return new OffHeapPolynomial(this, segment, 0, 1, exponent, 1);
+	}
+
+	/**
+	 * Return a copy of p stored in this arena.  p itself is returned if it is already
+	 * stored here.
+	 * @param p the polynomial to copy
+	 * @return an OffHeapPolynomial equal to p
+	 * @exception IllegalStateException is thrown if this arena or the arena of p is closed
+	 */
+	public OffHeapPolynomial valueOf(Polynomial p) {
+		if (p == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		checkOpen();
+		p = OffHeapPolynomial.unwrap(p);
+		if (p instanceof OffHeapPolynomial && ((OffHeapPolynomial) p).getArena() == this) {
+			return (OffHeapPolynomial) p;
+		}
+		if (p.isZero()) {
+			return zero;
+		}
+		if (p instanceof OffHeapPolynomial || p instanceof DensePolynomial) {
+			OffHeapPolynomial w = OffHeapPolynomial.window(p);
+			if (w.getArena() != null) {
+				w.getArena().checkOpen();
+			}
+			return w.scale(this, 1);
+		}
+		SparsePolynomial sp = SparsePolynomial.valueOf(p);
+		int[] exps = sp.exponents();
+		int[] coeffs = sp.coefficients();
+		int min = exps[0];
+		Segment segment = allocate((long) exps[exps.length - 1] - min + 1);
+		for (int i = 0; i < exps.length; i++) {
+			segment.put((long) exps[i] - min, coeffs[i]);
+		}
+		return new OffHeapPolynomial(this, segment, 0, segment.length, min, exps.length);
+	}
+
+	/**
+	 * Return the polynomial whose coefficient of x^(minExponent + i) is coefficient(i)
+	 * for i from 0 to count - 1, stored in this arena.  The coefficients are written
+	 * straight into the arena, so the polynomial never exists on the heap.
+	 * @param minExponent the exponent of the first coefficient
+	 * @param count the number of coefficients
+	 * @param coefficient computes the coefficient of each index
+	 * @return the polynomial
+	 * @exception IllegalArgumentException is thrown if count is negative
+	 * @exception ArithmeticException is thrown if the largest exponent does not fit in an int
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	public OffHeapPolynomial generate(int minExponent, long count, LongToIntFunction coefficient) {
+		if (coefficient == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (count < 0) {
+			throw new IllegalArgumentException("Negative count: " + count);
+		}
+		checkOpen();
+		if (count == 0) {
+			return zero;
+		}
+		OffHeapPolynomial.checkExponent(minExponent + count - 1);
+		Segment segment = allocate(count);
+		long terms = 0;
+		for (long i = 0; i < count; i++) {
+			int c = coefficient.applyAsInt(i);
+			if (c != 0) {
+				segment.put(i, c);
+				terms++;
+			}
+		}
+		return OffHeapPolynomial.trimmed(this, segment, 0, count, minExponent, terms);
+	}
+
+	/**
+	 * @return the number of bytes allocated by this arena, or 0 once it is closed
+	 */
+	public synchronized long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return true until the arena is closed
+	 */
+	public boolean isOpen() {
+		return !closed;
+	}
+
+	/**
+	 * Release the memory of every polynomial of this arena.  Closing an arena that is
+	 * already closed does nothing.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (FREE != null) {
+			for (ByteBuffer buffer : buffers) {
+				try {
+					FREE.invokeExact(buffer);
+				} catch (Throwable e) {
+					// Leave the buffer to the garbage collector
+				}
+			}
+		}
+		buffers.clear();
+		allocatedBytes = 0;
+	}
+
+	/**
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("The arena is closed");
+		}
+	}
+
+	/**
+	 * Allocate length zeroed ints in buffers of 2^chunkShift ints.
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	synchronized Segment allocate(long length) {
+		checkOpen();
+		int chunkSize = 1 << chunkShift;
+		IntBuffer[] chunks = new IntBuffer[(int) ((length + chunkSize - 1) >>> chunkShift)];
+		for (int i = 0; i < chunks.length; i++) {
+			int size = (int) Math.min(chunkSize, length - ((long) i << chunkShift));
+			ByteBuffer buffer = ByteBuffer.allocateDirect(4 * size).order(ByteOrder.nativeOrder());
+			buffers.add(buffer);
+			allocatedBytes += buffer.capacity();
+			chunks[i] = buffer.asIntBuffer();
+		}
+		return new Segment(chunks, chunkShift, length);
+	}
+
+	/**
+	 * @return Unsafe.invokeCleaner bound to the Unsafe instance, or null if it cannot be found
+	 */
+	private static MethodHandle findFree() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return MethodHandles.lookup()
+					.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(field.get(null));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * A long-indexed array of ints, split into buffers of 2^shift ints.  Entry i is at
+	 * index i & mask of buffer i >>> shift.
+	 */
+	static final class Segment {
+		static final Segment EMPTY = new Segment(new IntBuffer[0], CHUNK_SHIFT, 0);
+
+		final private IntBuffer[] chunks;
+		final private int shift;
+		final private int mask;
+		final long length;
+
+		Segment(IntBuffer[] chunks, int shift, long length) {
+			this.chunks = chunks;
+			this.shift = shift;
+			this.mask = (1 << shift) - 1;
+			this.length = length;
+		}
+
+		/**
+		 * @return a segment that reads arr, for heap operands of the kernels
+		 */
+		static Segment wrap(int[] arr) {
+			return new Segment(new IntBuffer[] {IntBuffer.wrap(arr)}, 31, arr.length);
+		}
+
+		int get(long i) {
+			return chunks[(int) (i >>> shift)].get((int) (i & mask));
+		}
+
+		void put(long i, int value) {
+			chunks[(int) (i >>> shift)].put((int) (i & mask), value);
+		}
+
+		/**
+		 * @return the buffer that holds entry i
+		 */
+		IntBuffer chunk(long i) {
+			return chunks[(int) (i >>> shift)];
+		}
+
+		/**
+		 * @return the index of entry i in its buffer
+		 */
+		int index(long i) {
+			return (int) (i & mask);
+		}
+
+		/**
+		 * @return the number of entries from i to the end of its buffer
+		 */
+		long run(long i) {
+			return (1L << shift) - (i & mask);
+		}
+	}
+}
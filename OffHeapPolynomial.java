@@ -0,0 +1,732 @@
+import java.io.IOException;
+import java.nio.IntBuffer;
+
+/**
+ * An OffHeapPolynomial is a dense polynomial whose coefficients are stored outside the
+ * Java heap, in the memory of an OffHeapArena.  Like DensePolynomial it keeps the
+ * coefficients of every exponent from the smallest to the largest, with no zeros at
+ * either end, but the coefficients are indexed by long, so a polynomial can have up to
+ * 2^32 of them.  Create one with OffHeapArena.valueOf, monomial or generate.
+ *
+ * Sums, differences and multiples are computed by kernels that run over the memory
+ * directly, a buffer at a time, and are stored in the same arena, as are products with
+ * a polynomial of at most MULTIPLY_TERMS terms.  Other products are computed on the heap.
+ *
+ * The polynomial can only be used while its arena is open; afterwards any operation that
+ * reads the coefficients throws IllegalStateException.
+ *
+ * @author yuhu
+ *
+ */
+final public class OffHeapPolynomial extends AbstractPolynomial implements Polynomial {
+
+	// Products with a polynomial of at most this many terms are summed off-heap, one
+	// shifted multiple of this polynomial per term
+	static final int MULTIPLY_TERMS = 64;
+
+	// The arena that owns the memory, or null for a view of a heap polynomial
+	final private OffHeapArena arena;
+
+	final private OffHeapArena.Segment segment;
+
+	// The index in segment of the coefficient of x^offset
+	final private long start;
+
+	// The number of coefficients, or 0 for the zero polynomial
+	final private long length;
+
+	// The smallest exponent, or 0 for the zero polynomial
+	final private int offset;
+
+	// The number of non-zero coefficients
+	final private long termCount;
+
+	/**
+	 * Creates a polynomial from length coefficients of segment, which must have no zeros
+	 * at either end.  The caller must not modify them afterwards.
+	 */
+	OffHeapPolynomial(OffHeapArena arena, OffHeapArena.Segment segment, long start, long length, int offset,
+			long termCount) {
+		this.arena = arena;
+		this.segment = segment;
+		this.start = start;
+		this.length = length;
+		this.offset = offset;
+		this.termCount = termCount;
+		assert arena == null || wellFormed();
+	}
+
+	/**
+	 * Creates the polynomial segment[start] x^offset + ... + segment[start + length - 1]
+	 * x^(offset + length - 1), without the zeros at either end.  Only the ends are scanned,
+	 * and the memory is shared, not copied.
+	 * @param termCount the number of non-zero coefficients
+	 */
+	static OffHeapPolynomial trimmed(OffHeapArena arena, OffHeapArena.Segment segment, long start, long length,
+			int offset, long termCount) {
+		if (termCount == 0) {
+			return arena.zero();
+		}
+		while (segment.get(start) == 0) {
+			start++;
+			length--;
+			offset++;
+		}
+		while (segment.get(start + length - 1) == 0) {
+			length--;
+		}
+		return new OffHeapPolynomial(arena, segment, start, length, offset, termCount);
+	}
+
+	/**
+	 * @return an unchecked view of a dense polynomial, or of an OffHeapPolynomial itself,
+	 *    so that the kernels can read either
+	 */
+	static OffHeapPolynomial window(Polynomial p) {
+		if (p instanceof OffHeapPolynomial) {
+			return (OffHeapPolynomial) p;
+		}
+		DensePolynomial d = (DensePolynomial) p;
+		int[] arr = d.coefficients();
+		return new OffHeapPolynomial(null, OffHeapArena.Segment.wrap(arr), 0, arr.length, d.getMinExponent(),
+				d.termCount());
+	}
+
+	/**
+	 * @return the polynomial a lazy or adaptive q stands for, or q itself
+	 */
+	static Polynomial unwrap(Polynomial q) {
+		if (q instanceof LazyPolynomial) {
+			q = ((LazyPolynomial) q).force();
+		}
+		if (q instanceof AdaptivePolynomial) {
+			q = ((AdaptivePolynomial) q).getDelegate();
+		}
+		return q;
+	}
+
+	/**
+	 * @exception ArithmeticException is thrown if exp does not fit in an int
+	 */
+	static void checkExponent(long exp) {
+		if (exp > Integer.MAX_VALUE || exp < Integer.MIN_VALUE) {
+			throw new ArithmeticException("Exponent out of range: " + exp);
+		}
+	}
+
+	/**
+	 * @return the arena that owns the coefficients
+	 */
+	public OffHeapArena getArena() {
+		return arena;
+	}
+
+	/**
+	 * Return the number of coefficients from the smallest exponent to the largest, which
+	 * is the number of ints the polynomial takes.
+	 * @return getMaxExponent() - getMinExponent() + 1, or 0 for the zero polynomial
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Return the number of non-zero coefficients, which may be more than an int holds.
+	 * @return the number of terms
+	 */
+	public long getTermCount() {
+		return termCount;
+	}
+
+	@Override
+	int termCount() {
+		return (int) Math.min(termCount, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Copy the polynomial to the heap.
+	 * @return a DensePolynomial equal to this
+	 * @exception ArithmeticException is thrown if there are more coefficients than an array can hold
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	public DensePolynomial toDense() {
+		checkOpen();
+		if (isZero()) {
+			return DensePolynomial.ZERO;
+		}
+		int[] arr = new int[DensePolynomial.width(offset, getMaxExponent())];
+		combine(OffHeapArena.Segment.wrap(arr), 0, segment, start, 1, null, 0, 0, length);
+		return new DensePolynomial(offset, arr, (int) termCount);
+	}
+
+	@Override
+	public int getMinExponent() {
+		return offset;
+	}
+
+	@Override
+	public int getMaxExponent() {
+		if (isZero()) {
+			return 0;
+		}
+		return (int) (offset + length - 1);
+	}
+
+	/**
+	 * Get the coefficient for the term with the given exponent
+	 * @param exp the exponent
+	 * @return the coefficient, or 0 if there is no term for the exponent
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public int getCoeff(int exp) {
+		checkOpen();
+		return coeff(exp);
+	}
+
+	@Override
+	public boolean isZero() {
+		return length == 0;
+	}
+
+	/**
+	 * Return the sum of this polynomial and q, stored in the arena of this polynomial.
+	 * Neither this nor q are changed.
+	 * @param q a polynomial
+	 * @return this + q
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public OffHeapPolynomial add(Polynomial q) {
+		return combine(q, 1);
+	}
+
+	/**
+	 * Return the difference of this polynomial and q, stored in the arena of this
+	 * polynomial, computed in a single pass without negating q first.
+	 * @param q a polynomial
+	 * @return this - q
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public OffHeapPolynomial subtract(Polynomial q) {
+		return combine(q, -1);
+	}
+
+	/**
+	 * Return the product of this polynomial and factor, stored in the arena of this
+	 * polynomial.  A product can wrap around to 0, so the terms are counted again.
+	 * @param factor multiplication factor
+	 * @return this * factor
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public OffHeapPolynomial multiply(int factor) {
+		checkOpen();
+		return scale(arena, factor);
+	}
+
+	/**
+	 * @return -this, stored in the arena of this polynomial
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public OffHeapPolynomial minus() {
+		checkOpen();
+		return scale(arena, -1);
+	}
+
+	/**
+	 * Return the product of this polynomial and q.  If either has at most MULTIPLY_TERMS
+	 * terms the product is the sum of a multiple of the other, shifted, for each of those
+	 * terms, accumulated in the arena of this polynomial.  Otherwise the product is
+	 * computed on the heap by DensePolynomial, which needs the polynomials to fit in arrays.
+	 * @param q a polynomial
+	 * @return this * q
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 * @exception IllegalStateException is thrown if the arena of this or of q is closed
+	 */
+	@Override
+	public Polynomial multiply(Polynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		checkOpen();
+		q = unwrap(q);
+		if (isZero() || q.isZero()) {
+			return arena.zero();
+		}
+		checkExponent((long) offset + q.getMinExponent());
+		checkExponent((long) getMaxExponent() + q.getMaxExponent());
+		if (q instanceof AbstractPolynomial && ((AbstractPolynomial) q).termCount() <= MULTIPLY_TERMS) {
+			checkOpen(q);
+			return multiplyTerms(this, terms(q));
+		}
+		if (termCount <= MULTIPLY_TERMS && (q instanceof OffHeapPolynomial || q instanceof DensePolynomial)) {
+			checkOpen(q);
+			return multiplyTerms(window(q), terms(this));
+		}
+		return toDense().multiply(q);
+	}
+
+	/**
+	 * @return the terms of q, for products with few terms
+	 */
+	private static SparsePolynomial terms(Polynomial q) {
+		if (!(q instanceof OffHeapPolynomial)) {
+			return SparsePolynomial.valueOf(q);
+		}
+		OffHeapPolynomial p = (OffHeapPolynomial) q;
+		int[] exps = new int[(int) p.termCount];
+		int[] coeffs = new int[exps.length];
+		int k = 0;
+		for (long i = 0; i < p.length; i++) {
+			int c = p.segment.get(p.start + i);
+			if (c != 0) {
+				exps[k] = (int) (p.offset + i);
+				coeffs[k] = c;
+				k++;
+			}
+		}
+		return new SparsePolynomial(exps, coeffs);
+	}
+
+	/**
+	 * Return p * terms in the arena of this polynomial, as a sum of shifted multiples of p.
+	 * Each multiple is added with one pass of the combine kernel, and a final pass counts
+	 * the terms.
+	 */
+	private OffHeapPolynomial multiplyTerms(OffHeapPolynomial p, SparsePolynomial terms) {
+		int[] exps = terms.exponents();
+		int[] coeffs = terms.coefficients();
+		long width = p.length + ((long) exps[exps.length - 1] - exps[0]);
+		OffHeapArena.Segment result = arena.allocate(width);
+		for (int j = 0; j < exps.length; j++) {
+			long d = (long) exps[j] - exps[0];
+			combine(result, d, result, d, 1, p.segment, p.start, coeffs[j], p.length);
+		}
+		long count = combine(result, 0, result, 0, 1, null, 0, 0, width);
+		return trimmed(arena, result, 0, width, p.offset + exps[0], count);
+	}
+
+	/**
+	 * Return this + sign * q in the arena of this polynomial.  Dense and off-heap operands
+	 * are combined like DensePolynomial.combineDense: the ends that cancel are skipped
+	 * first, so the result is allocated once at its final size, and it is then filled
+	 * piece by piece by the combine kernel, which also counts the terms.  The terms of
+	 * other operands are added one at a time to a copy of this.
+	 */
+	private OffHeapPolynomial combine(Polynomial q, int sign) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		checkOpen();
+		q = unwrap(q);
+		if (q.isZero()) {
+			return this;
+		}
+		if (q instanceof OffHeapPolynomial || q instanceof DensePolynomial) {
+			OffHeapPolynomial w = window(q);
+			if (w.arena != null) {
+				w.checkOpen();
+			}
+			return isZero() ? w.scale(arena, sign) : combineWindows(w, sign);
+		}
+		return addTerms(SparsePolynomial.valueOf(q), sign);
+	}
+
+	private OffHeapPolynomial combineWindows(OffHeapPolynomial q, int sign) {
+		long lo = Math.min(offset, q.offset);
+		long hi = Math.max(offset + length, q.offset + q.length) - 1;
+		while (hi >= lo && coeff(hi) + sign * q.coeff(hi) == 0) {
+			hi--;
+		}
+		if (hi < lo) {
+			return arena.zero();
+		}
+		while (coeff(lo) + sign * q.coeff(lo) == 0) {
+			lo++;
+		}
+
+		long width = hi - lo + 1;
+		OffHeapArena.Segment result = arena.allocate(width);
+
+		// The entries of result that each operand covers, which may reach past either end
+		long aFrom = offset - lo;
+		long aTo = aFrom + length;
+		long bFrom = q.offset - lo;
+		long bTo = bFrom + q.length;
+		long count = 0;
+		long from = 0;
+		while (from < width) {
+			// The next bound of either operand past from ends this stretch
+			long to = width;
+			if (aFrom > from && aFrom < to) {
+				to = aFrom;
+			}
+			if (aTo > from && aTo < to) {
+				to = aTo;
+			}
+			if (bFrom > from && bFrom < to) {
+				to = bFrom;
+			}
+			if (bTo > from && bTo < to) {
+				to = bTo;
+			}
+			boolean inA = from >= aFrom && from < aTo;
+			boolean inB = from >= bFrom && from < bTo;
+			if (inA && inB) {
+				count += combine(result, from, segment, start + from - aFrom, 1, q.segment, q.start + from - bFrom, sign,
+						to - from);
+			} else if (inA) {
+				count += combine(result, from, segment, start + from - aFrom, 1, null, 0, 0, to - from);
+			} else if (inB) {
+				count += combine(result, from, q.segment, q.start + from - bFrom, sign, null, 0, 0, to - from);
+			}
+			from = to;
+		}
+		return new OffHeapPolynomial(arena, result, 0, width, (int) lo, count);
+	}
+
+	/**
+	 * Return this + sign * q for a sparse q: this is copied into a window wide enough for
+	 * both, and the terms of q are added in place.
+	 */
+	private OffHeapPolynomial addTerms(SparsePolynomial q, int sign) {
+		int[] exps = q.exponents();
+		int[] coeffs = q.coefficients();
+		long lo = isZero() ? exps[0] : Math.min(offset, exps[0]);
+		long hi = isZero() ? exps[exps.length - 1] : Math.max(getMaxExponent(), exps[exps.length - 1]);
+		long width = hi - lo + 1;
+		OffHeapArena.Segment result = arena.allocate(width);
+		long count = termCount;
+		if (!isZero()) {
+			combine(result, offset - lo, segment, start, 1, null, 0, 0, length);
+		}
+		for (int i = 0; i < exps.length; i++) {
+			long d = exps[i] - lo;
+			int old = result.get(d);
+			int c = old + sign * coeffs[i];
+			result.put(d, c);
+			if (old == 0) {
+				count++;
+			}
+			if (c == 0) {
+				count--;
+			}
+		}
+		return trimmed(arena, result, 0, width, (int) lo, count);
+	}
+
+	/**
+	 * Return factor * this, stored in the given arena.
+	 */
+	OffHeapPolynomial scale(OffHeapArena target, int factor) {
+		if (isZero() || factor == 0) {
+			return target.zero();
+		}
+		OffHeapArena.Segment result = target.allocate(length);
+		long count = combine(result, 0, segment, start, factor, null, 0, 0, length);
+		return trimmed(target, result, 0, length, offset, count);
+	}
+
+	/**
+	 * The kernel behind every operation: set dst[d + k] = fa * a[ai + k] + fb * b[bi + k]
+	 * for k from 0 to n - 1, or fa * a[ai + k] if b is null.  The work is split into runs
+	 * that stay within one buffer of each segment, so that the inner loops index the
+	 * buffers directly.  dst may be a or b, at the same index.
+	 * @return the number of non-zero values written
+	 */
+	static long combine(OffHeapArena.Segment dst, long d, OffHeapArena.Segment a, long ai, int fa,
+			OffHeapArena.Segment b, long bi, int fb, long n) {
+		long count = 0;
+		while (n > 0) {
+			long run = Math.min(n, Math.min(dst.run(d), a.run(ai)));
+			if (b != null) {
+				run = Math.min(run, b.run(bi));
+			}
+			int m = (int) run;
+			IntBuffer out = dst.chunk(d);
+			int o = dst.index(d);
+			IntBuffer x = a.chunk(ai);
+			int xi = a.index(ai);
+			if (b == null) {
+				for (int k = 0; k < m; k++) {
+					int c = fa * x.get(xi + k);
+					out.put(o + k, c);
+					if (c != 0) {
+						count++;
+					}
+				}
+			} else {
+				IntBuffer y = b.chunk(bi);
+				int yi = b.index(bi);
+				for (int k = 0; k < m; k++) {
+					int c = fa * x.get(xi + k) + fb * y.get(yi + k);
+					out.put(o + k, c);
+					if (c != 0) {
+						count++;
+					}
+				}
+				bi += run;
+			}
+			d += run;
+			ai += run;
+			n -= run;
+		}
+		return count;
+	}
+
+	/**
+	 * @return the coefficient of x^exp, without checking the arena
+	 */
+	private int coeff(long exp) {
+		long i = exp - offset;
+		return i >= 0 && i < length ? segment.get(start + i) : 0;
+	}
+
+	/**
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	private void checkOpen() {
+		arena.checkOpen();
+	}
+
+	/**
+	 * @exception IllegalStateException is thrown if q is stored in an arena that is closed
+	 */
+	private static void checkOpen(Polynomial q) {
+		if (q instanceof OffHeapPolynomial && ((OffHeapPolynomial) q).arena != null) {
+			((OffHeapPolynomial) q).checkOpen();
+		}
+	}
+
+	/**
+	 * Return the value of the polynomial at x using Horner's rule, times x to the
+	 * smallest exponent.  The result wraps around on overflow.
+	 * @param x the point
+	 * @return this(x)
+	 * @exception ArithmeticException is thrown if there is a negative exponent and x is not 1 or -1
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public long evaluate(long x) {
+		checkOpen();
+		if (isZero()) {
+			return 0;
+		}
+		long result = 0;
+		for (long i = length - 1; i >= 0; i--) {
+			result = result * x + segment.get(start + i);
+		}
+		return result * PolynomialEvaluator.shift(x, offset);
+	}
+
+	/**
+	 * Return the value of the polynomial at x using Horner's rule.
+	 * @param x the point
+	 * @return this(x)
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public double evaluate(double x) {
+		checkOpen();
+		double result = 0;
+		for (long i = length - 1; i >= 0; i--) {
+			result = result * x + segment.get(start + i);
+		}
+		return offset == 0 ? result : result * PolynomialEvaluator.power(x, offset);
+	}
+
+	/**
+	 * Return the value of the polynomial at x modulo modulus using Horner's rule.
+	 * Negative exponents use the inverse of x.
+	 * @param x the point
+	 * @param modulus a positive modulus
+	 * @return this(x) mod modulus
+	 * @exception IllegalArgumentException is thrown if modulus is not positive
+	 * @exception ArithmeticException is thrown if there is a negative exponent and x has
+	 *    no inverse modulo modulus
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public long evaluateMod(long x, long modulus) {
+		PolynomialEvaluator.checkModulus(modulus);
+		checkOpen();
+		if (isZero()) {
+			return 0;
+		}
+		x = PolynomialEvaluator.reduce(x, modulus);
+		long result = 0;
+		for (long i = length - 1; i >= 0; i--) {
+			long coeff = PolynomialEvaluator.reduce(segment.get(start + i), modulus);
+			result = PolynomialEvaluator.addMod(PolynomialEvaluator.multiplyMod(result, x, modulus), coeff, modulus);
+		}
+		return PolynomialEvaluator.multiplyMod(result, PolynomialEvaluator.shiftMod(x, offset, modulus), modulus);
+	}
+
+	/**
+	 * Return true if the polynomial satisfies the class invariants: the arena is open, the
+	 * coefficients have no zeros at either end, the largest exponent fits in an int and
+	 * the cached number of terms matches the coefficients.
+	 */
+	@Override
+	public boolean wellFormed() {
+		if (segment == null || !arena.isOpen()) {
+			return false;
+		}
+		if (length == 0) {
+			return offset == 0 && termCount == 0;
+		}
+		if (start < 0 || start + length > segment.length || (long) offset + length - 1 > Integer.MAX_VALUE) {
+			return false;
+		}
+		if (segment.get(start) == 0 || segment.get(start + length - 1) == 0) {
+			return false;
+		}
+		long count = 0;
+		for (long i = 0; i < length; i++) {
+			if (segment.get(start + i) != 0) {
+				count++;
+			}
+		}
+		return count == termCount;
+	}
+
+	/**
+	 * Returns true if o is an equivalent polynomial, whatever its representation.  Dense
+	 * and off-heap polynomials are compared coefficient by coefficient; sparse ones term
+	 * by term.
+	 * @exception NullPointerException is thrown if o is null
+	 * @exception IllegalStateException is thrown if the arena is closed
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == null) {
+			throw new NullPointerException("NullPointerException is thrown");
+		}
+		if (o == this) {
+			return true;
+		}
+		checkOpen();
+		if (o instanceof AdaptivePolynomial) {
+			o = ((AdaptivePolynomial) o).getDelegate();
+		}
+		if (o instanceof OffHeapPolynomial || o instanceof DensePolynomial) {
+			OffHeapPolynomial w = window((Polynomial) o);
+			if (w.arena != null) {
+				w.checkOpen();
+			}
+			if (w.offset != offset || w.length != length || w.termCount != termCount || hashesDiffer(w)) {
+				return false;
+			}
+			for (long i = 0; i < length; i++) {
+				if (segment.get(start + i) != w.segment.get(w.start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (o instanceof SparsePolynomial) {
+			SparsePolynomial sp = (SparsePolynomial) o;
+			int[] exps = sp.exponents();
+			int[] coeffs = sp.coefficients();
+			if (exps.length != termCount || hashesDiffer(sp)) {
+				return false;
+			}
+			for (int i = 0; i < exps.length; i++) {
+				if (coeff(exps[i]) != coeffs[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return o instanceof Polynomial && sameCoefficients(this, (Polynomial) o);
+	}
+
+	/**
+	 * walk the coefficients in the arena, skipping the zeros.  The arena must stay open
+	 * while the terms are read.
+	 */
+	@Override
+	TermCursor cursor() {
+		checkOpen();
+		return new Cursor(0, length);
+	}
+
+	/**
+	 * A cursor over the coefficients of this polynomial, which checks that the arena is
+	 * still open before reading them.
+	 */
+	private final class Cursor extends TermCursor {
+
+		Cursor(long from, long to) {
+			super(from, to);
+		}
+
+		@Override
+		int coefficientAt(long i) {
+			return segment.get(start + i);
+		}
+
+		@Override
+		int exponentAt(long i) {
+			return (int) (offset + i);
+		}
+
+		@Override
+		TermCursor range(long from, long to) {
+			return new Cursor(from, to);
+		}
+
+		@Override
+		public boolean hasNext() {
+			checkOpen();
+			return super.hasNext();
+		}
+
+		@Override
+		public void forEachRemaining(IntBinaryConsumer action) {
+			checkOpen();
+			super.forEachRemaining(action);
+		}
+	}
+
+	/**
+	 * hash the non-zero coefficients in ascending order of exponent
+	 */
+	@Override
+	int computeHash() {
+		checkOpen();
+		int h = 1;
+		for (long i = 0; i < length; i++) {
+			int c = segment.get(start + i);
+			if (c != 0) {
+				h = hashTerm(h, c, (int) (offset + i));
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * format the terms from high to low exponent, as AbstractPolynomial.toString describes
+	 */
+	@Override
+	void writeTerms(StringBuilder buffer, Appendable out) throws IOException {
+		checkOpen();
+		if (isZero()) {
+			buffer.append('0');
+			return;
+		}
+		boolean first = true;
+		for (long i = length - 1; i >= 0; i--) {
+			int c = segment.get(start + i);
+			if (c != 0) {
+				first = appendTerm(buffer, out, c, (int) (offset + i), first);
+			}
+		}
+	}
+}
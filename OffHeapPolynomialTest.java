@@ -0,0 +1,156 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests for OffHeapPolynomial and OffHeapArena.  The arenas use buffers of 16 ints, so
+ * the kernels cross buffer boundaries with small polynomials.
+ */
+public class OffHeapPolynomialTest extends TestCase {
+	private OffHeapArena arena = new OffHeapArena(4);
+
+	@Override
+	protected void tearDown() {
+		arena.close();
+	}
+
+	/**
+	 * @return a dense polynomial with count coefficients from exponent min
+	 */
+	private static DensePolynomial dense(int min, int count, int seed) {
+		int[] arr = new int[count];
+		for (int i = 0; i < count; i++) {
+			arr[i] = (i * 7919 + seed) % 13 - 6;
+		}
+		arr[0] = 1;
+		arr[count - 1] = -1;
+		return DensePolynomial.trimmed(min, arr, count);
+	}
+
+	/**
+	 * Test sums, differences and multiples against DensePolynomial, including Laurent
+	 * polynomials and cancellation at the ends.
+	 */
+	public void testArithmetic() {
+		DensePolynomial a = dense(-5, 70, 1);
+		DensePolynomial b = dense(20, 45, 2);
+		OffHeapPolynomial p = arena.valueOf(a);
+		OffHeapPolynomial q = arena.valueOf(b);
+		assertEquals (a, p);
+		assertEquals (p, a);
+		assertEquals (a.hashCode(), p.hashCode());
+		assertEquals (a.toString(), p.toString());
+		assertEquals (70, p.getLength());
+
+		assertEquals (a.add(b), p.add(q));
+		assertEquals (a.subtract(b), p.subtract(b));
+		assertEquals (b.subtract(a), q.subtract(p));
+		assertEquals (a.multiply(-3), p.multiply(-3));
+		assertEquals (a.minus(), p.minus());
+		assertTrue (p.subtract(a).isZero());
+		assertSame (arena, p.add(b).getArena());
+
+		// The ends cancel, and the result shares no zeros with them
+		Polynomial ends = new SparsePolynomial(-1, -5).add(new SparsePolynomial(1, 64));
+		OffHeapPolynomial middle = p.add(ends);
+		assertEquals (a.add(ends), middle);
+		assertEquals (-4, middle.getMinExponent());
+		assertTrue (middle.wellFormed());
+
+		// Sparse operands outside the window, and wrapping to zero
+		Polynomial far = new SparsePolynomial(9, -40).add(new SparsePolynomial(2, 100));
+		assertEquals (a.add(far), p.add(far));
+		assertEquals (a.multiply(1 << 31), p.multiply(1 << 31));
+		assertTrue (arena.zero().add(b).equals(b));
+	}
+
+	/**
+	 * Test products with few terms, which stay off-heap, and with many, which do not.
+	 */
+	public void testMultiply() {
+		DensePolynomial a = dense(-3, 50, 3);
+		DensePolynomial b = dense(0, 90, 4);
+		OffHeapPolynomial p = arena.valueOf(a);
+		Polynomial few = new SparsePolynomial(3, -2).add(new SparsePolynomial(-5, 40));
+		Polynomial product = p.multiply(few);
+		assertTrue (product instanceof OffHeapPolynomial);
+		assertEquals (a.multiply(few), product);
+		assertEquals (a.multiply(few), arena.valueOf(few).multiply(p));
+		assertEquals (a.multiply(b), p.multiply(b));
+		assertTrue (p.multiply(new DensePolynomial()).isZero());
+	}
+
+	/**
+	 * Test evaluation, generation and conversion back to the heap.
+	 */
+	public void testEvaluateAndGenerate() {
+		OffHeapPolynomial p = arena.generate(-2, 100, i -> i % 3 == 0 ? 0 : (int) i);
+		DensePolynomial d = p.toDense();
+		assertEquals (d, p);
+		assertEquals (-1, p.getMinExponent());
+		assertEquals (96, p.getMaxExponent());
+		assertEquals (66, p.getTermCount());
+		assertEquals (d.evaluate(-1L), p.evaluate(-1L));
+		assertEquals (d.evaluate(0.5), p.evaluate(0.5), 1e-9);
+		assertEquals (d.evaluateMod(12345, 1000003), p.evaluateMod(12345, 1000003));
+		assertTrue (arena.generate(0, 20, i -> 0).isZero());
+		try {
+			arena.generate(Integer.MAX_VALUE, 2, i -> 1);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that closing the arena frees its memory and stops its polynomials from being read.
+	 */
+	public void testClose() {
+		OffHeapPolynomial p = arena.monomial(5, 3);
+		assertTrue (arena.getAllocatedBytes() > 0);
+		arena.close();
+		assertFalse (arena.isOpen());
+		assertEquals (0, arena.getAllocatedBytes());
+		assertEquals (3, p.getMaxExponent());
+		try {
+			p.getCoeff(3);
+			fail ("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			arena.valueOf(new DensePolynomial(1, 0));
+			fail ("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		arena.close();
+	}
+
+	/**
+	 * Test that a polynomial from a closed arena cannot be read through another arena.
+	 */
+	public void testClosedOperand() {
+		OffHeapArena other = new OffHeapArena(4);
+		OffHeapPolynomial p = other.valueOf(dense(-3, 40, 1));
+		OffHeapPolynomial few = other.monomial(3, 2);
+		other.close();
+		OffHeapPolynomial small = arena.monomial(2, 1);
+		try {
+			arena.valueOf(p);
+			fail ("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			small.multiply(p);
+			fail ("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			arena.valueOf(dense(0, 40, 2)).multiply(few);
+			fail ("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,460 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ParallelPolynomials runs the expensive polynomial operations on a fork-join pool.
+ * Work is split into ranges of coefficients or terms until a range is no larger than
+ * the split threshold, and ranges at or below the threshold run sequentially.
+ *
+ * Coefficients are ints that wrap around on overflow, so their sums and products do
+ * not depend on the order they are computed in: every result is identical to the one
+ * the sequential methods of the polynomial classes return.
+ *
+ * @author yuhu
+ *
+ */
+final public class ParallelPolynomials implements AutoCloseable {
+
+	/**
+	 * The split threshold used by the default constructor
+	 */
+	public static final int DEFAULT_SPLIT_THRESHOLD = 1 << 14;
+
+	final private ForkJoinPool pool;
+
+	// True if the pool was created for this object and is shut down by close()
+	final private boolean ownsPool;
+
+	// Ranges with at most this many coefficients or terms are not split further
+	final private int splitThreshold;
+
+	/**
+	 * A sequential piece of work over a range of indices
+	 */
+	interface RangeBody {
+		void run(int from, int to);
+	}
+
+	/**
+	 * Creates an executor that runs on the common fork-join pool with the default
+	 * split threshold
+	 */
+	public ParallelPolynomials() {
+		this(ForkJoinPool.commonPool(), false, DEFAULT_SPLIT_THRESHOLD);
+	}
+
+	/**
+	 * Creates an executor with its own fork-join pool.  The pool is shut down by close().
+	 * @param parallelism the number of worker threads
+	 * @param splitThreshold the largest number of coefficients or terms processed by one task
+	 * @exception IllegalArgumentException is thrown if either argument is not positive
+	 */
+	public ParallelPolynomials(int parallelism, int splitThreshold) {
+		this(new ForkJoinPool(checkPositive(parallelism, "parallelism")), true,
+				checkPositive(splitThreshold, "splitThreshold"));
+	}
+
+	private ParallelPolynomials(ForkJoinPool pool, boolean ownsPool, int splitThreshold) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		this.splitThreshold = splitThreshold;
+	}
+
+	private static int checkPositive(int value, String name) {
+		if (value <= 0) {
+			throw new IllegalArgumentException(name + " must be positive: " + value);
+		}
+		return value;
+	}
+
+	/**
+	 * @return the number of worker threads
+	 */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * @return the largest number of coefficients or terms processed by one task
+	 */
+	public int getSplitThreshold() {
+		return splitThreshold;
+	}
+
+	/**
+	 * Shuts down the pool if it was created by this object.
+	 */
+	@Override
+	public void close() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Return p + q.  Two dense polynomials are added in parallel; other operands are
+	 * added by p.add(q).  Neither p nor q are changed.
+	 * @param p a polynomial. p should not be null.
+	 * @param q a polynomial. q should not be null.
+	 * @return p + q
+	 */
+	public Polynomial add(Polynomial p, Polynomial q) {
+		if (p == null || q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (!(p instanceof DensePolynomial && q instanceof DensePolynomial) || p.isZero() || q.isZero()) {
+			return p.add(q);
+		}
+
+		final int[] a = ((DensePolynomial) p).coefficients();
+		final int[] b = ((DensePolynomial) q).coefficients();
+		int lo = Math.min(p.getMinExponent(), q.getMinExponent());
+		int hi = Math.max(p.getMaxExponent(), q.getMaxExponent());
+		DensePolynomial.width(lo, hi);
+		while (hi >= lo && p.getCoeff(hi) + q.getCoeff(hi) == 0) {
+			hi--;
+		}
+		if (hi < lo) {
+			return DensePolynomial.ZERO;
+		}
+		while (p.getCoeff(lo) + q.getCoeff(lo) == 0) {
+			lo++;
+		}
+
+		// Each range copies the part of a it covers and adds the part of b
+		final int[] result = new int[hi - lo + 1];
+		final int aFrom = p.getMinExponent() - lo;
+		final int bFrom = q.getMinExponent() - lo;
+		final AtomicInteger count = new AtomicInteger();
+		forEachRange(result.length, (from, to) -> {
+			int aStart = Math.max(from, aFrom);
+			int aEnd = Math.min(to, aFrom + a.length);
+			if (aStart < aEnd) {
+				System.arraycopy(a, aStart - aFrom, result, aStart, aEnd - aStart);
+			}
+			int bStart = Math.max(from, bFrom);
+			DenseKernels.addScaled(result, bStart, 1, b, bStart - bFrom, Math.min(to, bFrom + b.length) - bStart);
+			count.addAndGet(DenseKernels.countNonZero(result, from, to));
+		});
+		return new DensePolynomial(lo, result, count.get());
+	}
+
+	/**
+	 * Return p * factor, scaling the coefficients of a dense or sparse p in parallel.
+	 * p is not changed.
+	 * @param p a polynomial. p should not be null.
+	 * @param factor the constant to multiply p by
+	 * @return p * factor
+	 */
+	public Polynomial multiply(Polynomial p, final int factor) {
+		if (p == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p.isZero() || factor == 0) {
+			return p.multiply(factor);
+		}
+
+		if (p instanceof DensePolynomial) {
+			final int[] arr = ((DensePolynomial) p).coefficients();
+			final int[] result = new int[arr.length];
+			forEachRange(arr.length, (from, to) -> {
+				DenseKernels.scale(result, from, arr, from, factor, to - from);
+			});
+			return DensePolynomial.trimmed(p.getMinExponent(), result, result.length);
+		}
+		if (p instanceof SparsePolynomial) {
+			SparsePolynomial sp = (SparsePolynomial) p;
+			final int[] coeffs = sp.coefficients();
+			final int[] result = new int[coeffs.length];
+			final AtomicInteger count = new AtomicInteger();
+			forEachRange(coeffs.length, (from, to) -> {
+				int nonZero = 0;
+				for (int i = from; i < to; i++) {
+					result[i] = coeffs[i] * factor;
+					if (result[i] != 0) {
+						nonZero++;
+					}
+				}
+				count.addAndGet(nonZero);
+			});
+			if (count.get() == coeffs.length) {
+				return new SparsePolynomial(sp.exponents(), result);
+			}
+
+			// Some products wrapped around to 0, so drop them and the matching exponents
+			int[] exps = sp.exponents();
+			int[] newExps = new int[count.get()];
+			int[] newCoeffs = new int[count.get()];
+			int k = 0;
+			for (int i = 0; i < result.length; i++) {
+				if (result[i] != 0) {
+					newExps[k] = exps[i];
+					newCoeffs[k] = result[i];
+					k++;
+				}
+			}
+			return k == 0 ? SparsePolynomial.ZERO : new SparsePolynomial(newExps, newCoeffs);
+		}
+		return p.multiply(factor);
+	}
+
+	/**
+	 * Return p * q.  Neither p nor q are changed.  For two dense polynomials the longer
+	 * one is cut into blocks that are multiplied by the shorter one in parallel, and the
+	 * overlapping partial products are then added in parallel.  Otherwise the exponents of
+	 * the product are cut into ranges with about the same number of products, which are
+	 * computed in parallel and concatenated.
+	 * @param p a polynomial. p should not be null.
+	 * @param q a polynomial. q should not be null.
+	 * @return p * q, a DensePolynomial if both operands are dense and a SparsePolynomial otherwise
+	 */
+	public Polynomial multiply(Polynomial p, Polynomial q) {
+		if (p == null || q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p instanceof DensePolynomial && q instanceof DensePolynomial) {
+			if (p.isZero() || q.isZero()) {
+				return DensePolynomial.ZERO;
+			}
+			int offset = PolynomialMultiplier.productOffset(p, q);
+			int[] product = multiplyDense(((DensePolynomial) p).coefficients(),
+					((DensePolynomial) q).coefficients());
+			return DensePolynomial.trimmed(offset, product, product.length);
+		}
+		return multiplySparse(SparsePolynomial.valueOf(p), SparsePolynomial.valueOf(q));
+	}
+
+	/**
+	 * Return the sum of all the polynomials in ps.  The collection is split in half
+	 * recursively; each leaf is summed sequentially in a PolynomialAccumulator and the
+	 * leaves are combined with add.
+	 * @param ps the polynomials to sum. Neither ps nor its elements should be null.
+	 * @return the sum, a DensePolynomial if every element is dense and a SparsePolynomial
+	 *    otherwise
+	 */
+	public Polynomial sum(Collection<? extends Polynomial> ps) {
+		if (ps == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		final List<Polynomial> list = new ArrayList<Polynomial>(ps);
+		for (Polynomial p : list) {
+			if (p == null) {
+				throw new NullPointerException("NullPointerException");
+			}
+		}
+		if (list.isEmpty()) {
+			return DensePolynomial.ZERO;
+		}
+		int leafSize = Math.max(1, list.size() / (4 * getParallelism()));
+		return pool.invoke(new SumTask(list, 0, list.size(), leafSize));
+	}
+
+	/**
+	 * Run body over the indices 0 .. length - 1, split into ranges no larger than
+	 * the split threshold.
+	 */
+	void forEachRange(int length, RangeBody body) {
+		if (length <= splitThreshold) {
+			body.run(0, length);
+			return;
+		}
+		pool.invoke(new RangeTask(body, 0, length, splitThreshold));
+	}
+
+	/**
+	 * Return the convolution of a and b, computed block by block in parallel.
+	 */
+	private int[] multiplyDense(int[] a, int[] b) {
+		if (a.length < b.length) {
+			int[] t = a;
+			a = b;
+			b = t;
+		}
+		final int[] longer = a;
+		final int[] shorter = b;
+		final int block = Math.max(splitThreshold,
+				(longer.length + 4 * getParallelism() - 1) / (4 * getParallelism()));
+		int blocks = (longer.length + block - 1) / block;
+		if (blocks == 1) {
+			return PolynomialMultiplier.multiply(longer, shorter);
+		}
+
+		// Multiply each block of the longer operand by the shorter one
+		final int[][] partials = new int[blocks][];
+		pool.invoke(new RangeTask((from, to) -> {
+			for (int k = from; k < to; k++) {
+				int start = k * block;
+				int[] piece = Arrays.copyOfRange(longer, start, Math.min(longer.length, start + block));
+				partials[k] = PolynomialMultiplier.multiply(piece, shorter);
+			}
+		}, 0, blocks, 1));
+
+		// Block k contributes to the result from index k * block onwards
+		final int[] result = new int[longer.length + shorter.length - 1];
+		forEachRange(result.length, (from, to) -> {
+			int firstBlock = Math.max(0, (from - shorter.length + 1) / block - 1);
+			int lastBlock = Math.min(partials.length - 1, (to - 1) / block);
+			for (int k = firstBlock; k <= lastBlock; k++) {
+				int start = k * block;
+				int[] partial = partials[k];
+				int lo = Math.max(from, start);
+				int hi = Math.min(to, start + partial.length);
+				DenseKernels.addScaled(result, lo, 1, partial, lo - start, hi - lo);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Return the product of two sparse polynomials.  The range of exponents of the
+	 * product is cut into chunks holding about the same number of products, and each
+	 * chunk is computed on its own, so the parts never overlap and are concatenated.
+	 */
+	private SparsePolynomial multiplySparse(final SparsePolynomial p, final SparsePolynomial q) {
+		if (p.isZero() || q.isZero()) {
+			return SparsePolynomial.ZERO;
+		}
+		long work = (long) p.termCount() * q.termCount();
+		if (work <= splitThreshold) {
+			return PolynomialMultiplier.multiplySparse(p, q);
+		}
+		long min = PolynomialMultiplier.productOffset(p, q);
+		long max = (long) p.getMaxExponent() + q.getMaxExponent();
+		int chunks = (int) Math.min(4 * getParallelism(), (work + splitThreshold - 1) / splitThreshold);
+		final long[] bounds = chunkBounds(p, q, min, max + 1, chunks);
+		final SparsePolynomial[] parts = new SparsePolynomial[bounds.length - 1];
+		pool.invoke(new RangeTask((from, to) -> {
+			for (int k = from; k < to; k++) {
+				parts[k] = PolynomialMultiplier.multiplySparse(p, q, bounds[k], bounds[k + 1]);
+			}
+		}, 0, parts.length, 1));
+
+		int terms = 0;
+		for (SparsePolynomial part : parts) {
+			terms += part.termCount();
+		}
+		if (terms == 0) {
+			return SparsePolynomial.ZERO;
+		}
+		int[] exps = new int[terms];
+		int[] coeffs = new int[terms];
+		int size = 0;
+		for (SparsePolynomial part : parts) {
+			int n = part.termCount();
+			if (n > 0) {
+				System.arraycopy(part.exponents(), 0, exps, size, n);
+				System.arraycopy(part.coefficients(), 0, coeffs, size, n);
+				size += n;
+			}
+		}
+		return new SparsePolynomial(exps, coeffs);
+	}
+
+	/**
+	 * Cut the exponents from lo to hi - 1 into at most chunks ranges holding about the
+	 * same number of products of p and q.  The cuts are quantiles of the exponents of
+	 * products sampled with a fixed seed, so the same operands are always cut the same way.
+	 * @return the strictly increasing bounds of the ranges, from lo to hi
+	 */
+	private static long[] chunkBounds(SparsePolynomial p, SparsePolynomial q, long lo, long hi, int chunks) {
+		int[] pExps = p.exponents();
+		int[] qExps = q.exponents();
+		SplittableRandom random = new SplittableRandom(chunks);
+		long[] samples = new long[32 * chunks];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = (long) pExps[random.nextInt(pExps.length)] + qExps[random.nextInt(qExps.length)];
+		}
+		Arrays.sort(samples);
+
+		long[] bounds = new long[chunks + 1];
+		bounds[0] = lo;
+		int size = 1;
+		for (int k = 1; k < chunks; k++) {
+			long cut = samples[k * samples.length / chunks];
+			if (cut > bounds[size - 1]) {
+				bounds[size] = cut;
+				size++;
+			}
+		}
+		bounds[size] = hi;
+		return Arrays.copyOf(bounds, size + 1);
+	}
+
+	/**
+	 * Runs a RangeBody over a range, splitting it in half until it is no larger than
+	 * the threshold.
+	 */
+	private static class RangeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final private RangeBody body;
+		final private int from;
+		final private int to;
+		final private int threshold;
+
+		RangeTask(RangeBody body, int from, int to, int threshold) {
+			this.body = body;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				body.run(from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new RangeTask(body, from, middle, threshold),
+					new RangeTask(body, middle, to, threshold));
+		}
+	}
+
+	/**
+	 * Sums the polynomials from .. to - 1 of a list.
+	 */
+	private static class SumTask extends RecursiveTask<Polynomial> {
+		private static final long serialVersionUID = 1L;
+
+		final private List<Polynomial> list;
+		final private int from;
+		final private int to;
+		final private int leafSize;
+
+		SumTask(List<Polynomial> list, int from, int to, int leafSize) {
+			this.list = list;
+			this.from = from;
+			this.to = to;
+			this.leafSize = leafSize;
+		}
+
+		@Override
+		protected Polynomial compute() {
+			if (to - from <= leafSize) {
+				boolean allDense = true;
+				for (int i = from; i < to; i++) {
+					allDense &= list.get(i) instanceof DensePolynomial;
+				}
+				PolynomialAccumulator acc = allDense ? PolynomialAccumulator.dense() : PolynomialAccumulator.sparse();
+				for (int i = from; i < to; i++) {
+					acc.addInPlace(list.get(i));
+				}
+				return acc.freeze();
+			}
+			int middle = (from + to) >>> 1;
+			SumTask low = new SumTask(list, from, middle, leafSize);
+			SumTask high = new SumTask(list, middle, to, leafSize);
+			high.fork();
+			Polynomial lowSum = low.compute();
+			return lowSum.add(high.join());
+		}
+	}
+}
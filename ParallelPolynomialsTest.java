@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the ParallelPolynomials class.  A small split threshold makes even modest
+ * operands run in parallel, and every result is compared with the sequential one.
+ */
+public class ParallelPolynomialsTest extends TestCase {
+	private ParallelPolynomials parallel;
+	private Random random = new Random(2017);
+
+	@Override
+	protected void setUp() {
+		parallel = new ParallelPolynomials(4, 16);
+	}
+
+	@Override
+	protected void tearDown() {
+		parallel.close();
+	}
+
+	/**
+	 * Return a random polynomial with the given number of terms and no exponent above
+	 * maxExponent.  Coefficients use the whole int range so that overflow is exercised.
+	 */
+	private Polynomial randomPolynomial(boolean dense, int terms, int maxExponent) {
+		Polynomial p = dense ? new DensePolynomial() : new SparsePolynomial();
+		for (int i = 0; i < terms; i++) {
+			int exp = random.nextInt(maxExponent + 1);
+			int coeff = random.nextInt();
+			p = p.add(dense ? new DensePolynomial(coeff, exp) : new SparsePolynomial(coeff, exp));
+		}
+		return p;
+	}
+
+	/**
+	 * Test method for {@link ParallelPolynomials#add(Polynomial, Polynomial)}.
+	 */
+	public void testAdd() {
+		for (int i = 0; i < 20; i++) {
+			Polynomial p = randomPolynomial(true, 200, 300);
+			Polynomial q = randomPolynomial(true, 100, 150 + 20 * i);
+			assertEquals (p.add(q), parallel.add(p, q));
+			assertEquals (q.add(p), parallel.add(q, p));
+		}
+		Polynomial p = randomPolynomial(true, 200, 300);
+		assertTrue (parallel.add(p, p.minus()).isZero());
+		Polynomial sparse = randomPolynomial(false, 50, 300);
+		assertEquals (p.add(sparse), parallel.add(p, sparse));
+	}
+
+	/**
+	 * Test method for {@link ParallelPolynomials#multiply(Polynomial, int)}.
+	 */
+	public void testMultiplyByConstant() {
+		for (boolean dense : new boolean[] {true, false}) {
+			Polynomial p = randomPolynomial(dense, 300, 500);
+			assertEquals (p.multiply(7), parallel.multiply(p, 7));
+			assertEquals (p.multiply(-1), parallel.multiply(p, -1));
+			assertTrue (parallel.multiply(p, 0).isZero());
+		}
+
+		// Coefficients that wrap around to 0 drop out of the product
+		assertTrue (parallel.multiply(new SparsePolynomial(65536, 3), 65536).isZero());
+		Polynomial sparse = randomPolynomial(false, 300, 500).add(new SparsePolynomial(65536, 1000));
+		Polynomial product = parallel.multiply(sparse, 65536);
+		assertEquals (sparse.multiply(65536), product);
+		assertTrue (((SparsePolynomial) product).wellFormed());
+	}
+
+	/**
+	 * Test method for {@link ParallelPolynomials#multiply(Polynomial, Polynomial)}.
+	 */
+	public void testMultiply() {
+		for (boolean dense : new boolean[] {true, false}) {
+			for (int i = 0; i < 5; i++) {
+				Polynomial p = randomPolynomial(dense, 400, 2000);
+				Polynomial q = randomPolynomial(dense, 30 + 40 * i, 300);
+				assertEquals (p.multiply(q), parallel.multiply(p, q));
+				assertEquals (q.multiply(p), parallel.multiply(q, p));
+			}
+		}
+		Polynomial dense = randomPolynomial(true, 100, 200);
+		Polynomial sparse = randomPolynomial(false, 100, 200);
+		assertEquals (dense.multiply(sparse), parallel.multiply(dense, sparse));
+	}
+
+	/**
+	 * Test parallel sparse products whose terms are bunched at a few exponents, so that
+	 * the ranges computed in parallel hold very different numbers of terms.
+	 */
+	public void testMultiplySkewed() {
+		Polynomial p = randomPolynomial(false, 200, 100);
+		Polynomial q = randomPolynomial(false, 200, 100);
+		for (int i = 0; i < 20; i++) {
+			p = p.add(new SparsePolynomial(random.nextInt(), 10000 + 5000 * i));
+			q = q.add(new SparsePolynomial(random.nextInt(), -3000 * i));
+		}
+		assertEquals (p.multiply(q), parallel.multiply(p, q));
+		assertEquals (p.multiply(p), parallel.multiply(p, p));
+		assertTrue (parallel.multiply(p, q.subtract(q)).isZero());
+	}
+
+	/**
+	 * Test method for {@link ParallelPolynomials#sum(java.util.Collection)}.
+	 */
+	public void testSum() {
+		for (boolean mixed : new boolean[] {false, true}) {
+			List<Polynomial> ps = new ArrayList<Polynomial>();
+			Polynomial expected = new DensePolynomial();
+			for (int i = 0; i < 100; i++) {
+				Polynomial p = randomPolynomial(!mixed || i % 3 != 0, 20, 100 + i);
+				ps.add(p);
+				expected = expected.add(p);
+			}
+			Polynomial sum = parallel.sum(ps);
+			assertEquals (expected, sum);
+			assertEquals (!mixed, sum instanceof DensePolynomial);
+		}
+		assertTrue (parallel.sum(new ArrayList<Polynomial>()).isZero());
+	}
+}
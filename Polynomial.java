@@ -1,3 +1,8 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Spliterator;
+
 /**
  * This interface can be used to represent polynomials with a single variable
  * where all of the coefficients and exponents are integers, such as 
@@ -5,11 +10,18 @@
  *   x^2 + 1 
  *   4 + x^-3
  * 
+ * The coefficients are ints and the arithmetic wraps around on overflow.  The exact
+ * operations inherited from ExactPolynomial promote to long or BigInteger coefficients
+ * instead.
+ * 
+ * A polynomial is an Iterable of its non-zero terms, from the lowest exponent to the
+ * highest.  terms() and forEachTerm walk the same terms without creating Term objects.
+ * 
  * @author Barbara Lerner
  * @version Oct 4, 2015
  * 
  */
-public interface Polynomial {
+public interface Polynomial extends ExactPolynomial, Iterable<Term> {
 	
 
 	/**
@@ -42,6 +54,41 @@ public interface Polynomial {
 	 */
 	public boolean isZero();
 
+	/**
+	 * Returns an iterator over the non-zero terms, from the lowest exponent to the
+	 * highest, that reads each coefficient and exponent without creating a Term.
+	 * 
+	 * @return an iterator over the terms
+	 */
+	public TermIterator terms();
+
+	/**
+	 * Passes the coefficient and exponent of each non-zero term to action, from the
+	 * lowest exponent to the highest.
+	 * 
+	 * @param action receives each coefficient and exponent. action should not be null.
+	 */
+	public void forEachTerm(IntBinaryConsumer action);
+
+	/**
+	 * Returns an iterator over the non-zero terms, from the lowest exponent to the
+	 * highest.  The iterator does not support remove.
+	 * 
+	 * @return an iterator over the terms
+	 */
+	@Override
+	public Iterator<Term> iterator();
+
+	/**
+	 * Returns a Spliterator over the non-zero terms, sorted by exponent.  It splits the
+	 * storage of the polynomial in halves, so that StreamSupport.stream(p.spliterator(), true)
+	 * processes the terms in parallel.
+	 * 
+	 * @return a Spliterator over the terms
+	 */
+	@Override
+	public Spliterator<Term> spliterator();
+
 	/**
 	 * Returns a polynomial by adding the parameter to this. Neither this nor
 	 * the parameter are modified.
@@ -60,6 +107,16 @@ public interface Polynomial {
 	 */
 	public Polynomial multiply(int factor);
 
+	/**
+	 * Returns a polynomial by multiplying this by another polynomial. Neither 
+	 * this nor the parameter are modified.  Like multiply(int), coefficients
+	 * that do not fit in an int wrap around.
+	 * 
+	 * @param q the polynomial to multiply this by. q should not be null.
+	 * @return this * q
+	 */
+	public Polynomial multiply(Polynomial q);
+
 	/**
 	 * Returns a polynomial by subtracting the parameter from this. Neither this
 	 * nor the parameter are modified.
@@ -76,6 +133,122 @@ public interface Polynomial {
 	 */
 	public Polynomial minus();
 
+	/**
+	 * Returns the quotient and remainder of dividing this by q in Z[x], so that
+	 * this = quotient * q + remainder.  If the leading coefficient of q is 1 or -1 the
+	 * remainder has a smaller degree than q; otherwise the division stops at the first
+	 * term the leading coefficient does not divide.  If this or q has a negative
+	 * exponent, both are treated as Laurent polynomials, in which powers of x are units.
+	 * Like multiply, coefficients that do not fit in an int wrap around.
+	 * 
+	 * @param q the divisor. q should not be null.
+	 * @return {quotient, remainder}
+	 * @throws ArithmeticException if q is zero
+	 */
+	public Polynomial[] divideAndRemainder(Polynomial q);
+
+	/**
+	 * Returns this / q when q divides this exactly.
+	 * 
+	 * @param q the divisor. q should not be null.
+	 * @return the quotient
+	 * @throws ArithmeticException if q is zero or does not divide this
+	 */
+	public Polynomial divide(Polynomial q);
+
+	/**
+	 * Returns the greatest common divisor of this and q over the integers, with a
+	 * positive leading coefficient.  The gcd of Laurent polynomials has no power of x
+	 * as a factor.
+	 * 
+	 * @param q the other polynomial. q should not be null.
+	 * @return gcd(this, q), or 0 if both are 0
+	 * @throws ArithmeticException if a coefficient of the gcd does not fit in an int, or if
+	 *    this or q spans more exponents than an array can hold
+	 */
+	public Polynomial gcd(Polynomial q);
+
+	/**
+	 * Returns this raised to the power n, by binary exponentiation.  this^0 is 1, even
+	 * when this is 0.  Like multiply, coefficients that do not fit in an int wrap around.
+	 * 
+	 * @param n the power
+	 * @return this^n
+	 * @throws ArithmeticException if n is negative and this is not x^k or -x^k, or if an
+	 *         exponent of the result does not fit in an int
+	 */
+	public Polynomial pow(int n);
+
+	/**
+	 * Returns this polynomial with q substituted for x.  Neither this nor q are modified.
+	 * Like multiply, coefficients that do not fit in an int wrap around.
+	 * 
+	 * @param q the polynomial to substitute. q should not be null.
+	 * @return this(q)
+	 * @throws ArithmeticException if this has a negative exponent and q is not x^k or
+	 *         -x^k, or if an exponent of the result does not fit in an int
+	 */
+	public Polynomial compose(Polynomial q);
+
+	/**
+	 * Returns the value of the polynomial at x.  Like int arithmetic, the result
+	 * wraps around when it does not fit in a long.
+	 * 
+	 * @param x the point to evaluate at
+	 * @return this(x)
+	 * @throws ArithmeticException if the polynomial has a negative exponent and
+	 *         x^exp is not an integer, that is x is not 1 or -1
+	 */
+	public long evaluate(long x);
+
+	/**
+	 * Returns the value of the polynomial at x.
+	 * 
+	 * @param x the point to evaluate at
+	 * @return this(x)
+	 */
+	public double evaluate(double x);
+
+	/**
+	 * Returns the value of the polynomial at x modulo a positive modulus.
+	 * 
+	 * @param x the point to evaluate at
+	 * @param modulus the modulus
+	 * @return this(x) mod modulus, in [0, modulus)
+	 * @throws IllegalArgumentException if modulus is not positive
+	 * @throws ArithmeticException if the polynomial has a negative exponent and
+	 *         x has no inverse modulo modulus
+	 */
+	public long evaluateMod(long x, long modulus);
+
+	/**
+	 * Evaluates the polynomial at many points, storing this(xs[i]) in out[i].
+	 * 
+	 * @param xs the points to evaluate at
+	 * @param out receives the values. It must be at least as long as xs.
+	 * @throws IllegalArgumentException if out is shorter than xs
+	 */
+	public void evaluate(double[] xs, double[] out);
+
+	/**
+	 * Writes the polynomial in the format of toString to out.  The text is appended in
+	 * blocks of a few thousand characters, so large polynomials can be written without
+	 * building one String.
+	 * 
+	 * @param out where the text is appended
+	 * @throws IOException if out throws it
+	 */
+	public void writeTo(Appendable out) throws IOException;
+
+	/**
+	 * Writes the polynomial in the format of toString to out, in the same blocks as
+	 * writeTo(Appendable).
+	 * 
+	 * @param out where the text is written
+	 * @throws IOException if out throws it
+	 */
+	public void writeTo(Writer out) throws IOException;
+
 	/**
 	 * Returns true if the object's class invariant holds
 	 * 
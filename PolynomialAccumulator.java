@@ -0,0 +1,363 @@
+import java.util.Arrays;
+
+/**
+ * A PolynomialAccumulator is a mutable polynomial used to sum many polynomials or terms
+ * without creating an intermediate polynomial for every partial sum.  Polynomials are
+ * added into a growable coefficient buffer in place, and freeze() returns the sum as an
+ * immutable DensePolynomial or SparsePolynomial.
+ *
+ * A dense accumulator keeps an array covering every exponent it has seen, which suits
+ * sums whose terms fill most of their range.  A sparse accumulator keeps an
+ * open-addressing hash table from exponent to coefficient, which suits sums of a few
+ * terms spread over a wide range.  Neither allocates while adding, except when its
+ * buffer has to grow.
+ *
+ * Like the polynomial classes, coefficients wrap around on overflow.
+ *
+ * @author yuhu
+ *
+ */
+final public class PolynomialAccumulator {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	// The largest hash table sparse(int) allocates up front; beyond it the table grows
+	// as terms arrive
+	static final int MAX_PRESIZE = 1 << 16;
+
+	// True for a hash table, false for a dense array
+	final private boolean sparse;
+
+	// Dense buffer: buffer[i] is the coefficient of x^(low + i)
+	// Sparse buffer: a hash table with linear probing.  keys[i] and buffer[i] are an
+	// exponent and its coefficient when used[i] is true.  The table is at most half full.
+	private int[] buffer;
+	private int low;
+	private int[] keys;
+	private boolean[] used;
+	private int size;
+
+	/**
+	 * Creates an accumulator
+	 * @param sparse true to keep the coefficients in a hash table, false for an array
+	 */
+	private PolynomialAccumulator(boolean sparse) {
+		this.sparse = sparse;
+		clear();
+	}
+
+	/**
+	 * @return an empty accumulator backed by an array indexed by exponent
+	 */
+	public static PolynomialAccumulator dense() {
+		return new PolynomialAccumulator(false);
+	}
+
+	/**
+	 * @return an empty accumulator backed by a hash table keyed by exponent
+	 */
+	public static PolynomialAccumulator sparse() {
+		return new PolynomialAccumulator(true);
+	}
+
+	/**
+	 * @param expectedTerms the number of distinct exponents the sum is expected to have
+	 * @return an empty accumulator backed by a hash table large enough to hold
+	 *    expectedTerms exponents, up to MAX_PRESIZE / 2, without growing
+	 */
+	static PolynomialAccumulator sparse(long expectedTerms) {
+		PolynomialAccumulator sum = new PolynomialAccumulator(true);
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < 2 * expectedTerms && capacity < MAX_PRESIZE) {
+			capacity *= 2;
+		}
+		sum.buffer = new int[capacity];
+		sum.keys = new int[capacity];
+		sum.used = new boolean[capacity];
+		return sum;
+	}
+
+	/**
+	 * Resets the accumulator to the zero polynomial
+	 */
+	public void clear() {
+		buffer = new int[INITIAL_CAPACITY];
+		low = 0;
+		size = 0;
+		if (sparse) {
+			keys = new int[INITIAL_CAPACITY];
+			used = new boolean[INITIAL_CAPACITY];
+		}
+	}
+
+	/**
+	 * Adds p to the accumulated sum.  p is not changed.
+	 * @param p the polynomial to add. p should not be null.
+	 * @return this accumulator
+	 */
+	public PolynomialAccumulator addInPlace(Polynomial p) {
+		return addScaledInPlace(p, 1);
+	}
+
+	/**
+	 * Subtracts p from the accumulated sum.  p is not changed.
+	 * @param p the polynomial to subtract. p should not be null.
+	 * @return this accumulator
+	 */
+	public PolynomialAccumulator subtractInPlace(Polynomial p) {
+		return addScaledInPlace(p, -1);
+	}
+
+	/**
+	 * Adds factor * p to the accumulated sum.  p is not changed.
+	 * @param p the polynomial to add. p should not be null.
+	 * @param factor the constant to multiply p by
+	 * @return this accumulator
+	 * @exception ArithmeticException is thrown if a dense accumulator would span more exponents
+	 *    than an array can hold
+	 */
+	public PolynomialAccumulator addScaledInPlace(Polynomial p, int factor) {
+		if (p == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p instanceof AdaptivePolynomial) {
+			p = ((AdaptivePolynomial) p).getDelegate();
+		}
+		if (factor == 0 || p.isZero()) {
+			return this;
+		}
+
+		if (p instanceof DensePolynomial) {
+			int[] arr = ((DensePolynomial) p).coefficients();
+			int min = p.getMinExponent();
+			if (sparse) {
+				for (int i = 0; i < arr.length; i++) {
+					if (arr[i] != 0) {
+						addToTable(min + i, factor * arr[i]);
+					}
+				}
+			} else {
+				ensureRange(min, p.getMaxExponent());
+				int offset = min - low;
+				DenseKernels.addScaled(buffer, offset, factor, arr, 0, arr.length);
+			}
+		} else if (p instanceof SparsePolynomial) {
+			SparsePolynomial sp = (SparsePolynomial) p;
+			int[] exps = sp.exponents();
+			int[] coeffs = sp.coefficients();
+			if (!sparse) {
+				ensureRange(exps[0], exps[exps.length - 1]);
+			}
+			for (int i = 0; i < exps.length; i++) {
+				addTerm(factor * coeffs[i], exps[i]);
+			}
+		} else {
+			for (long exp = p.getMinExponent(); exp <= p.getMaxExponent(); exp++) {
+				addTerm(factor * p.getCoeff((int) exp), (int) exp);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the term coeff * x^exponent to the accumulated sum.
+	 * @param coeff the coefficient of the term
+	 * @param exponent the exponent of the term
+	 * @return this accumulator
+	 * @exception ArithmeticException is thrown if a dense accumulator would span more exponents
+	 *    than an array can hold
+	 */
+	public PolynomialAccumulator addTerm(int coeff, int exponent) {
+		if (coeff == 0) {
+			return this;
+		}
+		if (sparse) {
+			addToTable(exponent, coeff);
+		} else {
+			ensureRange(exponent, exponent);
+			buffer[exponent - low] += coeff;
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies the accumulated sum by a constant.
+	 * @param factor the constant to multiply by
+	 * @return this accumulator
+	 */
+	public PolynomialAccumulator scaleInPlace(int factor) {
+		for (int i = 0; i < buffer.length; i++) {
+			buffer[i] *= factor;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the coefficient of the accumulated sum for the given exponent.
+	 * @param exp the exponent
+	 * @return the coefficient of x^exp, or 0 if there is none
+	 */
+	public int getCoeff(int exp) {
+		if (sparse) {
+			int slot = find(exp);
+			return used[slot] ? buffer[slot] : 0;
+		}
+		long index = (long) exp - low;
+		if (index < 0 || index >= buffer.length) {
+			return 0;
+		}
+		return buffer[(int) index];
+	}
+
+	/**
+	 * Returns the accumulated sum as an immutable polynomial.  The accumulator is not
+	 * changed and can keep accumulating.
+	 * @return a DensePolynomial for a dense accumulator, and a SparsePolynomial for a
+	 *    sparse one
+	 */
+	public Polynomial freeze() {
+		if (sparse) {
+			return freezeTable();
+		}
+
+		int first = 0;
+		while (first < buffer.length && buffer[first] == 0) {
+			first++;
+		}
+		if (first == buffer.length) {
+			return DensePolynomial.ZERO;
+		}
+		int last = buffer.length - 1;
+		while (buffer[last] == 0) {
+			last--;
+		}
+
+		return DensePolynomial.trimmed(low + first, Arrays.copyOfRange(buffer, first, last + 1), last - first + 1);
+	}
+
+	/**
+	 * @return the non-zero entries of the hash table as a sparse polynomial
+	 */
+	private SparsePolynomial freezeTable() {
+		// Sort the exponents together with their slots: the exponent is in the high
+		// half of each long and the slot in the low half
+		long[] order = new long[size];
+		int terms = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (used[slot] && buffer[slot] != 0) {
+				order[terms] = ((long) keys[slot] << 32) | slot;
+				terms++;
+			}
+		}
+		Arrays.sort(order, 0, terms);
+
+		int[] exps = new int[terms];
+		int[] coeffs = new int[terms];
+		for (int i = 0; i < terms; i++) {
+			int slot = (int) order[i];
+			exps[i] = keys[slot];
+			coeffs[i] = buffer[slot];
+		}
+		return new SparsePolynomial(exps, coeffs);
+	}
+
+	/**
+	 * Grow the dense buffer so that it covers the exponents from min to max.
+	 * @exception ArithmeticException is thrown if there are more exponents than an array can hold
+	 */
+	private void ensureRange(int min, int max) {
+		long high = (long) low + buffer.length - 1;
+		if (min >= low && max <= high) {
+			return;
+		}
+		if (isEmptyBuffer()) {
+			// Nothing to keep, so the window can move instead of grow
+			low = min;
+			high = (long) low + buffer.length - 1;
+			if (max <= high) {
+				return;
+			}
+		}
+
+		long newLow = Math.min(low, min);
+		long newHigh = Math.max(high, max);
+		long needed = newHigh - newLow + 1;
+		if (needed > Integer.MAX_VALUE - 8) {
+			throw new ArithmeticException("Too many exponents for a dense accumulator: " + newLow + " to " + newHigh);
+		}
+		long capacity = Math.max(needed, 2L * buffer.length);
+		if (capacity > Integer.MAX_VALUE - 8) {
+			capacity = needed;
+		}
+		// Leave the spare room on the side that is growing
+		if (min < low) {
+			newLow = Math.max(Integer.MIN_VALUE, newHigh - capacity + 1);
+		}
+		int[] newBuffer = new int[(int) capacity];
+		System.arraycopy(buffer, 0, newBuffer, (int) (low - newLow), buffer.length);
+		buffer = newBuffer;
+		low = (int) newLow;
+	}
+
+	/**
+	 * @return true if every entry of the dense buffer is 0
+	 */
+	private boolean isEmptyBuffer() {
+		for (int i = 0; i < buffer.length; i++) {
+			if (buffer[i] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Add coeff to the coefficient of x^exp in the hash table.
+	 */
+	private void addToTable(int exp, int coeff) {
+		int slot = find(exp);
+		if (used[slot]) {
+			buffer[slot] += coeff;
+			return;
+		}
+		used[slot] = true;
+		keys[slot] = exp;
+		buffer[slot] = coeff;
+		size++;
+		if (2 * size > keys.length) {
+			rehash();
+		}
+	}
+
+	/**
+	 * @return the slot holding exp, or the empty slot where it would be inserted
+	 */
+	private int find(int exp) {
+		int mask = keys.length - 1;
+		int slot = (exp * 0x9E3779B9 >>> 16 ^ exp * 0x9E3779B9) & mask;
+		while (used[slot] && keys[slot] != exp) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Double the capacity of the hash table.
+	 */
+	private void rehash() {
+		int[] oldKeys = keys;
+		int[] oldValues = buffer;
+		boolean[] oldUsed = used;
+		keys = new int[oldKeys.length * 2];
+		buffer = new int[oldKeys.length * 2];
+		used = new boolean[oldKeys.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int slot = find(oldKeys[i]);
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				buffer[slot] = oldValues[i];
+			}
+		}
+	}
+}
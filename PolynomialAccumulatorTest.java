@@ -0,0 +1,99 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests for the PolynomialAccumulator class.
+ */
+public class PolynomialAccumulatorTest extends TestCase {
+	private Polynomial one = new DensePolynomial(1, 0);
+	private Polynomial twoX = new DensePolynomial(2, 1);
+	private Polynomial twoXplusOne = twoX.add(one);
+	private Polynomial xTo100 = new SparsePolynomial(1, 100);
+	private Polynomial xToNegative100 = new SparsePolynomial(1, -100);
+
+	/**
+	 * Test summing polynomials of both representations into both kinds of accumulator.
+	 */
+	public void testAddInPlace() {
+		for (PolynomialAccumulator acc : new PolynomialAccumulator[] {
+				PolynomialAccumulator.dense(), PolynomialAccumulator.sparse()}) {
+			assertTrue (acc.freeze().isZero());
+			acc.addInPlace(twoXplusOne).addInPlace(xTo100).addInPlace(twoXplusOne);
+			Polynomial sum = acc.freeze();
+			assertTrue (sum.wellFormed());
+			assertEquals (twoXplusOne.multiply(2).add(xTo100), sum);
+			
+			acc.subtractInPlace(xTo100).addScaledInPlace(twoX, -2).addTerm(-2, 0);
+			assertTrue (acc.freeze().isZero());
+			assertEquals (0, acc.getCoeff(100));
+		}
+	}
+
+	/**
+	 * Test the representations freeze returns.
+	 */
+	public void testFreeze() {
+		PolynomialAccumulator dense = PolynomialAccumulator.dense();
+		dense.addInPlace(twoXplusOne);
+		assertTrue (dense.freeze() instanceof DensePolynomial);
+		
+		// Negative exponents are stored densely too
+		dense.addInPlace(xToNegative100);
+		Polynomial laurent = dense.freeze();
+		assertTrue (laurent instanceof DensePolynomial);
+		assertEquals (-100, laurent.getMinExponent());
+		assertEquals (twoXplusOne.add(xToNegative100), laurent);
+		
+		PolynomialAccumulator sparse = PolynomialAccumulator.sparse();
+		sparse.addInPlace(twoXplusOne);
+		assertTrue (sparse.freeze() instanceof SparsePolynomial);
+		
+		// freeze does not reset the accumulator
+		sparse.addInPlace(one);
+		assertEquals (2, sparse.freeze().getCoeff(0));
+		sparse.clear();
+		assertTrue (sparse.freeze().isZero());
+	}
+
+	/**
+	 * Test terms at the ends of the int range.
+	 */
+	public void testExtremeExponents() {
+		Polynomial top = LazyPolynomial.valueOf(new SparsePolynomial(2, Integer.MAX_VALUE)
+				.add(new SparsePolynomial(1, Integer.MAX_VALUE - 1)));
+		for (PolynomialAccumulator acc : new PolynomialAccumulator[] {
+				PolynomialAccumulator.dense(), PolynomialAccumulator.sparse()}) {
+			acc.addInPlace(top).addInPlace(top);
+			assertEquals (top.multiply(2), acc.freeze());
+		}
+
+		PolynomialAccumulator dense = PolynomialAccumulator.dense();
+		dense.addTerm(1, Integer.MAX_VALUE);
+		try {
+			dense.addTerm(1, Integer.MIN_VALUE);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		assertEquals (new SparsePolynomial(1, Integer.MAX_VALUE), dense.freeze());
+	}
+
+	/**
+	 * Test scaling and growing past the initial capacity in both directions.
+	 */
+	public void testScaleAndGrow() {
+		for (PolynomialAccumulator acc : new PolynomialAccumulator[] {
+				PolynomialAccumulator.dense(), PolynomialAccumulator.sparse(),
+				PolynomialAccumulator.sparse(4), PolynomialAccumulator.sparse(1L << 40)}) {
+			Polynomial expected = new SparsePolynomial();
+			for (int exp = -500; exp <= 500; exp += 7) {
+				acc.addTerm(exp, exp);
+				expected = expected.add(new SparsePolynomial(exp, exp));
+			}
+			acc.scaleInPlace(3);
+			assertEquals (expected.multiply(3), acc.freeze());
+			assertEquals (-3 * 493, acc.getCoeff(-493));
+			assertEquals (0, acc.getCoeff(-492));
+			assertEquals (0, acc.getCoeff(100000));
+		}
+	}
+}
@@ -0,0 +1,338 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * PolynomialCodec converts polynomials to and from a compact binary format.  Each
+ * polynomial is one self-delimiting record, so a file can hold many of them back to back.
+ *
+ * A record starts with a header byte, 'D' for a dense record or 'S' for a sparse one,
+ * followed by a varint count.  A dense record then holds the smallest exponent as a
+ * zigzag varint and that many coefficients, for the consecutive exponents from the
+ * smallest; the first and last coefficients are not 0.  A sparse record holds that many terms, each an exponent and a
+ * coefficient: the first exponent as a zigzag varint and every later one as the varint
+ * distance from the previous exponent.  Coefficients are zigzag varints.
+ *
+ * Varints store 7 bits per byte, low bits first, with the high bit set on every byte but
+ * the last.  Zigzag encoding maps 0, -1, 1, -2, ... to 0, 1, 2, 3, ... so that small
+ * negative values stay short.
+ *
+ * @author yuhu
+ *
+ */
+final public class PolynomialCodec {
+
+	/** The header byte of a dense record */
+	public static final byte DENSE = 'D';
+
+	/** The header byte of a sparse record */
+	public static final byte SPARSE = 'S';
+
+	// Records are written to an OutputStream in blocks of this many bytes
+	private static final int BLOCK_SIZE = 8192;
+
+	// The longest varint of an int
+	private static final int MAX_VARINT = 5;
+
+	/**
+	 * Receives the terms of a record as they are decoded, in ascending order of exponent.
+	 * Terms of a dense record with a 0 coefficient are skipped.
+	 */
+	public interface TermVisitor {
+		void visit(int coeff, int exp);
+	}
+
+	/**
+	 * A sequence of bytes to decode from.
+	 */
+	interface ByteSource {
+		/**
+		 * @return the next byte
+		 * @exception java.nio.BufferUnderflowException is thrown if there are no more bytes
+		 */
+		byte get();
+	}
+
+	private PolynomialCodec() {
+	}
+
+	/**
+	 * Return the record of p.  A DensePolynomial is written as a dense record and any
+	 * other polynomial as a sparse record.
+	 * @param p the polynomial to encode
+	 * @return the bytes of the record
+	 */
+	public static byte[] encode(Polynomial p) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			write(p, bytes);
+		} catch (IOException e) {
+			// A ByteArrayOutputStream does not throw
+			throw new AssertionError(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Write the record of p to out, in blocks of a few thousand bytes.
+	 * @param p the polynomial to encode
+	 * @param out where the record is written
+	 * @exception IOException is thrown if out throws it
+	 */
+	public static void write(Polynomial p, OutputStream out) throws IOException {
+		if (p == null || out == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p instanceof AdaptivePolynomial) {
+			p = ((AdaptivePolynomial) p).getDelegate();
+		}
+		byte[] block = new byte[BLOCK_SIZE];
+		int length = 0;
+		if (p instanceof DensePolynomial) {
+			int[] arr = ((DensePolynomial) p).coefficients();
+			block[length++] = DENSE;
+			length = putVarint(block, length, arr.length);
+			length = putVarint(block, length, zigzag(p.getMinExponent()));
+			for (int i = 0; i < arr.length; i++) {
+				if (length > BLOCK_SIZE - MAX_VARINT) {
+					out.write(block, 0, length);
+					length = 0;
+				}
+				length = putVarint(block, length, zigzag(arr[i]));
+			}
+		} else {
+			SparsePolynomial sp = SparsePolynomial.valueOf(p);
+			int[] exps = sp.exponents();
+			int[] coeffs = sp.coefficients();
+			block[length++] = SPARSE;
+			length = putVarint(block, length, exps.length);
+			for (int i = 0; i < exps.length; i++) {
+				if (length > BLOCK_SIZE - 2 * MAX_VARINT) {
+					out.write(block, 0, length);
+					length = 0;
+				}
+				// The distance between ascending exponents is positive but may not fit in an
+				// int; it still fits in 32 unsigned bits, and adding it back wraps correctly
+				length = putVarint(block, length, i == 0 ? zigzag(exps[0]) : exps[i] - exps[i - 1]);
+				length = putVarint(block, length, zigzag(coeffs[i]));
+			}
+		}
+		out.write(block, 0, length);
+	}
+
+	/**
+	 * Decode the record in bytes.
+	 * @param bytes a record
+	 * @return the polynomial
+	 * @exception IllegalArgumentException is thrown if bytes is not a well-formed record
+	 * @exception java.nio.BufferUnderflowException is thrown if the record is cut short
+	 */
+	public static Polynomial decode(byte[] bytes) {
+		return read(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Decode the record at the position of in, and advance the position past it.
+	 * @param in a buffer positioned at a record
+	 * @return the polynomial
+	 * @exception IllegalArgumentException is thrown if the record is not well formed
+	 * @exception java.nio.BufferUnderflowException is thrown if the record is cut short
+	 */
+	public static Polynomial read(ByteBuffer in) {
+		return read(in::get);
+	}
+
+	/**
+	 * Decode the record at the position of in, passing its terms to visitor instead of
+	 * building a polynomial, and advance the position past it.
+	 * @param in a buffer positioned at a record
+	 * @param visitor receives the non-zero terms
+	 * @return the number of terms passed to visitor
+	 * @exception IllegalArgumentException is thrown if the record is not well formed
+	 * @exception java.nio.BufferUnderflowException is thrown if the record is cut short
+	 */
+	public static int read(ByteBuffer in, TermVisitor visitor) {
+		return read(in::get, visitor);
+	}
+
+	/**
+	 * Decode one record from in.
+	 */
+	static Polynomial read(ByteSource in) {
+		byte kind = in.get();
+		int count = getLength(in);
+		if (kind == DENSE) {
+			int offset = denseOffset(in, count);
+			int[] arr = new int[count];
+			int terms = 0;
+			for (int i = 0; i < count; i++) {
+				arr[i] = unzigzag(getVarint(in));
+				if (arr[i] != 0) {
+					terms++;
+				}
+			}
+			if (count > 0 && (arr[0] == 0 || arr[count - 1] == 0)) {
+				throw new IllegalArgumentException("A dense record cannot start or end with a 0 coefficient");
+			}
+			return count == 0 ? DensePolynomial.ZERO : new DensePolynomial(offset, arr, terms);
+		}
+		checkSparse(kind);
+		int[] exps = new int[count];
+		int[] coeffs = new int[count];
+		int exp = 0;
+		for (int i = 0; i < count; i++) {
+			exp = nextExponent(in, i, exp);
+			exps[i] = exp;
+			coeffs[i] = nextCoefficient(in);
+		}
+		return new SparsePolynomial(exps, coeffs);
+	}
+
+	/**
+	 * Decode one record from in, passing its terms to visitor.
+	 * @return the number of terms passed to visitor
+	 */
+	static int read(ByteSource in, TermVisitor visitor) {
+		byte kind = in.get();
+		int count = getLength(in);
+		if (kind == DENSE) {
+			int offset = denseOffset(in, count);
+			int terms = 0;
+			for (int i = 0; i < count; i++) {
+				int coeff = unzigzag(getVarint(in));
+				if (coeff != 0) {
+					visitor.visit(coeff, offset + i);
+					terms++;
+				}
+			}
+			return terms;
+		}
+		checkSparse(kind);
+		int exp = 0;
+		for (int i = 0; i < count; i++) {
+			exp = nextExponent(in, i, exp);
+			visitor.visit(nextCoefficient(in), exp);
+		}
+		return count;
+	}
+
+	/**
+	 * Skip one record of in without building anything.
+	 */
+	static void skip(ByteSource in) {
+		byte kind = in.get();
+		int count = getLength(in);
+		long varints;
+		if (kind == DENSE) {
+			varints = count + 1L;
+		} else {
+			checkSparse(kind);
+			varints = 2L * count;
+		}
+		for (long i = 0; i < varints; i++) {
+			while (in.get() < 0) {
+				// Skip the continuation bytes of a varint
+			}
+		}
+	}
+
+	/**
+	 * @return the smallest exponent of a dense record with count coefficients
+	 * @exception IllegalArgumentException is thrown if its largest exponent does not fit in an int
+	 */
+	private static int denseOffset(ByteSource in, int count) {
+		int offset = unzigzag(getVarint(in));
+		if ((long) offset + count - 1 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Exponent out of range: " + ((long) offset + count - 1));
+		}
+		return offset;
+	}
+
+	/**
+	 * @exception IllegalArgumentException is thrown unless kind is a sparse header
+	 */
+	private static void checkSparse(byte kind) {
+		if (kind != SPARSE) {
+			throw new IllegalArgumentException("Unknown record header: " + kind);
+		}
+	}
+
+	/**
+	 * @return the exponent of term i of a sparse record, given the exponent of term i - 1
+	 */
+	private static int nextExponent(ByteSource in, int i, int previous) {
+		if (i == 0) {
+			return unzigzag(getVarint(in));
+		}
+		long exp = previous + Integer.toUnsignedLong(getVarint(in));
+		if (exp == previous || exp > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The exponents of a sparse record must increase");
+		}
+		return (int) exp;
+	}
+
+	/**
+	 * @return the next coefficient of a sparse record
+	 */
+	private static int nextCoefficient(ByteSource in) {
+		int coeff = unzigzag(getVarint(in));
+		if (coeff == 0) {
+			throw new IllegalArgumentException("A sparse record cannot have a 0 coefficient");
+		}
+		return coeff;
+	}
+
+	/**
+	 * @return the count of a record
+	 */
+	private static int getLength(ByteSource in) {
+		int count = getVarint(in);
+		if (count < 0) {
+			throw new IllegalArgumentException("Record too long: " + Integer.toUnsignedString(count));
+		}
+		return count;
+	}
+
+	/**
+	 * Store value as a varint in block at offset.
+	 * @return the offset after the varint
+	 */
+	private static int putVarint(byte[] block, int offset, int value) {
+		while ((value & ~0x7F) != 0) {
+			block[offset++] = (byte) (value | 0x80);
+			value >>>= 7;
+		}
+		block[offset++] = (byte) value;
+		return offset;
+	}
+
+	/**
+	 * @return the next varint of in
+	 */
+	private static int getVarint(ByteSource in) {
+		int value = 0;
+		for (int shift = 0; shift < 7 * MAX_VARINT; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Varint longer than " + MAX_VARINT + " bytes");
+	}
+
+	/**
+	 * @return value with its sign moved to the lowest bit
+	 */
+	static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * @return the value whose zigzag encoding is encoded
+	 */
+	static int unzigzag(int encoded) {
+		return (encoded >>> 1) ^ -(encoded & 1);
+	}
+}
@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the PolynomialCodec and MappedPolynomialReader classes.
+ */
+public class PolynomialCodecTest extends TestCase {
+	private Polynomial zero = new DensePolynomial(0, 0);
+	private Polynomial dense = new DensePolynomial(-3, 4).add(new DensePolynomial(200, 1)).add(new DensePolynomial(Integer.MIN_VALUE, 0));
+	private Polynomial sparse = new SparsePolynomial(Integer.MAX_VALUE, Integer.MAX_VALUE).add(new SparsePolynomial(-1, Integer.MIN_VALUE))
+			.add(new SparsePolynomial(7, 0));
+
+	/**
+	 * Test that records decode to equal polynomials of the same representation.
+	 */
+	public void testRoundTrip() {
+		for (Polynomial p : new Polynomial[] {zero, dense, sparse, new SparsePolynomial(0, 0), PolynomialFactory.DEFAULT.valueOf(dense)}) {
+			Polynomial decoded = PolynomialCodec.decode(PolynomialCodec.encode(p));
+			assertEquals (p, decoded);
+			assertTrue (decoded.wellFormed());
+		}
+		assertTrue (PolynomialCodec.decode(PolynomialCodec.encode(dense)) instanceof DensePolynomial);
+		assertTrue (PolynomialCodec.decode(PolynomialCodec.encode(sparse)) instanceof SparsePolynomial);
+	}
+
+	/**
+	 * Test the layout of small records.
+	 */
+	public void testFormat() {
+		// 'D', 3 coefficients from exponent zigzag(0) = 0, zigzag(1) = 2, zigzag(0) = 0, zigzag(-1) = 1
+		Polynomial p = new DensePolynomial(-1, 2).add(new DensePolynomial(1, 0));
+		assertEquals ("[68, 3, 0, 2, 0, 1]", java.util.Arrays.toString(PolynomialCodec.encode(p)));
+		// 'D', 2 coefficients from exponent zigzag(-3) = 5
+		Polynomial laurent = new DensePolynomial(1, -3).add(new DensePolynomial(-1, -2));
+		assertEquals ("[68, 2, 5, 2, 1]", java.util.Arrays.toString(PolynomialCodec.encode(laurent)));
+		assertEquals (laurent, PolynomialCodec.decode(PolynomialCodec.encode(laurent)));
+		// 'S', 2 terms, zigzag(-2) = 3, coefficient zigzag(1) = 2, distance 300, coefficient 2
+		Polynomial q = new SparsePolynomial(1, -2).add(new SparsePolynomial(1, 298));
+		assertEquals ("[83, 2, 3, 2, -84, 2, 2]", java.util.Arrays.toString(PolynomialCodec.encode(q)));
+	}
+
+	/**
+	 * Test reading several records from a buffer, and visiting their terms.
+	 */
+	public void testReadBuffer() {
+		byte[] a = PolynomialCodec.encode(dense);
+		byte[] b = PolynomialCodec.encode(sparse);
+		ByteBuffer buffer = ByteBuffer.allocate(a.length + b.length).put(a).put(b);
+		buffer.flip();
+		assertEquals (dense, PolynomialCodec.read(buffer));
+		List<String> terms = new ArrayList<>();
+		assertEquals (3, PolynomialCodec.read(buffer, (coeff, exp) -> terms.add(new Term(coeff, exp).toString())));
+		assertEquals ("[-1x^-2147483648, 7, 2147483647x^2147483647]", terms.toString());
+		assertFalse (buffer.hasRemaining());
+	}
+
+	/**
+	 * Test that malformed records are rejected.
+	 */
+	public void testMalformed() {
+		byte[][] malformed = {
+				{'X', 0},
+				{'D', 1, 0, 0},
+				{'D', 2, 0, 0, 2},
+				{'S', 1, 0, 0},
+				{'S', 2, 0, 2, 0, 2},
+				{'D', 1, -1, -1, -1, -1, -1, 1},
+		};
+		for (byte[] bytes : malformed) {
+			try {
+				PolynomialCodec.decode(bytes);
+				fail ("Expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		try {
+			PolynomialCodec.decode(new byte[] {'D', 2, 2});
+			fail ("Expected BufferUnderflowException");
+		} catch (BufferUnderflowException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test reading a file through small mapped windows, so records span windows.
+	 */
+	public void testMappedReader() throws IOException {
+		Polynomial big = new DensePolynomial(0, 0);
+		for (int i = 0; i < 1000; i++) {
+			big = big.add(new DensePolynomial(i * 1000003, i));
+		}
+		Path file = Files.createTempFile("polynomials", ".bin");
+		try {
+			try (OutputStream out = Files.newOutputStream(file)) {
+				PolynomialCodec.write(dense, out);
+				PolynomialCodec.write(big, out);
+				PolynomialCodec.write(sparse, out);
+				PolynomialCodec.write(big, out);
+			}
+			try (MappedPolynomialReader reader = new MappedPolynomialReader(file, 64)) {
+				assertEquals (dense, reader.next());
+				assertEquals (big, reader.next());
+				reader.skip();
+				long[] sum = new long[1];
+				assertEquals (big.getMaxExponent(), reader.next((coeff, exp) -> sum[0] += coeff));
+				assertEquals (big.evaluate(1), sum[0]);
+				assertFalse (reader.hasNext());
+				assertEquals (Files.size(file), reader.position());
+				try {
+					reader.next();
+					fail ("Expected NoSuchElementException");
+				} catch (NoSuchElementException e) {
+					// expected
+				}
+			}
+			try (MappedPolynomialReader reader = new MappedPolynomialReader(file)) {
+				assertEquals (dense, reader.next());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PolynomialComposer raises polynomials to powers and substitutes polynomials into
+ * polynomials, on top of the fast products of PolynomialMultiplier.
+ *
+ * Powers use binary exponentiation, and powers of a single term are computed directly.
+ * To compute p(q), a dense p is split in half recursively, p(q) = low(q) + q^h * high(q),
+ * with the powers q^h shared by every split and Horner's rule for short pieces, so most of
+ * the work is in a few large products.  A sparse p is evaluated by Horner's rule over its
+ * terms, raising q to the power of each gap between exponents.  Substituting a single
+ * term c * x^k only rewrites the terms of p.
+ *
+ * Like multiply, coefficients that do not fit in an int wrap around.
+ *
+ * @author yuhu
+ *
+ */
+final class PolynomialComposer {
+
+	// Pieces of a dense polynomial with at most this many coefficients are composed by
+	// Horner's rule
+	static final int HORNER_THRESHOLD = 16;
+
+	private PolynomialComposer() {
+	}
+
+	/**
+	 * Return p^n.  p^0 is 1, even when p is 0.  A negative power is only defined for the
+	 * units x^k and -x^k.
+	 * @param p a polynomial
+	 * @param n the power
+	 * @return p^n, a DensePolynomial if p is dense and a SparsePolynomial otherwise
+	 * @exception ArithmeticException is thrown if n is negative and p is not a unit, or if
+	 *    an exponent of the result does not fit in an int
+	 */
+	static Polynomial pow(Polynomial p, int n) {
+		p = unwrap(p);
+		boolean dense = p instanceof DensePolynomial;
+		if (n == 0) {
+			return constant(1, dense);
+		}
+		if (p.isZero()) {
+			if (n < 0) {
+				throw new ArithmeticException("0 has no inverse");
+			}
+			return p;
+		}
+		if (p.getMinExponent() == p.getMaxExponent()) {
+			int exp = p.getMinExponent();
+			return monomial(p.getCoeff(exp), exp, n, dense);
+		}
+		if (n < 0) {
+			throw new ArithmeticException("Only x^k and -x^k have inverses: " + p);
+		}
+		checkExponent((long) p.getMinExponent() * n);
+		checkExponent((long) p.getMaxExponent() * n);
+
+		// Left to right binary exponentiation
+		Polynomial result = p;
+		for (int bit = Integer.highestOneBit(n) >> 1; bit != 0; bit >>= 1) {
+			result = result.multiply(result);
+			if ((n & bit) != 0) {
+				result = result.multiply(p);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return (coeff * x^exp)^n.
+	 * @exception ArithmeticException is thrown if n is negative and coeff is not 1 or -1,
+	 *    or if the exponent of the result does not fit in an int
+	 */
+	private static Polynomial monomial(int coeff, int exp, int n, boolean dense) {
+		if (n < 0 && coeff != 1 && coeff != -1) {
+			throw new ArithmeticException("Only x^k and -x^k have inverses: " + new Term(coeff, exp));
+		}
+		int c = power(coeff, Math.abs((long) n));
+		int e = checkExponent((long) exp * n);
+		return dense ? new DensePolynomial(c, e) : new SparsePolynomial(c, e);
+	}
+
+	/**
+	 * Return p(q), the polynomial p with q substituted for x.
+	 * @param p a polynomial
+	 * @param q the polynomial to substitute
+	 * @return p(q), a DensePolynomial if p and q are dense and a SparsePolynomial otherwise
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception ArithmeticException is thrown if p has a negative exponent and q is not a
+	 *    unit x^k or -x^k, or if an exponent of the result does not fit in an int
+	 */
+	static Polynomial compose(Polynomial p, Polynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		p = unwrap(p);
+		q = unwrap(q);
+		boolean dense = p instanceof DensePolynomial && q instanceof DensePolynomial;
+		if (p.isZero()) {
+			return dense ? DensePolynomial.ZERO : SparsePolynomial.ZERO;
+		}
+		if (q.getMinExponent() == q.getMaxExponent()) {
+			int k = q.getMinExponent();
+			return substituteMonomial(SparsePolynomial.valueOf(p), q.getCoeff(k), k, dense);
+		}
+		if (p.getMinExponent() < 0) {
+			throw new ArithmeticException("Only x^k and -x^k can be substituted into " + p);
+		}
+		checkExponent((long) p.getMaxExponent() * q.getMaxExponent());
+		checkExponent((long) p.getMaxExponent() * q.getMinExponent());
+		if (p instanceof DensePolynomial) {
+			// p is x^min times the polynomial its array holds
+			int[] arr = ((DensePolynomial) p).coefficients();
+			List<Polynomial> powers = new ArrayList<>();
+			powers.add(q);
+			Polynomial result = composeDense(arr, 0, arr.length, q, powers, dense);
+			int min = p.getMinExponent();
+			return min == 0 ? result : result.multiply(pow(q, min));
+		}
+		return composeSparse(SparsePolynomial.valueOf(p), q, dense);
+	}
+
+	/**
+	 * Return p(coeff * x^k) by mapping each term a * x^i to a * coeff^i * x^(k * i).  The
+	 * zero polynomial is the monomial with coeff 0.
+	 */
+	private static Polynomial substituteMonomial(SparsePolynomial p, int coeff, int k, boolean dense) {
+		int[] exps = p.exponents();
+		int[] coeffs = p.coefficients();
+		int n = exps.length;
+		if (k == 0 || coeff == 0) {
+			// Every term becomes a constant
+			int sum = 0;
+			for (int i = 0; i < n; i++) {
+				if (exps[i] < 0 && (coeff == 0 || k == 0 && coeff != 1 && coeff != -1)) {
+					throw new ArithmeticException("Only x^k and -x^k can be substituted into " + p);
+				}
+				sum += coeffs[i] * power(coeff, Math.abs((long) exps[i]));
+			}
+			return constant(sum, dense);
+		}
+		if (exps[0] < 0 && coeff != 1 && coeff != -1) {
+			throw new ArithmeticException("Only x^k and -x^k can be substituted into " + p);
+		}
+
+		// The terms stay in order when k is positive and reverse when it is negative
+		int[] newExps = new int[n];
+		int[] newCoeffs = new int[n];
+		int size = 0;
+		for (int j = 0; j < n; j++) {
+			int i = k > 0 ? j : n - 1 - j;
+			int c = coeffs[i] * power(coeff, Math.abs((long) exps[i]));
+			if (c != 0) {
+				newExps[size] = checkExponent((long) exps[i] * k);
+				newCoeffs[size] = c;
+				size++;
+			}
+		}
+		if (dense) {
+			if (size == 0) {
+				return DensePolynomial.ZERO;
+			}
+			int min = newExps[0];
+			int[] arr = new int[DensePolynomial.width(min, newExps[size - 1])];
+			for (int i = 0; i < size; i++) {
+				arr[newExps[i] - min] = newCoeffs[i];
+			}
+			return new DensePolynomial(min, arr, size);
+		}
+		return new SparsePolynomial(Arrays.copyOf(newExps, size), Arrays.copyOf(newCoeffs, size));
+	}
+
+	/**
+	 * Return a[from] + a[from + 1] q + ... + a[from + length - 1] q^(length - 1).  The
+	 * coefficients are split at the largest power of 2 below length, so the shared powers
+	 * q^(2^j) are the only powers needed.
+	 */
+	private static Polynomial composeDense(int[] a, int from, int length, Polynomial q, List<Polynomial> powers,
+			boolean dense) {
+		if (length <= HORNER_THRESHOLD) {
+			Polynomial result = constant(a[from + length - 1], dense);
+			for (int i = length - 2; i >= 0; i--) {
+				result = result.multiply(q).add(constant(a[from + i], dense));
+			}
+			return result;
+		}
+		int j = 31 - Integer.numberOfLeadingZeros(length - 1);
+		int low = 1 << j;
+		Polynomial lowPart = composeDense(a, from, low, q, powers, dense);
+		Polynomial highPart = composeDense(a, from + low, length - low, q, powers, dense);
+		if (highPart.isZero()) {
+			return lowPart;
+		}
+		while (powers.size() <= j) {
+			Polynomial last = powers.get(powers.size() - 1);
+			powers.add(last.multiply(last));
+		}
+		return lowPart.add(highPart.multiply(powers.get(j)));
+	}
+
+	/**
+	 * Return p(q) for a sparse p with no negative exponents, by Horner's rule over the
+	 * terms of p.  The power of q for each distinct gap between exponents is computed once.
+	 */
+	private static Polynomial composeSparse(SparsePolynomial p, Polynomial q, boolean dense) {
+		int[] exps = p.exponents();
+		int[] coeffs = p.coefficients();
+		Map<Integer, Polynomial> gaps = new HashMap<>();
+		Polynomial result = constant(coeffs[exps.length - 1], dense);
+		for (int i = exps.length - 2; i >= 0; i--) {
+			Polynomial power = gaps.computeIfAbsent(exps[i + 1] - exps[i], gap -> pow(q, gap));
+			result = result.multiply(power).add(constant(coeffs[i], dense));
+		}
+		if (exps[0] > 0) {
+			result = result.multiply(pow(q, exps[0]));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the polynomial p holds, without a lazy or adaptive wrapper
+	 */
+	private static Polynomial unwrap(Polynomial p) {
+		if (p instanceof LazyPolynomial) {
+			p = ((LazyPolynomial) p).force();
+		}
+		if (p instanceof AdaptivePolynomial) {
+			p = ((AdaptivePolynomial) p).getDelegate();
+		}
+		return p;
+	}
+
+	private static Polynomial constant(int c, boolean dense) {
+		return dense ? new DensePolynomial(c, 0) : new SparsePolynomial(c, 0);
+	}
+
+	/**
+	 * @return base^exp, wrapping around like int multiplication
+	 */
+	private static int power(int base, long exp) {
+		int result = 1;
+		while (exp > 0) {
+			if ((exp & 1) != 0) {
+				result *= base;
+			}
+			base *= base;
+			exp >>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * @return exp as an int
+	 * @exception ArithmeticException is thrown if exp does not fit in an int
+	 */
+	private static int checkExponent(long exp) {
+		if (exp != (int) exp) {
+			throw new ArithmeticException("Exponent out of range: " + exp);
+		}
+		return (int) exp;
+	}
+}
@@ -0,0 +1,115 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests for pow and compose, which are computed by PolynomialComposer.
+ */
+public class PolynomialComposerTest extends TestCase {
+	private Polynomial one = new DensePolynomial(1, 0);
+	private Polynomial x = new DensePolynomial(1, 1);
+	private Polynomial xPlusOne = x.add(one);
+
+	/**
+	 * Test powers against repeated multiplication.
+	 */
+	public void testPow() {
+		assertEquals (one, xPlusOne.pow(0));
+		assertEquals (one, new DensePolynomial().pow(0));
+		assertTrue (new DensePolynomial().pow(5).isZero());
+		assertEquals (xPlusOne, xPlusOne.pow(1));
+
+		Polynomial q = new SparsePolynomial(3, 7).subtract(new SparsePolynomial(2, 0));
+		Polynomial expected = new SparsePolynomial(1, 0);
+		for (int n = 0; n <= 13; n++) {
+			assertEquals (expected, q.pow(n));
+			expected = expected.multiply(q);
+		}
+		assertTrue (xPlusOne.pow(10) instanceof DensePolynomial);
+		assertTrue (q.pow(10) instanceof SparsePolynomial);
+		assertEquals (1024, xPlusOne.pow(10).evaluate(1L));
+	}
+
+	/**
+	 * Test powers of a single term, which are the only ones that can be negative.
+	 */
+	public void testMonomialPow() {
+		assertEquals (new DensePolynomial(-8, 15), new DensePolynomial(-2, 5).pow(3));
+		assertEquals (new SparsePolynomial(-1, -15), new SparsePolynomial(-1, 5).pow(-3));
+		assertEquals (new SparsePolynomial(1, 4), new SparsePolynomial(1, -2).pow(-2));
+		try {
+			new DensePolynomial(2, 1).pow(-1);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			xPlusOne.pow(-1);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			new SparsePolynomial(1, 1 << 20).pow(1 << 12);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that the divide and conquer composition of a long dense polynomial agrees with
+	 * Horner's rule.
+	 */
+	public void testComposeDense() {
+		int n = 5 * PolynomialComposer.HORNER_THRESHOLD + 3;
+		int[] a = new int[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = i * 7919 % 100 - 50;
+		}
+		Polynomial p = new DensePolynomial(a);
+		Polynomial q = x.multiply(x).subtract(new DensePolynomial(3, 1)).add(new DensePolynomial(2, 0));
+		Polynomial expected = new DensePolynomial();
+		for (int i = n - 1; i >= 0; i--) {
+			expected = expected.multiply(q).add(new DensePolynomial(a[i], 0));
+		}
+		Polynomial composed = p.compose(q);
+		assertEquals (expected, composed);
+		assertTrue (composed instanceof DensePolynomial);
+
+		assertEquals (xPlusOne.pow(3), x.pow(3).compose(xPlusOne));
+		assertEquals (p, p.compose(x));
+		assertEquals (new DensePolynomial((int) p.evaluate(5L), 0), p.compose(new DensePolynomial(5, 0)));
+		assertTrue (new DensePolynomial().compose(q).isZero());
+	}
+
+	/**
+	 * Test the composition of sparse polynomials, and substitution of a single term.
+	 */
+	public void testComposeSparse() {
+		// x^40 + 2x^10 - 1 at x + 1
+		Polynomial p = new SparsePolynomial(1, 40).add(new SparsePolynomial(2, 10)).subtract(new SparsePolynomial(1, 0));
+		Polynomial expected = xPlusOne.pow(40).add(xPlusOne.pow(10).multiply(2)).subtract(one);
+		Polynomial composed = p.compose(xPlusOne);
+		assertEquals (expected, composed);
+		assertTrue (composed instanceof SparsePolynomial);
+
+		// Substituting -x^3 or x^-1 only moves the terms, even for negative exponents
+		Polynomial laurent = new SparsePolynomial(3, -2).add(new SparsePolynomial(5, 4));
+		assertEquals (new SparsePolynomial(5, 12).add(new SparsePolynomial(3, -6)), laurent.compose(new SparsePolynomial(-1, 3)));
+		assertEquals (new SparsePolynomial(3, 2).add(new SparsePolynomial(5, -4)), laurent.compose(new SparsePolynomial(1, -1)));
+
+		// 2^40 wraps around to 0, like the coefficients of multiply
+		assertEquals (new SparsePolynomial(2048, 20).subtract(new SparsePolynomial(1, 0)), p.compose(new SparsePolynomial(2, 2)));
+		try {
+			laurent.compose(xPlusOne);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			p.compose(null);
+			fail ("Expected NullPointerException");
+		} catch (NullPointerException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,682 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PolynomialDivider divides polynomials and computes their greatest common divisors.
+ *
+ * Division is division with remainder in Z[x]: p = quotient * q + remainder.  When the
+ * leading coefficient of q is 1 or -1 the remainder has a smaller degree than q.
+ * Otherwise the division stops at the first term whose coefficient the leading
+ * coefficient of q does not divide, so the remainder can be of any degree.  Like multiply,
+ * coefficients that do not fit in an int wrap around.  Dense operands are divided in an
+ * array, by Newton iteration on the reversed divisor when both the divisor and the
+ * quotient are long, and sparse operands term by term.
+ *
+ * Polynomials with negative exponents are Laurent polynomials, in which every power of x
+ * is a unit.  If either operand has a negative exponent, both are shifted to start at
+ * x^0, divided, and shifted back, and their gcd has no power of x as a factor.
+ *
+ * The gcd has a positive leading coefficient and is computed exactly, by the subresultant
+ * remainder sequence for small operands and by the modular algorithm for large ones.
+ *
+ * @author yuhu
+ *
+ */
+final class PolynomialDivider {
+
+	// From this many coefficients in both the divisor and the quotient, division by a dense
+	// divisor with leading coefficient 1 or -1 uses Newton iteration
+	static final int NEWTON_THRESHOLD = 64;
+
+	// From this degree of the smaller primitive part, gcd uses the modular algorithm
+	static final int MODULAR_THRESHOLD = 16;
+
+	private PolynomialDivider() {
+	}
+
+	/**
+	 * Return the quotient and remainder of p divided by q.
+	 * @param p the dividend
+	 * @param q the divisor
+	 * @return {quotient, remainder}, both DensePolynomials if p and q are dense and
+	 *    SparsePolynomials otherwise
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception ArithmeticException is thrown if q is zero, or if a Laurent result has an
+	 *    exponent that does not fit in an int
+	 */
+	static Polynomial[] divideAndRemainder(Polynomial p, Polynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		p = unwrap(p);
+		q = unwrap(q);
+		if (q.isZero()) {
+			throw new ArithmeticException("Division by the zero polynomial");
+		}
+		if (p instanceof DensePolynomial && q instanceof DensePolynomial) {
+			if (p.isZero()) {
+				return new Polynomial[] {DensePolynomial.ZERO, DensePolynomial.ZERO};
+			}
+			int[] a = ((DensePolynomial) p).coefficients();
+			int[] b = ((DensePolynomial) q).coefficients();
+			if (p.getMinExponent() >= 0 && q.getMinExponent() >= 0) {
+				// x^s divides both, so p = quotient * q + x^s * remainder of the shifted operands
+				long s = Math.min(p.getMinExponent(), q.getMinExponent());
+				DensePolynomial dp = shift((DensePolynomial) p, -s);
+				DensePolynomial dq = shift((DensePolynomial) q, -s);
+				Polynomial[] result;
+				if (dp.fillsFromZero() && dq.fillsFromZero()) {
+					result = divideDense(fromZero(a, dp.getMinExponent()), fromZero(b, dq.getMinExponent()));
+				} else {
+					// Arrays from x^0 would mostly hold zeros, so divide the terms instead
+					result = divideSparse(SparsePolynomial.valueOf(dp), SparsePolynomial.valueOf(dq));
+				}
+				return new Polynomial[] {DensePolynomial.valueOf(result[0]), shift(DensePolynomial.valueOf(result[1]), s)};
+			}
+			// The arrays of Laurent polynomials already start at x^0 once shifted
+			long shiftA = p.getMinExponent();
+			long shiftB = q.getMinExponent();
+			Polynomial[] result = divideDense(a, b);
+			return new Polynomial[] {shift((DensePolynomial) result[0], shiftA - shiftB), shift((DensePolynomial) result[1], shiftA)};
+		}
+		SparsePolynomial sp = SparsePolynomial.valueOf(p);
+		SparsePolynomial sq = SparsePolynomial.valueOf(q);
+		if (sp.getMinExponent() >= 0 && sq.getMinExponent() >= 0) {
+			return divideSparse(sp, sq);
+		}
+		long a = sp.getMinExponent();
+		long b = sq.getMinExponent();
+		Polynomial[] result = divideSparse(shift(sp, -a), shift(sq, -b));
+		return new Polynomial[] {shift((SparsePolynomial) result[0], a - b), shift((SparsePolynomial) result[1], a)};
+	}
+
+	/**
+	 * Return p / q when q divides p.
+	 * @exception ArithmeticException is thrown if q is zero or does not divide p
+	 */
+	static Polynomial divide(Polynomial p, Polynomial q) {
+		Polynomial[] result = divideAndRemainder(p, q);
+		if (!result[1].isZero()) {
+			throw new ArithmeticException("The divisor does not divide the polynomial");
+		}
+		return result[0];
+	}
+
+	/**
+	 * @return the polynomial p holds, without a lazy or adaptive wrapper
+	 */
+	private static Polynomial unwrap(Polynomial p) {
+		if (p instanceof LazyPolynomial) {
+			p = ((LazyPolynomial) p).force();
+		}
+		if (p instanceof AdaptivePolynomial) {
+			p = ((AdaptivePolynomial) p).getDelegate();
+		}
+		return p;
+	}
+
+	/**
+	 * @return p * x^k
+	 * @exception ArithmeticException is thrown if an exponent does not fit in an int
+	 */
+	private static SparsePolynomial shift(SparsePolynomial p, long k) {
+		if (k == 0) {
+			return p;
+		}
+		int[] exps = p.exponents();
+		int[] newExps = new int[exps.length];
+		for (int i = 0; i < exps.length; i++) {
+			newExps[i] = Math.toIntExact(exps[i] + k);
+		}
+		return new SparsePolynomial(newExps, p.coefficients());
+	}
+
+	/**
+	 * @return p * x^k
+	 * @exception ArithmeticException is thrown if an exponent does not fit in an int
+	 */
+	private static DensePolynomial shift(DensePolynomial p, long k) {
+		if (k == 0 || p.isZero()) {
+			return p;
+		}
+		Math.toIntExact(p.getMaxExponent() + k);
+		return new DensePolynomial(Math.toIntExact(p.getMinExponent() + k), p.coefficients(), p.termCount());
+	}
+
+	/**
+	 * @return the coefficients of a dense array whose first entry is the coefficient of
+	 *    x^offset, indexed by exponent from 0
+	 */
+	private static int[] fromZero(int[] arr, int offset) {
+		if (offset == 0) {
+			return arr;
+		}
+		int[] result = new int[DensePolynomial.width(0, (long) offset + arr.length - 1)];
+		System.arraycopy(arr, 0, result, offset, arr.length);
+		return result;
+	}
+
+	/**
+	 * Divide two dense polynomials, given by their coefficients indexed by exponent from
+	 * 0, in place in a copy of the dividend.  a is not changed.
+	 */
+	private static Polynomial[] divideDense(int[] a, int[] b) {
+		int n = a.length;
+		int m = b.length;
+		if (n < m) {
+			return new Polynomial[] {DensePolynomial.ZERO, DensePolynomial.trimmed(a, n)};
+		}
+		int lead = b[m - 1];
+		if ((lead == 1 || lead == -1) && m >= NEWTON_THRESHOLD && n - m + 1 >= NEWTON_THRESHOLD) {
+			return divideNewton(a, b);
+		}
+		int[] r = a.clone();
+		int[] quotient = new int[n - m + 1];
+		for (int k = n - m; k >= 0; k--) {
+			int c = r[k + m - 1];
+			if (c == 0) {
+				continue;
+			}
+			if (c % lead != 0) {
+				break;
+			}
+			int f = c / lead;
+			quotient[k] = f;
+			for (int j = 0; j < m; j++) {
+				r[k + j] -= f * b[j];
+			}
+		}
+		return new Polynomial[] {DensePolynomial.trimmed(quotient, quotient.length), DensePolynomial.trimmed(r, r.length)};
+	}
+
+	/**
+	 * Divide a by b, whose leading coefficient is 1 or -1, with a power series inverse of
+	 * the reversed divisor.  Reversing turns the quotient into the first n - m + 1 terms
+	 * of rev(a) / rev(b), and the inverse is found by Newton iteration with the fast
+	 * multiplication of PolynomialMultiplier.  The inverse exists over the integers because
+	 * the constant term of rev(b) is 1 or -1, so computing it modulo 2^32 gives exactly the
+	 * wrapped quotient of the schoolbook algorithm.
+	 */
+	private static Polynomial[] divideNewton(int[] a, int[] b) {
+		int n = a.length;
+		int m = b.length;
+		int k = n - m + 1;
+		int[] inverse = inverseSeries(reverse(b, Math.min(m, k)), k);
+		int[] reversedQuotient = Arrays.copyOf(PolynomialMultiplier.multiply(reverse(a, k), inverse), k);
+		int[] quotient = reverse(reversedQuotient, k);
+		int[] product = PolynomialMultiplier.multiply(quotient, b);
+		int[] r = new int[m - 1];
+		for (int i = 0; i < r.length; i++) {
+			r[i] = a[i] - product[i];
+		}
+		return new Polynomial[] {DensePolynomial.trimmed(quotient, k), DensePolynomial.trimmed(r, r.length)};
+	}
+
+	/**
+	 * @return the first length coefficients of the reverse of arr
+	 */
+	private static int[] reverse(int[] arr, int length) {
+		int[] result = new int[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = arr[arr.length - 1 - i];
+		}
+		return result;
+	}
+
+	/**
+	 * Return the first length terms of 1 / f, whose constant term is 1 or -1.  Each step
+	 * doubles the number of correct terms: g = g * (2 - f * g).
+	 */
+	private static int[] inverseSeries(int[] f, int length) {
+		int[] g = {f[0]};
+		int terms = 1;
+		while (terms < length) {
+			terms = Math.min(2 * terms, length);
+			int[] e = Arrays.copyOf(PolynomialMultiplier.multiply(Arrays.copyOf(f, Math.min(f.length, terms)), g), terms);
+			for (int i = 0; i < terms; i++) {
+				e[i] = -e[i];
+			}
+			e[0] += 2;
+			g = Arrays.copyOf(PolynomialMultiplier.multiply(g, e), terms);
+		}
+		return g;
+	}
+
+	/**
+	 * Divide two sparse polynomials with no negative exponents, keeping the remainder in a
+	 * sorted map so each step only touches the terms the divisor changes.
+	 */
+	private static Polynomial[] divideSparse(SparsePolynomial p, SparsePolynomial q) {
+		int[] qExps = q.exponents();
+		int[] qCoeffs = q.coefficients();
+		int degree = qExps[qExps.length - 1];
+		int lead = qCoeffs[qCoeffs.length - 1];
+
+		TreeMap<Integer, Integer> r = new TreeMap<>();
+		int[] pExps = p.exponents();
+		int[] pCoeffs = p.coefficients();
+		for (int i = 0; i < pExps.length; i++) {
+			r.put(pExps[i], pCoeffs[i]);
+		}
+		List<int[]> quotient = new ArrayList<>();
+		while (!r.isEmpty()) {
+			Map.Entry<Integer, Integer> top = r.lastEntry();
+			int exp = top.getKey();
+			int c = top.getValue();
+			if (exp < degree || c % lead != 0) {
+				break;
+			}
+			int f = c / lead;
+			int shift = exp - degree;
+			quotient.add(new int[] {shift, f});
+			for (int j = 0; j < qExps.length; j++) {
+				int e = shift + qExps[j];
+				int coeff = r.getOrDefault(e, 0) - f * qCoeffs[j];
+				if (coeff == 0) {
+					r.remove(e);
+				} else {
+					r.put(e, coeff);
+				}
+			}
+		}
+
+		// The quotient terms were found from high to low exponent
+		int[] exps = new int[quotient.size()];
+		int[] coeffs = new int[quotient.size()];
+		for (int i = 0; i < exps.length; i++) {
+			int[] term = quotient.get(exps.length - 1 - i);
+			exps[i] = term[0];
+			coeffs[i] = term[1];
+		}
+		int[] rExps = new int[r.size()];
+		int[] rCoeffs = new int[r.size()];
+		int k = 0;
+		for (Map.Entry<Integer, Integer> term : r.entrySet()) {
+			rExps[k] = term.getKey();
+			rCoeffs[k] = term.getValue();
+			k++;
+		}
+		return new Polynomial[] {new SparsePolynomial(exps, coeffs), new SparsePolynomial(rExps, rCoeffs)};
+	}
+
+	/**
+	 * Return the greatest common divisor of p and q, with a positive leading coefficient.
+	 * @return gcd(p, q), a DensePolynomial if p and q are dense and a SparsePolynomial otherwise
+	 * @exception NullPointerException is thrown if q is null
+	 * @exception ArithmeticException is thrown if a coefficient of the gcd does not fit in an int,
+	 *    or if p or q spans more exponents than an array can hold
+	 */
+	static Polynomial gcd(Polynomial p, Polynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		p = unwrap(p);
+		q = unwrap(q);
+		boolean dense = p instanceof DensePolynomial && q instanceof DensePolynomial;
+		if (p.isZero() && q.isZero()) {
+			return dense ? DensePolynomial.ZERO : SparsePolynomial.ZERO;
+		}
+		boolean laurent = p.getMinExponent() < 0 || q.getMinExponent() < 0;
+
+		// The gcd is x^shift times the gcd of the operands with their powers of x removed
+		int shift;
+		BigInteger[] g;
+		if (p.isZero() || q.isZero()) {
+			Polynomial other = p.isZero() ? q : p;
+			shift = laurent ? 0 : other.getMinExponent();
+			g = toBig(coefficients(other));
+			if (g[g.length - 1].signum() < 0) {
+				g = scale(g, BigInteger.ONE.negate());
+			}
+		} else {
+			shift = laurent ? 0 : Math.min(p.getMinExponent(), q.getMinExponent());
+			long[] a = coefficients(p);
+			long[] b = coefficients(q);
+			long content = gcd(content(a), content(b));
+			a = divide(a, content(a));
+			b = divide(b, content(b));
+			g = Math.min(a.length, b.length) - 1 >= MODULAR_THRESHOLD ? modularGcd(a, b) : subresultantGcd(a, b);
+			g = scale(g, BigInteger.valueOf(content));
+		}
+
+		int[] coeffs = new int[g.length];
+		for (int i = 0; i < g.length; i++) {
+			if (g[i].bitLength() > 31) {
+				throw new ArithmeticException("A coefficient of the gcd does not fit in an int");
+			}
+			coeffs[i] = g[i].intValue();
+		}
+		if (dense) {
+			return DensePolynomial.trimmed(shift, coeffs, coeffs.length);
+		}
+		int size = 0;
+		for (int c : coeffs) {
+			if (c != 0) {
+				size++;
+			}
+		}
+		int[] exps = new int[size];
+		int[] values = new int[size];
+		int k = 0;
+		for (int i = 0; i < coeffs.length; i++) {
+			if (coeffs[i] != 0) {
+				exps[k] = i + shift;
+				values[k] = coeffs[i];
+				k++;
+			}
+		}
+		return new SparsePolynomial(exps, values);
+	}
+
+	/**
+	 * @return the coefficients of the non-zero polynomial p from its smallest exponent to
+	 *    its largest, indexed from 0
+	 * @exception ArithmeticException is thrown if p spans more exponents than an array can hold
+	 */
+	private static long[] coefficients(Polynomial p) {
+		int min = p.getMinExponent();
+		long[] result = new long[DensePolynomial.width(min, p.getMaxExponent())];
+		if (p instanceof SparsePolynomial) {
+			int[] exps = ((SparsePolynomial) p).exponents();
+			int[] coeffs = ((SparsePolynomial) p).coefficients();
+			for (int i = 0; i < exps.length; i++) {
+				result[exps[i] - min] = coeffs[i];
+			}
+		} else {
+			for (int i = 0; i < result.length; i++) {
+				result[i] = p.getCoeff(min + i);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the gcd of the primitive polynomials a and b by the subresultant remainder
+	 * sequence, whose divisions keep the coefficients from growing exponentially.
+	 */
+	private static BigInteger[] subresultantGcd(long[] a, long[] b) {
+		BigInteger[] u = toBig(a);
+		BigInteger[] v = toBig(b);
+		if (u.length < v.length) {
+			BigInteger[] t = u;
+			u = v;
+			v = t;
+		}
+		BigInteger g = BigInteger.ONE;
+		BigInteger h = BigInteger.ONE;
+		while (v.length > 1) {
+			int delta = u.length - v.length;
+			BigInteger[] r = pseudoRemainder(u, v);
+			if (r.length == 0) {
+				return primitivePart(v);
+			}
+			u = v;
+			v = divide(r, g.multiply(h.pow(delta)));
+			g = u[u.length - 1];
+			if (delta == 1) {
+				h = g;
+			} else if (delta > 1) {
+				h = g.pow(delta).divide(h.pow(delta - 1));
+			}
+		}
+		// A non-zero constant remainder means the primitive parts are coprime
+		return new BigInteger[] {BigInteger.ONE};
+	}
+
+	/**
+	 * Return lc(v)^(deg u - deg v + 1) * u reduced modulo v, which only needs exact
+	 * multiplications.
+	 */
+	private static BigInteger[] pseudoRemainder(BigInteger[] u, BigInteger[] v) {
+		BigInteger[] r = u.clone();
+		int dv = v.length - 1;
+		BigInteger lead = v[dv];
+		int e = u.length - v.length + 1;
+		int top = r.length - 1;
+		while (top >= dv) {
+			BigInteger c = r[top];
+			int s = top - dv;
+			for (int i = 0; i < top; i++) {
+				r[i] = r[i].multiply(lead);
+			}
+			for (int i = 0; i < dv; i++) {
+				r[s + i] = r[s + i].subtract(c.multiply(v[i]));
+			}
+			r[top] = BigInteger.ZERO;
+			e--;
+			while (top >= 0 && r[top].signum() == 0) {
+				top--;
+			}
+		}
+		BigInteger[] result = Arrays.copyOf(r, top + 1);
+		return e > 0 ? scale(result, lead.pow(e)) : result;
+	}
+
+	/**
+	 * Return the gcd of the primitive polynomials a and b by the modular algorithm: the
+	 * monic gcd modulo word-sized primes, scaled by the gcd of the leading coefficients and
+	 * combined by the Chinese remainder theorem until the candidate stops changing and
+	 * divides both.  Primes that divide a leading coefficient are skipped, and primes that
+	 * give a gcd of too high a degree are unlucky and discarded.
+	 */
+	private static BigInteger[] modularGcd(long[] a, long[] b) {
+		long leadA = a[a.length - 1];
+		long leadB = b[b.length - 1];
+		long leadGcd = gcd(Math.abs(leadA), Math.abs(leadB));
+		int degree = Math.min(a.length, b.length);
+		BigInteger[] residues = null;
+		BigInteger product = null;
+		BigInteger[] previous = null;
+		for (long candidate = Integer.MAX_VALUE; ; candidate--) {
+			Modulus m = new Modulus(candidate);
+			if (!m.isPrime() || leadA % candidate == 0 || leadB % candidate == 0) {
+				continue;
+			}
+			int[] g = gcdMod(reduce(a, m), reduce(b, m), m);
+			int d = g.length - 1;
+			if (d == 0) {
+				return new BigInteger[] {BigInteger.ONE};
+			}
+			if (d > degree) {
+				continue;
+			}
+			int scale = m.reduce(leadGcd);
+			for (int i = 0; i < g.length; i++) {
+				g[i] = m.multiply(g[i], scale);
+			}
+			if (d < degree) {
+				degree = d;
+				residues = new BigInteger[g.length];
+				for (int i = 0; i < g.length; i++) {
+					residues[i] = BigInteger.valueOf(g[i]);
+				}
+				product = BigInteger.valueOf(candidate);
+				previous = null;
+			} else {
+				int inverse = m.inverse(m.reduce(product.mod(BigInteger.valueOf(candidate)).longValue()));
+				for (int i = 0; i < g.length; i++) {
+					int r = m.reduce(residues[i].mod(BigInteger.valueOf(candidate)).longValue());
+					int t = m.multiply(m.subtract(g[i], r), inverse);
+					residues[i] = residues[i].add(product.multiply(BigInteger.valueOf(t)));
+				}
+				product = product.multiply(BigInteger.valueOf(candidate));
+			}
+
+			BigInteger half = product.shiftRight(1);
+			BigInteger[] symmetric = new BigInteger[residues.length];
+			for (int i = 0; i < residues.length; i++) {
+				symmetric[i] = residues[i].compareTo(half) > 0 ? residues[i].subtract(product) : residues[i];
+			}
+			if (Arrays.equals(symmetric, previous)) {
+				BigInteger[] result = primitivePart(symmetric);
+				if (divides(result, a) && divides(result, b)) {
+					return result;
+				}
+			}
+			previous = symmetric;
+		}
+	}
+
+	/**
+	 * @return the monic gcd of a and b modulo m, by the Euclidean algorithm
+	 */
+	private static int[] gcdMod(int[] a, int[] b, Modulus m) {
+		a = trim(a);
+		b = trim(b);
+		while (b.length > 0) {
+			int[] r = remainderMod(a, b, m);
+			a = b;
+			b = r;
+		}
+		int inverse = m.inverse(a[a.length - 1]);
+		for (int i = 0; i < a.length; i++) {
+			a[i] = m.multiply(a[i], inverse);
+		}
+		return a;
+	}
+
+	/**
+	 * @return a mod b modulo m, without trailing zeros; b has no trailing zeros
+	 */
+	private static int[] remainderMod(int[] a, int[] b, Modulus m) {
+		int[] r = a.clone();
+		int db = b.length - 1;
+		int inverse = m.inverse(b[db]);
+		for (int k = r.length - b.length; k >= 0; k--) {
+			int c = m.multiply(r[k + db], inverse);
+			if (c != 0) {
+				for (int j = 0; j <= db; j++) {
+					r[k + j] = m.subtract(r[k + j], m.multiply(c, b[j]));
+				}
+			}
+		}
+		return trim(Arrays.copyOf(r, Math.min(r.length, db)));
+	}
+
+	/**
+	 * @return arr without trailing zeros
+	 */
+	private static int[] trim(int[] arr) {
+		int length = arr.length;
+		while (length > 0 && arr[length - 1] == 0) {
+			length--;
+		}
+		return length == arr.length ? arr : Arrays.copyOf(arr, length);
+	}
+
+	/**
+	 * @return the residues of a modulo m
+	 */
+	private static int[] reduce(long[] a, Modulus m) {
+		int[] result = new int[a.length];
+		for (int i = 0; i < a.length; i++) {
+			result[i] = m.reduce(a[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if g divides a exactly over the integers
+	 */
+	private static boolean divides(BigInteger[] g, long[] a) {
+		BigInteger[] r = toBig(a);
+		int dg = g.length - 1;
+		BigInteger lead = g[dg];
+		for (int k = r.length - g.length; k >= 0; k--) {
+			BigInteger[] qr = r[k + dg].divideAndRemainder(lead);
+			if (qr[1].signum() != 0) {
+				return false;
+			}
+			if (qr[0].signum() != 0) {
+				for (int j = 0; j <= dg; j++) {
+					r[k + j] = r[k + j].subtract(qr[0].multiply(g[j]));
+				}
+			}
+		}
+		for (BigInteger c : r) {
+			if (c.signum() != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return a divided by the gcd of its coefficients, with a positive leading coefficient
+	 */
+	private static BigInteger[] primitivePart(BigInteger[] a) {
+		BigInteger content = BigInteger.ZERO;
+		for (BigInteger c : a) {
+			content = content.gcd(c);
+		}
+		if (a[a.length - 1].signum() < 0) {
+			content = content.negate();
+		}
+		return divide(a, content);
+	}
+
+	private static BigInteger[] toBig(long[] a) {
+		BigInteger[] result = new BigInteger[a.length];
+		for (int i = 0; i < a.length; i++) {
+			result[i] = BigInteger.valueOf(a[i]);
+		}
+		return result;
+	}
+
+	private static BigInteger[] scale(BigInteger[] a, BigInteger factor) {
+		BigInteger[] result = new BigInteger[a.length];
+		for (int i = 0; i < a.length; i++) {
+			result[i] = a[i].multiply(factor);
+		}
+		return result;
+	}
+
+	/**
+	 * @return a with every coefficient divided exactly by divisor
+	 */
+	private static BigInteger[] divide(BigInteger[] a, BigInteger divisor) {
+		BigInteger[] result = new BigInteger[a.length];
+		for (int i = 0; i < a.length; i++) {
+			result[i] = a[i].divide(divisor);
+		}
+		return result;
+	}
+
+	/**
+	 * @return a with every coefficient divided exactly by divisor
+	 */
+	private static long[] divide(long[] a, long divisor) {
+		long[] result = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			result[i] = a[i] / divisor;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the gcd of the coefficients of a, which are not all 0
+	 */
+	private static long content(long[] a) {
+		long content = 0;
+		for (long c : a) {
+			content = gcd(content, Math.abs(c));
+		}
+		return content;
+	}
+
+	/**
+	 * @return the gcd of two non-negative numbers
+	 */
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+}
@@ -0,0 +1,143 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests for divideAndRemainder, divide and gcd, which are computed by PolynomialDivider.
+ */
+public class PolynomialDividerTest extends TestCase {
+	private Polynomial one = new DensePolynomial(1, 0);
+	private Polynomial x = new DensePolynomial(1, 1);
+	private Polynomial xPlusOne = x.add(one);
+	private Polynomial xMinusOne = x.subtract(one);
+
+	/**
+	 * Test division of dense polynomials.
+	 */
+	public void testDivideAndRemainder() {
+		// x^2 + 2 = (x + 1)(x - 1) + 3
+		Polynomial p = x.multiply(x).add(new DensePolynomial(2, 0));
+		Polynomial[] qr = p.divideAndRemainder(xPlusOne);
+		assertEquals (xMinusOne, qr[0]);
+		assertEquals (new DensePolynomial(3, 0), qr[1]);
+		assertTrue (qr[0] instanceof DensePolynomial);
+
+		// 2x does not divide x^2 + 2 in Z[x], so nothing can be taken out
+		qr = p.divideAndRemainder(new DensePolynomial(2, 1));
+		assertTrue (qr[0].isZero());
+		assertEquals (p, qr[1]);
+
+		// The divisor is longer than the dividend
+		qr = one.divideAndRemainder(xPlusOne);
+		assertTrue (qr[0].isZero());
+		assertEquals (one, qr[1]);
+
+		// Dense operands with large smallest exponents are not padded from x^0
+		qr = new DensePolynomial(1, 2000000000).divideAndRemainder(new DensePolynomial(1, 1));
+		assertEquals (new DensePolynomial(1, 1999999999), qr[0]);
+		assertTrue (qr[1].isZero());
+		Polynomial high = new DensePolynomial(1, 2000000002).add(new DensePolynomial(3, 2000000000));
+		qr = high.divideAndRemainder(new DensePolynomial(2, 1999999999).add(new DensePolynomial(1, 1999999998)));
+		assertTrue (qr[0] instanceof DensePolynomial);
+		assertEquals (high, qr[0].multiply(new DensePolynomial(2, 1999999999).add(new DensePolynomial(1, 1999999998))).add(qr[1]));
+
+		assertEquals (xMinusOne, xPlusOne.multiply(xMinusOne).divide(xPlusOne));
+		try {
+			p.divide(xPlusOne);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			p.divideAndRemainder(new DensePolynomial());
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that the Newton division of long operands agrees with the schoolbook division.
+	 */
+	public void testNewton() {
+		int n = 4 * PolynomialDivider.NEWTON_THRESHOLD;
+		int[] a = new int[2 * n];
+		int[] b = new int[n];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = i * 7919 % 1000 - 500;
+		}
+		for (int i = 0; i < b.length; i++) {
+			b[i] = i * 104729 % 100 - 50;
+		}
+		b[n - 1] = -1;
+		a[2 * n - 1] = 1;
+		Polynomial p = new DensePolynomial(a);
+		Polynomial q = new DensePolynomial(b);
+		Polynomial[] qr = p.divideAndRemainder(q);
+		assertEquals (p, qr[0].multiply(q).add(qr[1]));
+		assertTrue (qr[1].getMaxExponent() < q.getMaxExponent());
+
+		Polynomial[] sparse = SparsePolynomial.valueOf(p).divideAndRemainder(SparsePolynomial.valueOf(q));
+		assertEquals (qr[0], sparse[0]);
+		assertEquals (qr[1], sparse[1]);
+	}
+
+	/**
+	 * Test division of sparse and Laurent polynomials.
+	 */
+	public void testSparse() {
+		// x^100 - 1 = (x - 1)(x^99 + ... + 1)
+		Polynomial p = new SparsePolynomial(1, 100).subtract(new SparsePolynomial(1, 0));
+		Polynomial q = p.divide(xMinusOne);
+		assertTrue (q instanceof SparsePolynomial);
+		assertEquals (100, q.evaluate(1L));
+
+		// x^-2 + x^-1 = x^-3 (x + 1) x^2 / x^2, and powers of x are units
+		Polynomial laurent = new SparsePolynomial(1, -2).add(new SparsePolynomial(1, -1));
+		assertEquals (new SparsePolynomial(1, -2), laurent.divide(xPlusOne));
+		assertEquals (xPlusOne, laurent.divide(new SparsePolynomial(1, -2)));
+		Polynomial[] qr = laurent.add(new SparsePolynomial(5, -3)).divideAndRemainder(new SparsePolynomial(1, 1).add(new SparsePolynomial(1, -1)));
+		assertEquals (laurent.add(new SparsePolynomial(5, -3)), qr[0].multiply(new SparsePolynomial(1, 1).add(new SparsePolynomial(1, -1))).add(qr[1]));
+	}
+
+	/**
+	 * Test the greatest common divisor.
+	 */
+	public void testGcd() {
+		Polynomial p = xPlusOne.multiply(xPlusOne).multiply(new DensePolynomial(6, 0));
+		Polynomial q = xPlusOne.multiply(xMinusOne).multiply(new DensePolynomial(-4, 0));
+		assertEquals (xPlusOne.multiply(2), p.gcd(q));
+		assertEquals (p.gcd(q), q.gcd(p));
+		assertEquals (one, xPlusOne.gcd(xMinusOne));
+		assertEquals (q.minus(), new DensePolynomial().gcd(q));
+		assertTrue (new DensePolynomial().gcd(new SparsePolynomial()).isZero());
+
+		// Powers of x are part of the gcd of ordinary polynomials but not of Laurent ones
+		assertEquals (new DensePolynomial(1, 2), new DensePolynomial(3, 2).gcd(new DensePolynomial(2, 5)));
+		assertEquals (xPlusOne, laurent(xPlusOne, -3).gcd(laurent(xPlusOne.multiply(x), 4)));
+
+		// Large operands use the modular algorithm
+		Polynomial g = one;
+		for (int i = 0; i < PolynomialDivider.MODULAR_THRESHOLD; i++) {
+			g = g.multiply(i % 3 == 0 ? xMinusOne : xPlusOne);
+		}
+		Polynomial a = x.multiply(x).multiply(x).add(new DensePolynomial(3, 0));
+		Polynomial b = x.multiply(x).multiply(x).subtract(new DensePolynomial(2, 1)).add(new DensePolynomial(5, 0));
+		assertEquals (g, a.multiply(g).gcd(b.multiply(g)));
+		assertEquals (g, SparsePolynomial.valueOf(a.multiply(g)).gcd(b.multiply(g).multiply(-7)));
+
+		// Operands too wide for an array are rejected
+		Polynomial wide = new SparsePolynomial(1, -2000000000).add(new SparsePolynomial(1, 2000000000));
+		try {
+			wide.gcd(x);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * @return p * x^shift as a sparse polynomial
+	 */
+	private static Polynomial laurent(Polynomial p, int shift) {
+		return SparsePolynomial.valueOf(p).multiply(new SparsePolynomial(1, shift));
+	}
+}
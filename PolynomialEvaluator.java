@@ -0,0 +1,206 @@
+import java.math.BigInteger;
+import java.util.stream.IntStream;
+
+/**
+ * PolynomialEvaluator holds the arithmetic shared by the evaluate methods of the
+ * polynomial classes: integer powers by repeated squaring, arithmetic modulo a long,
+ * and the driver that splits a batch evaluation into blocks of points.
+ *
+ * @author yuhu
+ *
+ */
+final class PolynomialEvaluator {
+
+	// Points are evaluated in blocks of this size so that a block of partial results
+	// stays in cache while the coefficients stream past it
+	static final int BLOCK_SIZE = 256;
+
+	// Batches with at least this many points are split across the common fork-join pool
+	static final int PARALLEL_THRESHOLD = 1 << 15;
+
+	// Moduli below this bound can multiply two residues without overflowing a long
+	private static final long SMALL_MODULUS = 3037000500L;
+
+	/**
+	 * Evaluates a polynomial at the points xs[from] .. xs[to - 1].
+	 */
+	interface BlockEvaluator {
+		void evaluate(double[] xs, double[] out, int from, int to);
+	}
+
+	private PolynomialEvaluator() {
+	}
+
+	/**
+	 * Evaluate at every point of xs, storing p(xs[i]) in out[i].  Large batches are
+	 * evaluated in parallel, one block of points per task.
+	 * @param xs the points
+	 * @param out receives the values, at least as long as xs
+	 * @param evaluator evaluates one block of points
+	 * @exception IllegalArgumentException is thrown if out is shorter than xs
+	 */
+	static void evaluateBatch(double[] xs, double[] out, BlockEvaluator evaluator) {
+		if (xs == null || out == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (out.length < xs.length) {
+			throw new IllegalArgumentException("out has " + out.length + " entries for " + xs.length + " points");
+		}
+		int blocks = (xs.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		IntStream range = IntStream.range(0, blocks);
+		if (xs.length >= PARALLEL_THRESHOLD) {
+			range = range.parallel();
+		}
+		range.forEach(block -> {
+			int from = block * BLOCK_SIZE;
+			evaluator.evaluate(xs, out, from, Math.min(xs.length, from + BLOCK_SIZE));
+		});
+	}
+
+	/**
+	 * @return x^exp, wrapping around on overflow like long multiplication
+	 * @param exp a non-negative exponent
+	 */
+	static long power(long x, long exp) {
+		long result = 1;
+		while (exp > 0) {
+			if ((exp & 1) != 0) {
+				result *= x;
+			}
+			x *= x;
+			exp >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * @return x^exp
+	 * @param exp an exponent, which may be negative
+	 */
+	static double power(double x, long exp) {
+		if (exp < 0) {
+			// -exp overflows for Long.MIN_VALUE, so take one factor out first
+			return 1 / (x * power(x, -(exp + 1)));
+		}
+		double result = 1;
+		while (exp > 0) {
+			if ((exp & 1) != 0) {
+				result *= x;
+			}
+			x *= x;
+			exp >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Return the factor x^exp that an integer evaluation multiplies by when the smallest
+	 * exponent is exp.
+	 * @exception ArithmeticException is thrown if exp is negative and x^exp is not an integer
+	 */
+	static long shift(long x, int exp) {
+		if (exp >= 0) {
+			return power(x, exp);
+		}
+		if (x == 1 || x == -1) {
+			// x^-k = x^k for a unit
+			return (exp & 1) == 0 ? 1 : x;
+		}
+		throw new ArithmeticException("x^" + exp + " is not an integer for x = " + x);
+	}
+
+	/**
+	 * @return the residue of value in [0, modulus)
+	 */
+	static long reduce(long value, long modulus) {
+		return Math.floorMod(value, modulus);
+	}
+
+	/**
+	 * @return a * b modulo modulus
+	 * @param a a residue in [0, modulus)
+	 * @param b a residue in [0, modulus)
+	 */
+	static long multiplyMod(long a, long b, long modulus) {
+		if (modulus < SMALL_MODULUS) {
+			return a * b % modulus;
+		}
+		return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+				.mod(BigInteger.valueOf(modulus)).longValue();
+	}
+
+	/**
+	 * @return (a + b) modulo modulus
+	 * @param a a residue in [0, modulus)
+	 * @param b a residue in [0, modulus)
+	 */
+	static long addMod(long a, long b, long modulus) {
+		long sum = a - modulus + b;
+		return sum < 0 ? sum + modulus : sum;
+	}
+
+	/**
+	 * @return x^exp modulo modulus
+	 * @param x a residue in [0, modulus)
+	 * @param exp a non-negative exponent
+	 */
+	static long powerMod(long x, long exp, long modulus) {
+		long result = 1 % modulus;
+		while (exp > 0) {
+			if ((exp & 1) != 0) {
+				result = multiplyMod(result, x, modulus);
+			}
+			x = multiplyMod(x, x, modulus);
+			exp >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Return the factor x^exp that a modular evaluation multiplies by when the smallest
+	 * exponent is exp.
+	 * @param x a residue in [0, modulus)
+	 * @exception ArithmeticException is thrown if exp is negative and x has no inverse
+	 */
+	static long shiftMod(long x, int exp, long modulus) {
+		if (exp >= 0) {
+			return powerMod(x, exp, modulus);
+		}
+		return powerMod(inverseMod(x, modulus), -(long) exp, modulus);
+	}
+
+	/**
+	 * @return the inverse of x modulo modulus
+	 * @param x a residue in [0, modulus)
+	 * @exception ArithmeticException is thrown if x and modulus are not coprime
+	 */
+	static long inverseMod(long x, long modulus) {
+		// Extended Euclid, tracking only the coefficient of x
+		long r0 = modulus;
+		long r1 = x;
+		long s0 = 0;
+		long s1 = 1;
+		while (r1 != 0) {
+			long q = r0 / r1;
+			long r = r0 - q * r1;
+			r0 = r1;
+			r1 = r;
+			long s = s0 - q * s1;
+			s0 = s1;
+			s1 = s;
+		}
+		if (r0 != 1) {
+			throw new ArithmeticException(x + " has no inverse modulo " + modulus);
+		}
+		return reduce(s0, modulus);
+	}
+
+	/**
+	 * @exception IllegalArgumentException is thrown unless modulus is positive
+	 */
+	static void checkModulus(long modulus) {
+		if (modulus <= 0) {
+			throw new IllegalArgumentException("The modulus must be positive: " + modulus);
+		}
+	}
+}
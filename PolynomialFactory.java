@@ -0,0 +1,175 @@
+import java.util.stream.Collector;
+
+/**
+ * A PolynomialFactory creates adaptive polynomials: polynomials that store themselves
+ * densely or sparsely depending on how many of their terms are non-zero, and that
+ * re-check that choice after every add, subtract and multiply.
+ *
+ * A polynomial is stored densely when its fill ratio, the number of non-zero terms
+ * divided by the width of the array a DensePolynomial would need, reaches the dense
+ * threshold, and sparsely when the ratio falls below the sparse threshold.  In between
+ * it keeps its current representation, so results near the boundary do not flip back
+ * and forth.  The array of a DensePolynomial runs from the smallest exponent to the
+ * largest, so the width does not depend on where the exponents are, and polynomials
+ * with negative exponents can be dense too.
+ *
+ * @author yuhu
+ *
+ */
+final public class PolynomialFactory {
+
+	// A dense term costs one int per exponent in the array, a sparse term costs an int
+	// exponent and an int coefficient, so the representations break even at half full
+	public static final double DEFAULT_DENSE_THRESHOLD = 0.5;
+	public static final double DEFAULT_SPARSE_THRESHOLD = 0.25;
+
+	/**
+	 * A factory with the default thresholds
+	 */
+	public static final PolynomialFactory DEFAULT =
+			new PolynomialFactory(DEFAULT_DENSE_THRESHOLD, DEFAULT_SPARSE_THRESHOLD);
+
+	// Class invariant: 0 <= sparseThreshold <= denseThreshold <= 1
+	final private double denseThreshold;
+	final private double sparseThreshold;
+
+	/**
+	 * Creates a factory with the given thresholds
+	 * @param denseThreshold the fill ratio at or above which a polynomial is stored densely
+	 * @param sparseThreshold the fill ratio below which a polynomial is stored sparsely
+	 * @exception IllegalArgumentException is thrown unless 0 <= sparseThreshold <= denseThreshold <= 1
+	 */
+	public PolynomialFactory(double denseThreshold, double sparseThreshold) {
+		if (!(0 <= sparseThreshold && sparseThreshold <= denseThreshold && denseThreshold <= 1)) {
+			throw new IllegalArgumentException("Thresholds must satisfy 0 <= sparse <= dense <= 1: "
+					+ sparseThreshold + ", " + denseThreshold);
+		}
+		this.denseThreshold = denseThreshold;
+		this.sparseThreshold = sparseThreshold;
+	}
+
+	/**
+	 * @return the fill ratio at or above which a polynomial is stored densely
+	 */
+	public double getDenseThreshold() {
+		return denseThreshold;
+	}
+
+	/**
+	 * @return the fill ratio below which a polynomial is stored sparsely
+	 */
+	public double getSparseThreshold() {
+		return sparseThreshold;
+	}
+
+	/**
+	 * @return the adaptive zero polynomial
+	 */
+	public AdaptivePolynomial zero() {
+		return new AdaptivePolynomial(new SparsePolynomial(), this);
+	}
+
+	/**
+	 * Creates an adaptive polynomial with a single term
+	 * @param coeff the coefficient of the term
+	 * @param exponent the exponent of the term
+	 * @return coeff * x^exponent
+	 */
+	public AdaptivePolynomial monomial(int coeff, int exponent) {
+		return new AdaptivePolynomial(new SparsePolynomial(coeff, exponent), this);
+	}
+
+	/**
+	 * Creates an adaptive polynomial equal to p, stored in whichever representation
+	 * the thresholds call for.  p is not changed.
+	 * @param p the polynomial to copy. p should not be null.
+	 * @return an adaptive polynomial equal to p
+	 */
+	public AdaptivePolynomial valueOf(Polynomial p) {
+		if (p == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p instanceof AdaptivePolynomial) {
+			p = ((AdaptivePolynomial) p).getDelegate();
+		}
+		return new AdaptivePolynomial(choose(p), this);
+	}
+
+	/**
+	 * Creates an adaptive polynomial from its coefficients, indexed by exponent.
+	 * @param coeffs the coefficients, coeffs[i] being the coefficient of x^i. coeffs is not changed.
+	 * @return coeffs[0] + coeffs[1] x + ... + coeffs[n - 1] x^(n - 1)
+	 * @see DensePolynomial#fromCoefficients(int[])
+	 */
+	public AdaptivePolynomial fromCoefficients(int[] coeffs) {
+		return new AdaptivePolynomial(choose(DensePolynomial.fromCoefficients(coeffs)), this);
+	}
+
+	/**
+	 * Creates an adaptive polynomial from terms in any order.  The coefficients of equal
+	 * exponents are added.
+	 * @param exps the exponents of the terms
+	 * @param coeffs the coefficients of the terms, matching exps. Neither array is changed.
+	 * @return the sum of the terms
+	 * @see SparsePolynomial#fromTerms(int[], int[])
+	 */
+	public AdaptivePolynomial fromTerms(int[] exps, int[] coeffs) {
+		return new AdaptivePolynomial(choose(SparsePolynomial.fromTerms(exps, coeffs)), this);
+	}
+
+	/**
+	 * Returns a Collector that sums a stream of terms into an adaptive polynomial.  The
+	 * terms are added to a sparse PolynomialAccumulator, so they can come in any order and
+	 * repeat exponents, and parallel streams merge their partial sums.
+	 * @return a Collector from Terms to their sum
+	 */
+	public Collector<Term, ?, AdaptivePolynomial> toPolynomial() {
+		return Collector.of(PolynomialAccumulator::sparse,
+				(sum, t) -> sum.addTerm(t.getCoefficient(), t.getExponent()),
+				(sum, other) -> sum.addInPlace(other.freeze()),
+				sum -> new AdaptivePolynomial(choose(sum.freeze()), this),
+				Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * Return p in the representation the thresholds call for.  p is returned unchanged
+	 * if its representation already fits.
+	 * @param p a polynomial that is not adaptive
+	 * @return a DensePolynomial or SparsePolynomial equal to p
+	 */
+	Polynomial choose(Polynomial p) {
+		if (p.isZero()) {
+			return p instanceof DensePolynomial ? p : SparsePolynomial.ZERO;
+		}
+		double fill = fillRatio(p);
+		if (p instanceof DensePolynomial) {
+			return fill < sparseThreshold ? SparsePolynomial.valueOf(p) : p;
+		}
+		if (p instanceof SparsePolynomial) {
+			return fill >= denseThreshold ? DensePolynomial.valueOf(p) : p;
+		}
+		return fill >= denseThreshold ? DensePolynomial.valueOf(p) : SparsePolynomial.valueOf(p);
+	}
+
+	/**
+	 * Return the number of non-zero terms of p divided by the length of the array a
+	 * DensePolynomial would need to hold p.
+	 * @param p a non-zero polynomial
+	 * @return the fill ratio of p, in (0, 1]
+	 */
+	static double fillRatio(Polynomial p) {
+		int terms;
+		if (p instanceof AbstractPolynomial) {
+			terms = ((AbstractPolynomial) p).termCount();
+		} else {
+			terms = 0;
+			for (long exp = p.getMinExponent(); exp <= p.getMaxExponent(); exp++) {
+				if (p.getCoeff((int) exp) != 0) {
+					terms++;
+				}
+			}
+		}
+		long width = (long) p.getMaxExponent() - p.getMinExponent() + 1;
+		return (double) terms / width;
+	}
+}
@@ -0,0 +1,531 @@
+import java.util.Arrays;
+
+/**
+ * PolynomialMultiplier computes the product of two polynomials.  Dense operands are
+ * multiplied with the schoolbook algorithm, Karatsuba or a number-theoretic transform
+ * depending on their sizes.  Any other operands are multiplied term by term, and the
+ * products are combined with a heap-based merge or in a hash table, depending on how
+ * many of them share an exponent.
+ *
+ * All algorithms give the same result: coefficients are computed modulo 2^32, exactly
+ * as int arithmetic does in multiply(int).
+ *
+ * @author yuhu
+ *
+ */
+final class PolynomialMultiplier {
+
+	// Below this many coefficients in the shorter operand the schoolbook algorithm is used
+	static final int KARATSUBA_THRESHOLD = 32;
+
+	// From this many coefficients in the shorter operand the NTT is used
+	static final int NTT_THRESHOLD = 256;
+
+	// The NTT is exact only while every coefficient of the true product fits in the
+	// three-prime modulus, which holds while the shorter operand has at most 2^20 terms
+	static final int NTT_MAX_SHORTER = 1 << 20;
+
+	// The largest transform length supported by all three primes
+	static final int NTT_MAX_LENGTH = 1 << 23;
+
+	// NTT-friendly primes of the form c * 2^k + 1, all with primitive root 3
+	private static final long P1 = 998244353L;
+	private static final long P2 = 167772161L;
+	private static final long P3 = 469762049L;
+	private static final long ROOT = 3;
+
+	private PolynomialMultiplier() {
+	}
+
+	/**
+	 * Return the product of p and q.  Neither p nor q are changed.
+	 * @param p a polynomial
+	 * @param q a polynomial
+	 * @return p * q, a DensePolynomial if both operands are dense and a SparsePolynomial otherwise
+	 * @exception NullPointerException is thrown if q is null
+	 */
+	static Polynomial multiply(Polynomial p, Polynomial q) {
+		if (q == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p instanceof DensePolynomial && q instanceof DensePolynomial) {
+			return multiplyDense((DensePolynomial) p, (DensePolynomial) q);
+		}
+		return multiplySparse(SparsePolynomial.valueOf(p), SparsePolynomial.valueOf(q));
+	}
+
+	/**
+	 * Return the product of two dense polynomials.  Only their coefficient arrays are
+	 * multiplied; the smallest exponent of the product is the sum of theirs.
+	 * @param p a dense polynomial
+	 * @param q a dense polynomial
+	 * @return p * q
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 */
+	static DensePolynomial multiplyDense(DensePolynomial p, DensePolynomial q) {
+		if (p.isZero() || q.isZero()) {
+			return DensePolynomial.ZERO;
+		}
+		int[] product = multiply(p.coefficients(), q.coefficients());
+		return DensePolynomial.trimmed(productOffset(p, q), product, product.length);
+	}
+
+	/**
+	 * @return the smallest exponent of p * q, the exponent of the first entry of the
+	 *    product of their coefficient arrays
+	 * @exception ArithmeticException is thrown if an exponent of p * q does not fit in an int
+	 */
+	static int productOffset(Polynomial p, Polynomial q) {
+		long min = (long) p.getMinExponent() + q.getMinExponent();
+		long max = (long) p.getMaxExponent() + q.getMaxExponent();
+		if (min != (int) min || max != (int) max) {
+			throw new ArithmeticException("Exponent out of range: " + (min != (int) min ? min : max));
+		}
+		return (int) min;
+	}
+
+	/**
+	 * Return the convolution of a and b, choosing the algorithm by the length of the
+	 * shorter array.
+	 * @param a coefficients indexed by exponent, not empty
+	 * @param b coefficients indexed by exponent, not empty
+	 * @return the coefficients of the product, of length a.length + b.length - 1
+	 */
+	static int[] multiply(int[] a, int[] b) {
+		int shorter = Math.min(a.length, b.length);
+		if (shorter < KARATSUBA_THRESHOLD) {
+			return schoolbook(a, b);
+		}
+		if (shorter >= NTT_THRESHOLD && shorter <= NTT_MAX_SHORTER
+				&& transformLength(a.length + b.length - 1) <= NTT_MAX_LENGTH) {
+			return ntt(a, b);
+		}
+		return karatsuba(a, b);
+	}
+
+	/**
+	 * Multiply a and b with the quadratic schoolbook algorithm.
+	 * @param a coefficients indexed by exponent, not empty
+	 * @param b coefficients indexed by exponent, not empty
+	 * @return the coefficients of the product
+	 */
+	static int[] schoolbook(int[] a, int[] b) {
+		int[] result = new int[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++) {
+			int ai = a[i];
+			if (ai == 0) {
+				continue;
+			}
+			DenseKernels.addScaled(result, i, ai, b, 0, b.length);
+		}
+		return result;
+	}
+
+	/**
+	 * Multiply a and b with Karatsuba's algorithm.  When one operand is much longer
+	 * than the other it is cut into blocks the length of the shorter one.
+	 * @param a coefficients indexed by exponent, not empty
+	 * @param b coefficients indexed by exponent, not empty
+	 * @return the coefficients of the product
+	 */
+	static int[] karatsuba(int[] a, int[] b) {
+		if (a.length < b.length) {
+			int[] t = a;
+			a = b;
+			b = t;
+		}
+		int n = b.length;
+		int[] result = new int[a.length + b.length - 1];
+		int[] block = new int[n];
+		for (int offset = 0; offset < a.length; offset += n) {
+			int count = Math.min(n, a.length - offset);
+			System.arraycopy(a, offset, block, 0, count);
+			Arrays.fill(block, count, n, 0);
+			int[] partial = karatsubaSquare(block, 0, b, 0, n);
+			int limit = Math.min(partial.length, result.length - offset);
+			DenseKernels.addScaled(result, offset, 1, partial, 0, limit);
+		}
+		return result;
+	}
+
+	/**
+	 * Multiply n coefficients of a starting at aOff by n coefficients of b starting at bOff.
+	 * @return the 2n - 1 coefficients of the product
+	 */
+	private static int[] karatsubaSquare(int[] a, int aOff, int[] b, int bOff, int n) {
+		int[] result = new int[2 * n - 1];
+		if (n < KARATSUBA_THRESHOLD) {
+			for (int i = 0; i < n; i++) {
+				int ai = a[aOff + i];
+				if (ai == 0) {
+					continue;
+				}
+				DenseKernels.addScaled(result, i, ai, b, bOff, n);
+			}
+			return result;
+		}
+
+		// Split both operands into a low half of h coefficients and a high half of n - h
+		int h = n / 2;
+		int high = n - h;
+		int[] low = karatsubaSquare(a, aOff, b, bOff, h);
+		int[] top = karatsubaSquare(a, aOff + h, b, bOff + h, high);
+
+		int[] aSum = new int[high];
+		int[] bSum = new int[high];
+		for (int i = 0; i < high; i++) {
+			aSum[i] = a[aOff + h + i];
+			bSum[i] = b[bOff + h + i];
+		}
+		for (int i = 0; i < h; i++) {
+			aSum[i] += a[aOff + i];
+			bSum[i] += b[bOff + i];
+		}
+		int[] middle = karatsubaSquare(aSum, 0, bSum, 0, high);
+
+		// middle - low - top is the cross term a_low * b_high + a_high * b_low
+		for (int i = 0; i < low.length; i++) {
+			middle[i] -= low[i];
+		}
+		for (int i = 0; i < top.length; i++) {
+			middle[i] -= top[i];
+		}
+
+		System.arraycopy(low, 0, result, 0, low.length);
+		for (int i = 0; i < top.length; i++) {
+			result[2 * h + i] += top[i];
+		}
+		for (int i = 0; i < middle.length; i++) {
+			result[h + i] += middle[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Multiply a and b with number-theoretic transforms modulo three primes and
+	 * reconstruct each coefficient with the Chinese remainder theorem.
+	 * @param a coefficients indexed by exponent, not empty
+	 * @param b coefficients indexed by exponent, not empty
+	 * @return the coefficients of the product
+	 */
+	static int[] ntt(int[] a, int[] b) {
+		int resultLength = a.length + b.length - 1;
+		int n = transformLength(resultLength);
+		long[] r1 = convolve(a, b, n, P1);
+		long[] r2 = convolve(a, b, n, P2);
+		long[] r3 = convolve(a, b, n, P3);
+
+		long p1InvModP2 = power(P1 % P2, P2 - 2, P2);
+		long p1p2InvModP3 = power((P1 * P2) % P3, P3 - 2, P3);
+		long p1p2 = P1 * P2;
+		long p1p2p3 = p1p2 * P3;	// wraps; only its value modulo 2^32 matters
+
+		int[] result = new int[resultLength];
+		for (int i = 0; i < resultLength; i++) {
+			// Garner's algorithm: x = t1 + t2 * P1 + t3 * P1 * P2 with 0 <= ti < Pi
+			long t1 = r1[i];
+			long t2 = (r2[i] - t1 % P2 + P2) % P2 * p1InvModP2 % P2;
+			long partial = (t1 + P1 * t2) % P3;
+			long t3 = (r3[i] - partial + P3) % P3 * p1p2InvModP3 % P3;
+			long x = t1 + P1 * t2 + p1p2 * t3;
+
+			// The true coefficient is far smaller than P1 * P2 * P3 / 2 in magnitude, so
+			// a large top digit means it is negative
+			if (t3 > P3 / 2) {
+				x -= p1p2p3;
+			}
+			result[i] = (int) x;
+		}
+		return result;
+	}
+
+	/**
+	 * Multiply two polynomials of residues modulo an arbitrary modulus with the three-prime
+	 * NTT.  Every coefficient of the true product is below P1 * P2 * P3, so it is
+	 * reconstructed exactly by Garner's algorithm and reduced modulo the modulus as it is.
+	 * The shorter operand must have at most NTT_MAX_SHORTER terms and the product at most
+	 * NTT_MAX_LENGTH.
+	 * @param a residues indexed by exponent, not empty
+	 * @param b residues indexed by exponent, not empty
+	 * @param modulus the modulus of the residues
+	 * @return the residues of the product
+	 */
+	static int[] ntt(int[] a, int[] b, Modulus modulus) {
+		int resultLength = a.length + b.length - 1;
+		int n = transformLength(resultLength);
+		long[] r1 = convolve(a, b, n, P1);
+		long[] r2 = convolve(a, b, n, P2);
+		long[] r3 = convolve(a, b, n, P3);
+
+		long p1InvModP2 = power(P1 % P2, P2 - 2, P2);
+		long p1p2InvModP3 = power((P1 * P2) % P3, P3 - 2, P3);
+		int p1 = modulus.reduce(P1);
+		int p1p2 = modulus.reduce(P1 * P2);
+
+		int[] result = new int[resultLength];
+		for (int i = 0; i < resultLength; i++) {
+			long t1 = r1[i];
+			long t2 = (r2[i] - t1 % P2 + P2) % P2 * p1InvModP2 % P2;
+			long partial = (t1 + P1 * t2) % P3;
+			long t3 = (r3[i] - partial + P3) % P3 * p1p2InvModP3 % P3;
+			int x = modulus.add(modulus.reduce(t1), modulus.multiply(modulus.reduce(t2), p1));
+			result[i] = modulus.add(x, modulus.multiply(modulus.reduce(t3), p1p2));
+		}
+		return result;
+	}
+
+	/**
+	 * Return the cyclic convolution of a and b modulo prime, using transforms of length n.
+	 */
+	private static long[] convolve(int[] a, int[] b, int n, long prime) {
+		long[] fa = reduce(a, n, prime);
+		long[] fb = reduce(b, n, prime);
+		transform(fa, prime, false);
+		transform(fb, prime, false);
+		for (int i = 0; i < n; i++) {
+			fa[i] = fa[i] * fb[i] % prime;
+		}
+		transform(fa, prime, true);
+		return fa;
+	}
+
+	/**
+	 * Return the coefficients of a reduced into [0, prime), padded with zeros to length n.
+	 */
+	private static long[] reduce(int[] a, int n, long prime) {
+		long[] result = new long[n];
+		for (int i = 0; i < a.length; i++) {
+			long v = a[i] % prime;
+			result[i] = v < 0 ? v + prime : v;
+		}
+		return result;
+	}
+
+	/**
+	 * In-place iterative number-theoretic transform.  The length of values must be a power of 2
+	 * that divides prime - 1.
+	 * @param values the values to transform, each in [0, prime)
+	 * @param prime the modulus
+	 * @param inverse true to compute the inverse transform, including the division by the length
+	 */
+	private static void transform(long[] values, long prime, boolean inverse) {
+		int n = values.length;
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				long t = values[i];
+				values[i] = values[j];
+				values[j] = t;
+			}
+		}
+
+		for (int len = 2; len <= n; len <<= 1) {
+			long w = power(ROOT, (prime - 1) / len, prime);
+			if (inverse) {
+				w = power(w, prime - 2, prime);
+			}
+			int half = len >> 1;
+			long[] roots = new long[half];
+			roots[0] = 1;
+			for (int k = 1; k < half; k++) {
+				roots[k] = roots[k - 1] * w % prime;
+			}
+			for (int start = 0; start < n; start += len) {
+				for (int k = 0; k < half; k++) {
+					long u = values[start + k];
+					long v = values[start + k + half] * roots[k] % prime;
+					long sum = u + v;
+					values[start + k] = sum >= prime ? sum - prime : sum;
+					long diff = u - v;
+					values[start + k + half] = diff < 0 ? diff + prime : diff;
+				}
+			}
+		}
+
+		if (inverse) {
+			long nInv = power(n, prime - 2, prime);
+			for (int i = 0; i < n; i++) {
+				values[i] = values[i] * nInv % prime;
+			}
+		}
+	}
+
+	/**
+	 * @return base^exp modulo prime
+	 */
+	private static long power(long base, long exp, long prime) {
+		long result = 1;
+		base %= prime;
+		while (exp > 0) {
+			if ((exp & 1) != 0) {
+				result = result * base % prime;
+			}
+			base = base * base % prime;
+			exp >>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the smallest power of 2 that is at least length
+	 */
+	private static int transformLength(int length) {
+		int n = 1;
+		while (n < length) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	/**
+	 * Return the product of two sparse polynomials, computed as the terms of the product
+	 * in the range from its smallest exponent to its largest.
+	 * @param p a sparse polynomial
+	 * @param q a sparse polynomial
+	 * @return p * q
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 * @see #multiplySparse(SparsePolynomial, SparsePolynomial, long, long)
+	 */
+	static SparsePolynomial multiplySparse(SparsePolynomial p, SparsePolynomial q) {
+		if (p.isZero() || q.isZero()) {
+			return SparsePolynomial.ZERO;
+		}
+		long lo = productOffset(p, q);
+		return multiplySparse(p, q, lo, (long) p.getMaxExponent() + q.getMaxExponent() + 1);
+	}
+
+	/**
+	 * Return the terms of p * q whose exponents are in [lo, hi).  Every term of the
+	 * shorter operand is a row, and the terms of the longer one whose products with it
+	 * land in the range are found by binary search.  The products are then combined in
+	 * one of two ways.  If there are more products than exponents in the range, many of
+	 * them share an exponent, and they are summed in the hash table of a sparse
+	 * PolynomialAccumulator, which starts no larger than the range and grows with the
+	 * terms of the result.  Otherwise few of them combine, and a heap merges the rows in
+	 * ascending order of exponent, with no more memory than the rows and the terms of
+	 * the result.  Either way the time depends on
+	 * the number of products and of terms of the result, not on the degrees.
+	 * The exponents of p * q must fit in an int.
+	 * @param p a non-zero sparse polynomial
+	 * @param q a non-zero sparse polynomial
+	 * @param lo the smallest exponent to compute
+	 * @param hi one past the largest exponent to compute
+	 * @return the terms of p * q with exponents from lo to hi - 1
+	 */
+	static SparsePolynomial multiplySparse(SparsePolynomial p, SparsePolynomial q, long lo, long hi) {
+		int[] rowExps = p.exponents();
+		int[] rowCoeffs = p.coefficients();
+		int[] colExps = q.exponents();
+		int[] colCoeffs = q.coefficients();
+		if (rowExps.length > colExps.length) {
+			rowExps = q.exponents();
+			rowCoeffs = q.coefficients();
+			colExps = p.exponents();
+			colCoeffs = p.coefficients();
+		}
+
+		// The products of row with the terms first[row] .. last[row] - 1 of the longer
+		// operand are the ones in the range
+		int rows = rowExps.length;
+		int[] first = new int[rows];
+		int[] last = new int[rows];
+		long products = 0;
+		for (int row = 0; row < rows; row++) {
+			first[row] = lowerBound(colExps, lo - rowExps[row]);
+			last[row] = lowerBound(colExps, hi - rowExps[row]);
+			products += last[row] - first[row];
+		}
+		if (products == 0) {
+			return SparsePolynomial.ZERO;
+		}
+		if (hi - lo < products) {
+			return multiplyHashed(rowExps, rowCoeffs, colExps, colCoeffs, first, last, Math.min(products, hi - lo));
+		}
+		return multiplyHeap(rowExps, rowCoeffs, colExps, colCoeffs, first, last, products);
+	}
+
+	/**
+	 * @return the index of the first entry of the sorted array a that is at least key
+	 */
+	private static int lowerBound(int[] a, long key) {
+		int low = 0;
+		int high = a.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (a[middle] < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Sum the products of each row with its terms first[row] .. last[row] - 1 of the
+	 * columns in a hash table presized for expectedTerms exponents, which grows if the
+	 * product has more.
+	 */
+	private static SparsePolynomial multiplyHashed(int[] rowExps, int[] rowCoeffs, int[] colExps, int[] colCoeffs,
+			int[] first, int[] last, long expectedTerms) {
+		PolynomialAccumulator sum = PolynomialAccumulator.sparse(expectedTerms);
+		for (int row = 0; row < rowExps.length; row++) {
+			int exp = rowExps[row];
+			int coeff = rowCoeffs[row];
+			for (int col = first[row]; col < last[row]; col++) {
+				sum.addTerm(coeff * colCoeffs[col], exp + colExps[col]);
+			}
+		}
+		return (SparsePolynomial) sum.freeze();
+	}
+
+	/**
+	 * Merge the products of each row with its terms first[row] .. last[row] - 1 of the
+	 * columns.  A ProductMerge brings the products out in ascending order of exponent,
+	 * and equal exponents are combined as they appear.
+	 */
+	private static SparsePolynomial multiplyHeap(int[] rowExps, int[] rowCoeffs, int[] colExps, int[] colCoeffs,
+			int[] first, int[] last, long products) {
+		ProductMerge merge = new ProductMerge(rowExps, colExps, first, last);
+
+		int capacity = (int) Math.min(products, Math.max(16, rowExps.length + colExps.length));
+		int[] newExps = new int[capacity];
+		int[] newCoeffs = new int[capacity];
+		int size = 0;
+
+		while (merge.hasNext()) {
+			int exp = merge.nextExponent();
+			int coeff = 0;
+
+			// Combine every product with this exponent
+			while (merge.hasNext() && merge.nextExponent() == exp) {
+				merge.advance();
+				coeff += rowCoeffs[merge.p()] * colCoeffs[merge.q()];
+			}
+
+			if (coeff != 0) {
+				if (size == newExps.length) {
+					int newCapacity = (int) Math.min((long) size * 2, products);
+					newExps = Arrays.copyOf(newExps, newCapacity);
+					newCoeffs = Arrays.copyOf(newCoeffs, newCapacity);
+				}
+				newExps[size] = exp;
+				newCoeffs[size] = coeff;
+				size++;
+			}
+		}
+
+		if (size == 0) {
+			return SparsePolynomial.ZERO;
+		}
+		if (size != newExps.length) {
+			newExps = Arrays.copyOf(newExps, size);
+			newCoeffs = Arrays.copyOf(newCoeffs, size);
+		}
+		return new SparsePolynomial(newExps, newCoeffs);
+	}
+}
@@ -0,0 +1,272 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A PolynomialPool shares one instance among equal polynomials.  Polynomials are
+ * immutable, so code that keeps creating the same constants and monomials can take them
+ * from a pool instead, and equality checks between pooled polynomials succeed on identity.
+ *
+ * The pool holds at most a fixed number of polynomials.  It is split into segments, each
+ * guarded by its own lock and each evicting its least recently used polynomial when it is
+ * full, so threads using different polynomials rarely contend.  Polynomials are only
+ * shared with equal polynomials of the same class, so interning never changes the
+ * representation of a polynomial.
+ *
+ * @author yuhu
+ *
+ */
+final public class PolynomialPool {
+
+	/**
+	 * The default number of polynomials a pool holds
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * A pool shared by the whole program
+	 */
+	public static final PolynomialPool DEFAULT = new PolynomialPool(DEFAULT_CAPACITY);
+
+	// The number of segments; a power of 2
+	private static final int SEGMENTS = 16;
+
+	private final int capacity;
+	private final Segment[] segments;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * One lock-guarded part of the pool, in least recently used order.
+	 */
+	private final class Segment extends LinkedHashMap<Object, Polynomial> {
+		private static final long serialVersionUID = 1L;
+		private final int limit;
+
+		Segment(int limit) {
+			super(16, 0.75f, true);
+			this.limit = limit;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Polynomial> eldest) {
+			if (size() > limit) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * The key of a polynomial that is not a monomial: equal to the keys of equal
+	 * polynomials of the same class.
+	 */
+	private static final class Key {
+		final Polynomial p;
+
+		Key(Polynomial p) {
+			this.p = p;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Polynomial q = ((Key) o).p;
+			if (p.getClass() != q.getClass()) {
+				return false;
+			}
+			if (p instanceof AdaptivePolynomial
+					&& ((AdaptivePolynomial) p).getFactory() != ((AdaptivePolynomial) q).getFactory()) {
+				return false;
+			}
+			return p.equals(q);
+		}
+
+		@Override
+		public int hashCode() {
+			return p.hashCode();
+		}
+	}
+
+	/**
+	 * Creates a pool that holds at most capacity polynomials
+	 * @param capacity the largest number of polynomials to hold
+	 * @exception IllegalArgumentException is thrown if capacity is not positive
+	 */
+	public PolynomialPool(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			// Spread the capacity so that the segments together hold at most capacity
+			segments[i] = new Segment(capacity / SEGMENTS + (i < capacity % SEGMENTS ? 1 : 0));
+		}
+	}
+
+	/**
+	 * @return the largest number of polynomials the pool holds
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the zero polynomial, which is always the same instance
+	 */
+	public Polynomial zero() {
+		return DensePolynomial.ZERO;
+	}
+
+	/**
+	 * Return the pooled coeff * x^exponent.  No polynomial is created when it is already
+	 * in the pool.
+	 * @param coeff the coefficient of the term
+	 * @param exponent the exponent of the term
+	 * @return a SparsePolynomial equal to coeff * x^exponent, or zero() if coeff is 0
+	 */
+	public Polynomial monomial(int coeff, int exponent) {
+		if (coeff == 0) {
+			return zero();
+		}
+		Long key = monomialKey(coeff, exponent);
+		Polynomial cached = get(key);
+		if (cached != null) {
+			return cached;
+		}
+		return put(key, new SparsePolynomial(coeff, exponent));
+	}
+
+	/**
+	 * Return the pooled polynomial of the same class that equals p, adding p to the pool if
+	 * there is none.  A lazy polynomial is forced and its value interned.
+	 * @param p the polynomial to intern
+	 * @return p or an equal polynomial of the same class
+	 * @exception NullPointerException is thrown if p is null
+	 */
+	public Polynomial intern(Polynomial p) {
+		if (p == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (p instanceof LazyPolynomial) {
+			p = ((LazyPolynomial) p).force();
+		}
+		if (p.isZero() && (p instanceof DensePolynomial || p instanceof SparsePolynomial)) {
+			return p instanceof DensePolynomial ? DensePolynomial.ZERO : SparsePolynomial.ZERO;
+		}
+		Object key;
+		if (p instanceof SparsePolynomial && ((SparsePolynomial) p).exponents().length == 1) {
+			// Share the key of monomial(), so both return the same instance
+			key = monomialKey(p.getCoeff(p.getMinExponent()), p.getMinExponent());
+		} else {
+			key = new Key(p);
+		}
+		Polynomial cached = get(key);
+		if (cached != null) {
+			return cached;
+		}
+		return put(key, p);
+	}
+
+	/**
+	 * @return the number of lookups that found a pooled polynomial
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that added a polynomial to the pool
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of polynomials dropped to keep the pool within its capacity
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the number of polynomials in the pool
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Remove every polynomial from the pool.  The statistics are kept.
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the capacity, size and statistics of the pool.
+	 */
+	@Override
+	public String toString() {
+		return "PolynomialPool[capacity=" + capacity + ", size=" + size() + ", hits=" + getHits()
+				+ ", misses=" + getMisses() + ", evictions=" + getEvictions() + "]";
+	}
+
+	/**
+	 * @return the pooled polynomial for key, or null, counting a hit if there is one
+	 */
+	private Polynomial get(Object key) {
+		Segment segment = segmentFor(key);
+		Polynomial cached;
+		synchronized (segment) {
+			cached = segment.get(key);
+		}
+		if (cached != null) {
+			hits.increment();
+		}
+		return cached;
+	}
+
+	/**
+	 * Add p to the pool under key unless another thread added one first, counting a miss.
+	 * @return the pooled polynomial
+	 */
+	private Polynomial put(Object key, Polynomial p) {
+		Segment segment = segmentFor(key);
+		Polynomial cached;
+		synchronized (segment) {
+			cached = segment.putIfAbsent(key, p);
+		}
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+		return p;
+	}
+
+	private Segment segmentFor(Object key) {
+		int h = key.hashCode();
+		h ^= h >>> 16;
+		return segments[h & (SEGMENTS - 1)];
+	}
+
+	private static Long monomialKey(int coeff, int exponent) {
+		return ((long) coeff << 32) | (exponent & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,94 @@
+import junit.framework.TestCase;
+
+/**
+ * Tests for the PolynomialPool class.
+ */
+public class PolynomialPoolTest extends TestCase {
+	private PolynomialPool pool = new PolynomialPool(64);
+
+	/**
+	 * Test that equal polynomials share one instance.
+	 */
+	public void testSharing() {
+		assertSame (pool.zero(), pool.zero());
+		assertSame (pool.zero(), pool.monomial(0, 7));
+		assertSame (pool.zero(), new DensePolynomial(1, 0).subtract(new DensePolynomial(1, 0)));
+		assertSame (pool.monomial(3, -5), pool.monomial(3, -5));
+		assertEquals (new SparsePolynomial(3, -5), pool.monomial(3, -5));
+		assertNotSame (pool.monomial(3, -5), pool.monomial(3, 5));
+		assertSame (pool.monomial(1, 100), pool.intern(new SparsePolynomial(1, 100)));
+
+		Polynomial p = new DensePolynomial(2, 1).add(new DensePolynomial(1, 0));
+		Polynomial q = new DensePolynomial(1, 0).add(new DensePolynomial(2, 1));
+		assertNotSame (p, q);
+		assertSame (p, pool.intern(p));
+		assertSame (p, pool.intern(q));
+		assertSame (p, pool.intern(LazyPolynomial.valueOf(q).add(pool.zero())));
+	}
+
+	/**
+	 * Test that interning keeps the representation.
+	 */
+	public void testRepresentation() {
+		Polynomial dense = new DensePolynomial(2, 1).add(new DensePolynomial(1, 0));
+		Polynomial sparse = new SparsePolynomial(2, 1).add(new SparsePolynomial(1, 0));
+		assertSame (dense, pool.intern(dense));
+		assertSame (sparse, pool.intern(sparse));
+		assertTrue (pool.intern(new DensePolynomial(1, 0).add(new DensePolynomial(2, 1))) instanceof DensePolynomial);
+		assertTrue (pool.intern(new SparsePolynomial(1, 0).add(new SparsePolynomial(2, 1))) instanceof SparsePolynomial);
+	}
+
+	/**
+	 * Test the statistics and the bound on the size.
+	 */
+	public void testEviction() {
+		for (int i = 0; i < 1000; i++) {
+			pool.monomial(1, i);
+		}
+		assertTrue (pool.size() <= pool.getCapacity());
+		assertEquals (1000, pool.getMisses());
+		assertEquals (1000 - pool.size(), pool.getEvictions());
+		assertEquals (0, pool.getHits());
+
+		// The most recently used monomial is still there
+		Polynomial last = pool.monomial(1, 999);
+		assertEquals (1, pool.getHits());
+		assertSame (last, pool.monomial(1, 999));
+		pool.clear();
+		assertEquals (0, pool.size());
+		assertEquals (2, pool.getHits());
+		try {
+			new PolynomialPool(0);
+			fail ("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that threads interning the same polynomials end up with the same instances.
+	 */
+	public void testConcurrent() throws InterruptedException {
+		PolynomialPool pool = new PolynomialPool(PolynomialPool.DEFAULT_CAPACITY);
+		Polynomial[][] results = new Polynomial[4][32];
+		Thread[] threads = new Thread[results.length];
+		for (int t = 0; t < threads.length; t++) {
+			Polynomial[] out = results[t];
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < out.length; i++) {
+					out[i] = pool.intern(new DensePolynomial(i + 1, 2).add(new DensePolynomial(1, 0)));
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int i = 0; i < 32; i++) {
+			for (int t = 1; t < results.length; t++) {
+				assertSame (results[0][i], results[t][i]);
+			}
+		}
+		assertEquals (32, pool.getMisses());
+	}
+}
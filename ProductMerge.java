@@ -0,0 +1,202 @@
+import java.util.Arrays;
+
+/**
+ * ProductMerge walks the pairwise products of the terms of two sparse polynomials in
+ * ascending order of exponent, without storing them.  Every term of the shorter operand
+ * is a row, whose products with the terms of the longer operand form a sorted stream; a
+ * binary heap of rows merges the streams.  Products with equal exponents come out next
+ * to each other, so a caller combines them while nextExponent stays the same.
+ * The time is O(nm log min(n, m)) for operands with n and m terms, and the memory is
+ * O(min(n, m)).  The coefficients are left to the caller, so one merge serves every
+ * coefficient type.
+ *
+ * @author yuhu
+ *
+ */
+final class ProductMerge {
+	private final int[] rowExps;
+	private final int[] colExps;
+	private final boolean swapped;
+
+	// heap holds row indices ordered by the exponent of their next product; col[row] is
+	// the index in the longer operand of that next product, and last[row] is one past
+	// the last one
+	private final int[] heap;
+	private final int[] col;
+	private final int[] last;
+	private int heapSize;
+
+	private int row;
+	private int column;
+	private int exponent;
+
+	/**
+	 * Creates a merge of the products of row with the terms first[row] .. last[row] - 1 of
+	 * the columns, for every row.  The exponents of the products must fit in an int.
+	 * first is used as the position of each row and is changed.
+	 * @param rowExps the exponents of the rows, in ascending order
+	 * @param colExps the exponents of the columns, in ascending order
+	 * @param first the index in colExps of the first product of each row
+	 * @param last one past the index in colExps of the last product of each row
+	 */
+	ProductMerge(int[] rowExps, int[] colExps, int[] first, int[] last) {
+		this(rowExps, colExps, first, last, false);
+	}
+
+	private ProductMerge(int[] rowExps, int[] colExps, int[] first, int[] last, boolean swapped) {
+		this.rowExps = rowExps;
+		this.colExps = colExps;
+		this.swapped = swapped;
+		col = first;
+		this.last = last;
+		heap = new int[rowExps.length];
+		for (int r = 0; r < rowExps.length; r++) {
+			if (first[r] < last[r]) {
+				heap[heapSize] = r;
+				heapSize++;
+				siftUp(heapSize - 1);
+			}
+		}
+	}
+
+	/**
+	 * Return a merge of every product of a term of p with a term of q.  The terms of the
+	 * shorter one are the rows.
+	 * @param pExps the exponents of p, in ascending order
+	 * @param qExps the exponents of q, in ascending order
+	 * @return the merge
+	 * @exception ArithmeticException is thrown if an exponent of the product does not fit in an int
+	 */
+	static ProductMerge of(int[] pExps, int[] qExps) {
+		if (pExps.length > 0 && qExps.length > 0) {
+			checkExponent((long) pExps[0] + qExps[0]);
+			checkExponent((long) pExps[pExps.length - 1] + qExps[qExps.length - 1]);
+		}
+		boolean swapped = pExps.length > qExps.length;
+		int[] rowExps = swapped ? qExps : pExps;
+		int[] colExps = swapped ? pExps : qExps;
+		int[] last = new int[rowExps.length];
+		Arrays.fill(last, colExps.length);
+		return new ProductMerge(rowExps, colExps, new int[rowExps.length], last, swapped);
+	}
+
+	/**
+	 * @exception ArithmeticException is thrown if exp does not fit in an int
+	 */
+	private static void checkExponent(long exp) {
+		if (exp != (int) exp) {
+			throw new ArithmeticException("Exponent out of range: " + exp);
+		}
+	}
+
+	/**
+	 * @return true if there are products left
+	 */
+	boolean hasNext() {
+		return heapSize > 0;
+	}
+
+	/**
+	 * @return the exponent of the product that advance will move to
+	 * Precondition: hasNext()
+	 */
+	int nextExponent() {
+		return key(heap[0]);
+	}
+
+	/**
+	 * Move to the product with the smallest exponent that is left.
+	 * Precondition: hasNext()
+	 */
+	void advance() {
+		row = heap[0];
+		column = col[row];
+		exponent = rowExps[row] + colExps[column];
+		col[row]++;
+		if (col[row] == last[row]) {
+			heapSize--;
+			heap[0] = heap[heapSize];
+		}
+		siftDown();
+	}
+
+	/**
+	 * @return the exponent of the current product
+	 */
+	int exponent() {
+		return exponent;
+	}
+
+	/**
+	 * @return the index of the term of p in the current product, where p is the first
+	 *    operand given to of, or the rows
+	 */
+	int p() {
+		return swapped ? column : row;
+	}
+
+	/**
+	 * @return the index of the term of q in the current product, where q is the second
+	 *    operand given to of, or the columns
+	 */
+	int q() {
+		return swapped ? row : column;
+	}
+
+	/**
+	 * @return the exponent of the next product of row r
+	 */
+	private int key(int r) {
+		return rowExps[r] + colExps[col[r]];
+	}
+
+	/**
+	 * Move the entry at index toward the root of the heap until its parent is no larger.
+	 */
+	private void siftUp(int index) {
+		int r = heap[index];
+		int key = key(r);
+		while (index > 0) {
+			int parent = (index - 1) >> 1;
+			int parentRow = heap[parent];
+			if (key(parentRow) <= key) {
+				break;
+			}
+			heap[index] = parentRow;
+			index = parent;
+		}
+		heap[index] = r;
+	}
+
+	/**
+	 * Move the root of the heap down until neither child is smaller.
+	 */
+	private void siftDown() {
+		if (heapSize == 0) {
+			return;
+		}
+		int index = 0;
+		int r = heap[0];
+		int key = key(r);
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			int childKey = key(heap[child]);
+			if (child + 1 < heapSize) {
+				int rightKey = key(heap[child + 1]);
+				if (rightKey < childKey) {
+					child++;
+					childKey = rightKey;
+				}
+			}
+			if (key <= childKey) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = r;
+	}
+}
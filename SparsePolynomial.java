@@ -1,5 +1,5 @@
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * A sparse polynomial is a polynomial provides an efficient implementation of polynomials
@@ -12,17 +12,27 @@ import java.util.LinkedList;
  */
 final public class SparsePolynomial extends AbstractPolynomial implements Polynomial {
 
-	// Internal linked list that holds all terms of Sparse Polynomial
+	// Parallel arrays that hold all terms of Sparse Polynomial.  exps[i] is the
+	// exponent of the term whose coefficient is coeffs[i].
 	// Class invariants:
-	//	  terms are in the list in ascending numerical order
+	//	  exps and coeffs have the same length
+	//	  exponents are in ascending numerical order with no duplicates
 	//	  all terms have non-zero coefficients
-	final private LinkedList<Term> list; 
+	final private int[] exps;
+	final private int[] coeffs;
+
+	// Shared by every zero polynomial; never written to
+	private static final int[] EMPTY = new int[0];
+
+	// The zero polynomial returned by operations whose result is 0
+	static final SparsePolynomial ZERO = new SparsePolynomial();
 
 	/**
 	 * Creates the zero polynomial 
 	 */
 	public SparsePolynomial() {
-		list = new LinkedList<Term>();
+		exps = EMPTY;
+		coeffs = EMPTY;
 		assert wellFormed();
 	}
 
@@ -32,22 +42,183 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 	 * @param exponent the exponent of the term
 	 */
 	public SparsePolynomial(int coeff, int exponent) {
-		list = new LinkedList<Term>();
 		if (coeff == 0) {
+			exps = EMPTY;
+			coeffs = EMPTY;
 			return;
 		}
 		
-		Term term = new Term (coeff, exponent);
-		list.add(term);
+		exps = new int[] {exponent};
+		coeffs = new int[] {coeff};
 		assert wellFormed();
 	}
 
 	/**
-	 * Returns an iterator over the terms of the polynomial from the lowest to highest
-	 * exponent.
+	 * Creates a polynomial that takes ownership of the given arrays.  The caller
+	 * must not modify them afterwards.
+	 * @param exps the exponents, in ascending order
+	 * @param coeffs the non-zero coefficients matching exps
 	 */
-	public Iterator<Term> iterator() {
-		return list.iterator();
+	SparsePolynomial(int[] exps, int[] coeffs) {
+		this.exps = exps;
+		this.coeffs = coeffs;
+		assert wellFormed();
+	}
+
+	/**
+	 * Return a sparse polynomial equal to q.  q itself is returned if it is already sparse.
+	 * @param q the polynomial to convert
+	 * @return a SparsePolynomial equal to q
+	 */
+	static SparsePolynomial valueOf(Polynomial q) {
+		if (q instanceof LazyPolynomial) {
+			q = ((LazyPolynomial) q).force();
+		}
+		if (q instanceof AdaptivePolynomial) {
+			q = ((AdaptivePolynomial) q).getDelegate();
+		}
+		if (q instanceof SparsePolynomial) {
+			return (SparsePolynomial) q;
+		}
+		if (q.isZero()) {
+			return ZERO;
+		}
+		if (q instanceof DensePolynomial) {
+			return valueOf((DensePolynomial) q);
+		}
+		
+		int min = q.getMinExponent();
+		int max = q.getMaxExponent();
+		int size = 0;
+		for (long exp = min; exp <= max; exp++) {
+			if (q.getCoeff((int) exp) != 0) {
+				size++;
+			}
+		}
+		
+		int[] newExps = new int[size];
+		int[] newCoeffs = new int[size];
+		int k = 0;
+		for (long exp = min; exp <= max; exp++) {
+			int coeff = q.getCoeff((int) exp);
+			if (coeff != 0) {
+				newExps[k] = (int) exp;
+				newCoeffs[k] = coeff;
+				k++;
+			}
+		}
+		return new SparsePolynomial(newExps, newCoeffs);
+	}
+
+	/**
+	 * Creates the polynomial whose terms are coeffs[i] * x^exps[i].  The terms can be in
+	 * any order: the exponents are sorted, the coefficients of equal exponents are added,
+	 * wrapping around like add, and the terms whose coefficients are 0 are dropped.
+	 * Sorted input is detected in a single pass and not sorted again.  The arrays are not
+	 * changed.
+	 * @param exps the exponents of the terms
+	 * @param coeffs the coefficients of the terms, matching exps
+	 * @return the sum of the terms, in O(n log n)
+	 * @exception NullPointerException is thrown if either array is null
+	 * @exception IllegalArgumentException is thrown if the arrays have different lengths
+	 */
+	public static SparsePolynomial fromTerms(int[] exps, int[] coeffs) {
+		if (exps == null || coeffs == null) {
+			throw new NullPointerException("NullPointerException");
+		}
+		if (exps.length != coeffs.length) {
+			throw new IllegalArgumentException("Different numbers of exponents and coefficients: "
+					+ exps.length + ", " + coeffs.length);
+		}
+		boolean sorted = true;
+		for (int i = 1; i < exps.length && sorted; i++) {
+			sorted = exps[i - 1] < exps[i];
+		}
+		int[] newExps = new int[exps.length];
+		int[] newCoeffs = new int[exps.length];
+		int size = 0;
+		if (sorted) {
+			for (int i = 0; i < exps.length; i++) {
+				if (coeffs[i] != 0) {
+					newExps[size] = exps[i];
+					newCoeffs[size] = coeffs[i];
+					size++;
+				}
+			}
+		} else {
+			// Sort the exponents together with their indexes: the exponent is in the high
+			// half of each long and the index in the low half
+			long[] order = new long[exps.length];
+			for (int i = 0; i < exps.length; i++) {
+				order[i] = ((long) exps[i] << 32) | i;
+			}
+			Arrays.parallelSort(order);
+			for (int i = 0; i < order.length; ) {
+				int exp = (int) (order[i] >> 32);
+				int coeff = 0;
+				for (; i < order.length && (int) (order[i] >> 32) == exp; i++) {
+					coeff += coeffs[(int) order[i]];
+				}
+				if (coeff != 0) {
+					newExps[size] = exp;
+					newCoeffs[size] = coeff;
+					size++;
+				}
+			}
+		}
+		if (size == 0) {
+			return ZERO;
+		}
+		if (size < exps.length) {
+			newExps = Arrays.copyOf(newExps, size);
+			newCoeffs = Arrays.copyOf(newCoeffs, size);
+		}
+		return new SparsePolynomial(newExps, newCoeffs);
+	}
+
+	/**
+	 * Return the terms of a non-zero dense polynomial, found in one pass over its array.
+	 */
+	private static SparsePolynomial valueOf(DensePolynomial d) {
+		int[] arr = d.coefficients();
+		int offset = d.getMinExponent();
+		int size = d.termCount();
+		int[] newExps = new int[size];
+		int[] newCoeffs = new int[size];
+		int k = 0;
+		for (int i = 0; i < arr.length; i++) {
+			if (arr[i] != 0) {
+				newExps[k] = offset + i;
+				newCoeffs[k] = arr[i];
+				k++;
+			}
+		}
+		return new SparsePolynomial(newExps, newCoeffs);
+	}
+
+	/**
+	 * Return the internal exponent array, in ascending order.  The array must not be modified.
+	 * @return the exponents of the terms of this polynomial
+	 */
+	int[] exponents() {
+		return exps;
+	}
+
+	/**
+	 * Return the internal coefficient array, matching exponents().  The array must not be
+	 * modified.
+	 * @return the coefficients of the terms of this polynomial
+	 */
+	int[] coefficients() {
+		return coeffs;
+	}
+
+	/**
+	 * Walk the terms in the order of the arrays, which is ascending order of exponent.
+	 */
+	@Override
+	TermCursor cursor() {
+		return new TermCursor.Sparse(exps, coeffs, 0, exps.length);
 	}
 	
 	/**
@@ -58,7 +229,7 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 		if (isZero()) {
 			return 0;
 		}
-		return list.getFirst().getExponent();
+		return exps[0];
 	}
 
 	/**
@@ -69,25 +240,28 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 		if (isZero()) {
 			return 0;
 		}
-		return list.getLast().getExponent();
+		return exps[exps.length - 1];
 	}
 
 	/**
 	 * Return the coefficient for the term with the given exponent.  Return 0 if there
-	 * is no term for the exponent.
+	 * is no term for the exponent.  Uses a binary search over the sorted exponents.
 	 */
 	@Override
 	public int getCoeff(int exp) {
-		for (Term t : list) {
-			int tExp = t.getExponent();
-			if (tExp == exp) {
-				return t.getCoefficient();
-			}
-			if (tExp > exp) {
-				return 0;
-			}
+		int index = Arrays.binarySearch(exps, exp);
+		if (index < 0) {
+			return 0;
 		}
-		return 0;
+		return coeffs[index];
+	}
+
+	/**
+	 * Return the number of terms of this polynomial.
+	 */
+	@Override
+	int termCount() {
+		return exps.length;
 	}
 
 	/**
@@ -95,7 +269,7 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 	 */
 	@Override
 	public boolean isZero() {
-		return (list.size() == 0);  
+		return (exps.length == 0);
 	}
 
 	/**
@@ -107,13 +281,112 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 			return addSparse ((SparsePolynomial) q);
 		}
 		
-		Polynomial result = new SparsePolynomial().addSparse(this);
-		for (int exp = q.getMinExponent(); exp <= q.getMaxExponent(); exp++) {
-			result = result.add (new SparsePolynomial (q.getCoeff(exp), exp));
+		if (q instanceof DensePolynomial) {
+			return combine((DensePolynomial) q, 1, this, 1);
+		}
+		
+		return addSparse(valueOf(q));
+	}
+
+	/**
+	 * Return the difference of this polynomial and q.  Neither this nor q are changed.
+	 * q is subtracted in a single merge without negating it first.
+	 */
+	@Override
+	public Polynomial subtract(Polynomial q) {
+		if (q instanceof DensePolynomial) {
+			return combine((DensePolynomial) q, -1, this, 1);
 		}
 		
-		assert result.wellFormed();
-		return result;
+		return subtractSparse(valueOf(q));
+	}
+
+	/**
+	 * Return dSign * d + sSign * s as a sparse polynomial.  Neither d nor s are changed.
+	 * The dense array and the sparse terms are merged by walking both once to count the
+	 * terms of the result, and once more to fill a single pair of exactly sized arrays.
+	 * @param d a dense polynomial
+	 * @param dSign 1 or -1
+	 * @param s a sparse polynomial
+	 * @param sSign 1 or -1
+	 * @return dSign * d + sSign * s
+	 */
+	static SparsePolynomial combine(DensePolynomial d, int dSign, SparsePolynomial s, int sSign) {
+		int[] arr = d.coefficients();
+		int offset = d.getMinExponent();
+		int size = mergeMixed(arr, offset, dSign, s.exps, s.coeffs, sSign, null, null);
+		if (size == 0) {
+			return ZERO;
+		}
+		
+		int[] newExps = new int[size];
+		int[] newCoeffs = new int[size];
+		mergeMixed(arr, offset, dSign, s.exps, s.coeffs, sSign, newExps, newCoeffs);
+		SparsePolynomial sp = new SparsePolynomial(newExps, newCoeffs);
+		assert sp.wellFormed();
+		return sp;
+	}
+
+	/**
+	 * Merge the non-zero entries of a dense coefficient array with the terms of a sparse
+	 * polynomial in ascending order of exponent.
+	 * @param arr dense coefficients
+	 * @param offset the exponent of arr[0]
+	 * @param dSign the factor for the dense coefficients, 1 or -1
+	 * @param sExps the sparse exponents, in ascending order
+	 * @param sCoeffs the sparse coefficients
+	 * @param sSign the factor for the sparse coefficients, 1 or -1
+	 * @param newExps receives the exponents of the result, or null to only count them
+	 * @param newCoeffs receives the coefficients of the result, or null to only count them
+	 * @return the number of non-zero terms in the result
+	 */
+	private static int mergeMixed(int[] arr, int offset, int dSign, int[] sExps, int[] sCoeffs, int sSign,
+			int[] newExps, int[] newCoeffs) {
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < arr.length || j < sExps.length) {
+			int exp;
+			int coeff;
+			
+			// Skip the holes in the dense array
+			if (i < arr.length && arr[i] == 0) {
+				i++;
+				continue;
+			}
+			
+			// The dense entry has the lower exponent
+			if (j == sExps.length || (i < arr.length && offset + i < sExps[j])) {
+				exp = offset + i;
+				coeff = dSign * arr[i];
+				i++;
+			}
+			
+			// The sparse term has the lower exponent
+			else if (i == arr.length || sExps[j] < offset + i) {
+				exp = sExps[j];
+				coeff = sSign * sCoeffs[j];
+				j++;
+			}
+			
+			// Both have the same exponent
+			else {
+				exp = offset + i;
+				coeff = dSign * arr[i] + sSign * sCoeffs[j];
+				i++;
+				j++;
+				if (coeff == 0) {
+					continue;
+				}
+			}
+			
+			if (newExps != null) {
+				newExps[k] = exp;
+				newCoeffs[k] = coeff;
+			}
+			k++;
+		}
+		return k;
 	}
 	
 	/**
@@ -128,83 +401,140 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 			return q;
 		}
 		
-		SparsePolynomial sp = new SparsePolynomial();
+		return combineSparse(q, 1);
+	}
+
+	/**
+	 * Return the difference of this polynomial and q.  Neither this nor q are changed.
+	 */
+	private SparsePolynomial subtractSparse (SparsePolynomial q) {
+		if (q.isZero()) {
+			return this;
+		}
 		
-		Iterator<Term> iter1 = iterator();
-		Iterator<Term> iter2 = q.iterator();
+		if (isZero()) {
+			return (SparsePolynomial) q.minus();
+		}
 		
-		Term t1 = iter1.next();
-		Term t2 = iter2.next();
+		return combineSparse(q, -1);
+	}
+
+	/**
+	 * Return this + sign * q.  The terms are merged in two passes: the first counts the
+	 * terms of the result so that the second can fill a single pair of exactly sized arrays.
+	 * @param q the polynomial to combine with this
+	 * @param sign 1 to add q, -1 to subtract it
+	 * @return this + sign * q
+	 */
+	private SparsePolynomial combineSparse (SparsePolynomial q, int sign) {
+		int size = mergedSize(q, sign);
+		if (size == 0) {
+			return ZERO;
+		}
 		
-		do {
-			int t1Exp = t1.getExponent();
-			int t2Exp = t2.getExponent();
+		int[] newExps = new int[size];
+		int[] newCoeffs = new int[size];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while (i < exps.length && j < q.exps.length) {
+			int t1Exp = exps[i];
+			int t2Exp = q.exps[j];
 			
 			// Terms have same exponent
 			if (t1Exp == t2Exp) {
-				int newCoeff = t1.getCoefficient() + t2.getCoefficient();
+				int newCoeff = coeffs[i] + sign * q.coeffs[j];
 				if (newCoeff != 0) {
-					sp.list.add(new Term(newCoeff, t1Exp));
+					newExps[k] = t1Exp;
+					newCoeffs[k] = newCoeff;
+					k++;
 				}
-				t1 = nextTerm (iter1);
-				t2 = nextTerm (iter2);
+				i++;
+				j++;
 			} 
 			
 			// t2 has a lower exponent
 			else if (t1Exp > t2Exp) {
-				sp.list.add(new Term(t2.getCoefficient(), t2Exp));
-				t2 = nextTerm (iter2);
+				newExps[k] = t2Exp;
+				newCoeffs[k] = sign * q.coeffs[j];
+				k++;
+				j++;
 			} 
 			
 			// t1 has a lower exponent
 			else {
-				sp.list.add(new Term(t1.getCoefficient(), t1Exp));
-				t1 = nextTerm (iter1);
+				newExps[k] = t1Exp;
+				newCoeffs[k] = coeffs[i];
+				k++;
+				i++;
 			}
-		} while (t1 != null && t2 != null);
+		}
 		
-		// We have run out of terms in at least one of the polynomials.  Add
+		// We have run out of terms in at least one of the polynomials.  Copy
 		// in whatever is left of the remaining polynomial.
-		if (t1 != null) {
-			addRemainingTerms(sp, iter1, t1);
+		if (i < exps.length) {
+			copyRemainingTerms(this, i, 1, newExps, newCoeffs, k);
 		}
 		
-		else if (t2 != null) {
-			addRemainingTerms(sp, iter2, t2);
+		else if (j < q.exps.length) {
+			copyRemainingTerms(q, j, sign, newExps, newCoeffs, k);
 		}
 
+		SparsePolynomial sp = new SparsePolynomial(newExps, newCoeffs);
 		assert sp.wellFormed();
 		return sp;
 	}
 
 	/**
-	 * Add this term and all remaining terms to sp.
-	 * @param sp the polynomial to add terms to
-	 * @param iter the iterator that will return the remaining terms
-	 * @param t the current term to add.  It has already been returned by iter.
-	 *    Precondition: there is no term in sp with the same exponent as any of the 
-	 *    remaining terms in iter.
+	 * Count the terms in this + sign * q without building it.
+	 * @param q the polynomial that will be combined with this
+	 * @param sign 1 or -1
+	 * @return the number of non-zero terms in this + sign * q
 	 */
-	private void addRemainingTerms(SparsePolynomial sp, Iterator<Term> iter,
-			Term t) {
-		do {
-			sp.list.add (new Term (t.getCoefficient(), t.getExponent()));
-			t = nextTerm (iter);
-		} while (t != null);
-		assert sp.wellFormed();
+	private int mergedSize (SparsePolynomial q, int sign) {
+		int i = 0;
+		int j = 0;
+		int size = 0;
+		while (i < exps.length && j < q.exps.length) {
+			if (exps[i] == q.exps[j]) {
+				if (coeffs[i] + sign * q.coeffs[j] != 0) {
+					size++;
+				}
+				i++;
+				j++;
+			} else if (exps[i] > q.exps[j]) {
+				size++;
+				j++;
+			} else {
+				size++;
+				i++;
+			}
+		}
+		return size + (exps.length - i) + (q.exps.length - j);
 	}
 
 	/**
-	 * @param iter the iterator to get the term from
-	 * @return the next term from the iterator.  Return null when there are no more terms.
+	 * Copy the terms of sp starting at index from into the result arrays.
+	 * @param sp the polynomial to copy terms from
+	 * @param from the index of the first term of sp to copy
+	 * @param sign the factor to apply to the copied coefficients, 1 or -1
+	 * @param newExps the exponents of the result
+	 * @param newCoeffs the coefficients of the result
+	 * @param to the index in the result arrays to copy the first term to.
+	 *    Precondition: there is no term in the result with the same exponent as any of the 
+	 *    remaining terms in sp.
 	 */
-	private Term nextTerm (Iterator<Term> iter) {
-		if (iter.hasNext()) {
-			return iter.next();
+	private static void copyRemainingTerms(SparsePolynomial sp, int from, int sign,
+			int[] newExps, int[] newCoeffs, int to) {
+		int count = sp.exps.length - from;
+		System.arraycopy(sp.exps, from, newExps, to, count);
+		if (sign == 1) {
+			System.arraycopy(sp.coeffs, from, newCoeffs, to, count);
 		} else {
-			return null;
+			for (int i = 0; i < count; i++) {
+				newCoeffs[to + i] = sign * sp.coeffs[from + i];
+			}
 		}
-
 	}
 
 	/**
@@ -217,25 +547,172 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 		}
 		
 		if (factor == 0) {
-			return new SparsePolynomial();
+			return ZERO;
 		}
 		
-		// Multiple each term of this by the factor and add together those term-wise products.
-		SparsePolynomial product = new SparsePolynomial();
-		for (Term t : list) {
-			int newCoeff = t.getCoefficient() * factor;
-			product.list.add(new Term (newCoeff, t.getExponent()));
+		// Multiply each term of this by the factor.  A product can wrap around to 0,
+		// so those terms are dropped.  When none are, the exponents do not change and
+		// the array can be shared with the product.
+		int[] newCoeffs = new int[coeffs.length];
+		int k = 0;
+		for (int i = 0; i < coeffs.length; i++) {
+			int newCoeff = coeffs[i] * factor;
+			if (newCoeff != 0) {
+				newCoeffs[k] = newCoeff;
+				k++;
+			}
 		}
 		
+		if (k == 0) {
+			return ZERO;
+		}
+		
+		SparsePolynomial product;
+		if (k == coeffs.length) {
+			product = new SparsePolynomial(exps, newCoeffs);
+		} else {
+			int[] newExps = new int[k];
+			k = 0;
+			for (int i = 0; i < coeffs.length; i++) {
+				if (coeffs[i] * factor != 0) {
+					newExps[k] = exps[i];
+					k++;
+				}
+			}
+			product = new SparsePolynomial(newExps, Arrays.copyOf(newCoeffs, k));
+		}
 		assert product.wellFormed();
 		return product;
 	}
 
 
 
+	/**
+	 * Return a polynomial that is the negative of this.  Does not modify this.  The
+	 * exponents are shared with the result, so only the coefficients are copied.
+	 */
+	@Override
+	public Polynomial minus() {
+		if (isZero()) {
+			return this;
+		}
+		
+		int[] newCoeffs = new int[coeffs.length];
+		for (int i = 0; i < coeffs.length; i++) {
+			newCoeffs[i] = -coeffs[i];
+		}
+		
+		SparsePolynomial negation = new SparsePolynomial(exps, newCoeffs);
+		assert negation.wellFormed();
+		return negation;
+	}
+
+	/**
+	 * Return the value of this polynomial at x.  The terms are visited from the highest
+	 * exponent down, multiplying the running value by x raised to the gap between
+	 * consecutive exponents, which is computed by repeated squaring.  The result wraps
+	 * around on overflow.
+	 * @exception ArithmeticException is thrown if there is a negative exponent and x is not 1 or -1
+	 */
+	@Override
+	public long evaluate(long x) {
+		if (isZero()) {
+			return 0;
+		}
+		
+		int last = exps.length - 1;
+		long result = coeffs[last];
+		for (int i = last - 1; i >= 0; i--) {
+			result = result * PolynomialEvaluator.power(x, (long) exps[i + 1] - exps[i]) + coeffs[i];
+		}
+		return result * PolynomialEvaluator.shift(x, exps[0]);
+	}
+
+	/**
+	 * Return the value of this polynomial at x, stepping between terms as evaluate(long) does.
+	 */
+	@Override
+	public double evaluate(double x) {
+		if (isZero()) {
+			return 0;
+		}
+		
+		int last = exps.length - 1;
+		double result = coeffs[last];
+		for (int i = last - 1; i >= 0; i--) {
+			result = result * PolynomialEvaluator.power(x, (long) exps[i + 1] - exps[i]) + coeffs[i];
+		}
+		return result * PolynomialEvaluator.power(x, exps[0]);
+	}
+
+	/**
+	 * Return the value of this polynomial at x modulo modulus, stepping between terms as 
+	 * evaluate(long) does.  Negative exponents use the inverse of x.
+	 * @exception IllegalArgumentException is thrown if modulus is not positive
+	 * @exception ArithmeticException is thrown if there is a negative exponent and x has 
+	 *    no inverse modulo modulus
+	 */
+	@Override
+	public long evaluateMod(long x, long modulus) {
+		PolynomialEvaluator.checkModulus(modulus);
+		if (isZero()) {
+			return 0;
+		}
+		
+		x = PolynomialEvaluator.reduce(x, modulus);
+		int last = exps.length - 1;
+		long result = PolynomialEvaluator.reduce(coeffs[last], modulus);
+		for (int i = last - 1; i >= 0; i--) {
+			long step = PolynomialEvaluator.powerMod(x, (long) exps[i + 1] - exps[i], modulus);
+			long coeff = PolynomialEvaluator.reduce(coeffs[i], modulus);
+			result = PolynomialEvaluator.addMod(PolynomialEvaluator.multiplyMod(result, step, modulus),
+					coeff, modulus);
+		}
+		return PolynomialEvaluator.multiplyMod(result, PolynomialEvaluator.shiftMod(x, exps[0], modulus),
+				modulus);
+	}
+
+	/**
+	 * Evaluate a block of points one term at a time across all the points.  Gaps of one
+	 * between exponents, the common case, become a plain multiply-add the JIT can vectorize.
+	 */
+	@Override
+	void evaluateBlock(double[] xs, double[] out, int from, int to) {
+		if (isZero()) {
+			for (int i = from; i < to; i++) {
+				out[i] = 0;
+			}
+			return;
+		}
+		
+		int last = exps.length - 1;
+		for (int i = from; i < to; i++) {
+			out[i] = coeffs[last];
+		}
+		for (int t = last - 1; t >= 0; t--) {
+			long gap = (long) exps[t + 1] - exps[t];
+			double coeff = coeffs[t];
+			if (gap == 1) {
+				for (int i = from; i < to; i++) {
+					out[i] = out[i] * xs[i] + coeff;
+				}
+			} else {
+				for (int i = from; i < to; i++) {
+					out[i] = out[i] * PolynomialEvaluator.power(xs[i], gap) + coeff;
+				}
+			}
+		}
+		if (exps[0] != 0) {
+			for (int i = from; i < to; i++) {
+				out[i] *= PolynomialEvaluator.power(xs[i], exps[0]);
+			}
+		}
+	}
+
 	/**
 	 * Returns true if o is an equivalent polynomial.  That is it contains the same coefficients
-	 * for the same exponents.
+	 * for the same exponents, whatever its representation.  The terms are compared directly,
+	 * after a check of the cached hash codes.
 	 */
 	@Override
 	public boolean equals(Object o) {
@@ -247,59 +724,75 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 			return true;
 		}
 		
-		if (!(o instanceof Polynomial)) {
-			return false;
+		if (o instanceof AdaptivePolynomial) {
+			o = ((AdaptivePolynomial) o).getDelegate();
+		}
+		if (o instanceof DensePolynomial) {
+			return !hashesDiffer((DensePolynomial) o) && sameTerms((DensePolynomial) o, this);
 		}
-		
-		// If o is a Polynomial but not a SparsePolynomial, we rely on the string representations
-		// being the same
 		if (!(o instanceof SparsePolynomial)) {
-			return toString().equals(o.toString());
+			return o instanceof Polynomial && sameCoefficients(this, (Polynomial) o);
 		}
 		
 		SparsePolynomial obj = (SparsePolynomial) o;
-		if (obj.isZero() != isZero()) {
+		if (obj.exps.length != exps.length || hashesDiffer(obj)) {
 			return false;
 		}
 		
 		// All the easy tests passed.  Compare the terms.
-		Iterator<Term> iter = iterator();
-		Iterator<Term> otherIter = obj.iterator();
-		while (iter.hasNext()) {
-			Term t = iter.next();
-			Term otherT = otherIter.next();
-			
-			if (!t.equals(otherT)) {
-				return false;
+		return Arrays.equals(exps, obj.exps) && Arrays.equals(coeffs, obj.coeffs);
+	}
+
+	/**
+	 * Return true if d and s have the same non-zero terms.  The non-zero entries of the
+	 * dense array are matched against the sparse terms in one pass over both.
+	 * @param d a dense polynomial
+	 * @param s a sparse polynomial
+	 * @return true if d equals s
+	 */
+	static boolean sameTerms(DensePolynomial d, SparsePolynomial s) {
+		int[] arr = d.coefficients();
+		int offset = d.getMinExponent();
+		if (d.termCount() != s.exps.length) {
+			return false;
+		}
+		int k = 0;
+		for (int i = 0; i < arr.length; i++) {
+			if (arr[i] != 0) {
+				if (s.exps[k] != offset + i || s.coeffs[k] != arr[i]) {
+					return false;
+				}
+				k++;
 			}
 		}
-		
 		return true;
 	}
 
 	/**
-	 * Generates the polynomial in canonical form.  Terms are sorted by exponent from high to 
-	 * low.  Terms with a 0 coefficient are not displayed, except in the case that the 
-	 * polynomial is the constant 0.  There is no more than one term with the same exponent. 
+	 * Hashes the terms in ascending order of exponent.
 	 */
 	@Override
-	public String toString() {
-		StringBuilder builder = new StringBuilder();
-		
-		Iterator<Term> iter = iterator();
-		if (!iter.hasNext()) {
-			return "0";
+	int computeHash() {
+		int h = 1;
+		for (int i = 0; i < exps.length; i++) {
+			h = hashTerm(h, coeffs[i], exps[i]);
 		}
-		
-		Term t = iter.next();
-		builder.insert (0, t.toString());
-		while (iter.hasNext()) {
-			t = iter.next();
-			builder.insert (0, t.toString() + " + ");
+		return h;
+	}
+
+	/**
+	 * Formats the terms from high to low exponent, as AbstractPolynomial.toString describes.
+	 */
+	@Override
+	void writeTerms(StringBuilder buffer, Appendable out) throws IOException {
+		if (exps.length == 0) {
+			buffer.append('0');
+			return;
+		}
+		boolean first = true;
+		for (int i = exps.length - 1; i >= 0; i--) {
+			first = appendTerm(buffer, out, coeffs[i], exps[i], first);
 		}
-		
-		return builder.toString();
-		
 	}
 
 	/**
@@ -307,34 +800,24 @@ final public class SparsePolynomial extends AbstractPolynomial implements Polyno
 	 */
 	@Override
 	public boolean wellFormed() {
-		if (list == null) {
+		if (exps == null || coeffs == null) {
 			return false;
 		}
 		
-		if (list.size() == 0) {
-			return true;
-		}
-		
-		// There should be no terms with 0 for coefficient
-		Iterator<Term> iter = list.iterator();
-		Term current = iter.next();
-		if (current.getCoefficient() == 0) {
+		if (exps.length != coeffs.length) {
 			return false;
 		}
 		
 		// Check that the terms are sorted by exponent from low to high
 		// Each term should have a unique exponent
 		// No term should have zero for its coefficient
-		while (iter.hasNext()) {
-			Term next = iter.next();
-			
-			if (current.getExponent() >= next.getExponent()) {
+		for (int i = 0; i < exps.length; i++) {
+			if (coeffs[i] == 0) {
 				return false;
 			}
-			if (next.getCoefficient() == 0) {
+			if (i > 0 && exps[i - 1] >= exps[i]) {
 				return false;
 			}
-			current = next;
 		}
 
 		return true;
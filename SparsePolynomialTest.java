@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.util.Iterator;
 
 import junit.framework.TestCase;
@@ -18,6 +21,10 @@ public class SparsePolynomialTest extends TestCase {
 	private Polynomial xTo100 = new SparsePolynomial(1, 100);
 	private Polynomial xToNegative100 = new SparsePolynomial(1, -100);
 	
+	// Counts the bytes each thread allocates
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
 	/**
 	 * Test method for {@link SparsePolynomial#getCoeff(int)}.
 	 */
@@ -55,6 +62,17 @@ public class SparsePolynomialTest extends TestCase {
 		t = iter.next();
 		assertEquals(new Term(2, 1), t);
 		assertFalse (iter.hasNext());
+		
+		iter = twoXplusOne.iterator();
+		iter.next();
+		boolean thrown = false;
+		try {
+			iter.remove();
+		} catch (UnsupportedOperationException e) {
+			thrown = true;
+		}
+		assertTrue(thrown);
+		assertEquals (2, twoXplusOne.getCoeff(1));
 	}
 
 	/**
@@ -65,6 +83,21 @@ public class SparsePolynomialTest extends TestCase {
 		assertEquals (zero, zero.add(zero));
 		assertEquals (zero, one.add(minusOne));
 		assertEquals (one, twoXplusOne.add(minusTwoX));
+		
+		Polynomial evens = new SparsePolynomial();
+		Polynomial odds = new SparsePolynomial();
+		for (int exp = -10; exp < 10; exp += 2) {
+			evens = evens.add(new SparsePolynomial(exp, exp));
+			odds = odds.add(new SparsePolynomial(exp + 1, exp + 1));
+		}
+		Polynomial all = evens.add(odds);
+		assertTrue (all.wellFormed());
+		assertEquals (-10, all.getMinExponent());
+		assertEquals (9, all.getMaxExponent());
+		for (int exp = -10; exp < 10; exp++) {
+			assertEquals (exp, all.getCoeff(exp));
+		}
+		assertTrue (all.add(evens.minus()).add(odds.minus()).isZero());
 	}
 
 	/**
@@ -93,6 +126,64 @@ public class SparsePolynomialTest extends TestCase {
 		assertEquals (one.multiply(0), zero);
 		assertEquals (twoXplusOne.multiply(1), twoXplusOne);
 		assertEquals (twoXplusOne.multiply(2), fourXplusTwo);
+
+		// Coefficients that wrap around to 0 drop out of the product
+		assertTrue (new SparsePolynomial(65536, 3).multiply(65536).isZero());
+		SparsePolynomial p = (SparsePolynomial) new SparsePolynomial(65536, 3).add(new SparsePolynomial(1, 500)).multiply(65536);
+		assertEquals (new SparsePolynomial(65536, 500), p);
+		assertTrue (p.wellFormed());
+	}
+
+	/**
+	 * Test method for {@link AbstractPolynomial#multiply(Polynomial)}.
+	 */
+	public void testMultiplyPolynomial() {
+		assertEquals (zero, twoXplusOne.multiply(zero));
+		assertEquals (twoXplusOne, twoXplusOne.multiply(one));
+		assertEquals (fourXSquaredPlusFourXPlusOne, twoXplusOne.multiply(twoXplusOne));
+		
+		// (x^-100 + 1)(x^100 - 1) = x^100 - x^-100
+		Polynomial product = xToNegative100.add(one).multiply(xTo100.subtract(one));
+		assertTrue (product.wellFormed());
+		assertEquals (xTo100.subtract(xToNegative100), product);
+		assertEquals (new SparsePolynomial(4, 2), twoX.multiply(new DensePolynomial(2, 1)));
+	}
+
+	/**
+	 * Test sparse products whose terms mostly combine, which are summed in a hash table,
+	 * and products whose terms are spread out, which are merged with a heap, against
+	 * the dense product.
+	 */
+	public void testMultiplySparseProducts() {
+		int n = 300;
+		int[] exps = new int[n];
+		int[] coeffs = new int[n];
+		int[] spreadExps = new int[n];
+		for (int i = 0; i < n; i++) {
+			exps[i] = i * 7 % 101 + i / 101 - 50;
+			coeffs[i] = i * 40503 + 1;
+			spreadExps[i] = i * 1009 - 2000;
+		}
+		SparsePolynomial clustered = SparsePolynomial.fromTerms(exps, coeffs);
+		SparsePolynomial spread = SparsePolynomial.fromTerms(spreadExps, coeffs);
+		for (SparsePolynomial[] pair : new SparsePolynomial[][] {{clustered, clustered}, {spread, spread}, {clustered, spread}}) {
+			Polynomial expected = DensePolynomial.valueOf(pair[0]).multiply(DensePolynomial.valueOf(pair[1]));
+			Polynomial product = pair[0].multiply(pair[1]);
+			assertTrue (product.wellFormed());
+			assertEquals (expected, product);
+			assertEquals (expected, pair[1].multiply(pair[0]));
+		}
+
+		// Terms that cancel in the middle of the product
+		Polynomial square = xToNegative100.add(one).multiply(xToNegative100.subtract(one));
+		assertEquals (new SparsePolynomial(1, -200).subtract(one), square);
+
+		try {
+			new SparsePolynomial(1, Integer.MAX_VALUE).multiply(twoXplusOne);
+			fail ("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
 	}
 
 	/**
@@ -100,6 +191,108 @@ public class SparsePolynomialTest extends TestCase {
 	 */
 	public void testSubtract() {
 		assertEquals (twoXplusOne.subtract(one), twoX);
+		
+		// Dense operands are merged directly
+		Polynomial denseTwoXPlusOne = new DensePolynomial(2, 1).add(new DensePolynomial(1, 0));
+		assertTrue (twoXplusOne.subtract(denseTwoXPlusOne).isZero());
+		assertEquals (twoX, twoXplusOne.subtract(new DensePolynomial(1, 0)));
+		assertEquals (new SparsePolynomial(4, 1).add(new SparsePolynomial(2, 0)), twoXplusOne.add(denseTwoXPlusOne));
+		Polynomial laurent = xToNegative100.subtract(denseTwoXPlusOne);
+		assertEquals (1, laurent.getCoeff(-100));
+		assertEquals (-1, laurent.getCoeff(0));
+		assertEquals (-2, laurent.getCoeff(1));
+	}
+
+	/**
+	 * Test that subtract and minus produce their result with a single allocation.
+	 */
+	public void testSubtractAllocation() {
+		if (!THREADS.isThreadAllocatedMemorySupported()) {
+			return;
+		}
+		int[] exps = new int[100000];
+		int[] a = new int[exps.length];
+		int[] b = new int[exps.length];
+		for (int i = 0; i < exps.length; i++) {
+			exps[i] = 3 * i - 1000;
+			a[i] = i + 1;
+			b[i] = 2 * i + 1;
+		}
+		final Polynomial p = new SparsePolynomial(exps, a);
+		final Polynomial q = new SparsePolynomial(exps.clone(), b);
+		long arrayBytes = 4L * exps.length;
+		
+		// One pair of result arrays, and no negated copy of q
+		assertTrue (allocatedBytes(() -> p.subtract(q)) < 2.5 * arrayBytes);
+		
+		// The exponents are shared, so only the coefficients are copied
+		assertTrue (allocatedBytes(() -> p.minus()) < 1.25 * arrayBytes);
+		assertEquals (-50000, p.subtract(q).getCoeff(3 * 50000 - 1000));
+	}
+
+	/**
+	 * Return the number of bytes the current thread allocates while running op.  op is
+	 * run once beforehand so that class loading is not counted.
+	 */
+	private static long allocatedBytes(Runnable op) {
+		op.run();
+		long threadId = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(threadId);
+		op.run();
+		return THREADS.getThreadAllocatedBytes(threadId) - before;
+	}
+
+	/**
+	 * Test method for {@link SparsePolynomial#evaluate(long)} and the other evaluate methods.
+	 */
+	public void testEvaluate() {
+		assertEquals (0, zero.evaluate(7L));
+		assertEquals (15, twoXplusOne.evaluate(7L));
+		assertEquals (225, fourXSquaredPlusFourXPlusOne.evaluate(7L));
+		assertEquals (1, xTo100.evaluate(-1L));
+		assertEquals (4.0, twoXplusOne.evaluate(1.5), 0);
+		
+		// Negative exponents
+		assertEquals (1, xToNegative100.evaluate(1L));
+		assertEquals (1, xToNegative100.evaluate(-1L));
+		assertEquals (Math.pow(2, -100), xToNegative100.evaluate(2.0), 0);
+		assertEquals (2.5, one.add(new SparsePolynomial(3, -1)).evaluate(2.0), 0);
+		boolean thrown = false;
+		try {
+			xToNegative100.evaluate(2L);
+		} catch (ArithmeticException e) {
+			thrown = true;
+		}
+		assertTrue(thrown);
+		
+		// 2^-1 is 4 modulo 7, so 1 + 3 * 2^-1 is 13 = 6 modulo 7
+		assertEquals (6, one.add(new SparsePolynomial(3, -1)).evaluateMod(2, 7));
+		assertEquals (976371285L, xTo100.evaluateMod(2, 1000000007L));
+
+		// Exponents that span more than 2^31
+		Polynomial wide = new SparsePolynomial(1, -2000000000).add(new SparsePolynomial(1, 2000000000));
+		assertEquals (6, wide.evaluateMod(2, 7));
+		assertEquals (2, wide.evaluate(-1L));
+		Polynomial odd = new SparsePolynomial(1, -2000000001).add(new SparsePolynomial(1, 2000000001));
+		assertEquals (-2, odd.evaluate(-1L));
+		Polynomial span = new SparsePolynomial(1, -1500000000).add(new SparsePolynomial(1, 1500000000));
+		double expected = Math.pow(1.0000001, 1500000000) + Math.pow(1.0000001, -1500000000);
+		assertEquals (expected, span.evaluate(1.0000001), 1e-6 * expected);
+		double[] point = {1.0000001};
+		double[] value = new double[1];
+		span.evaluate(point, value);
+		assertEquals (expected, value[0], 1e-6 * expected);
+		
+		Polynomial laurent = xTo100.add(xToNegative100).add(twoXplusOne);
+		double[] xs = new double[1000];
+		double[] out = new double[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = 0.5 + i / 1000.0;
+		}
+		laurent.evaluate(xs, out);
+		for (int i = 0; i < xs.length; i++) {
+			assertEquals (laurent.evaluate(xs[i]), out[i], 1e-12 * Math.abs(out[i]));
+		}
 	}
 
 	/**
@@ -114,6 +307,30 @@ public class SparsePolynomialTest extends TestCase {
 		assertEquals (fourXSquaredPlusFourXPlusOne.toString(), "4x^2 + 4x + 1");
 	}
 
+	/**
+	 * Test method for {@link SparsePolynomial#writeTo(java.io.Writer)}.
+	 */
+	public void testWriteTo() throws IOException {
+		// Long enough to be written in several blocks
+		int[] exps = new int[100000];
+		int[] coeffs = new int[exps.length];
+		for (int i = 0; i < exps.length; i++) {
+			exps[i] = 2 * i - 1000;
+			coeffs[i] = i + 1;
+		}
+		Polynomial big = new SparsePolynomial(exps, coeffs);
+		StringWriter writer = new StringWriter();
+		big.writeTo(writer);
+		String text = big.toString();
+		assertEquals (text, writer.toString());
+		assertTrue (text.startsWith("100000x^198998 + 99999x^198996 + "));
+		assertTrue (text.endsWith(" + 2x^-998 + x^-1000"));
+
+		StringBuilder builder = new StringBuilder();
+		xToNegative100.add(one).writeTo(builder);
+		assertEquals ("1 + x^-100", builder.toString());
+	}
+
 	/**
 	 * Test method for {@link SparsePolynomial#clone()}.
 	 */
@@ -121,6 +338,39 @@ public class SparsePolynomialTest extends TestCase {
 		assertEquals (fourXSquaredPlusFourXPlusOne, fourXSquaredPlusFourXPlusOne);
 	}
 
+	/**
+	 * Test method for {@link SparsePolynomial#fromTerms(int[], int[])}.
+	 */
+	public void testFromTerms() {
+		assertEquals (fourXSquaredPlusFourXPlusOne, SparsePolynomial.fromTerms(new int[] {0, 1, 2}, new int[] {1, 4, 4}));
+		int[] exps = {2, 1, -100, 1, 2, 0, 100, -100};
+		int[] coeffs = {3, 4, 7, 0, 1, 1, 1, -7};
+		assertEquals (fourXSquaredPlusFourXPlusOne.add(xTo100), SparsePolynomial.fromTerms(exps, coeffs));
+		assertEquals (-100, exps[2]);
+		assertTrue (SparsePolynomial.fromTerms(new int[] {5, 5}, new int[] {1 << 31, 1 << 31}).isZero());
+		assertTrue (SparsePolynomial.fromTerms(new int[0], new int[0]).wellFormed());
+
+		// Many shuffled terms, each exponent split in two
+		int n = 20000;
+		exps = new int[2 * n];
+		coeffs = new int[2 * n];
+		for (int i = 0; i < 2 * n; i++) {
+			exps[i] = (int) ((i % n) * 7919L % n) - n / 2;
+			coeffs[i] = i < n ? exps[i] : 1;
+		}
+		SparsePolynomial p = SparsePolynomial.fromTerms(exps, coeffs);
+		assertEquals (n - 1, p.termCount());
+		assertEquals (-n / 2 + 1, p.getCoeff(-n / 2));
+		assertEquals (0, p.getCoeff(-1));
+		assertTrue (p.wellFormed());
+		try {
+			SparsePolynomial.fromTerms(new int[1], new int[2]);
+			fail ("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
 	/**
 	 * Test method for {@link SparsePolynomial#equals(java.lang.Object)}.
 	 */
@@ -132,6 +382,13 @@ public class SparsePolynomialTest extends TestCase {
 		assertFalse (zero.equals(twoXplusOne));
 		assertFalse (zero.equals(one));
 		assertEquals (fourXSquaredPlusFourXPlusOne, new SparsePolynomial(4,2).add(new SparsePolynomial(4,1).add(one)));
+		
+		// Equal to the dense polynomial with the same terms, with the same hash code
+		Polynomial dense = new DensePolynomial(4,2).add(new DensePolynomial(4,1)).add(new DensePolynomial(1,0));
+		assertEquals (dense, fourXSquaredPlusFourXPlusOne);
+		assertEquals (dense.hashCode(), fourXSquaredPlusFourXPlusOne.hashCode());
+		assertFalse (xToNegative100.equals(new DensePolynomial(1, 100)));
+		assertFalse (twoXplusOne.equals(new DensePolynomial(2, 1)));
 	}
 
 }
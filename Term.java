@@ -74,16 +74,28 @@ public class Term {
 	 */
 	@Override
 	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		append(builder, coef, exp);
+		return builder.toString();
+	}
+
+	/**
+	 * Append the string representation of the term coef * x^exp to builder, without
+	 * creating a Term.
+	 * @param builder where the text is appended
+	 * @param coef the coefficient
+	 * @param exp the exponent
+	 */
+	static void append(StringBuilder builder, int coef, int exp) {
 		if (exp == 0) {
-			return "" + coef;
-		}
-		if (exp == 1) {
-			return "" + coef + "x";
-		}
-		if (coef == 1) {
-			return "x^" + exp;
+			builder.append(coef);
+		} else if (exp == 1) {
+			builder.append(coef).append('x');
+		} else if (coef == 1) {
+			builder.append("x^").append(exp);
+		} else {
+			builder.append(coef).append("x^").append(exp);
 		}
-		return "" + coef + "x^" + exp;
 	}
 
 }
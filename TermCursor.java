@@ -0,0 +1,262 @@
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * TermCursor walks the non-zero terms of a polynomial in ascending order of exponent,
+ * over a range of indexes into its storage.  It is both the TermIterator returned by
+ * terms() and the Spliterator behind iterators and streams of Terms.  trySplit hands the
+ * first half of the remaining range to a new cursor, so parallel streams split the
+ * storage directly.  Dense storage may hold zero coefficients, which are skipped.
+ *
+ * Each kind of storage has its own subclass, whose forEachRemaining is a plain loop over
+ * the storage.
+ *
+ * @author yuhu
+ *
+ */
+abstract class TermCursor implements TermIterator, Spliterator<Term> {
+
+	// Ranges shorter than this are not split
+	static final int SPLIT_THRESHOLD = 1024;
+
+	private static final Comparator<Term> BY_EXPONENT = Comparator.comparingInt(Term::getExponent);
+
+	// The next index to look at, and one past the last
+	long index;
+	long end;
+
+	private int coefficient;
+	private int exponent;
+	private boolean current;
+
+	TermCursor(long from, long to) {
+		index = from;
+		end = to;
+	}
+
+	/**
+	 * @return the coefficient stored at index i, which may be 0
+	 */
+	abstract int coefficientAt(long i);
+
+	/**
+	 * @return the exponent of the coefficient stored at index i
+	 */
+	abstract int exponentAt(long i);
+
+	/**
+	 * @return a new cursor over the indexes from to to - 1 of the same storage
+	 */
+	abstract TermCursor range(long from, long to);
+
+	/**
+	 * @return true if every index holds a term, so that the size of every range is known
+	 */
+	boolean exact() {
+		return false;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (index < end && coefficientAt(index) == 0) {
+			index++;
+		}
+		return index < end;
+	}
+
+	@Override
+	public void advance() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		coefficient = coefficientAt(index);
+		exponent = exponentAt(index);
+		current = true;
+		index++;
+	}
+
+	@Override
+	public int coefficient() {
+		if (!current) {
+			throw new IllegalStateException("advance() has not been called");
+		}
+		return coefficient;
+	}
+
+	@Override
+	public int exponent() {
+		if (!current) {
+			throw new IllegalStateException("advance() has not been called");
+		}
+		return exponent;
+	}
+
+	@Override
+	public void forEachRemaining(IntBinaryConsumer action) {
+		for (; index < end; index++) {
+			int c = coefficientAt(index);
+			if (c != 0) {
+				action.accept(c, exponentAt(index));
+			}
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Term> action) {
+		if (!hasNext()) {
+			return false;
+		}
+		advance();
+		action.accept(new Term(coefficient, exponent));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super Term> action) {
+		forEachRemaining((c, e) -> action.accept(new Term(c, e)));
+	}
+
+	@Override
+	public TermCursor trySplit() {
+		if (end - index < SPLIT_THRESHOLD) {
+			return null;
+		}
+		long middle = index + (end - index) / 2;
+		TermCursor prefix = range(index, middle);
+		index = middle;
+		return prefix;
+	}
+
+	/**
+	 * @return the number of indexes left, which is the number of terms left if exact()
+	 */
+	@Override
+	public long estimateSize() {
+		return end - index;
+	}
+
+	@Override
+	public int characteristics() {
+		int c = ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE;
+		return exact() ? c | SIZED | SUBSIZED : c;
+	}
+
+	@Override
+	public Comparator<? super Term> getComparator() {
+		return BY_EXPONENT;
+	}
+
+	/**
+	 * The terms of a dense array, where entry i is the coefficient of offset + i.
+	 */
+	static final class Dense extends TermCursor {
+		final private int[] arr;
+		final private int offset;
+
+		Dense(int[] arr, int offset, long from, long to) {
+			super(from, to);
+			this.arr = arr;
+			this.offset = offset;
+		}
+
+		@Override
+		int coefficientAt(long i) {
+			return arr[(int) i];
+		}
+
+		@Override
+		int exponentAt(long i) {
+			return offset + (int) i;
+		}
+
+		@Override
+		TermCursor range(long from, long to) {
+			return new Dense(arr, offset, from, to);
+		}
+
+		@Override
+		public void forEachRemaining(IntBinaryConsumer action) {
+			int to = (int) end;
+			for (int i = (int) index; i < to; i++) {
+				if (arr[i] != 0) {
+					action.accept(arr[i], offset + i);
+				}
+			}
+			index = end;
+		}
+	}
+
+	/**
+	 * The terms of parallel arrays of exponents and non-zero coefficients.
+	 */
+	static final class Sparse extends TermCursor {
+		final private int[] exps;
+		final private int[] coeffs;
+
+		Sparse(int[] exps, int[] coeffs, long from, long to) {
+			super(from, to);
+			this.exps = exps;
+			this.coeffs = coeffs;
+		}
+
+		@Override
+		int coefficientAt(long i) {
+			return coeffs[(int) i];
+		}
+
+		@Override
+		int exponentAt(long i) {
+			return exps[(int) i];
+		}
+
+		@Override
+		TermCursor range(long from, long to) {
+			return new Sparse(exps, coeffs, from, to);
+		}
+
+		@Override
+		boolean exact() {
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(IntBinaryConsumer action) {
+			int to = (int) end;
+			for (int i = (int) index; i < to; i++) {
+				action.accept(coeffs[i], exps[i]);
+			}
+			index = end;
+		}
+	}
+
+	/**
+	 * The terms of any polynomial, found by probing every exponent from min on.
+	 */
+	static final class Probing extends TermCursor {
+		final private Polynomial p;
+		final private int min;
+
+		Probing(Polynomial p, int min, long from, long to) {
+			super(from, to);
+			this.p = p;
+			this.min = min;
+		}
+
+		@Override
+		int coefficientAt(long i) {
+			return p.getCoeff(exponentAt(i));
+		}
+
+		@Override
+		int exponentAt(long i) {
+			return (int) (min + i);
+		}
+
+		@Override
+		TermCursor range(long from, long to) {
+			return new Probing(p, min, from, to);
+		}
+	}
+}
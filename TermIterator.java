@@ -0,0 +1,53 @@
+/**
+ * A TermIterator walks the non-zero terms of a polynomial from the lowest exponent to
+ * the highest without creating a Term for each one.  advance() moves to the next term,
+ * whose coefficient and exponent are then read with coefficient() and exponent().
+ *
+ *   TermIterator it = p.terms();
+ *   while (it.hasNext()) {
+ *       it.advance();
+ *       sum += it.coefficient();
+ *   }
+ *
+ * @author yuhu
+ *
+ */
+public interface TermIterator {
+
+	/**
+	 * @return true if there is another term
+	 */
+	public boolean hasNext();
+
+	/**
+	 * Moves to the next term.
+	 * 
+	 * @throws java.util.NoSuchElementException if there are no more terms
+	 */
+	public void advance();
+
+	/**
+	 * @return the coefficient of the current term, which is not 0
+	 * @throws IllegalStateException if advance() has not been called
+	 */
+	public int coefficient();
+
+	/**
+	 * @return the exponent of the current term
+	 * @throws IllegalStateException if advance() has not been called
+	 */
+	public int exponent();
+
+	/**
+	 * Passes each remaining term to action, coefficient first, and leaves the iterator
+	 * at the end.
+	 * 
+	 * @param action receives the coefficient and exponent of each term
+	 */
+	public default void forEachRemaining(IntBinaryConsumer action) {
+		while (hasNext()) {
+			advance();
+			action.accept(coefficient(), exponent());
+		}
+	}
+}
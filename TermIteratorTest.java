@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for terms(), forEachTerm and spliterator(), which walk the terms of every
+ * representation without probing getCoeff.
+ */
+public class TermIteratorTest extends TestCase {
+
+	/**
+	 * @return a dense polynomial of count coefficients from min, a third of them 0
+	 */
+	private static DensePolynomial dense(int min, int count) {
+		int[] arr = new int[count];
+		for (int i = 0; i < count; i++) {
+			arr[i] = i % 3 == 1 ? 0 : i * 7 - 5;
+		}
+		return DensePolynomial.trimmed(min, arr, count);
+	}
+
+	/**
+	 * @return the terms of p as "coefficient@exponent" strings, read by forEachTerm
+	 */
+	private static List<String> eachTerm(Polynomial p) {
+		List<String> terms = new ArrayList<String>();
+		p.forEachTerm((c, e) -> terms.add(c + "@" + e));
+		return terms;
+	}
+
+	/**
+	 * @return the terms of p as "coefficient@exponent" strings, read by terms()
+	 */
+	private static List<String> iterated(Polynomial p) {
+		List<String> terms = new ArrayList<String>();
+		TermIterator it = p.terms();
+		while (it.hasNext()) {
+			it.advance();
+			terms.add(it.coefficient() + "@" + it.exponent());
+		}
+		return terms;
+	}
+
+	/**
+	 * Test that every representation yields the same terms, in ascending order, and skips
+	 * the zeros of dense arrays.
+	 */
+	public void testTerms() {
+		DensePolynomial d = dense(-4, 10);
+		List<String> expected = new ArrayList<String>();
+		for (int exp = d.getMinExponent(); exp <= d.getMaxExponent(); exp++) {
+			if (d.getCoeff(exp) != 0) {
+				expected.add(d.getCoeff(exp) + "@" + exp);
+			}
+		}
+		assertEquals ("-5@-4", expected.get(0));
+		assertEquals (7, expected.size());
+
+		Polynomial sparse = SparsePolynomial.valueOf(d);
+		Polynomial adaptive = new PolynomialFactory(0, 0).valueOf(d);
+		Polynomial lazy = LazyPolynomial.valueOf(d).add(new DensePolynomial());
+		try (OffHeapArena arena = new OffHeapArena()) {
+			Polynomial offHeap = arena.valueOf(d);
+			for (Polynomial p : new Polynomial[] {d, sparse, adaptive, lazy, offHeap}) {
+				assertEquals (expected, iterated(p));
+				assertEquals (expected, eachTerm(p));
+				List<String> boxed = new ArrayList<String>();
+				for (Term t : p) {
+					boxed.add(t.getCoefficient() + "@" + t.getExponent());
+				}
+				assertEquals (expected, boxed);
+			}
+		}
+		assertTrue (eachTerm(new DensePolynomial()).isEmpty());
+		assertFalse (new SparsePolynomial().terms().hasNext());
+	}
+
+	/**
+	 * Test the errors of a TermIterator.
+	 */
+	public void testIteratorErrors() {
+		TermIterator it = new DensePolynomial(3, 2).terms();
+		try {
+			it.coefficient();
+			fail ("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		it.advance();
+		assertEquals (3, it.coefficient());
+		assertEquals (2, it.exponent());
+		try {
+			it.advance();
+			fail ("Expected NoSuchElementException");
+		} catch (NoSuchElementException e) {
+			// expected
+		}
+		try {
+			new SparsePolynomial(1, 0).iterator().remove();
+			fail ("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that the Spliterator splits and that parallel streams see every term once.
+	 */
+	public void testSpliterator() {
+		DensePolynomial d = dense(-100, 20000);
+		Spliterator<Term> s = d.spliterator();
+		assertTrue (s.hasCharacteristics(Spliterator.SORTED | Spliterator.IMMUTABLE));
+		Spliterator<Term> prefix = s.trySplit();
+		assertNotNull (prefix);
+		assertEquals (d.coefficients().length / 2, prefix.estimateSize());
+		assertEquals (d.coefficients().length, prefix.estimateSize() + s.estimateSize());
+
+		long sum = StreamSupport.stream(d.spliterator(), true).mapToLong(Term::getCoefficient).sum();
+		assertEquals (d.evaluate(1L), sum);
+		assertEquals (d.termCount(), StreamSupport.stream(d.spliterator(), true).count());
+
+		Polynomial sparse = SparsePolynomial.valueOf(d);
+		assertTrue (sparse.spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+		assertEquals (d.termCount(), sparse.spliterator().getExactSizeIfKnown());
+		int[] last = {Integer.MIN_VALUE};
+		StreamSupport.stream(sparse.spliterator(), true).forEachOrdered(t -> {
+			assertTrue (t.getExponent() > last[0]);
+			last[0] = t.getExponent();
+		});
+		assertEquals (d.getMaxExponent(), last[0]);
+	}
+}
@@ -0,0 +1,280 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * PolynomialBenchmark measures the time and heap allocation of every Polynomial operation
+ * for DensePolynomial, SparsePolynomial and mixed dense/sparse operands over a grid of
+ * degrees and densities.
+ *
+ * Each configuration is warmed up and then run repeatedly for a fixed time.  The results
+ * of every call are folded into a sink so the JIT cannot discard them.  Allocation is
+ * read from the per-thread allocation counter of the HotSpot ThreadMXBean.
+ *
+ * Options are given as key=value arguments:
+ *   ops=add,subtract,...        the operations to run (default: all)
+ *   reps=dense,sparse,mixed     the representations to run (default: all)
+ *   degrees=10,1000,...         the degrees of the operands (default: 10 to 10^6)
+ *   densities=0.001,0.1,...     the fraction of non-zero terms (default: 0.1% to 100%)
+ *   warmup=ms, time=ms          warm-up and measurement time per configuration
+ *   budget=ms                   larger degrees of an operation are skipped once a single
+ *                               call takes longer than this
+ *
+ * @author yuhu
+ *
+ */
+public class PolynomialBenchmark {
+
+	/**
+	 * A benchmarked operation applied to a pair of operands.
+	 */
+	interface Operation {
+		/**
+		 * @param p the first operand
+		 * @param q the second operand
+		 * @param exp an exponent to probe
+		 * @return a value derived from the result, so the work cannot be optimized away
+		 */
+		int run(Polynomial p, Polynomial q, int exp);
+	}
+
+	// All operations, by name.  Unary operations ignore q.
+	private static final Map<String, Operation> OPERATIONS = new LinkedHashMap<String, Operation>();
+	static {
+		OPERATIONS.put("add", (p, q, exp) -> p.add(q).getMaxExponent());
+		OPERATIONS.put("subtract", (p, q, exp) -> p.subtract(q).getMaxExponent());
+		OPERATIONS.put("multiply", (p, q, exp) -> p.multiply(3).getMaxExponent());
+		OPERATIONS.put("product", (p, q, exp) -> p.multiply(q).getMaxExponent());
+		OPERATIONS.put("minus", (p, q, exp) -> p.minus().getMaxExponent());
+		OPERATIONS.put("getCoeff", (p, q, exp) -> p.getCoeff(exp));
+		OPERATIONS.put("evaluate", (p, q, exp) -> Double.hashCode(p.evaluate(0.999)));
+		OPERATIONS.put("equals", (p, q, exp) -> p.equals(q) ? 1 : 0);
+		OPERATIONS.put("toString", (p, q, exp) -> p.toString().length());
+		OPERATIONS.put("wellFormed", (p, q, exp) -> p.wellFormed() ? 1 : 0);
+	}
+
+	// Operations that only make sense with two operands of different representations
+	private static final List<String> BINARY = Arrays.asList("add", "subtract", "product", "equals");
+
+	// The polynomial product is quadratic for sparse operands, so it stops at this degree
+	private static final int PRODUCT_MAX_DEGREE = 100000;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	// Receives the results of every call
+	private static int sink;
+
+	private final List<String> ops;
+	private final List<String> reps;
+	private final int[] degrees;
+	private final double[] densities;
+	private final long warmupNanos;
+	private final long timeNanos;
+	private final long budgetNanos;
+
+	/**
+	 * Creates a benchmark from key=value options
+	 * @param options the options, as described in the class comment
+	 */
+	public PolynomialBenchmark(Map<String, String> options) {
+		ops = Arrays.asList(option(options, "ops", String.join(",", OPERATIONS.keySet())).split(","));
+		reps = Arrays.asList(option(options, "reps", "dense,sparse,mixed").split(","));
+		degrees = Arrays.stream(option(options, "degrees", "10,100,1000,10000,100000,1000000")
+				.split(",")).mapToInt(Integer::parseInt).toArray();
+		densities = Arrays.stream(option(options, "densities", "0.001,0.01,0.1,1")
+				.split(",")).mapToDouble(Double::parseDouble).toArray();
+		warmupNanos = Long.parseLong(option(options, "warmup", "300")) * 1000000L;
+		timeNanos = Long.parseLong(option(options, "time", "1000")) * 1000000L;
+		budgetNanos = Long.parseLong(option(options, "budget", "5000")) * 1000000L;
+		for (String op : ops) {
+			if (!OPERATIONS.containsKey(op)) {
+				throw new IllegalArgumentException("Unknown operation: " + op);
+			}
+		}
+	}
+
+	private static String option(Map<String, String> options, String key, String defaultValue) {
+		String value = options.get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * Runs every configuration and prints one line per configuration.
+	 */
+	public void run() {
+		System.out.printf("%-10s %-13s %9s %8s %9s %15s %14s%n",
+				"op", "rep", "degree", "density", "terms", "ns/op", "B/op");
+		for (String op : ops) {
+			for (String rep : reps) {
+				if (rep.equals("mixed") && !BINARY.contains(op)) {
+					continue;
+				}
+				for (double density : densities) {
+					for (int degree : degrees) {
+						if (op.equals("product") && degree > PRODUCT_MAX_DEGREE) {
+							continue;
+						}
+						if (!runConfiguration(op, rep, degree, density)) {
+							// Larger degrees will take even longer
+							break;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs a single configuration.
+	 * @return false if a single call took longer than the budget
+	 */
+	private boolean runConfiguration(String op, String rep, int degree, double density) {
+		Random random = new Random(degree * 31L + Double.hashCode(density));
+		int[] exps = randomExponents(random, degree, density);
+		int[] coeffs = randomCoefficients(random, exps.length);
+		int[] otherExps = randomExponents(random, degree, density);
+		int[] otherCoeffs = randomCoefficients(random, otherExps.length);
+
+		Polynomial p;
+		Polynomial q;
+		if (rep.equals("dense")) {
+			p = dense(exps, coeffs);
+			q = dense(otherExps, otherCoeffs);
+		} else if (rep.equals("sparse")) {
+			p = new SparsePolynomial(exps, coeffs);
+			q = new SparsePolynomial(otherExps, otherCoeffs);
+		} else {
+			// Both orders of mixed operands are measured by alternating them
+			p = dense(exps, coeffs);
+			q = new SparsePolynomial(otherExps, otherCoeffs);
+		}
+		if (op.equals("equals")) {
+			// Equal operands are the expensive case
+			q = rep.equals("dense") ? dense(exps, coeffs) : new SparsePolynomial(exps.clone(), coeffs.clone());
+		}
+
+		Operation operation = OPERATIONS.get(op);
+		long start = System.nanoTime();
+		sink += operation.run(p, q, degree / 2);
+		long single = System.nanoTime() - start;
+		if (single > budgetNanos) {
+			report(op, rep, degree, density, exps.length, single, -1);
+			System.out.printf("%-10s %-13s skipping larger degrees: one call took longer than %d ms%n",
+					op, rep, budgetNanos / 1000000L);
+			return false;
+		}
+
+		measure(operation, p, q, exps, warmupNanos);
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+		start = System.nanoTime();
+		long calls = measure(operation, p, q, exps, timeNanos);
+		long elapsed = System.nanoTime() - start;
+		long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		report(op, rep, degree, density, exps.length, elapsed / calls, allocated / calls);
+		return true;
+	}
+
+	/**
+	 * Call operation repeatedly for at least the given time.  Mixed operands are used in
+	 * both orders and getCoeff probes a different exponent on each call.
+	 * @return the number of calls made
+	 */
+	private static long measure(Operation operation, Polynomial p, Polynomial q, int[] exps, long nanos) {
+		long calls = 0;
+		long deadline = System.nanoTime() + nanos;
+		int result = 0;
+		do {
+			for (int i = 0; i < 16; i++) {
+				int exp = exps[(int) (calls % exps.length)];
+				if ((calls & 1) == 0 || p.getClass() == q.getClass()) {
+					result += operation.run(p, q, exp);
+				} else {
+					result += operation.run(q, p, exp);
+				}
+				calls++;
+			}
+		} while (System.nanoTime() < deadline);
+		sink += result;
+		return calls;
+	}
+
+	private static void report(String op, String rep, int degree, double density, int terms,
+			long nanosPerOp, long bytesPerOp) {
+		System.out.printf("%-10s %-13s %9d %8s %9d %15d %14s%n", op,
+				rep.equals("mixed") ? "dense+sparse" : rep, degree, density * 100 + "%", terms,
+				nanosPerOp, bytesPerOp < 0 ? "-" : Long.toString(bytesPerOp));
+	}
+
+	/**
+	 * Return sorted distinct exponents in [0, degree] covering the given fraction of them,
+	 * always including degree itself.
+	 */
+	private static int[] randomExponents(Random random, int degree, double density) {
+		int terms = (int) Math.max(1, Math.round(density * (degree + 1)));
+		if (terms > degree) {
+			int[] all = new int[degree + 1];
+			for (int i = 0; i <= degree; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		// Selection sampling picks terms - 1 exponents below degree in ascending order
+		int[] exps = new int[terms];
+		int needed = terms - 1;
+		int k = 0;
+		for (int exp = 0; exp < degree && needed > 0; exp++) {
+			if (random.nextInt(degree - exp) < needed) {
+				exps[k] = exp;
+				k++;
+				needed--;
+			}
+		}
+		exps[k] = degree;
+		return exps;
+	}
+
+	private static int[] randomCoefficients(Random random, int terms) {
+		int[] coeffs = new int[terms];
+		for (int i = 0; i < terms; i++) {
+			do {
+				coeffs[i] = random.nextInt(2001) - 1000;
+			} while (coeffs[i] == 0);
+		}
+		return coeffs;
+	}
+
+	private static DensePolynomial dense(int[] exps, int[] coeffs) {
+		int[] arr = new int[exps[exps.length - 1] + 1];
+		for (int i = 0; i < exps.length; i++) {
+			arr[exps[i]] = coeffs[i];
+		}
+		return new DensePolynomial(arr);
+	}
+
+	public static void main(String[] args) {
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		List<String> unknown = new ArrayList<String>();
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0) {
+				unknown.add(arg);
+			} else {
+				options.put(arg.substring(0, eq), arg.substring(eq + 1));
+			}
+		}
+		if (!unknown.isEmpty()) {
+			System.err.println("Arguments must be key=value: " + unknown);
+			System.exit(1);
+		}
+		new PolynomialBenchmark(options).run();
+		if (sink == 42) {
+			System.out.println();
+		}
+	}
+}